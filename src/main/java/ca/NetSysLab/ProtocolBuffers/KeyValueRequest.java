@@ -1,5 +1,5 @@
 // Generated by the protocol buffer compiler.  DO NOT EDIT!
-// source: protos/KeyValueRequest.proto
+// source: KeyValueRequest.proto
 
 package ca.NetSysLab.ProtocolBuffers;
 
@@ -56,6 +56,136 @@ public final class KeyValueRequest {
      * @return The version.
      */
     int getVersion();
+
+    /**
+     * <code>optional bool acceptRedirect = 5;</code>
+     * @return Whether the acceptRedirect field is set.
+     */
+    boolean hasAcceptRedirect();
+    /**
+     * <code>optional bool acceptRedirect = 5;</code>
+     * @return The acceptRedirect.
+     */
+    boolean getAcceptRedirect();
+
+    /**
+     * <code>repeated .KVRequest.Record records = 6;</code>
+     */
+    java.util.List<ca.NetSysLab.ProtocolBuffers.KeyValueRequest.KVRequest.Record> 
+        getRecordsList();
+    /**
+     * <code>repeated .KVRequest.Record records = 6;</code>
+     */
+    ca.NetSysLab.ProtocolBuffers.KeyValueRequest.KVRequest.Record getRecords(int index);
+    /**
+     * <code>repeated .KVRequest.Record records = 6;</code>
+     */
+    int getRecordsCount();
+    /**
+     * <code>repeated .KVRequest.Record records = 6;</code>
+     */
+    java.util.List<? extends ca.NetSysLab.ProtocolBuffers.KeyValueRequest.KVRequest.RecordOrBuilder> 
+        getRecordsOrBuilderList();
+    /**
+     * <code>repeated .KVRequest.Record records = 6;</code>
+     */
+    ca.NetSysLab.ProtocolBuffers.KeyValueRequest.KVRequest.RecordOrBuilder getRecordsOrBuilder(
+        int index);
+
+    /**
+     * <code>repeated int32 digestNodes = 7;</code>
+     * @return A list containing the digestNodes.
+     */
+    java.util.List<java.lang.Integer> getDigestNodesList();
+    /**
+     * <code>repeated int32 digestNodes = 7;</code>
+     * @return The count of digestNodes.
+     */
+    int getDigestNodesCount();
+    /**
+     * <code>repeated int32 digestNodes = 7;</code>
+     * @param index The index of the element to return.
+     * @return The digestNodes at the given index.
+     */
+    int getDigestNodes(int index);
+
+    /**
+     * <code>optional int64 ringEpoch = 8;</code>
+     * @return Whether the ringEpoch field is set.
+     */
+    boolean hasRingEpoch();
+    /**
+     * <code>optional int64 ringEpoch = 8;</code>
+     * @return The ringEpoch.
+     */
+    long getRingEpoch();
+
+    /**
+     * <code>optional bool replica = 9;</code>
+     * @return Whether the replica field is set.
+     */
+    boolean hasReplica();
+    /**
+     * <code>optional bool replica = 9;</code>
+     * @return The replica.
+     */
+    boolean getReplica();
+
+    /**
+     * <code>optional string hint = 10;</code>
+     * @return Whether the hint field is set.
+     */
+    boolean hasHint();
+    /**
+     * <code>optional string hint = 10;</code>
+     * @return The hint.
+     */
+    java.lang.String getHint();
+    /**
+     * <code>optional string hint = 10;</code>
+     * @return The bytes for hint.
+     */
+    com.google.protobuf.ByteString
+        getHintBytes();
+
+    /**
+     * <code>optional int64 stamp = 11;</code>
+     * @return Whether the stamp field is set.
+     */
+    boolean hasStamp();
+    /**
+     * <code>optional int64 stamp = 11;</code>
+     * @return The stamp.
+     */
+    long getStamp();
+
+    /**
+     * <code>optional bool primaryRead = 12;</code>
+     * @return Whether the primaryRead field is set.
+     */
+    boolean hasPrimaryRead();
+    /**
+     * <code>optional bool primaryRead = 12;</code>
+     * @return The primaryRead.
+     */
+    boolean getPrimaryRead();
+
+    /**
+     * <code>optional string cacheFor = 13;</code>
+     * @return Whether the cacheFor field is set.
+     */
+    boolean hasCacheFor();
+    /**
+     * <code>optional string cacheFor = 13;</code>
+     * @return The cacheFor.
+     */
+    java.lang.String getCacheFor();
+    /**
+     * <code>optional string cacheFor = 13;</code>
+     * @return The bytes for cacheFor.
+     */
+    com.google.protobuf.ByteString
+        getCacheForBytes();
   }
   /**
    * Protobuf type {@code KVRequest}
@@ -72,6 +202,10 @@ public final class KeyValueRequest {
     private KVRequest() {
       key_ = com.google.protobuf.ByteString.EMPTY;
       value_ = com.google.protobuf.ByteString.EMPTY;
+      records_ = java.util.Collections.emptyList();
+      digestNodes_ = emptyIntList();
+      hint_ = "";
+      cacheFor_ = "";
     }
 
     @java.lang.Override
@@ -99,635 +233,2613 @@ public final class KeyValueRequest {
               ca.NetSysLab.ProtocolBuffers.KeyValueRequest.KVRequest.class, ca.NetSysLab.ProtocolBuffers.KeyValueRequest.KVRequest.Builder.class);
     }
 
-    private int bitField0_;
-    public static final int COMMAND_FIELD_NUMBER = 1;
-    private int command_ = 0;
-    /**
-     * <code>uint32 command = 1;</code>
-     * @return The command.
-     */
-    @java.lang.Override
-    public int getCommand() {
-      return command_;
-    }
+    public interface RecordOrBuilder extends
+        // @@protoc_insertion_point(interface_extends:KVRequest.Record)
+        com.google.protobuf.MessageOrBuilder {
 
-    public static final int KEY_FIELD_NUMBER = 2;
-    private com.google.protobuf.ByteString key_ = com.google.protobuf.ByteString.EMPTY;
-    /**
-     * <code>optional bytes key = 2;</code>
-     * @return Whether the key field is set.
-     */
-    @java.lang.Override
-    public boolean hasKey() {
-      return ((bitField0_ & 0x00000001) != 0);
-    }
-    /**
-     * <code>optional bytes key = 2;</code>
-     * @return The key.
-     */
-    @java.lang.Override
-    public com.google.protobuf.ByteString getKey() {
-      return key_;
-    }
+      /**
+       * <code>bytes key = 1;</code>
+       * @return The key.
+       */
+      com.google.protobuf.ByteString getKey();
 
-    public static final int VALUE_FIELD_NUMBER = 3;
-    private com.google.protobuf.ByteString value_ = com.google.protobuf.ByteString.EMPTY;
-    /**
-     * <code>optional bytes value = 3;</code>
-     * @return Whether the value field is set.
-     */
-    @java.lang.Override
-    public boolean hasValue() {
-      return ((bitField0_ & 0x00000002) != 0);
-    }
-    /**
-     * <code>optional bytes value = 3;</code>
-     * @return The value.
-     */
-    @java.lang.Override
-    public com.google.protobuf.ByteString getValue() {
-      return value_;
-    }
+      /**
+       * <code>bytes value = 2;</code>
+       * @return The value.
+       */
+      com.google.protobuf.ByteString getValue();
 
-    public static final int VERSION_FIELD_NUMBER = 4;
-    private int version_ = 0;
-    /**
-     * <code>optional int32 version = 4;</code>
-     * @return Whether the version field is set.
-     */
-    @java.lang.Override
-    public boolean hasVersion() {
-      return ((bitField0_ & 0x00000004) != 0);
+      /**
+       * <code>int32 version = 3;</code>
+       * @return The version.
+       */
+      int getVersion();
+
+      /**
+       * <code>int64 stamp = 4;</code>
+       * @return The stamp.
+       */
+      long getStamp();
     }
     /**
-     * <code>optional int32 version = 4;</code>
-     * @return The version.
+     * Protobuf type {@code KVRequest.Record}
      */
-    @java.lang.Override
-    public int getVersion() {
-      return version_;
-    }
-
-    private byte memoizedIsInitialized = -1;
-    @java.lang.Override
-    public final boolean isInitialized() {
-      byte isInitialized = memoizedIsInitialized;
-      if (isInitialized == 1) return true;
-      if (isInitialized == 0) return false;
-
-      memoizedIsInitialized = 1;
-      return true;
-    }
+    public static final class Record extends
+        com.google.protobuf.GeneratedMessageV3 implements
+        // @@protoc_insertion_point(message_implements:KVRequest.Record)
+        RecordOrBuilder {
+    private static final long serialVersionUID = 0L;
+      // Use Record.newBuilder() to construct.
+      private Record(com.google.protobuf.GeneratedMessageV3.Builder<?> builder) {
+        super(builder);
+      }
+      private Record() {
+        key_ = com.google.protobuf.ByteString.EMPTY;
+        value_ = com.google.protobuf.ByteString.EMPTY;
+      }
 
-    @java.lang.Override
-    public void writeTo(com.google.protobuf.CodedOutputStream output)
-                        throws java.io.IOException {
-      if (command_ != 0) {
-        output.writeUInt32(1, command_);
+      @java.lang.Override
+      @SuppressWarnings({"unused"})
+      protected java.lang.Object newInstance(
+          UnusedPrivateParameter unused) {
+        return new Record();
       }
-      if (((bitField0_ & 0x00000001) != 0)) {
-        output.writeBytes(2, key_);
+
+      @java.lang.Override
+      public final com.google.protobuf.UnknownFieldSet
+      getUnknownFields() {
+        return this.unknownFields;
       }
-      if (((bitField0_ & 0x00000002) != 0)) {
-        output.writeBytes(3, value_);
+      public static final com.google.protobuf.Descriptors.Descriptor
+          getDescriptor() {
+        return ca.NetSysLab.ProtocolBuffers.KeyValueRequest.internal_static_KVRequest_Record_descriptor;
       }
-      if (((bitField0_ & 0x00000004) != 0)) {
-        output.writeInt32(4, version_);
+
+      @java.lang.Override
+      protected com.google.protobuf.GeneratedMessageV3.FieldAccessorTable
+          internalGetFieldAccessorTable() {
+        return ca.NetSysLab.ProtocolBuffers.KeyValueRequest.internal_static_KVRequest_Record_fieldAccessorTable
+            .ensureFieldAccessorsInitialized(
+                ca.NetSysLab.ProtocolBuffers.KeyValueRequest.KVRequest.Record.class, ca.NetSysLab.ProtocolBuffers.KeyValueRequest.KVRequest.Record.Builder.class);
       }
-      getUnknownFields().writeTo(output);
-    }
 
-    @java.lang.Override
-    public int getSerializedSize() {
-      int size = memoizedSize;
-      if (size != -1) return size;
+      public static final int KEY_FIELD_NUMBER = 1;
+      private com.google.protobuf.ByteString key_ = com.google.protobuf.ByteString.EMPTY;
+      /**
+       * <code>bytes key = 1;</code>
+       * @return The key.
+       */
+      @java.lang.Override
+      public com.google.protobuf.ByteString getKey() {
+        return key_;
+      }
 
-      size = 0;
-      if (command_ != 0) {
-        size += com.google.protobuf.CodedOutputStream
-          .computeUInt32Size(1, command_);
+      public static final int VALUE_FIELD_NUMBER = 2;
+      private com.google.protobuf.ByteString value_ = com.google.protobuf.ByteString.EMPTY;
+      /**
+       * <code>bytes value = 2;</code>
+       * @return The value.
+       */
+      @java.lang.Override
+      public com.google.protobuf.ByteString getValue() {
+        return value_;
       }
-      if (((bitField0_ & 0x00000001) != 0)) {
-        size += com.google.protobuf.CodedOutputStream
-          .computeBytesSize(2, key_);
+
+      public static final int VERSION_FIELD_NUMBER = 3;
+      private int version_ = 0;
+      /**
+       * <code>int32 version = 3;</code>
+       * @return The version.
+       */
+      @java.lang.Override
+      public int getVersion() {
+        return version_;
       }
-      if (((bitField0_ & 0x00000002) != 0)) {
-        size += com.google.protobuf.CodedOutputStream
-          .computeBytesSize(3, value_);
+
+      public static final int STAMP_FIELD_NUMBER = 4;
+      private long stamp_ = 0L;
+      /**
+       * <code>int64 stamp = 4;</code>
+       * @return The stamp.
+       */
+      @java.lang.Override
+      public long getStamp() {
+        return stamp_;
       }
-      if (((bitField0_ & 0x00000004) != 0)) {
-        size += com.google.protobuf.CodedOutputStream
-          .computeInt32Size(4, version_);
+
+      private byte memoizedIsInitialized = -1;
+      @java.lang.Override
+      public final boolean isInitialized() {
+        byte isInitialized = memoizedIsInitialized;
+        if (isInitialized == 1) return true;
+        if (isInitialized == 0) return false;
+
+        memoizedIsInitialized = 1;
+        return true;
       }
-      size += getUnknownFields().getSerializedSize();
-      memoizedSize = size;
-      return size;
-    }
 
-    @java.lang.Override
-    public boolean equals(final java.lang.Object obj) {
-      if (obj == this) {
-       return true;
+      @java.lang.Override
+      public void writeTo(com.google.protobuf.CodedOutputStream output)
+                          throws java.io.IOException {
+        if (!key_.isEmpty()) {
+          output.writeBytes(1, key_);
+        }
+        if (!value_.isEmpty()) {
+          output.writeBytes(2, value_);
+        }
+        if (version_ != 0) {
+          output.writeInt32(3, version_);
+        }
+        if (stamp_ != 0L) {
+          output.writeInt64(4, stamp_);
+        }
+        getUnknownFields().writeTo(output);
       }
-      if (!(obj instanceof ca.NetSysLab.ProtocolBuffers.KeyValueRequest.KVRequest)) {
-        return super.equals(obj);
+
+      @java.lang.Override
+      public int getSerializedSize() {
+        int size = memoizedSize;
+        if (size != -1) return size;
+
+        size = 0;
+        if (!key_.isEmpty()) {
+          size += com.google.protobuf.CodedOutputStream
+            .computeBytesSize(1, key_);
+        }
+        if (!value_.isEmpty()) {
+          size += com.google.protobuf.CodedOutputStream
+            .computeBytesSize(2, value_);
+        }
+        if (version_ != 0) {
+          size += com.google.protobuf.CodedOutputStream
+            .computeInt32Size(3, version_);
+        }
+        if (stamp_ != 0L) {
+          size += com.google.protobuf.CodedOutputStream
+            .computeInt64Size(4, stamp_);
+        }
+        size += getUnknownFields().getSerializedSize();
+        memoizedSize = size;
+        return size;
       }
-      ca.NetSysLab.ProtocolBuffers.KeyValueRequest.KVRequest other = (ca.NetSysLab.ProtocolBuffers.KeyValueRequest.KVRequest) obj;
 
-      if (getCommand()
-          != other.getCommand()) return false;
-      if (hasKey() != other.hasKey()) return false;
-      if (hasKey()) {
+      @java.lang.Override
+      public boolean equals(final java.lang.Object obj) {
+        if (obj == this) {
+         return true;
+        }
+        if (!(obj instanceof ca.NetSysLab.ProtocolBuffers.KeyValueRequest.KVRequest.Record)) {
+          return super.equals(obj);
+        }
+        ca.NetSysLab.ProtocolBuffers.KeyValueRequest.KVRequest.Record other = (ca.NetSysLab.ProtocolBuffers.KeyValueRequest.KVRequest.Record) obj;
+
         if (!getKey()
             .equals(other.getKey())) return false;
-      }
-      if (hasValue() != other.hasValue()) return false;
-      if (hasValue()) {
         if (!getValue()
             .equals(other.getValue())) return false;
-      }
-      if (hasVersion() != other.hasVersion()) return false;
-      if (hasVersion()) {
         if (getVersion()
             != other.getVersion()) return false;
+        if (getStamp()
+            != other.getStamp()) return false;
+        if (!getUnknownFields().equals(other.getUnknownFields())) return false;
+        return true;
       }
-      if (!getUnknownFields().equals(other.getUnknownFields())) return false;
-      return true;
-    }
 
-    @java.lang.Override
-    public int hashCode() {
-      if (memoizedHashCode != 0) {
-        return memoizedHashCode;
-      }
-      int hash = 41;
-      hash = (19 * hash) + getDescriptor().hashCode();
-      hash = (37 * hash) + COMMAND_FIELD_NUMBER;
-      hash = (53 * hash) + getCommand();
-      if (hasKey()) {
+      @java.lang.Override
+      public int hashCode() {
+        if (memoizedHashCode != 0) {
+          return memoizedHashCode;
+        }
+        int hash = 41;
+        hash = (19 * hash) + getDescriptor().hashCode();
         hash = (37 * hash) + KEY_FIELD_NUMBER;
         hash = (53 * hash) + getKey().hashCode();
-      }
-      if (hasValue()) {
         hash = (37 * hash) + VALUE_FIELD_NUMBER;
         hash = (53 * hash) + getValue().hashCode();
-      }
-      if (hasVersion()) {
         hash = (37 * hash) + VERSION_FIELD_NUMBER;
         hash = (53 * hash) + getVersion();
+        hash = (37 * hash) + STAMP_FIELD_NUMBER;
+        hash = (53 * hash) + com.google.protobuf.Internal.hashLong(
+            getStamp());
+        hash = (29 * hash) + getUnknownFields().hashCode();
+        memoizedHashCode = hash;
+        return hash;
       }
-      hash = (29 * hash) + getUnknownFields().hashCode();
-      memoizedHashCode = hash;
-      return hash;
-    }
-
-    public static ca.NetSysLab.ProtocolBuffers.KeyValueRequest.KVRequest parseFrom(
-        java.nio.ByteBuffer data)
-        throws com.google.protobuf.InvalidProtocolBufferException {
-      return PARSER.parseFrom(data);
-    }
-    public static ca.NetSysLab.ProtocolBuffers.KeyValueRequest.KVRequest parseFrom(
-        java.nio.ByteBuffer data,
-        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
-        throws com.google.protobuf.InvalidProtocolBufferException {
-      return PARSER.parseFrom(data, extensionRegistry);
-    }
-    public static ca.NetSysLab.ProtocolBuffers.KeyValueRequest.KVRequest parseFrom(
-        com.google.protobuf.ByteString data)
-        throws com.google.protobuf.InvalidProtocolBufferException {
-      return PARSER.parseFrom(data);
-    }
-    public static ca.NetSysLab.ProtocolBuffers.KeyValueRequest.KVRequest parseFrom(
-        com.google.protobuf.ByteString data,
-        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
-        throws com.google.protobuf.InvalidProtocolBufferException {
-      return PARSER.parseFrom(data, extensionRegistry);
-    }
-    public static ca.NetSysLab.ProtocolBuffers.KeyValueRequest.KVRequest parseFrom(byte[] data)
-        throws com.google.protobuf.InvalidProtocolBufferException {
-      return PARSER.parseFrom(data);
-    }
-    public static ca.NetSysLab.ProtocolBuffers.KeyValueRequest.KVRequest parseFrom(
-        byte[] data,
-        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
-        throws com.google.protobuf.InvalidProtocolBufferException {
-      return PARSER.parseFrom(data, extensionRegistry);
-    }
-    public static ca.NetSysLab.ProtocolBuffers.KeyValueRequest.KVRequest parseFrom(java.io.InputStream input)
-        throws java.io.IOException {
-      return com.google.protobuf.GeneratedMessageV3
-          .parseWithIOException(PARSER, input);
-    }
-    public static ca.NetSysLab.ProtocolBuffers.KeyValueRequest.KVRequest parseFrom(
-        java.io.InputStream input,
-        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
-        throws java.io.IOException {
-      return com.google.protobuf.GeneratedMessageV3
-          .parseWithIOException(PARSER, input, extensionRegistry);
-    }
-    public static ca.NetSysLab.ProtocolBuffers.KeyValueRequest.KVRequest parseDelimitedFrom(java.io.InputStream input)
-        throws java.io.IOException {
-      return com.google.protobuf.GeneratedMessageV3
-          .parseDelimitedWithIOException(PARSER, input);
-    }
-    public static ca.NetSysLab.ProtocolBuffers.KeyValueRequest.KVRequest parseDelimitedFrom(
-        java.io.InputStream input,
-        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
-        throws java.io.IOException {
-      return com.google.protobuf.GeneratedMessageV3
-          .parseDelimitedWithIOException(PARSER, input, extensionRegistry);
-    }
-    public static ca.NetSysLab.ProtocolBuffers.KeyValueRequest.KVRequest parseFrom(
-        com.google.protobuf.CodedInputStream input)
-        throws java.io.IOException {
-      return com.google.protobuf.GeneratedMessageV3
-          .parseWithIOException(PARSER, input);
-    }
-    public static ca.NetSysLab.ProtocolBuffers.KeyValueRequest.KVRequest parseFrom(
-        com.google.protobuf.CodedInputStream input,
-        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
-        throws java.io.IOException {
-      return com.google.protobuf.GeneratedMessageV3
-          .parseWithIOException(PARSER, input, extensionRegistry);
-    }
-
-    @java.lang.Override
-    public Builder newBuilderForType() { return newBuilder(); }
-    public static Builder newBuilder() {
-      return DEFAULT_INSTANCE.toBuilder();
-    }
-    public static Builder newBuilder(ca.NetSysLab.ProtocolBuffers.KeyValueRequest.KVRequest prototype) {
-      return DEFAULT_INSTANCE.toBuilder().mergeFrom(prototype);
-    }
-    @java.lang.Override
-    public Builder toBuilder() {
-      return this == DEFAULT_INSTANCE
-          ? new Builder() : new Builder().mergeFrom(this);
-    }
 
-    @java.lang.Override
-    protected Builder newBuilderForType(
-        com.google.protobuf.GeneratedMessageV3.BuilderParent parent) {
-      Builder builder = new Builder(parent);
-      return builder;
-    }
-    /**
-     * Protobuf type {@code KVRequest}
-     */
-    public static final class Builder extends
-        com.google.protobuf.GeneratedMessageV3.Builder<Builder> implements
-        // @@protoc_insertion_point(builder_implements:KVRequest)
-        ca.NetSysLab.ProtocolBuffers.KeyValueRequest.KVRequestOrBuilder {
-      public static final com.google.protobuf.Descriptors.Descriptor
-          getDescriptor() {
-        return ca.NetSysLab.ProtocolBuffers.KeyValueRequest.internal_static_KVRequest_descriptor;
+      public static ca.NetSysLab.ProtocolBuffers.KeyValueRequest.KVRequest.Record parseFrom(
+          java.nio.ByteBuffer data)
+          throws com.google.protobuf.InvalidProtocolBufferException {
+        return PARSER.parseFrom(data);
       }
-
-      @java.lang.Override
-      protected com.google.protobuf.GeneratedMessageV3.FieldAccessorTable
-          internalGetFieldAccessorTable() {
-        return ca.NetSysLab.ProtocolBuffers.KeyValueRequest.internal_static_KVRequest_fieldAccessorTable
-            .ensureFieldAccessorsInitialized(
-                ca.NetSysLab.ProtocolBuffers.KeyValueRequest.KVRequest.class, ca.NetSysLab.ProtocolBuffers.KeyValueRequest.KVRequest.Builder.class);
+      public static ca.NetSysLab.ProtocolBuffers.KeyValueRequest.KVRequest.Record parseFrom(
+          java.nio.ByteBuffer data,
+          com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+          throws com.google.protobuf.InvalidProtocolBufferException {
+        return PARSER.parseFrom(data, extensionRegistry);
       }
-
-      // Construct using ca.NetSysLab.ProtocolBuffers.KeyValueRequest.KVRequest.newBuilder()
-      private Builder() {
-
+      public static ca.NetSysLab.ProtocolBuffers.KeyValueRequest.KVRequest.Record parseFrom(
+          com.google.protobuf.ByteString data)
+          throws com.google.protobuf.InvalidProtocolBufferException {
+        return PARSER.parseFrom(data);
       }
-
-      private Builder(
-          com.google.protobuf.GeneratedMessageV3.BuilderParent parent) {
-        super(parent);
-
+      public static ca.NetSysLab.ProtocolBuffers.KeyValueRequest.KVRequest.Record parseFrom(
+          com.google.protobuf.ByteString data,
+          com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+          throws com.google.protobuf.InvalidProtocolBufferException {
+        return PARSER.parseFrom(data, extensionRegistry);
       }
-      @java.lang.Override
-      public Builder clear() {
-        super.clear();
-        bitField0_ = 0;
-        command_ = 0;
-        key_ = com.google.protobuf.ByteString.EMPTY;
-        value_ = com.google.protobuf.ByteString.EMPTY;
-        version_ = 0;
-        return this;
+      public static ca.NetSysLab.ProtocolBuffers.KeyValueRequest.KVRequest.Record parseFrom(byte[] data)
+          throws com.google.protobuf.InvalidProtocolBufferException {
+        return PARSER.parseFrom(data);
       }
-
-      @java.lang.Override
-      public com.google.protobuf.Descriptors.Descriptor
-          getDescriptorForType() {
-        return ca.NetSysLab.ProtocolBuffers.KeyValueRequest.internal_static_KVRequest_descriptor;
+      public static ca.NetSysLab.ProtocolBuffers.KeyValueRequest.KVRequest.Record parseFrom(
+          byte[] data,
+          com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+          throws com.google.protobuf.InvalidProtocolBufferException {
+        return PARSER.parseFrom(data, extensionRegistry);
+      }
+      public static ca.NetSysLab.ProtocolBuffers.KeyValueRequest.KVRequest.Record parseFrom(java.io.InputStream input)
+          throws java.io.IOException {
+        return com.google.protobuf.GeneratedMessageV3
+            .parseWithIOException(PARSER, input);
+      }
+      public static ca.NetSysLab.ProtocolBuffers.KeyValueRequest.KVRequest.Record parseFrom(
+          java.io.InputStream input,
+          com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+          throws java.io.IOException {
+        return com.google.protobuf.GeneratedMessageV3
+            .parseWithIOException(PARSER, input, extensionRegistry);
+      }
+      public static ca.NetSysLab.ProtocolBuffers.KeyValueRequest.KVRequest.Record parseDelimitedFrom(java.io.InputStream input)
+          throws java.io.IOException {
+        return com.google.protobuf.GeneratedMessageV3
+            .parseDelimitedWithIOException(PARSER, input);
+      }
+      public static ca.NetSysLab.ProtocolBuffers.KeyValueRequest.KVRequest.Record parseDelimitedFrom(
+          java.io.InputStream input,
+          com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+          throws java.io.IOException {
+        return com.google.protobuf.GeneratedMessageV3
+            .parseDelimitedWithIOException(PARSER, input, extensionRegistry);
+      }
+      public static ca.NetSysLab.ProtocolBuffers.KeyValueRequest.KVRequest.Record parseFrom(
+          com.google.protobuf.CodedInputStream input)
+          throws java.io.IOException {
+        return com.google.protobuf.GeneratedMessageV3
+            .parseWithIOException(PARSER, input);
+      }
+      public static ca.NetSysLab.ProtocolBuffers.KeyValueRequest.KVRequest.Record parseFrom(
+          com.google.protobuf.CodedInputStream input,
+          com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+          throws java.io.IOException {
+        return com.google.protobuf.GeneratedMessageV3
+            .parseWithIOException(PARSER, input, extensionRegistry);
       }
 
       @java.lang.Override
-      public ca.NetSysLab.ProtocolBuffers.KeyValueRequest.KVRequest getDefaultInstanceForType() {
-        return ca.NetSysLab.ProtocolBuffers.KeyValueRequest.KVRequest.getDefaultInstance();
+      public Builder newBuilderForType() { return newBuilder(); }
+      public static Builder newBuilder() {
+        return DEFAULT_INSTANCE.toBuilder();
+      }
+      public static Builder newBuilder(ca.NetSysLab.ProtocolBuffers.KeyValueRequest.KVRequest.Record prototype) {
+        return DEFAULT_INSTANCE.toBuilder().mergeFrom(prototype);
       }
-
       @java.lang.Override
-      public ca.NetSysLab.ProtocolBuffers.KeyValueRequest.KVRequest build() {
-        ca.NetSysLab.ProtocolBuffers.KeyValueRequest.KVRequest result = buildPartial();
-        if (!result.isInitialized()) {
-          throw newUninitializedMessageException(result);
-        }
-        return result;
+      public Builder toBuilder() {
+        return this == DEFAULT_INSTANCE
+            ? new Builder() : new Builder().mergeFrom(this);
       }
 
       @java.lang.Override
-      public ca.NetSysLab.ProtocolBuffers.KeyValueRequest.KVRequest buildPartial() {
-        ca.NetSysLab.ProtocolBuffers.KeyValueRequest.KVRequest result = new ca.NetSysLab.ProtocolBuffers.KeyValueRequest.KVRequest(this);
-        if (bitField0_ != 0) { buildPartial0(result); }
-        onBuilt();
-        return result;
+      protected Builder newBuilderForType(
+          com.google.protobuf.GeneratedMessageV3.BuilderParent parent) {
+        Builder builder = new Builder(parent);
+        return builder;
       }
+      /**
+       * Protobuf type {@code KVRequest.Record}
+       */
+      public static final class Builder extends
+          com.google.protobuf.GeneratedMessageV3.Builder<Builder> implements
+          // @@protoc_insertion_point(builder_implements:KVRequest.Record)
+          ca.NetSysLab.ProtocolBuffers.KeyValueRequest.KVRequest.RecordOrBuilder {
+        public static final com.google.protobuf.Descriptors.Descriptor
+            getDescriptor() {
+          return ca.NetSysLab.ProtocolBuffers.KeyValueRequest.internal_static_KVRequest_Record_descriptor;
+        }
 
-      private void buildPartial0(ca.NetSysLab.ProtocolBuffers.KeyValueRequest.KVRequest result) {
-        int from_bitField0_ = bitField0_;
-        if (((from_bitField0_ & 0x00000001) != 0)) {
-          result.command_ = command_;
+        @java.lang.Override
+        protected com.google.protobuf.GeneratedMessageV3.FieldAccessorTable
+            internalGetFieldAccessorTable() {
+          return ca.NetSysLab.ProtocolBuffers.KeyValueRequest.internal_static_KVRequest_Record_fieldAccessorTable
+              .ensureFieldAccessorsInitialized(
+                  ca.NetSysLab.ProtocolBuffers.KeyValueRequest.KVRequest.Record.class, ca.NetSysLab.ProtocolBuffers.KeyValueRequest.KVRequest.Record.Builder.class);
         }
-        int to_bitField0_ = 0;
-        if (((from_bitField0_ & 0x00000002) != 0)) {
-          result.key_ = key_;
-          to_bitField0_ |= 0x00000001;
+
+        // Construct using ca.NetSysLab.ProtocolBuffers.KeyValueRequest.KVRequest.Record.newBuilder()
+        private Builder() {
+
         }
-        if (((from_bitField0_ & 0x00000004) != 0)) {
-          result.value_ = value_;
-          to_bitField0_ |= 0x00000002;
+
+        private Builder(
+            com.google.protobuf.GeneratedMessageV3.BuilderParent parent) {
+          super(parent);
+
         }
-        if (((from_bitField0_ & 0x00000008) != 0)) {
-          result.version_ = version_;
-          to_bitField0_ |= 0x00000004;
+        @java.lang.Override
+        public Builder clear() {
+          super.clear();
+          bitField0_ = 0;
+          key_ = com.google.protobuf.ByteString.EMPTY;
+          value_ = com.google.protobuf.ByteString.EMPTY;
+          version_ = 0;
+          stamp_ = 0L;
+          return this;
         }
-        result.bitField0_ |= to_bitField0_;
+
+        @java.lang.Override
+        public com.google.protobuf.Descriptors.Descriptor
+            getDescriptorForType() {
+          return ca.NetSysLab.ProtocolBuffers.KeyValueRequest.internal_static_KVRequest_Record_descriptor;
+        }
+
+        @java.lang.Override
+        public ca.NetSysLab.ProtocolBuffers.KeyValueRequest.KVRequest.Record getDefaultInstanceForType() {
+          return ca.NetSysLab.ProtocolBuffers.KeyValueRequest.KVRequest.Record.getDefaultInstance();
+        }
+
+        @java.lang.Override
+        public ca.NetSysLab.ProtocolBuffers.KeyValueRequest.KVRequest.Record build() {
+          ca.NetSysLab.ProtocolBuffers.KeyValueRequest.KVRequest.Record result = buildPartial();
+          if (!result.isInitialized()) {
+            throw newUninitializedMessageException(result);
+          }
+          return result;
+        }
+
+        @java.lang.Override
+        public ca.NetSysLab.ProtocolBuffers.KeyValueRequest.KVRequest.Record buildPartial() {
+          ca.NetSysLab.ProtocolBuffers.KeyValueRequest.KVRequest.Record result = new ca.NetSysLab.ProtocolBuffers.KeyValueRequest.KVRequest.Record(this);
+          if (bitField0_ != 0) { buildPartial0(result); }
+          onBuilt();
+          return result;
+        }
+
+        private void buildPartial0(ca.NetSysLab.ProtocolBuffers.KeyValueRequest.KVRequest.Record result) {
+          int from_bitField0_ = bitField0_;
+          if (((from_bitField0_ & 0x00000001) != 0)) {
+            result.key_ = key_;
+          }
+          if (((from_bitField0_ & 0x00000002) != 0)) {
+            result.value_ = value_;
+          }
+          if (((from_bitField0_ & 0x00000004) != 0)) {
+            result.version_ = version_;
+          }
+          if (((from_bitField0_ & 0x00000008) != 0)) {
+            result.stamp_ = stamp_;
+          }
+        }
+
+        @java.lang.Override
+        public Builder clone() {
+          return super.clone();
+        }
+        @java.lang.Override
+        public Builder setField(
+            com.google.protobuf.Descriptors.FieldDescriptor field,
+            java.lang.Object value) {
+          return super.setField(field, value);
+        }
+        @java.lang.Override
+        public Builder clearField(
+            com.google.protobuf.Descriptors.FieldDescriptor field) {
+          return super.clearField(field);
+        }
+        @java.lang.Override
+        public Builder clearOneof(
+            com.google.protobuf.Descriptors.OneofDescriptor oneof) {
+          return super.clearOneof(oneof);
+        }
+        @java.lang.Override
+        public Builder setRepeatedField(
+            com.google.protobuf.Descriptors.FieldDescriptor field,
+            int index, java.lang.Object value) {
+          return super.setRepeatedField(field, index, value);
+        }
+        @java.lang.Override
+        public Builder addRepeatedField(
+            com.google.protobuf.Descriptors.FieldDescriptor field,
+            java.lang.Object value) {
+          return super.addRepeatedField(field, value);
+        }
+        @java.lang.Override
+        public Builder mergeFrom(com.google.protobuf.Message other) {
+          if (other instanceof ca.NetSysLab.ProtocolBuffers.KeyValueRequest.KVRequest.Record) {
+            return mergeFrom((ca.NetSysLab.ProtocolBuffers.KeyValueRequest.KVRequest.Record)other);
+          } else {
+            super.mergeFrom(other);
+            return this;
+          }
+        }
+
+        public Builder mergeFrom(ca.NetSysLab.ProtocolBuffers.KeyValueRequest.KVRequest.Record other) {
+          if (other == ca.NetSysLab.ProtocolBuffers.KeyValueRequest.KVRequest.Record.getDefaultInstance()) return this;
+          if (other.getKey() != com.google.protobuf.ByteString.EMPTY) {
+            setKey(other.getKey());
+          }
+          if (other.getValue() != com.google.protobuf.ByteString.EMPTY) {
+            setValue(other.getValue());
+          }
+          if (other.getVersion() != 0) {
+            setVersion(other.getVersion());
+          }
+          if (other.getStamp() != 0L) {
+            setStamp(other.getStamp());
+          }
+          this.mergeUnknownFields(other.getUnknownFields());
+          onChanged();
+          return this;
+        }
+
+        @java.lang.Override
+        public final boolean isInitialized() {
+          return true;
+        }
+
+        @java.lang.Override
+        public Builder mergeFrom(
+            com.google.protobuf.CodedInputStream input,
+            com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+            throws java.io.IOException {
+          if (extensionRegistry == null) {
+            throw new java.lang.NullPointerException();
+          }
+          try {
+            boolean done = false;
+            while (!done) {
+              int tag = input.readTag();
+              switch (tag) {
+                case 0:
+                  done = true;
+                  break;
+                case 10: {
+                  key_ = input.readBytes();
+                  bitField0_ |= 0x00000001;
+                  break;
+                } // case 10
+                case 18: {
+                  value_ = input.readBytes();
+                  bitField0_ |= 0x00000002;
+                  break;
+                } // case 18
+                case 24: {
+                  version_ = input.readInt32();
+                  bitField0_ |= 0x00000004;
+                  break;
+                } // case 24
+                case 32: {
+                  stamp_ = input.readInt64();
+                  bitField0_ |= 0x00000008;
+                  break;
+                } // case 32
+                default: {
+                  if (!super.parseUnknownField(input, extensionRegistry, tag)) {
+                    done = true; // was an endgroup tag
+                  }
+                  break;
+                } // default:
+              } // switch (tag)
+            } // while (!done)
+          } catch (com.google.protobuf.InvalidProtocolBufferException e) {
+            throw e.unwrapIOException();
+          } finally {
+            onChanged();
+          } // finally
+          return this;
+        }
+        private int bitField0_;
+
+        private com.google.protobuf.ByteString key_ = com.google.protobuf.ByteString.EMPTY;
+        /**
+         * <code>bytes key = 1;</code>
+         * @return The key.
+         */
+        @java.lang.Override
+        public com.google.protobuf.ByteString getKey() {
+          return key_;
+        }
+        /**
+         * <code>bytes key = 1;</code>
+         * @param value The key to set.
+         * @return This builder for chaining.
+         */
+        public Builder setKey(com.google.protobuf.ByteString value) {
+          if (value == null) { throw new NullPointerException(); }
+          key_ = value;
+          bitField0_ |= 0x00000001;
+          onChanged();
+          return this;
+        }
+        /**
+         * <code>bytes key = 1;</code>
+         * @return This builder for chaining.
+         */
+        public Builder clearKey() {
+          bitField0_ = (bitField0_ & ~0x00000001);
+          key_ = getDefaultInstance().getKey();
+          onChanged();
+          return this;
+        }
+
+        private com.google.protobuf.ByteString value_ = com.google.protobuf.ByteString.EMPTY;
+        /**
+         * <code>bytes value = 2;</code>
+         * @return The value.
+         */
+        @java.lang.Override
+        public com.google.protobuf.ByteString getValue() {
+          return value_;
+        }
+        /**
+         * <code>bytes value = 2;</code>
+         * @param value The value to set.
+         * @return This builder for chaining.
+         */
+        public Builder setValue(com.google.protobuf.ByteString value) {
+          if (value == null) { throw new NullPointerException(); }
+          value_ = value;
+          bitField0_ |= 0x00000002;
+          onChanged();
+          return this;
+        }
+        /**
+         * <code>bytes value = 2;</code>
+         * @return This builder for chaining.
+         */
+        public Builder clearValue() {
+          bitField0_ = (bitField0_ & ~0x00000002);
+          value_ = getDefaultInstance().getValue();
+          onChanged();
+          return this;
+        }
+
+        private int version_ ;
+        /**
+         * <code>int32 version = 3;</code>
+         * @return The version.
+         */
+        @java.lang.Override
+        public int getVersion() {
+          return version_;
+        }
+        /**
+         * <code>int32 version = 3;</code>
+         * @param value The version to set.
+         * @return This builder for chaining.
+         */
+        public Builder setVersion(int value) {
+          
+          version_ = value;
+          bitField0_ |= 0x00000004;
+          onChanged();
+          return this;
+        }
+        /**
+         * <code>int32 version = 3;</code>
+         * @return This builder for chaining.
+         */
+        public Builder clearVersion() {
+          bitField0_ = (bitField0_ & ~0x00000004);
+          version_ = 0;
+          onChanged();
+          return this;
+        }
+
+        private long stamp_ ;
+        /**
+         * <code>int64 stamp = 4;</code>
+         * @return The stamp.
+         */
+        @java.lang.Override
+        public long getStamp() {
+          return stamp_;
+        }
+        /**
+         * <code>int64 stamp = 4;</code>
+         * @param value The stamp to set.
+         * @return This builder for chaining.
+         */
+        public Builder setStamp(long value) {
+          
+          stamp_ = value;
+          bitField0_ |= 0x00000008;
+          onChanged();
+          return this;
+        }
+        /**
+         * <code>int64 stamp = 4;</code>
+         * @return This builder for chaining.
+         */
+        public Builder clearStamp() {
+          bitField0_ = (bitField0_ & ~0x00000008);
+          stamp_ = 0L;
+          onChanged();
+          return this;
+        }
+        @java.lang.Override
+        public final Builder setUnknownFields(
+            final com.google.protobuf.UnknownFieldSet unknownFields) {
+          return super.setUnknownFields(unknownFields);
+        }
+
+        @java.lang.Override
+        public final Builder mergeUnknownFields(
+            final com.google.protobuf.UnknownFieldSet unknownFields) {
+          return super.mergeUnknownFields(unknownFields);
+        }
+
+
+        // @@protoc_insertion_point(builder_scope:KVRequest.Record)
+      }
+
+      // @@protoc_insertion_point(class_scope:KVRequest.Record)
+      private static final ca.NetSysLab.ProtocolBuffers.KeyValueRequest.KVRequest.Record DEFAULT_INSTANCE;
+      static {
+        DEFAULT_INSTANCE = new ca.NetSysLab.ProtocolBuffers.KeyValueRequest.KVRequest.Record();
+      }
+
+      public static ca.NetSysLab.ProtocolBuffers.KeyValueRequest.KVRequest.Record getDefaultInstance() {
+        return DEFAULT_INSTANCE;
+      }
+
+      private static final com.google.protobuf.Parser<Record>
+          PARSER = new com.google.protobuf.AbstractParser<Record>() {
+        @java.lang.Override
+        public Record parsePartialFrom(
+            com.google.protobuf.CodedInputStream input,
+            com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+            throws com.google.protobuf.InvalidProtocolBufferException {
+          Builder builder = newBuilder();
+          try {
+            builder.mergeFrom(input, extensionRegistry);
+          } catch (com.google.protobuf.InvalidProtocolBufferException e) {
+            throw e.setUnfinishedMessage(builder.buildPartial());
+          } catch (com.google.protobuf.UninitializedMessageException e) {
+            throw e.asInvalidProtocolBufferException().setUnfinishedMessage(builder.buildPartial());
+          } catch (java.io.IOException e) {
+            throw new com.google.protobuf.InvalidProtocolBufferException(e)
+                .setUnfinishedMessage(builder.buildPartial());
+          }
+          return builder.buildPartial();
+        }
+      };
+
+      public static com.google.protobuf.Parser<Record> parser() {
+        return PARSER;
+      }
+
+      @java.lang.Override
+      public com.google.protobuf.Parser<Record> getParserForType() {
+        return PARSER;
+      }
+
+      @java.lang.Override
+      public ca.NetSysLab.ProtocolBuffers.KeyValueRequest.KVRequest.Record getDefaultInstanceForType() {
+        return DEFAULT_INSTANCE;
+      }
+
+    }
+
+    private int bitField0_;
+    public static final int COMMAND_FIELD_NUMBER = 1;
+    private int command_ = 0;
+    /**
+     * <code>uint32 command = 1;</code>
+     * @return The command.
+     */
+    @java.lang.Override
+    public int getCommand() {
+      return command_;
+    }
+
+    public static final int KEY_FIELD_NUMBER = 2;
+    private com.google.protobuf.ByteString key_ = com.google.protobuf.ByteString.EMPTY;
+    /**
+     * <code>optional bytes key = 2;</code>
+     * @return Whether the key field is set.
+     */
+    @java.lang.Override
+    public boolean hasKey() {
+      return ((bitField0_ & 0x00000001) != 0);
+    }
+    /**
+     * <code>optional bytes key = 2;</code>
+     * @return The key.
+     */
+    @java.lang.Override
+    public com.google.protobuf.ByteString getKey() {
+      return key_;
+    }
+
+    public static final int VALUE_FIELD_NUMBER = 3;
+    private com.google.protobuf.ByteString value_ = com.google.protobuf.ByteString.EMPTY;
+    /**
+     * <code>optional bytes value = 3;</code>
+     * @return Whether the value field is set.
+     */
+    @java.lang.Override
+    public boolean hasValue() {
+      return ((bitField0_ & 0x00000002) != 0);
+    }
+    /**
+     * <code>optional bytes value = 3;</code>
+     * @return The value.
+     */
+    @java.lang.Override
+    public com.google.protobuf.ByteString getValue() {
+      return value_;
+    }
+
+    public static final int VERSION_FIELD_NUMBER = 4;
+    private int version_ = 0;
+    /**
+     * <code>optional int32 version = 4;</code>
+     * @return Whether the version field is set.
+     */
+    @java.lang.Override
+    public boolean hasVersion() {
+      return ((bitField0_ & 0x00000004) != 0);
+    }
+    /**
+     * <code>optional int32 version = 4;</code>
+     * @return The version.
+     */
+    @java.lang.Override
+    public int getVersion() {
+      return version_;
+    }
+
+    public static final int ACCEPTREDIRECT_FIELD_NUMBER = 5;
+    private boolean acceptRedirect_ = false;
+    /**
+     * <code>optional bool acceptRedirect = 5;</code>
+     * @return Whether the acceptRedirect field is set.
+     */
+    @java.lang.Override
+    public boolean hasAcceptRedirect() {
+      return ((bitField0_ & 0x00000008) != 0);
+    }
+    /**
+     * <code>optional bool acceptRedirect = 5;</code>
+     * @return The acceptRedirect.
+     */
+    @java.lang.Override
+    public boolean getAcceptRedirect() {
+      return acceptRedirect_;
+    }
+
+    public static final int RECORDS_FIELD_NUMBER = 6;
+    @SuppressWarnings("serial")
+    private java.util.List<ca.NetSysLab.ProtocolBuffers.KeyValueRequest.KVRequest.Record> records_;
+    /**
+     * <code>repeated .KVRequest.Record records = 6;</code>
+     */
+    @java.lang.Override
+    public java.util.List<ca.NetSysLab.ProtocolBuffers.KeyValueRequest.KVRequest.Record> getRecordsList() {
+      return records_;
+    }
+    /**
+     * <code>repeated .KVRequest.Record records = 6;</code>
+     */
+    @java.lang.Override
+    public java.util.List<? extends ca.NetSysLab.ProtocolBuffers.KeyValueRequest.KVRequest.RecordOrBuilder> 
+        getRecordsOrBuilderList() {
+      return records_;
+    }
+    /**
+     * <code>repeated .KVRequest.Record records = 6;</code>
+     */
+    @java.lang.Override
+    public int getRecordsCount() {
+      return records_.size();
+    }
+    /**
+     * <code>repeated .KVRequest.Record records = 6;</code>
+     */
+    @java.lang.Override
+    public ca.NetSysLab.ProtocolBuffers.KeyValueRequest.KVRequest.Record getRecords(int index) {
+      return records_.get(index);
+    }
+    /**
+     * <code>repeated .KVRequest.Record records = 6;</code>
+     */
+    @java.lang.Override
+    public ca.NetSysLab.ProtocolBuffers.KeyValueRequest.KVRequest.RecordOrBuilder getRecordsOrBuilder(
+        int index) {
+      return records_.get(index);
+    }
+
+    public static final int DIGESTNODES_FIELD_NUMBER = 7;
+    @SuppressWarnings("serial")
+    private com.google.protobuf.Internal.IntList digestNodes_;
+    /**
+     * <code>repeated int32 digestNodes = 7;</code>
+     * @return A list containing the digestNodes.
+     */
+    @java.lang.Override
+    public java.util.List<java.lang.Integer>
+        getDigestNodesList() {
+      return digestNodes_;
+    }
+    /**
+     * <code>repeated int32 digestNodes = 7;</code>
+     * @return The count of digestNodes.
+     */
+    public int getDigestNodesCount() {
+      return digestNodes_.size();
+    }
+    /**
+     * <code>repeated int32 digestNodes = 7;</code>
+     * @param index The index of the element to return.
+     * @return The digestNodes at the given index.
+     */
+    public int getDigestNodes(int index) {
+      return digestNodes_.getInt(index);
+    }
+    private int digestNodesMemoizedSerializedSize = -1;
+
+    public static final int RINGEPOCH_FIELD_NUMBER = 8;
+    private long ringEpoch_ = 0L;
+    /**
+     * <code>optional int64 ringEpoch = 8;</code>
+     * @return Whether the ringEpoch field is set.
+     */
+    @java.lang.Override
+    public boolean hasRingEpoch() {
+      return ((bitField0_ & 0x00000010) != 0);
+    }
+    /**
+     * <code>optional int64 ringEpoch = 8;</code>
+     * @return The ringEpoch.
+     */
+    @java.lang.Override
+    public long getRingEpoch() {
+      return ringEpoch_;
+    }
+
+    public static final int REPLICA_FIELD_NUMBER = 9;
+    private boolean replica_ = false;
+    /**
+     * <code>optional bool replica = 9;</code>
+     * @return Whether the replica field is set.
+     */
+    @java.lang.Override
+    public boolean hasReplica() {
+      return ((bitField0_ & 0x00000020) != 0);
+    }
+    /**
+     * <code>optional bool replica = 9;</code>
+     * @return The replica.
+     */
+    @java.lang.Override
+    public boolean getReplica() {
+      return replica_;
+    }
+
+    public static final int HINT_FIELD_NUMBER = 10;
+    @SuppressWarnings("serial")
+    private volatile java.lang.Object hint_ = "";
+    /**
+     * <code>optional string hint = 10;</code>
+     * @return Whether the hint field is set.
+     */
+    @java.lang.Override
+    public boolean hasHint() {
+      return ((bitField0_ & 0x00000040) != 0);
+    }
+    /**
+     * <code>optional string hint = 10;</code>
+     * @return The hint.
+     */
+    @java.lang.Override
+    public java.lang.String getHint() {
+      java.lang.Object ref = hint_;
+      if (ref instanceof java.lang.String) {
+        return (java.lang.String) ref;
+      } else {
+        com.google.protobuf.ByteString bs = 
+            (com.google.protobuf.ByteString) ref;
+        java.lang.String s = bs.toStringUtf8();
+        hint_ = s;
+        return s;
+      }
+    }
+    /**
+     * <code>optional string hint = 10;</code>
+     * @return The bytes for hint.
+     */
+    @java.lang.Override
+    public com.google.protobuf.ByteString
+        getHintBytes() {
+      java.lang.Object ref = hint_;
+      if (ref instanceof java.lang.String) {
+        com.google.protobuf.ByteString b = 
+            com.google.protobuf.ByteString.copyFromUtf8(
+                (java.lang.String) ref);
+        hint_ = b;
+        return b;
+      } else {
+        return (com.google.protobuf.ByteString) ref;
+      }
+    }
+
+    public static final int STAMP_FIELD_NUMBER = 11;
+    private long stamp_ = 0L;
+    /**
+     * <code>optional int64 stamp = 11;</code>
+     * @return Whether the stamp field is set.
+     */
+    @java.lang.Override
+    public boolean hasStamp() {
+      return ((bitField0_ & 0x00000080) != 0);
+    }
+    /**
+     * <code>optional int64 stamp = 11;</code>
+     * @return The stamp.
+     */
+    @java.lang.Override
+    public long getStamp() {
+      return stamp_;
+    }
+
+    public static final int PRIMARYREAD_FIELD_NUMBER = 12;
+    private boolean primaryRead_ = false;
+    /**
+     * <code>optional bool primaryRead = 12;</code>
+     * @return Whether the primaryRead field is set.
+     */
+    @java.lang.Override
+    public boolean hasPrimaryRead() {
+      return ((bitField0_ & 0x00000100) != 0);
+    }
+    /**
+     * <code>optional bool primaryRead = 12;</code>
+     * @return The primaryRead.
+     */
+    @java.lang.Override
+    public boolean getPrimaryRead() {
+      return primaryRead_;
+    }
+
+    public static final int CACHEFOR_FIELD_NUMBER = 13;
+    @SuppressWarnings("serial")
+    private volatile java.lang.Object cacheFor_ = "";
+    /**
+     * <code>optional string cacheFor = 13;</code>
+     * @return Whether the cacheFor field is set.
+     */
+    @java.lang.Override
+    public boolean hasCacheFor() {
+      return ((bitField0_ & 0x00000200) != 0);
+    }
+    /**
+     * <code>optional string cacheFor = 13;</code>
+     * @return The cacheFor.
+     */
+    @java.lang.Override
+    public java.lang.String getCacheFor() {
+      java.lang.Object ref = cacheFor_;
+      if (ref instanceof java.lang.String) {
+        return (java.lang.String) ref;
+      } else {
+        com.google.protobuf.ByteString bs = 
+            (com.google.protobuf.ByteString) ref;
+        java.lang.String s = bs.toStringUtf8();
+        cacheFor_ = s;
+        return s;
+      }
+    }
+    /**
+     * <code>optional string cacheFor = 13;</code>
+     * @return The bytes for cacheFor.
+     */
+    @java.lang.Override
+    public com.google.protobuf.ByteString
+        getCacheForBytes() {
+      java.lang.Object ref = cacheFor_;
+      if (ref instanceof java.lang.String) {
+        com.google.protobuf.ByteString b = 
+            com.google.protobuf.ByteString.copyFromUtf8(
+                (java.lang.String) ref);
+        cacheFor_ = b;
+        return b;
+      } else {
+        return (com.google.protobuf.ByteString) ref;
+      }
+    }
+
+    private byte memoizedIsInitialized = -1;
+    @java.lang.Override
+    public final boolean isInitialized() {
+      byte isInitialized = memoizedIsInitialized;
+      if (isInitialized == 1) return true;
+      if (isInitialized == 0) return false;
+
+      memoizedIsInitialized = 1;
+      return true;
+    }
+
+    @java.lang.Override
+    public void writeTo(com.google.protobuf.CodedOutputStream output)
+                        throws java.io.IOException {
+      getSerializedSize();
+      if (command_ != 0) {
+        output.writeUInt32(1, command_);
+      }
+      if (((bitField0_ & 0x00000001) != 0)) {
+        output.writeBytes(2, key_);
+      }
+      if (((bitField0_ & 0x00000002) != 0)) {
+        output.writeBytes(3, value_);
+      }
+      if (((bitField0_ & 0x00000004) != 0)) {
+        output.writeInt32(4, version_);
+      }
+      if (((bitField0_ & 0x00000008) != 0)) {
+        output.writeBool(5, acceptRedirect_);
+      }
+      for (int i = 0; i < records_.size(); i++) {
+        output.writeMessage(6, records_.get(i));
+      }
+      if (getDigestNodesList().size() > 0) {
+        output.writeUInt32NoTag(58);
+        output.writeUInt32NoTag(digestNodesMemoizedSerializedSize);
+      }
+      for (int i = 0; i < digestNodes_.size(); i++) {
+        output.writeInt32NoTag(digestNodes_.getInt(i));
+      }
+      if (((bitField0_ & 0x00000010) != 0)) {
+        output.writeInt64(8, ringEpoch_);
+      }
+      if (((bitField0_ & 0x00000020) != 0)) {
+        output.writeBool(9, replica_);
+      }
+      if (((bitField0_ & 0x00000040) != 0)) {
+        com.google.protobuf.GeneratedMessageV3.writeString(output, 10, hint_);
+      }
+      if (((bitField0_ & 0x00000080) != 0)) {
+        output.writeInt64(11, stamp_);
+      }
+      if (((bitField0_ & 0x00000100) != 0)) {
+        output.writeBool(12, primaryRead_);
+      }
+      if (((bitField0_ & 0x00000200) != 0)) {
+        com.google.protobuf.GeneratedMessageV3.writeString(output, 13, cacheFor_);
+      }
+      getUnknownFields().writeTo(output);
+    }
+
+    @java.lang.Override
+    public int getSerializedSize() {
+      int size = memoizedSize;
+      if (size != -1) return size;
+
+      size = 0;
+      if (command_ != 0) {
+        size += com.google.protobuf.CodedOutputStream
+          .computeUInt32Size(1, command_);
+      }
+      if (((bitField0_ & 0x00000001) != 0)) {
+        size += com.google.protobuf.CodedOutputStream
+          .computeBytesSize(2, key_);
+      }
+      if (((bitField0_ & 0x00000002) != 0)) {
+        size += com.google.protobuf.CodedOutputStream
+          .computeBytesSize(3, value_);
+      }
+      if (((bitField0_ & 0x00000004) != 0)) {
+        size += com.google.protobuf.CodedOutputStream
+          .computeInt32Size(4, version_);
+      }
+      if (((bitField0_ & 0x00000008) != 0)) {
+        size += com.google.protobuf.CodedOutputStream
+          .computeBoolSize(5, acceptRedirect_);
+      }
+      for (int i = 0; i < records_.size(); i++) {
+        size += com.google.protobuf.CodedOutputStream
+          .computeMessageSize(6, records_.get(i));
+      }
+      {
+        int dataSize = 0;
+        for (int i = 0; i < digestNodes_.size(); i++) {
+          dataSize += com.google.protobuf.CodedOutputStream
+            .computeInt32SizeNoTag(digestNodes_.getInt(i));
+        }
+        size += dataSize;
+        if (!getDigestNodesList().isEmpty()) {
+          size += 1;
+          size += com.google.protobuf.CodedOutputStream
+              .computeInt32SizeNoTag(dataSize);
+        }
+        digestNodesMemoizedSerializedSize = dataSize;
+      }
+      if (((bitField0_ & 0x00000010) != 0)) {
+        size += com.google.protobuf.CodedOutputStream
+          .computeInt64Size(8, ringEpoch_);
+      }
+      if (((bitField0_ & 0x00000020) != 0)) {
+        size += com.google.protobuf.CodedOutputStream
+          .computeBoolSize(9, replica_);
+      }
+      if (((bitField0_ & 0x00000040) != 0)) {
+        size += com.google.protobuf.GeneratedMessageV3.computeStringSize(10, hint_);
+      }
+      if (((bitField0_ & 0x00000080) != 0)) {
+        size += com.google.protobuf.CodedOutputStream
+          .computeInt64Size(11, stamp_);
+      }
+      if (((bitField0_ & 0x00000100) != 0)) {
+        size += com.google.protobuf.CodedOutputStream
+          .computeBoolSize(12, primaryRead_);
+      }
+      if (((bitField0_ & 0x00000200) != 0)) {
+        size += com.google.protobuf.GeneratedMessageV3.computeStringSize(13, cacheFor_);
+      }
+      size += getUnknownFields().getSerializedSize();
+      memoizedSize = size;
+      return size;
+    }
+
+    @java.lang.Override
+    public boolean equals(final java.lang.Object obj) {
+      if (obj == this) {
+       return true;
+      }
+      if (!(obj instanceof ca.NetSysLab.ProtocolBuffers.KeyValueRequest.KVRequest)) {
+        return super.equals(obj);
+      }
+      ca.NetSysLab.ProtocolBuffers.KeyValueRequest.KVRequest other = (ca.NetSysLab.ProtocolBuffers.KeyValueRequest.KVRequest) obj;
+
+      if (getCommand()
+          != other.getCommand()) return false;
+      if (hasKey() != other.hasKey()) return false;
+      if (hasKey()) {
+        if (!getKey()
+            .equals(other.getKey())) return false;
+      }
+      if (hasValue() != other.hasValue()) return false;
+      if (hasValue()) {
+        if (!getValue()
+            .equals(other.getValue())) return false;
+      }
+      if (hasVersion() != other.hasVersion()) return false;
+      if (hasVersion()) {
+        if (getVersion()
+            != other.getVersion()) return false;
+      }
+      if (hasAcceptRedirect() != other.hasAcceptRedirect()) return false;
+      if (hasAcceptRedirect()) {
+        if (getAcceptRedirect()
+            != other.getAcceptRedirect()) return false;
+      }
+      if (!getRecordsList()
+          .equals(other.getRecordsList())) return false;
+      if (!getDigestNodesList()
+          .equals(other.getDigestNodesList())) return false;
+      if (hasRingEpoch() != other.hasRingEpoch()) return false;
+      if (hasRingEpoch()) {
+        if (getRingEpoch()
+            != other.getRingEpoch()) return false;
+      }
+      if (hasReplica() != other.hasReplica()) return false;
+      if (hasReplica()) {
+        if (getReplica()
+            != other.getReplica()) return false;
+      }
+      if (hasHint() != other.hasHint()) return false;
+      if (hasHint()) {
+        if (!getHint()
+            .equals(other.getHint())) return false;
+      }
+      if (hasStamp() != other.hasStamp()) return false;
+      if (hasStamp()) {
+        if (getStamp()
+            != other.getStamp()) return false;
+      }
+      if (hasPrimaryRead() != other.hasPrimaryRead()) return false;
+      if (hasPrimaryRead()) {
+        if (getPrimaryRead()
+            != other.getPrimaryRead()) return false;
+      }
+      if (hasCacheFor() != other.hasCacheFor()) return false;
+      if (hasCacheFor()) {
+        if (!getCacheFor()
+            .equals(other.getCacheFor())) return false;
+      }
+      if (!getUnknownFields().equals(other.getUnknownFields())) return false;
+      return true;
+    }
+
+    @java.lang.Override
+    public int hashCode() {
+      if (memoizedHashCode != 0) {
+        return memoizedHashCode;
+      }
+      int hash = 41;
+      hash = (19 * hash) + getDescriptor().hashCode();
+      hash = (37 * hash) + COMMAND_FIELD_NUMBER;
+      hash = (53 * hash) + getCommand();
+      if (hasKey()) {
+        hash = (37 * hash) + KEY_FIELD_NUMBER;
+        hash = (53 * hash) + getKey().hashCode();
+      }
+      if (hasValue()) {
+        hash = (37 * hash) + VALUE_FIELD_NUMBER;
+        hash = (53 * hash) + getValue().hashCode();
+      }
+      if (hasVersion()) {
+        hash = (37 * hash) + VERSION_FIELD_NUMBER;
+        hash = (53 * hash) + getVersion();
+      }
+      if (hasAcceptRedirect()) {
+        hash = (37 * hash) + ACCEPTREDIRECT_FIELD_NUMBER;
+        hash = (53 * hash) + com.google.protobuf.Internal.hashBoolean(
+            getAcceptRedirect());
+      }
+      if (getRecordsCount() > 0) {
+        hash = (37 * hash) + RECORDS_FIELD_NUMBER;
+        hash = (53 * hash) + getRecordsList().hashCode();
+      }
+      if (getDigestNodesCount() > 0) {
+        hash = (37 * hash) + DIGESTNODES_FIELD_NUMBER;
+        hash = (53 * hash) + getDigestNodesList().hashCode();
+      }
+      if (hasRingEpoch()) {
+        hash = (37 * hash) + RINGEPOCH_FIELD_NUMBER;
+        hash = (53 * hash) + com.google.protobuf.Internal.hashLong(
+            getRingEpoch());
+      }
+      if (hasReplica()) {
+        hash = (37 * hash) + REPLICA_FIELD_NUMBER;
+        hash = (53 * hash) + com.google.protobuf.Internal.hashBoolean(
+            getReplica());
+      }
+      if (hasHint()) {
+        hash = (37 * hash) + HINT_FIELD_NUMBER;
+        hash = (53 * hash) + getHint().hashCode();
+      }
+      if (hasStamp()) {
+        hash = (37 * hash) + STAMP_FIELD_NUMBER;
+        hash = (53 * hash) + com.google.protobuf.Internal.hashLong(
+            getStamp());
+      }
+      if (hasPrimaryRead()) {
+        hash = (37 * hash) + PRIMARYREAD_FIELD_NUMBER;
+        hash = (53 * hash) + com.google.protobuf.Internal.hashBoolean(
+            getPrimaryRead());
+      }
+      if (hasCacheFor()) {
+        hash = (37 * hash) + CACHEFOR_FIELD_NUMBER;
+        hash = (53 * hash) + getCacheFor().hashCode();
+      }
+      hash = (29 * hash) + getUnknownFields().hashCode();
+      memoizedHashCode = hash;
+      return hash;
+    }
+
+    public static ca.NetSysLab.ProtocolBuffers.KeyValueRequest.KVRequest parseFrom(
+        java.nio.ByteBuffer data)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      return PARSER.parseFrom(data);
+    }
+    public static ca.NetSysLab.ProtocolBuffers.KeyValueRequest.KVRequest parseFrom(
+        java.nio.ByteBuffer data,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      return PARSER.parseFrom(data, extensionRegistry);
+    }
+    public static ca.NetSysLab.ProtocolBuffers.KeyValueRequest.KVRequest parseFrom(
+        com.google.protobuf.ByteString data)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      return PARSER.parseFrom(data);
+    }
+    public static ca.NetSysLab.ProtocolBuffers.KeyValueRequest.KVRequest parseFrom(
+        com.google.protobuf.ByteString data,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      return PARSER.parseFrom(data, extensionRegistry);
+    }
+    public static ca.NetSysLab.ProtocolBuffers.KeyValueRequest.KVRequest parseFrom(byte[] data)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      return PARSER.parseFrom(data);
+    }
+    public static ca.NetSysLab.ProtocolBuffers.KeyValueRequest.KVRequest parseFrom(
+        byte[] data,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      return PARSER.parseFrom(data, extensionRegistry);
+    }
+    public static ca.NetSysLab.ProtocolBuffers.KeyValueRequest.KVRequest parseFrom(java.io.InputStream input)
+        throws java.io.IOException {
+      return com.google.protobuf.GeneratedMessageV3
+          .parseWithIOException(PARSER, input);
+    }
+    public static ca.NetSysLab.ProtocolBuffers.KeyValueRequest.KVRequest parseFrom(
+        java.io.InputStream input,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws java.io.IOException {
+      return com.google.protobuf.GeneratedMessageV3
+          .parseWithIOException(PARSER, input, extensionRegistry);
+    }
+    public static ca.NetSysLab.ProtocolBuffers.KeyValueRequest.KVRequest parseDelimitedFrom(java.io.InputStream input)
+        throws java.io.IOException {
+      return com.google.protobuf.GeneratedMessageV3
+          .parseDelimitedWithIOException(PARSER, input);
+    }
+    public static ca.NetSysLab.ProtocolBuffers.KeyValueRequest.KVRequest parseDelimitedFrom(
+        java.io.InputStream input,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws java.io.IOException {
+      return com.google.protobuf.GeneratedMessageV3
+          .parseDelimitedWithIOException(PARSER, input, extensionRegistry);
+    }
+    public static ca.NetSysLab.ProtocolBuffers.KeyValueRequest.KVRequest parseFrom(
+        com.google.protobuf.CodedInputStream input)
+        throws java.io.IOException {
+      return com.google.protobuf.GeneratedMessageV3
+          .parseWithIOException(PARSER, input);
+    }
+    public static ca.NetSysLab.ProtocolBuffers.KeyValueRequest.KVRequest parseFrom(
+        com.google.protobuf.CodedInputStream input,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws java.io.IOException {
+      return com.google.protobuf.GeneratedMessageV3
+          .parseWithIOException(PARSER, input, extensionRegistry);
+    }
+
+    @java.lang.Override
+    public Builder newBuilderForType() { return newBuilder(); }
+    public static Builder newBuilder() {
+      return DEFAULT_INSTANCE.toBuilder();
+    }
+    public static Builder newBuilder(ca.NetSysLab.ProtocolBuffers.KeyValueRequest.KVRequest prototype) {
+      return DEFAULT_INSTANCE.toBuilder().mergeFrom(prototype);
+    }
+    @java.lang.Override
+    public Builder toBuilder() {
+      return this == DEFAULT_INSTANCE
+          ? new Builder() : new Builder().mergeFrom(this);
+    }
+
+    @java.lang.Override
+    protected Builder newBuilderForType(
+        com.google.protobuf.GeneratedMessageV3.BuilderParent parent) {
+      Builder builder = new Builder(parent);
+      return builder;
+    }
+    /**
+     * Protobuf type {@code KVRequest}
+     */
+    public static final class Builder extends
+        com.google.protobuf.GeneratedMessageV3.Builder<Builder> implements
+        // @@protoc_insertion_point(builder_implements:KVRequest)
+        ca.NetSysLab.ProtocolBuffers.KeyValueRequest.KVRequestOrBuilder {
+      public static final com.google.protobuf.Descriptors.Descriptor
+          getDescriptor() {
+        return ca.NetSysLab.ProtocolBuffers.KeyValueRequest.internal_static_KVRequest_descriptor;
+      }
+
+      @java.lang.Override
+      protected com.google.protobuf.GeneratedMessageV3.FieldAccessorTable
+          internalGetFieldAccessorTable() {
+        return ca.NetSysLab.ProtocolBuffers.KeyValueRequest.internal_static_KVRequest_fieldAccessorTable
+            .ensureFieldAccessorsInitialized(
+                ca.NetSysLab.ProtocolBuffers.KeyValueRequest.KVRequest.class, ca.NetSysLab.ProtocolBuffers.KeyValueRequest.KVRequest.Builder.class);
+      }
+
+      // Construct using ca.NetSysLab.ProtocolBuffers.KeyValueRequest.KVRequest.newBuilder()
+      private Builder() {
+
+      }
+
+      private Builder(
+          com.google.protobuf.GeneratedMessageV3.BuilderParent parent) {
+        super(parent);
+
+      }
+      @java.lang.Override
+      public Builder clear() {
+        super.clear();
+        bitField0_ = 0;
+        command_ = 0;
+        key_ = com.google.protobuf.ByteString.EMPTY;
+        value_ = com.google.protobuf.ByteString.EMPTY;
+        version_ = 0;
+        acceptRedirect_ = false;
+        if (recordsBuilder_ == null) {
+          records_ = java.util.Collections.emptyList();
+        } else {
+          records_ = null;
+          recordsBuilder_.clear();
+        }
+        bitField0_ = (bitField0_ & ~0x00000020);
+        digestNodes_ = emptyIntList();
+        ringEpoch_ = 0L;
+        replica_ = false;
+        hint_ = "";
+        stamp_ = 0L;
+        primaryRead_ = false;
+        cacheFor_ = "";
+        return this;
+      }
+
+      @java.lang.Override
+      public com.google.protobuf.Descriptors.Descriptor
+          getDescriptorForType() {
+        return ca.NetSysLab.ProtocolBuffers.KeyValueRequest.internal_static_KVRequest_descriptor;
+      }
+
+      @java.lang.Override
+      public ca.NetSysLab.ProtocolBuffers.KeyValueRequest.KVRequest getDefaultInstanceForType() {
+        return ca.NetSysLab.ProtocolBuffers.KeyValueRequest.KVRequest.getDefaultInstance();
+      }
+
+      @java.lang.Override
+      public ca.NetSysLab.ProtocolBuffers.KeyValueRequest.KVRequest build() {
+        ca.NetSysLab.ProtocolBuffers.KeyValueRequest.KVRequest result = buildPartial();
+        if (!result.isInitialized()) {
+          throw newUninitializedMessageException(result);
+        }
+        return result;
+      }
+
+      @java.lang.Override
+      public ca.NetSysLab.ProtocolBuffers.KeyValueRequest.KVRequest buildPartial() {
+        ca.NetSysLab.ProtocolBuffers.KeyValueRequest.KVRequest result = new ca.NetSysLab.ProtocolBuffers.KeyValueRequest.KVRequest(this);
+        buildPartialRepeatedFields(result);
+        if (bitField0_ != 0) { buildPartial0(result); }
+        onBuilt();
+        return result;
+      }
+
+      private void buildPartialRepeatedFields(ca.NetSysLab.ProtocolBuffers.KeyValueRequest.KVRequest result) {
+        if (recordsBuilder_ == null) {
+          if (((bitField0_ & 0x00000020) != 0)) {
+            records_ = java.util.Collections.unmodifiableList(records_);
+            bitField0_ = (bitField0_ & ~0x00000020);
+          }
+          result.records_ = records_;
+        } else {
+          result.records_ = recordsBuilder_.build();
+        }
+        if (((bitField0_ & 0x00000040) != 0)) {
+          digestNodes_.makeImmutable();
+          bitField0_ = (bitField0_ & ~0x00000040);
+        }
+        result.digestNodes_ = digestNodes_;
+      }
+
+      private void buildPartial0(ca.NetSysLab.ProtocolBuffers.KeyValueRequest.KVRequest result) {
+        int from_bitField0_ = bitField0_;
+        if (((from_bitField0_ & 0x00000001) != 0)) {
+          result.command_ = command_;
+        }
+        int to_bitField0_ = 0;
+        if (((from_bitField0_ & 0x00000002) != 0)) {
+          result.key_ = key_;
+          to_bitField0_ |= 0x00000001;
+        }
+        if (((from_bitField0_ & 0x00000004) != 0)) {
+          result.value_ = value_;
+          to_bitField0_ |= 0x00000002;
+        }
+        if (((from_bitField0_ & 0x00000008) != 0)) {
+          result.version_ = version_;
+          to_bitField0_ |= 0x00000004;
+        }
+        if (((from_bitField0_ & 0x00000010) != 0)) {
+          result.acceptRedirect_ = acceptRedirect_;
+          to_bitField0_ |= 0x00000008;
+        }
+        if (((from_bitField0_ & 0x00000080) != 0)) {
+          result.ringEpoch_ = ringEpoch_;
+          to_bitField0_ |= 0x00000010;
+        }
+        if (((from_bitField0_ & 0x00000100) != 0)) {
+          result.replica_ = replica_;
+          to_bitField0_ |= 0x00000020;
+        }
+        if (((from_bitField0_ & 0x00000200) != 0)) {
+          result.hint_ = hint_;
+          to_bitField0_ |= 0x00000040;
+        }
+        if (((from_bitField0_ & 0x00000400) != 0)) {
+          result.stamp_ = stamp_;
+          to_bitField0_ |= 0x00000080;
+        }
+        if (((from_bitField0_ & 0x00000800) != 0)) {
+          result.primaryRead_ = primaryRead_;
+          to_bitField0_ |= 0x00000100;
+        }
+        if (((from_bitField0_ & 0x00001000) != 0)) {
+          result.cacheFor_ = cacheFor_;
+          to_bitField0_ |= 0x00000200;
+        }
+        result.bitField0_ |= to_bitField0_;
+      }
+
+      @java.lang.Override
+      public Builder clone() {
+        return super.clone();
+      }
+      @java.lang.Override
+      public Builder setField(
+          com.google.protobuf.Descriptors.FieldDescriptor field,
+          java.lang.Object value) {
+        return super.setField(field, value);
+      }
+      @java.lang.Override
+      public Builder clearField(
+          com.google.protobuf.Descriptors.FieldDescriptor field) {
+        return super.clearField(field);
+      }
+      @java.lang.Override
+      public Builder clearOneof(
+          com.google.protobuf.Descriptors.OneofDescriptor oneof) {
+        return super.clearOneof(oneof);
+      }
+      @java.lang.Override
+      public Builder setRepeatedField(
+          com.google.protobuf.Descriptors.FieldDescriptor field,
+          int index, java.lang.Object value) {
+        return super.setRepeatedField(field, index, value);
+      }
+      @java.lang.Override
+      public Builder addRepeatedField(
+          com.google.protobuf.Descriptors.FieldDescriptor field,
+          java.lang.Object value) {
+        return super.addRepeatedField(field, value);
+      }
+      @java.lang.Override
+      public Builder mergeFrom(com.google.protobuf.Message other) {
+        if (other instanceof ca.NetSysLab.ProtocolBuffers.KeyValueRequest.KVRequest) {
+          return mergeFrom((ca.NetSysLab.ProtocolBuffers.KeyValueRequest.KVRequest)other);
+        } else {
+          super.mergeFrom(other);
+          return this;
+        }
+      }
+
+      public Builder mergeFrom(ca.NetSysLab.ProtocolBuffers.KeyValueRequest.KVRequest other) {
+        if (other == ca.NetSysLab.ProtocolBuffers.KeyValueRequest.KVRequest.getDefaultInstance()) return this;
+        if (other.getCommand() != 0) {
+          setCommand(other.getCommand());
+        }
+        if (other.hasKey()) {
+          setKey(other.getKey());
+        }
+        if (other.hasValue()) {
+          setValue(other.getValue());
+        }
+        if (other.hasVersion()) {
+          setVersion(other.getVersion());
+        }
+        if (other.hasAcceptRedirect()) {
+          setAcceptRedirect(other.getAcceptRedirect());
+        }
+        if (recordsBuilder_ == null) {
+          if (!other.records_.isEmpty()) {
+            if (records_.isEmpty()) {
+              records_ = other.records_;
+              bitField0_ = (bitField0_ & ~0x00000020);
+            } else {
+              ensureRecordsIsMutable();
+              records_.addAll(other.records_);
+            }
+            onChanged();
+          }
+        } else {
+          if (!other.records_.isEmpty()) {
+            if (recordsBuilder_.isEmpty()) {
+              recordsBuilder_.dispose();
+              recordsBuilder_ = null;
+              records_ = other.records_;
+              bitField0_ = (bitField0_ & ~0x00000020);
+              recordsBuilder_ = 
+                com.google.protobuf.GeneratedMessageV3.alwaysUseFieldBuilders ?
+                   getRecordsFieldBuilder() : null;
+            } else {
+              recordsBuilder_.addAllMessages(other.records_);
+            }
+          }
+        }
+        if (!other.digestNodes_.isEmpty()) {
+          if (digestNodes_.isEmpty()) {
+            digestNodes_ = other.digestNodes_;
+            bitField0_ = (bitField0_ & ~0x00000040);
+          } else {
+            ensureDigestNodesIsMutable();
+            digestNodes_.addAll(other.digestNodes_);
+          }
+          onChanged();
+        }
+        if (other.hasRingEpoch()) {
+          setRingEpoch(other.getRingEpoch());
+        }
+        if (other.hasReplica()) {
+          setReplica(other.getReplica());
+        }
+        if (other.hasHint()) {
+          hint_ = other.hint_;
+          bitField0_ |= 0x00000200;
+          onChanged();
+        }
+        if (other.hasStamp()) {
+          setStamp(other.getStamp());
+        }
+        if (other.hasPrimaryRead()) {
+          setPrimaryRead(other.getPrimaryRead());
+        }
+        if (other.hasCacheFor()) {
+          cacheFor_ = other.cacheFor_;
+          bitField0_ |= 0x00001000;
+          onChanged();
+        }
+        this.mergeUnknownFields(other.getUnknownFields());
+        onChanged();
+        return this;
+      }
+
+      @java.lang.Override
+      public final boolean isInitialized() {
+        return true;
+      }
+
+      @java.lang.Override
+      public Builder mergeFrom(
+          com.google.protobuf.CodedInputStream input,
+          com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+          throws java.io.IOException {
+        if (extensionRegistry == null) {
+          throw new java.lang.NullPointerException();
+        }
+        try {
+          boolean done = false;
+          while (!done) {
+            int tag = input.readTag();
+            switch (tag) {
+              case 0:
+                done = true;
+                break;
+              case 8: {
+                command_ = input.readUInt32();
+                bitField0_ |= 0x00000001;
+                break;
+              } // case 8
+              case 18: {
+                key_ = input.readBytes();
+                bitField0_ |= 0x00000002;
+                break;
+              } // case 18
+              case 26: {
+                value_ = input.readBytes();
+                bitField0_ |= 0x00000004;
+                break;
+              } // case 26
+              case 32: {
+                version_ = input.readInt32();
+                bitField0_ |= 0x00000008;
+                break;
+              } // case 32
+              case 40: {
+                acceptRedirect_ = input.readBool();
+                bitField0_ |= 0x00000010;
+                break;
+              } // case 40
+              case 50: {
+                ca.NetSysLab.ProtocolBuffers.KeyValueRequest.KVRequest.Record m =
+                    input.readMessage(
+                        ca.NetSysLab.ProtocolBuffers.KeyValueRequest.KVRequest.Record.parser(),
+                        extensionRegistry);
+                if (recordsBuilder_ == null) {
+                  ensureRecordsIsMutable();
+                  records_.add(m);
+                } else {
+                  recordsBuilder_.addMessage(m);
+                }
+                break;
+              } // case 50
+              case 56: {
+                int v = input.readInt32();
+                ensureDigestNodesIsMutable();
+                digestNodes_.addInt(v);
+                break;
+              } // case 56
+              case 58: {
+                int length = input.readRawVarint32();
+                int limit = input.pushLimit(length);
+                ensureDigestNodesIsMutable();
+                while (input.getBytesUntilLimit() > 0) {
+                  digestNodes_.addInt(input.readInt32());
+                }
+                input.popLimit(limit);
+                break;
+              } // case 58
+              case 64: {
+                ringEpoch_ = input.readInt64();
+                bitField0_ |= 0x00000080;
+                break;
+              } // case 64
+              case 72: {
+                replica_ = input.readBool();
+                bitField0_ |= 0x00000100;
+                break;
+              } // case 72
+              case 82: {
+                hint_ = input.readStringRequireUtf8();
+                bitField0_ |= 0x00000200;
+                break;
+              } // case 82
+              case 88: {
+                stamp_ = input.readInt64();
+                bitField0_ |= 0x00000400;
+                break;
+              } // case 88
+              case 96: {
+                primaryRead_ = input.readBool();
+                bitField0_ |= 0x00000800;
+                break;
+              } // case 96
+              case 106: {
+                cacheFor_ = input.readStringRequireUtf8();
+                bitField0_ |= 0x00001000;
+                break;
+              } // case 106
+              default: {
+                if (!super.parseUnknownField(input, extensionRegistry, tag)) {
+                  done = true; // was an endgroup tag
+                }
+                break;
+              } // default:
+            } // switch (tag)
+          } // while (!done)
+        } catch (com.google.protobuf.InvalidProtocolBufferException e) {
+          throw e.unwrapIOException();
+        } finally {
+          onChanged();
+        } // finally
+        return this;
+      }
+      private int bitField0_;
+
+      private int command_ ;
+      /**
+       * <code>uint32 command = 1;</code>
+       * @return The command.
+       */
+      @java.lang.Override
+      public int getCommand() {
+        return command_;
+      }
+      /**
+       * <code>uint32 command = 1;</code>
+       * @param value The command to set.
+       * @return This builder for chaining.
+       */
+      public Builder setCommand(int value) {
+        
+        command_ = value;
+        bitField0_ |= 0x00000001;
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>uint32 command = 1;</code>
+       * @return This builder for chaining.
+       */
+      public Builder clearCommand() {
+        bitField0_ = (bitField0_ & ~0x00000001);
+        command_ = 0;
+        onChanged();
+        return this;
+      }
+
+      private com.google.protobuf.ByteString key_ = com.google.protobuf.ByteString.EMPTY;
+      /**
+       * <code>optional bytes key = 2;</code>
+       * @return Whether the key field is set.
+       */
+      @java.lang.Override
+      public boolean hasKey() {
+        return ((bitField0_ & 0x00000002) != 0);
+      }
+      /**
+       * <code>optional bytes key = 2;</code>
+       * @return The key.
+       */
+      @java.lang.Override
+      public com.google.protobuf.ByteString getKey() {
+        return key_;
+      }
+      /**
+       * <code>optional bytes key = 2;</code>
+       * @param value The key to set.
+       * @return This builder for chaining.
+       */
+      public Builder setKey(com.google.protobuf.ByteString value) {
+        if (value == null) { throw new NullPointerException(); }
+        key_ = value;
+        bitField0_ |= 0x00000002;
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>optional bytes key = 2;</code>
+       * @return This builder for chaining.
+       */
+      public Builder clearKey() {
+        bitField0_ = (bitField0_ & ~0x00000002);
+        key_ = getDefaultInstance().getKey();
+        onChanged();
+        return this;
+      }
+
+      private com.google.protobuf.ByteString value_ = com.google.protobuf.ByteString.EMPTY;
+      /**
+       * <code>optional bytes value = 3;</code>
+       * @return Whether the value field is set.
+       */
+      @java.lang.Override
+      public boolean hasValue() {
+        return ((bitField0_ & 0x00000004) != 0);
+      }
+      /**
+       * <code>optional bytes value = 3;</code>
+       * @return The value.
+       */
+      @java.lang.Override
+      public com.google.protobuf.ByteString getValue() {
+        return value_;
+      }
+      /**
+       * <code>optional bytes value = 3;</code>
+       * @param value The value to set.
+       * @return This builder for chaining.
+       */
+      public Builder setValue(com.google.protobuf.ByteString value) {
+        if (value == null) { throw new NullPointerException(); }
+        value_ = value;
+        bitField0_ |= 0x00000004;
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>optional bytes value = 3;</code>
+       * @return This builder for chaining.
+       */
+      public Builder clearValue() {
+        bitField0_ = (bitField0_ & ~0x00000004);
+        value_ = getDefaultInstance().getValue();
+        onChanged();
+        return this;
+      }
+
+      private int version_ ;
+      /**
+       * <code>optional int32 version = 4;</code>
+       * @return Whether the version field is set.
+       */
+      @java.lang.Override
+      public boolean hasVersion() {
+        return ((bitField0_ & 0x00000008) != 0);
+      }
+      /**
+       * <code>optional int32 version = 4;</code>
+       * @return The version.
+       */
+      @java.lang.Override
+      public int getVersion() {
+        return version_;
+      }
+      /**
+       * <code>optional int32 version = 4;</code>
+       * @param value The version to set.
+       * @return This builder for chaining.
+       */
+      public Builder setVersion(int value) {
+        
+        version_ = value;
+        bitField0_ |= 0x00000008;
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>optional int32 version = 4;</code>
+       * @return This builder for chaining.
+       */
+      public Builder clearVersion() {
+        bitField0_ = (bitField0_ & ~0x00000008);
+        version_ = 0;
+        onChanged();
+        return this;
+      }
+
+      private boolean acceptRedirect_ ;
+      /**
+       * <code>optional bool acceptRedirect = 5;</code>
+       * @return Whether the acceptRedirect field is set.
+       */
+      @java.lang.Override
+      public boolean hasAcceptRedirect() {
+        return ((bitField0_ & 0x00000010) != 0);
+      }
+      /**
+       * <code>optional bool acceptRedirect = 5;</code>
+       * @return The acceptRedirect.
+       */
+      @java.lang.Override
+      public boolean getAcceptRedirect() {
+        return acceptRedirect_;
+      }
+      /**
+       * <code>optional bool acceptRedirect = 5;</code>
+       * @param value The acceptRedirect to set.
+       * @return This builder for chaining.
+       */
+      public Builder setAcceptRedirect(boolean value) {
+        
+        acceptRedirect_ = value;
+        bitField0_ |= 0x00000010;
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>optional bool acceptRedirect = 5;</code>
+       * @return This builder for chaining.
+       */
+      public Builder clearAcceptRedirect() {
+        bitField0_ = (bitField0_ & ~0x00000010);
+        acceptRedirect_ = false;
+        onChanged();
+        return this;
+      }
+
+      private java.util.List<ca.NetSysLab.ProtocolBuffers.KeyValueRequest.KVRequest.Record> records_ =
+        java.util.Collections.emptyList();
+      private void ensureRecordsIsMutable() {
+        if (!((bitField0_ & 0x00000020) != 0)) {
+          records_ = new java.util.ArrayList<ca.NetSysLab.ProtocolBuffers.KeyValueRequest.KVRequest.Record>(records_);
+          bitField0_ |= 0x00000020;
+         }
+      }
+
+      private com.google.protobuf.RepeatedFieldBuilderV3<
+          ca.NetSysLab.ProtocolBuffers.KeyValueRequest.KVRequest.Record, ca.NetSysLab.ProtocolBuffers.KeyValueRequest.KVRequest.Record.Builder, ca.NetSysLab.ProtocolBuffers.KeyValueRequest.KVRequest.RecordOrBuilder> recordsBuilder_;
+
+      /**
+       * <code>repeated .KVRequest.Record records = 6;</code>
+       */
+      public java.util.List<ca.NetSysLab.ProtocolBuffers.KeyValueRequest.KVRequest.Record> getRecordsList() {
+        if (recordsBuilder_ == null) {
+          return java.util.Collections.unmodifiableList(records_);
+        } else {
+          return recordsBuilder_.getMessageList();
+        }
+      }
+      /**
+       * <code>repeated .KVRequest.Record records = 6;</code>
+       */
+      public int getRecordsCount() {
+        if (recordsBuilder_ == null) {
+          return records_.size();
+        } else {
+          return recordsBuilder_.getCount();
+        }
+      }
+      /**
+       * <code>repeated .KVRequest.Record records = 6;</code>
+       */
+      public ca.NetSysLab.ProtocolBuffers.KeyValueRequest.KVRequest.Record getRecords(int index) {
+        if (recordsBuilder_ == null) {
+          return records_.get(index);
+        } else {
+          return recordsBuilder_.getMessage(index);
+        }
+      }
+      /**
+       * <code>repeated .KVRequest.Record records = 6;</code>
+       */
+      public Builder setRecords(
+          int index, ca.NetSysLab.ProtocolBuffers.KeyValueRequest.KVRequest.Record value) {
+        if (recordsBuilder_ == null) {
+          if (value == null) {
+            throw new NullPointerException();
+          }
+          ensureRecordsIsMutable();
+          records_.set(index, value);
+          onChanged();
+        } else {
+          recordsBuilder_.setMessage(index, value);
+        }
+        return this;
+      }
+      /**
+       * <code>repeated .KVRequest.Record records = 6;</code>
+       */
+      public Builder setRecords(
+          int index, ca.NetSysLab.ProtocolBuffers.KeyValueRequest.KVRequest.Record.Builder builderForValue) {
+        if (recordsBuilder_ == null) {
+          ensureRecordsIsMutable();
+          records_.set(index, builderForValue.build());
+          onChanged();
+        } else {
+          recordsBuilder_.setMessage(index, builderForValue.build());
+        }
+        return this;
+      }
+      /**
+       * <code>repeated .KVRequest.Record records = 6;</code>
+       */
+      public Builder addRecords(ca.NetSysLab.ProtocolBuffers.KeyValueRequest.KVRequest.Record value) {
+        if (recordsBuilder_ == null) {
+          if (value == null) {
+            throw new NullPointerException();
+          }
+          ensureRecordsIsMutable();
+          records_.add(value);
+          onChanged();
+        } else {
+          recordsBuilder_.addMessage(value);
+        }
+        return this;
+      }
+      /**
+       * <code>repeated .KVRequest.Record records = 6;</code>
+       */
+      public Builder addRecords(
+          int index, ca.NetSysLab.ProtocolBuffers.KeyValueRequest.KVRequest.Record value) {
+        if (recordsBuilder_ == null) {
+          if (value == null) {
+            throw new NullPointerException();
+          }
+          ensureRecordsIsMutable();
+          records_.add(index, value);
+          onChanged();
+        } else {
+          recordsBuilder_.addMessage(index, value);
+        }
+        return this;
+      }
+      /**
+       * <code>repeated .KVRequest.Record records = 6;</code>
+       */
+      public Builder addRecords(
+          ca.NetSysLab.ProtocolBuffers.KeyValueRequest.KVRequest.Record.Builder builderForValue) {
+        if (recordsBuilder_ == null) {
+          ensureRecordsIsMutable();
+          records_.add(builderForValue.build());
+          onChanged();
+        } else {
+          recordsBuilder_.addMessage(builderForValue.build());
+        }
+        return this;
+      }
+      /**
+       * <code>repeated .KVRequest.Record records = 6;</code>
+       */
+      public Builder addRecords(
+          int index, ca.NetSysLab.ProtocolBuffers.KeyValueRequest.KVRequest.Record.Builder builderForValue) {
+        if (recordsBuilder_ == null) {
+          ensureRecordsIsMutable();
+          records_.add(index, builderForValue.build());
+          onChanged();
+        } else {
+          recordsBuilder_.addMessage(index, builderForValue.build());
+        }
+        return this;
+      }
+      /**
+       * <code>repeated .KVRequest.Record records = 6;</code>
+       */
+      public Builder addAllRecords(
+          java.lang.Iterable<? extends ca.NetSysLab.ProtocolBuffers.KeyValueRequest.KVRequest.Record> values) {
+        if (recordsBuilder_ == null) {
+          ensureRecordsIsMutable();
+          com.google.protobuf.AbstractMessageLite.Builder.addAll(
+              values, records_);
+          onChanged();
+        } else {
+          recordsBuilder_.addAllMessages(values);
+        }
+        return this;
+      }
+      /**
+       * <code>repeated .KVRequest.Record records = 6;</code>
+       */
+      public Builder clearRecords() {
+        if (recordsBuilder_ == null) {
+          records_ = java.util.Collections.emptyList();
+          bitField0_ = (bitField0_ & ~0x00000020);
+          onChanged();
+        } else {
+          recordsBuilder_.clear();
+        }
+        return this;
+      }
+      /**
+       * <code>repeated .KVRequest.Record records = 6;</code>
+       */
+      public Builder removeRecords(int index) {
+        if (recordsBuilder_ == null) {
+          ensureRecordsIsMutable();
+          records_.remove(index);
+          onChanged();
+        } else {
+          recordsBuilder_.remove(index);
+        }
+        return this;
+      }
+      /**
+       * <code>repeated .KVRequest.Record records = 6;</code>
+       */
+      public ca.NetSysLab.ProtocolBuffers.KeyValueRequest.KVRequest.Record.Builder getRecordsBuilder(
+          int index) {
+        return getRecordsFieldBuilder().getBuilder(index);
+      }
+      /**
+       * <code>repeated .KVRequest.Record records = 6;</code>
+       */
+      public ca.NetSysLab.ProtocolBuffers.KeyValueRequest.KVRequest.RecordOrBuilder getRecordsOrBuilder(
+          int index) {
+        if (recordsBuilder_ == null) {
+          return records_.get(index);  } else {
+          return recordsBuilder_.getMessageOrBuilder(index);
+        }
+      }
+      /**
+       * <code>repeated .KVRequest.Record records = 6;</code>
+       */
+      public java.util.List<? extends ca.NetSysLab.ProtocolBuffers.KeyValueRequest.KVRequest.RecordOrBuilder> 
+           getRecordsOrBuilderList() {
+        if (recordsBuilder_ != null) {
+          return recordsBuilder_.getMessageOrBuilderList();
+        } else {
+          return java.util.Collections.unmodifiableList(records_);
+        }
+      }
+      /**
+       * <code>repeated .KVRequest.Record records = 6;</code>
+       */
+      public ca.NetSysLab.ProtocolBuffers.KeyValueRequest.KVRequest.Record.Builder addRecordsBuilder() {
+        return getRecordsFieldBuilder().addBuilder(
+            ca.NetSysLab.ProtocolBuffers.KeyValueRequest.KVRequest.Record.getDefaultInstance());
+      }
+      /**
+       * <code>repeated .KVRequest.Record records = 6;</code>
+       */
+      public ca.NetSysLab.ProtocolBuffers.KeyValueRequest.KVRequest.Record.Builder addRecordsBuilder(
+          int index) {
+        return getRecordsFieldBuilder().addBuilder(
+            index, ca.NetSysLab.ProtocolBuffers.KeyValueRequest.KVRequest.Record.getDefaultInstance());
+      }
+      /**
+       * <code>repeated .KVRequest.Record records = 6;</code>
+       */
+      public java.util.List<ca.NetSysLab.ProtocolBuffers.KeyValueRequest.KVRequest.Record.Builder> 
+           getRecordsBuilderList() {
+        return getRecordsFieldBuilder().getBuilderList();
+      }
+      private com.google.protobuf.RepeatedFieldBuilderV3<
+          ca.NetSysLab.ProtocolBuffers.KeyValueRequest.KVRequest.Record, ca.NetSysLab.ProtocolBuffers.KeyValueRequest.KVRequest.Record.Builder, ca.NetSysLab.ProtocolBuffers.KeyValueRequest.KVRequest.RecordOrBuilder> 
+          getRecordsFieldBuilder() {
+        if (recordsBuilder_ == null) {
+          recordsBuilder_ = new com.google.protobuf.RepeatedFieldBuilderV3<
+              ca.NetSysLab.ProtocolBuffers.KeyValueRequest.KVRequest.Record, ca.NetSysLab.ProtocolBuffers.KeyValueRequest.KVRequest.Record.Builder, ca.NetSysLab.ProtocolBuffers.KeyValueRequest.KVRequest.RecordOrBuilder>(
+                  records_,
+                  ((bitField0_ & 0x00000020) != 0),
+                  getParentForChildren(),
+                  isClean());
+          records_ = null;
+        }
+        return recordsBuilder_;
+      }
+
+      private com.google.protobuf.Internal.IntList digestNodes_ = emptyIntList();
+      private void ensureDigestNodesIsMutable() {
+        if (!((bitField0_ & 0x00000040) != 0)) {
+          digestNodes_ = mutableCopy(digestNodes_);
+          bitField0_ |= 0x00000040;
+        }
+      }
+      /**
+       * <code>repeated int32 digestNodes = 7;</code>
+       * @return A list containing the digestNodes.
+       */
+      public java.util.List<java.lang.Integer>
+          getDigestNodesList() {
+        return ((bitField0_ & 0x00000040) != 0) ?
+                 java.util.Collections.unmodifiableList(digestNodes_) : digestNodes_;
+      }
+      /**
+       * <code>repeated int32 digestNodes = 7;</code>
+       * @return The count of digestNodes.
+       */
+      public int getDigestNodesCount() {
+        return digestNodes_.size();
+      }
+      /**
+       * <code>repeated int32 digestNodes = 7;</code>
+       * @param index The index of the element to return.
+       * @return The digestNodes at the given index.
+       */
+      public int getDigestNodes(int index) {
+        return digestNodes_.getInt(index);
+      }
+      /**
+       * <code>repeated int32 digestNodes = 7;</code>
+       * @param index The index to set the value at.
+       * @param value The digestNodes to set.
+       * @return This builder for chaining.
+       */
+      public Builder setDigestNodes(
+          int index, int value) {
+        
+        ensureDigestNodesIsMutable();
+        digestNodes_.setInt(index, value);
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>repeated int32 digestNodes = 7;</code>
+       * @param value The digestNodes to add.
+       * @return This builder for chaining.
+       */
+      public Builder addDigestNodes(int value) {
+        
+        ensureDigestNodesIsMutable();
+        digestNodes_.addInt(value);
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>repeated int32 digestNodes = 7;</code>
+       * @param values The digestNodes to add.
+       * @return This builder for chaining.
+       */
+      public Builder addAllDigestNodes(
+          java.lang.Iterable<? extends java.lang.Integer> values) {
+        ensureDigestNodesIsMutable();
+        com.google.protobuf.AbstractMessageLite.Builder.addAll(
+            values, digestNodes_);
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>repeated int32 digestNodes = 7;</code>
+       * @return This builder for chaining.
+       */
+      public Builder clearDigestNodes() {
+        digestNodes_ = emptyIntList();
+        bitField0_ = (bitField0_ & ~0x00000040);
+        onChanged();
+        return this;
       }
 
+      private long ringEpoch_ ;
+      /**
+       * <code>optional int64 ringEpoch = 8;</code>
+       * @return Whether the ringEpoch field is set.
+       */
       @java.lang.Override
-      public Builder clone() {
-        return super.clone();
+      public boolean hasRingEpoch() {
+        return ((bitField0_ & 0x00000080) != 0);
       }
+      /**
+       * <code>optional int64 ringEpoch = 8;</code>
+       * @return The ringEpoch.
+       */
       @java.lang.Override
-      public Builder setField(
-          com.google.protobuf.Descriptors.FieldDescriptor field,
-          java.lang.Object value) {
-        return super.setField(field, value);
+      public long getRingEpoch() {
+        return ringEpoch_;
       }
-      @java.lang.Override
-      public Builder clearField(
-          com.google.protobuf.Descriptors.FieldDescriptor field) {
-        return super.clearField(field);
+      /**
+       * <code>optional int64 ringEpoch = 8;</code>
+       * @param value The ringEpoch to set.
+       * @return This builder for chaining.
+       */
+      public Builder setRingEpoch(long value) {
+        
+        ringEpoch_ = value;
+        bitField0_ |= 0x00000080;
+        onChanged();
+        return this;
       }
-      @java.lang.Override
-      public Builder clearOneof(
-          com.google.protobuf.Descriptors.OneofDescriptor oneof) {
-        return super.clearOneof(oneof);
+      /**
+       * <code>optional int64 ringEpoch = 8;</code>
+       * @return This builder for chaining.
+       */
+      public Builder clearRingEpoch() {
+        bitField0_ = (bitField0_ & ~0x00000080);
+        ringEpoch_ = 0L;
+        onChanged();
+        return this;
       }
+
+      private boolean replica_ ;
+      /**
+       * <code>optional bool replica = 9;</code>
+       * @return Whether the replica field is set.
+       */
       @java.lang.Override
-      public Builder setRepeatedField(
-          com.google.protobuf.Descriptors.FieldDescriptor field,
-          int index, java.lang.Object value) {
-        return super.setRepeatedField(field, index, value);
+      public boolean hasReplica() {
+        return ((bitField0_ & 0x00000100) != 0);
       }
+      /**
+       * <code>optional bool replica = 9;</code>
+       * @return The replica.
+       */
       @java.lang.Override
-      public Builder addRepeatedField(
-          com.google.protobuf.Descriptors.FieldDescriptor field,
-          java.lang.Object value) {
-        return super.addRepeatedField(field, value);
+      public boolean getReplica() {
+        return replica_;
       }
-      @java.lang.Override
-      public Builder mergeFrom(com.google.protobuf.Message other) {
-        if (other instanceof ca.NetSysLab.ProtocolBuffers.KeyValueRequest.KVRequest) {
-          return mergeFrom((ca.NetSysLab.ProtocolBuffers.KeyValueRequest.KVRequest)other);
-        } else {
-          super.mergeFrom(other);
-          return this;
-        }
+      /**
+       * <code>optional bool replica = 9;</code>
+       * @param value The replica to set.
+       * @return This builder for chaining.
+       */
+      public Builder setReplica(boolean value) {
+        
+        replica_ = value;
+        bitField0_ |= 0x00000100;
+        onChanged();
+        return this;
       }
-
-      public Builder mergeFrom(ca.NetSysLab.ProtocolBuffers.KeyValueRequest.KVRequest other) {
-        if (other == ca.NetSysLab.ProtocolBuffers.KeyValueRequest.KVRequest.getDefaultInstance()) return this;
-        if (other.getCommand() != 0) {
-          setCommand(other.getCommand());
-        }
-        if (other.hasKey()) {
-          setKey(other.getKey());
-        }
-        if (other.hasValue()) {
-          setValue(other.getValue());
-        }
-        if (other.hasVersion()) {
-          setVersion(other.getVersion());
-        }
-        this.mergeUnknownFields(other.getUnknownFields());
+      /**
+       * <code>optional bool replica = 9;</code>
+       * @return This builder for chaining.
+       */
+      public Builder clearReplica() {
+        bitField0_ = (bitField0_ & ~0x00000100);
+        replica_ = false;
         onChanged();
         return this;
       }
 
-      @java.lang.Override
-      public final boolean isInitialized() {
-        return true;
+      private java.lang.Object hint_ = "";
+      /**
+       * <code>optional string hint = 10;</code>
+       * @return Whether the hint field is set.
+       */
+      public boolean hasHint() {
+        return ((bitField0_ & 0x00000200) != 0);
       }
-
-      @java.lang.Override
-      public Builder mergeFrom(
-          com.google.protobuf.CodedInputStream input,
-          com.google.protobuf.ExtensionRegistryLite extensionRegistry)
-          throws java.io.IOException {
-        if (extensionRegistry == null) {
-          throw new java.lang.NullPointerException();
+      /**
+       * <code>optional string hint = 10;</code>
+       * @return The hint.
+       */
+      public java.lang.String getHint() {
+        java.lang.Object ref = hint_;
+        if (!(ref instanceof java.lang.String)) {
+          com.google.protobuf.ByteString bs =
+              (com.google.protobuf.ByteString) ref;
+          java.lang.String s = bs.toStringUtf8();
+          hint_ = s;
+          return s;
+        } else {
+          return (java.lang.String) ref;
         }
-        try {
-          boolean done = false;
-          while (!done) {
-            int tag = input.readTag();
-            switch (tag) {
-              case 0:
-                done = true;
-                break;
-              case 8: {
-                command_ = input.readUInt32();
-                bitField0_ |= 0x00000001;
-                break;
-              } // case 8
-              case 18: {
-                key_ = input.readBytes();
-                bitField0_ |= 0x00000002;
-                break;
-              } // case 18
-              case 26: {
-                value_ = input.readBytes();
-                bitField0_ |= 0x00000004;
-                break;
-              } // case 26
-              case 32: {
-                version_ = input.readInt32();
-                bitField0_ |= 0x00000008;
-                break;
-              } // case 32
-              default: {
-                if (!super.parseUnknownField(input, extensionRegistry, tag)) {
-                  done = true; // was an endgroup tag
-                }
-                break;
-              } // default:
-            } // switch (tag)
-          } // while (!done)
-        } catch (com.google.protobuf.InvalidProtocolBufferException e) {
-          throw e.unwrapIOException();
-        } finally {
-          onChanged();
-        } // finally
-        return this;
       }
-      private int bitField0_;
-
-      private int command_ ;
       /**
-       * <code>uint32 command = 1;</code>
-       * @return The command.
+       * <code>optional string hint = 10;</code>
+       * @return The bytes for hint.
        */
-      @java.lang.Override
-      public int getCommand() {
-        return command_;
+      public com.google.protobuf.ByteString
+          getHintBytes() {
+        java.lang.Object ref = hint_;
+        if (ref instanceof String) {
+          com.google.protobuf.ByteString b = 
+              com.google.protobuf.ByteString.copyFromUtf8(
+                  (java.lang.String) ref);
+          hint_ = b;
+          return b;
+        } else {
+          return (com.google.protobuf.ByteString) ref;
+        }
       }
       /**
-       * <code>uint32 command = 1;</code>
-       * @param value The command to set.
+       * <code>optional string hint = 10;</code>
+       * @param value The hint to set.
        * @return This builder for chaining.
        */
-      public Builder setCommand(int value) {
-        
-        command_ = value;
-        bitField0_ |= 0x00000001;
+      public Builder setHint(
+          java.lang.String value) {
+        if (value == null) { throw new NullPointerException(); }
+        hint_ = value;
+        bitField0_ |= 0x00000200;
         onChanged();
         return this;
       }
       /**
-       * <code>uint32 command = 1;</code>
+       * <code>optional string hint = 10;</code>
        * @return This builder for chaining.
        */
-      public Builder clearCommand() {
-        bitField0_ = (bitField0_ & ~0x00000001);
-        command_ = 0;
+      public Builder clearHint() {
+        hint_ = getDefaultInstance().getHint();
+        bitField0_ = (bitField0_ & ~0x00000200);
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>optional string hint = 10;</code>
+       * @param value The bytes for hint to set.
+       * @return This builder for chaining.
+       */
+      public Builder setHintBytes(
+          com.google.protobuf.ByteString value) {
+        if (value == null) { throw new NullPointerException(); }
+        checkByteStringIsUtf8(value);
+        hint_ = value;
+        bitField0_ |= 0x00000200;
         onChanged();
         return this;
       }
 
-      private com.google.protobuf.ByteString key_ = com.google.protobuf.ByteString.EMPTY;
+      private long stamp_ ;
       /**
-       * <code>optional bytes key = 2;</code>
-       * @return Whether the key field is set.
+       * <code>optional int64 stamp = 11;</code>
+       * @return Whether the stamp field is set.
        */
       @java.lang.Override
-      public boolean hasKey() {
-        return ((bitField0_ & 0x00000002) != 0);
+      public boolean hasStamp() {
+        return ((bitField0_ & 0x00000400) != 0);
       }
       /**
-       * <code>optional bytes key = 2;</code>
-       * @return The key.
+       * <code>optional int64 stamp = 11;</code>
+       * @return The stamp.
        */
       @java.lang.Override
-      public com.google.protobuf.ByteString getKey() {
-        return key_;
+      public long getStamp() {
+        return stamp_;
       }
       /**
-       * <code>optional bytes key = 2;</code>
-       * @param value The key to set.
+       * <code>optional int64 stamp = 11;</code>
+       * @param value The stamp to set.
        * @return This builder for chaining.
        */
-      public Builder setKey(com.google.protobuf.ByteString value) {
-        if (value == null) { throw new NullPointerException(); }
-        key_ = value;
-        bitField0_ |= 0x00000002;
+      public Builder setStamp(long value) {
+        
+        stamp_ = value;
+        bitField0_ |= 0x00000400;
         onChanged();
         return this;
       }
       /**
-       * <code>optional bytes key = 2;</code>
+       * <code>optional int64 stamp = 11;</code>
        * @return This builder for chaining.
        */
-      public Builder clearKey() {
-        bitField0_ = (bitField0_ & ~0x00000002);
-        key_ = getDefaultInstance().getKey();
+      public Builder clearStamp() {
+        bitField0_ = (bitField0_ & ~0x00000400);
+        stamp_ = 0L;
         onChanged();
         return this;
       }
 
-      private com.google.protobuf.ByteString value_ = com.google.protobuf.ByteString.EMPTY;
+      private boolean primaryRead_ ;
       /**
-       * <code>optional bytes value = 3;</code>
-       * @return Whether the value field is set.
+       * <code>optional bool primaryRead = 12;</code>
+       * @return Whether the primaryRead field is set.
        */
       @java.lang.Override
-      public boolean hasValue() {
-        return ((bitField0_ & 0x00000004) != 0);
+      public boolean hasPrimaryRead() {
+        return ((bitField0_ & 0x00000800) != 0);
       }
       /**
-       * <code>optional bytes value = 3;</code>
-       * @return The value.
+       * <code>optional bool primaryRead = 12;</code>
+       * @return The primaryRead.
        */
       @java.lang.Override
-      public com.google.protobuf.ByteString getValue() {
-        return value_;
+      public boolean getPrimaryRead() {
+        return primaryRead_;
       }
       /**
-       * <code>optional bytes value = 3;</code>
-       * @param value The value to set.
+       * <code>optional bool primaryRead = 12;</code>
+       * @param value The primaryRead to set.
        * @return This builder for chaining.
        */
-      public Builder setValue(com.google.protobuf.ByteString value) {
-        if (value == null) { throw new NullPointerException(); }
-        value_ = value;
-        bitField0_ |= 0x00000004;
+      public Builder setPrimaryRead(boolean value) {
+        
+        primaryRead_ = value;
+        bitField0_ |= 0x00000800;
         onChanged();
         return this;
       }
       /**
-       * <code>optional bytes value = 3;</code>
+       * <code>optional bool primaryRead = 12;</code>
        * @return This builder for chaining.
        */
-      public Builder clearValue() {
-        bitField0_ = (bitField0_ & ~0x00000004);
-        value_ = getDefaultInstance().getValue();
+      public Builder clearPrimaryRead() {
+        bitField0_ = (bitField0_ & ~0x00000800);
+        primaryRead_ = false;
         onChanged();
         return this;
       }
 
-      private int version_ ;
+      private java.lang.Object cacheFor_ = "";
       /**
-       * <code>optional int32 version = 4;</code>
-       * @return Whether the version field is set.
+       * <code>optional string cacheFor = 13;</code>
+       * @return Whether the cacheFor field is set.
        */
-      @java.lang.Override
-      public boolean hasVersion() {
-        return ((bitField0_ & 0x00000008) != 0);
+      public boolean hasCacheFor() {
+        return ((bitField0_ & 0x00001000) != 0);
       }
       /**
-       * <code>optional int32 version = 4;</code>
-       * @return The version.
+       * <code>optional string cacheFor = 13;</code>
+       * @return The cacheFor.
        */
-      @java.lang.Override
-      public int getVersion() {
-        return version_;
+      public java.lang.String getCacheFor() {
+        java.lang.Object ref = cacheFor_;
+        if (!(ref instanceof java.lang.String)) {
+          com.google.protobuf.ByteString bs =
+              (com.google.protobuf.ByteString) ref;
+          java.lang.String s = bs.toStringUtf8();
+          cacheFor_ = s;
+          return s;
+        } else {
+          return (java.lang.String) ref;
+        }
       }
       /**
-       * <code>optional int32 version = 4;</code>
-       * @param value The version to set.
+       * <code>optional string cacheFor = 13;</code>
+       * @return The bytes for cacheFor.
+       */
+      public com.google.protobuf.ByteString
+          getCacheForBytes() {
+        java.lang.Object ref = cacheFor_;
+        if (ref instanceof String) {
+          com.google.protobuf.ByteString b = 
+              com.google.protobuf.ByteString.copyFromUtf8(
+                  (java.lang.String) ref);
+          cacheFor_ = b;
+          return b;
+        } else {
+          return (com.google.protobuf.ByteString) ref;
+        }
+      }
+      /**
+       * <code>optional string cacheFor = 13;</code>
+       * @param value The cacheFor to set.
        * @return This builder for chaining.
        */
-      public Builder setVersion(int value) {
-        
-        version_ = value;
-        bitField0_ |= 0x00000008;
+      public Builder setCacheFor(
+          java.lang.String value) {
+        if (value == null) { throw new NullPointerException(); }
+        cacheFor_ = value;
+        bitField0_ |= 0x00001000;
         onChanged();
         return this;
       }
       /**
-       * <code>optional int32 version = 4;</code>
+       * <code>optional string cacheFor = 13;</code>
        * @return This builder for chaining.
        */
-      public Builder clearVersion() {
-        bitField0_ = (bitField0_ & ~0x00000008);
-        version_ = 0;
+      public Builder clearCacheFor() {
+        cacheFor_ = getDefaultInstance().getCacheFor();
+        bitField0_ = (bitField0_ & ~0x00001000);
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>optional string cacheFor = 13;</code>
+       * @param value The bytes for cacheFor to set.
+       * @return This builder for chaining.
+       */
+      public Builder setCacheForBytes(
+          com.google.protobuf.ByteString value) {
+        if (value == null) { throw new NullPointerException(); }
+        checkByteStringIsUtf8(value);
+        cacheFor_ = value;
+        bitField0_ |= 0x00001000;
         onChanged();
         return this;
       }
@@ -800,6 +2912,11 @@ public final class KeyValueRequest {
   private static final 
     com.google.protobuf.GeneratedMessageV3.FieldAccessorTable
       internal_static_KVRequest_fieldAccessorTable;
+  private static final com.google.protobuf.Descriptors.Descriptor
+    internal_static_KVRequest_Record_descriptor;
+  private static final 
+    com.google.protobuf.GeneratedMessageV3.FieldAccessorTable
+      internal_static_KVRequest_Record_fieldAccessorTable;
 
   public static com.google.protobuf.Descriptors.FileDescriptor
       getDescriptor() {
@@ -809,12 +2926,21 @@ public final class KeyValueRequest {
       descriptor;
   static {
     java.lang.String[] descriptorData = {
-      "\n\034protos/KeyValueRequest.proto\"v\n\tKVRequ" +
-      "est\022\017\n\007command\030\001 \001(\r\022\020\n\003key\030\002 \001(\014H\000\210\001\001\022\022" +
-      "\n\005value\030\003 \001(\014H\001\210\001\001\022\024\n\007version\030\004 \001(\005H\002\210\001\001" +
-      "B\006\n\004_keyB\010\n\006_valueB\n\n\010_versionB/\n\034ca.Net" +
-      "SysLab.ProtocolBuffersB\017KeyValueRequestb" +
-      "\006proto3"
+      "\n\025KeyValueRequest.proto\"\365\003\n\tKVRequest\022\017\n" +
+      "\007command\030\001 \001(\r\022\020\n\003key\030\002 \001(\014H\000\210\001\001\022\022\n\005valu" +
+      "e\030\003 \001(\014H\001\210\001\001\022\024\n\007version\030\004 \001(\005H\002\210\001\001\022\033\n\016ac" +
+      "ceptRedirect\030\005 \001(\010H\003\210\001\001\022\"\n\007records\030\006 \003(\013" +
+      "2\021.KVRequest.Record\022\023\n\013digestNodes\030\007 \003(\005" +
+      "\022\026\n\tringEpoch\030\010 \001(\003H\004\210\001\001\022\024\n\007replica\030\t \001(" +
+      "\010H\005\210\001\001\022\021\n\004hint\030\n \001(\tH\006\210\001\001\022\022\n\005stamp\030\013 \001(\003" +
+      "H\007\210\001\001\022\030\n\013primaryRead\030\014 \001(\010H\010\210\001\001\022\025\n\010cache" +
+      "For\030\r \001(\tH\t\210\001\001\032D\n\006Record\022\013\n\003key\030\001 \001(\014\022\r\n" +
+      "\005value\030\002 \001(\014\022\017\n\007version\030\003 \001(\005\022\r\n\005stamp\030\004" +
+      " \001(\003B\006\n\004_keyB\010\n\006_valueB\n\n\010_versionB\021\n\017_a" +
+      "cceptRedirectB\014\n\n_ringEpochB\n\n\010_replicaB" +
+      "\007\n\005_hintB\010\n\006_stampB\016\n\014_primaryReadB\013\n\t_c" +
+      "acheForB/\n\034ca.NetSysLab.ProtocolBuffersB" +
+      "\017KeyValueRequestb\006proto3"
     };
     descriptor = com.google.protobuf.Descriptors.FileDescriptor
       .internalBuildGeneratedFileFrom(descriptorData,
@@ -825,7 +2951,13 @@ public final class KeyValueRequest {
     internal_static_KVRequest_fieldAccessorTable = new
       com.google.protobuf.GeneratedMessageV3.FieldAccessorTable(
         internal_static_KVRequest_descriptor,
-        new java.lang.String[] { "Command", "Key", "Value", "Version", "Key", "Value", "Version", });
+        new java.lang.String[] { "Command", "Key", "Value", "Version", "AcceptRedirect", "Records", "DigestNodes", "RingEpoch", "Replica", "Hint", "Stamp", "PrimaryRead", "CacheFor", "Key", "Value", "Version", "AcceptRedirect", "RingEpoch", "Replica", "Hint", "Stamp", "PrimaryRead", "CacheFor", });
+    internal_static_KVRequest_Record_descriptor =
+      internal_static_KVRequest_descriptor.getNestedTypes().get(0);
+    internal_static_KVRequest_Record_fieldAccessorTable = new
+      com.google.protobuf.GeneratedMessageV3.FieldAccessorTable(
+        internal_static_KVRequest_Record_descriptor,
+        new java.lang.String[] { "Key", "Value", "Version", "Stamp", });
   }
 
   // @@protoc_insertion_point(outer_class_scope)
@@ -102,6 +102,109 @@ public final class KeyValueResponse {
      */
     ca.NetSysLab.ProtocolBuffers.KeyValueResponse.KVResponse.MembershipInfoOrBuilder getMembershipInfoOrBuilder(
         int index);
+
+    /**
+     * <code>repeated string ringMembers = 8;</code>
+     * @return A list containing the ringMembers.
+     */
+    java.util.List<java.lang.String>
+        getRingMembersList();
+    /**
+     * <code>repeated string ringMembers = 8;</code>
+     * @return The count of ringMembers.
+     */
+    int getRingMembersCount();
+    /**
+     * <code>repeated string ringMembers = 8;</code>
+     * @param index The index of the element to return.
+     * @return The ringMembers at the given index.
+     */
+    java.lang.String getRingMembers(int index);
+    /**
+     * <code>repeated string ringMembers = 8;</code>
+     * @param index The index of the value to return.
+     * @return The bytes of the ringMembers at the given index.
+     */
+    com.google.protobuf.ByteString
+        getRingMembersBytes(int index);
+
+    /**
+     * <code>optional int64 ringEpoch = 9;</code>
+     * @return Whether the ringEpoch field is set.
+     */
+    boolean hasRingEpoch();
+    /**
+     * <code>optional int64 ringEpoch = 9;</code>
+     * @return The ringEpoch.
+     */
+    long getRingEpoch();
+
+    /**
+     * <code>optional string redirectAddress = 10;</code>
+     * @return Whether the redirectAddress field is set.
+     */
+    boolean hasRedirectAddress();
+    /**
+     * <code>optional string redirectAddress = 10;</code>
+     * @return The redirectAddress.
+     */
+    java.lang.String getRedirectAddress();
+    /**
+     * <code>optional string redirectAddress = 10;</code>
+     * @return The bytes for redirectAddress.
+     */
+    com.google.protobuf.ByteString
+        getRedirectAddressBytes();
+
+    /**
+     * <code>repeated int64 digests = 11;</code>
+     * @return A list containing the digests.
+     */
+    java.util.List<java.lang.Long> getDigestsList();
+    /**
+     * <code>repeated int64 digests = 11;</code>
+     * @return The count of digests.
+     */
+    int getDigestsCount();
+    /**
+     * <code>repeated int64 digests = 11;</code>
+     * @param index The index of the element to return.
+     * @return The digests at the given index.
+     */
+    long getDigests(int index);
+
+    /**
+     * <code>optional int64 stamp = 12;</code>
+     * @return Whether the stamp field is set.
+     */
+    boolean hasStamp();
+    /**
+     * <code>optional int64 stamp = 12;</code>
+     * @return The stamp.
+     */
+    long getStamp();
+
+    /**
+     * <code>optional int32 virtualNodes = 13;</code>
+     * @return Whether the virtualNodes field is set.
+     */
+    boolean hasVirtualNodes();
+    /**
+     * <code>optional int32 virtualNodes = 13;</code>
+     * @return The virtualNodes.
+     */
+    int getVirtualNodes();
+
+    /**
+     * <code>optional int32 chainLength = 14;</code>
+     * @return Whether the chainLength field is set.
+     */
+    boolean hasChainLength();
+    /**
+     * <code>optional int32 chainLength = 14;</code>
+     * @return The chainLength.
+     */
+    int getChainLength();
   }
   /**
    * Protobuf type {@code KVResponse}
@@ -118,6 +221,9 @@ public final class KeyValueResponse {
     private KVResponse() {
       value_ = com.google.protobuf.ByteString.EMPTY;
       membershipInfo_ = java.util.Collections.emptyList();
+      ringMembers_ = com.google.protobuf.LazyStringArrayList.EMPTY;
+      redirectAddress_ = "";
+      digests_ = emptyLongList();
     }
 
     @java.lang.Override
@@ -166,6 +272,12 @@ public final class KeyValueResponse {
        * @return The time.
        */
       long getTime();
+
+      /**
+       * <code>int32 load = 3;</code>
+       * @return The load.
+       */
+      int getLoad();
     }
     /**
      * Protobuf type {@code KVResponse.MembershipInfo}
@@ -258,6 +370,17 @@ public final class KeyValueResponse {
         return time_;
       }
 
+      public static final int LOAD_FIELD_NUMBER = 3;
+      private int load_ = 0;
+      /**
+       * <code>int32 load = 3;</code>
+       * @return The load.
+       */
+      @java.lang.Override
+      public int getLoad() {
+        return load_;
+      }
+
       private byte memoizedIsInitialized = -1;
       @java.lang.Override
       public final boolean isInitialized() {
@@ -278,6 +401,9 @@ public final class KeyValueResponse {
         if (time_ != 0L) {
           output.writeInt64(2, time_);
         }
+        if (load_ != 0) {
+          output.writeInt32(3, load_);
+        }
         getUnknownFields().writeTo(output);
       }
 
@@ -294,6 +420,10 @@ public final class KeyValueResponse {
           size += com.google.protobuf.CodedOutputStream
             .computeInt64Size(2, time_);
         }
+        if (load_ != 0) {
+          size += com.google.protobuf.CodedOutputStream
+            .computeInt32Size(3, load_);
+        }
         size += getUnknownFields().getSerializedSize();
         memoizedSize = size;
         return size;
@@ -313,6 +443,8 @@ public final class KeyValueResponse {
             .equals(other.getAddressPair())) return false;
         if (getTime()
             != other.getTime()) return false;
+        if (getLoad()
+            != other.getLoad()) return false;
         if (!getUnknownFields().equals(other.getUnknownFields())) return false;
         return true;
       }
@@ -329,6 +461,8 @@ public final class KeyValueResponse {
         hash = (37 * hash) + TIME_FIELD_NUMBER;
         hash = (53 * hash) + com.google.protobuf.Internal.hashLong(
             getTime());
+        hash = (37 * hash) + LOAD_FIELD_NUMBER;
+        hash = (53 * hash) + getLoad();
         hash = (29 * hash) + getUnknownFields().hashCode();
         memoizedHashCode = hash;
         return hash;
@@ -460,6 +594,7 @@ public final class KeyValueResponse {
           bitField0_ = 0;
           addressPair_ = "";
           time_ = 0L;
+          load_ = 0;
           return this;
         }
 
@@ -499,6 +634,9 @@ public final class KeyValueResponse {
           if (((from_bitField0_ & 0x00000002) != 0)) {
             result.time_ = time_;
           }
+          if (((from_bitField0_ & 0x00000004) != 0)) {
+            result.load_ = load_;
+          }
         }
 
         @java.lang.Override
@@ -553,6 +691,9 @@ public final class KeyValueResponse {
           if (other.getTime() != 0L) {
             setTime(other.getTime());
           }
+          if (other.getLoad() != 0) {
+            setLoad(other.getLoad());
+          }
           this.mergeUnknownFields(other.getUnknownFields());
           onChanged();
           return this;
@@ -589,6 +730,11 @@ public final class KeyValueResponse {
                   bitField0_ |= 0x00000002;
                   break;
                 } // case 16
+                case 24: {
+                  load_ = input.readInt32();
+                  bitField0_ |= 0x00000004;
+                  break;
+                } // case 24
                 default: {
                   if (!super.parseUnknownField(input, extensionRegistry, tag)) {
                     done = true; // was an endgroup tag
@@ -709,6 +855,38 @@ public final class KeyValueResponse {
           onChanged();
           return this;
         }
+
+        private int load_ ;
+        /**
+         * <code>int32 load = 3;</code>
+         * @return The load.
+         */
+        @java.lang.Override
+        public int getLoad() {
+          return load_;
+        }
+        /**
+         * <code>int32 load = 3;</code>
+         * @param value The load to set.
+         * @return This builder for chaining.
+         */
+        public Builder setLoad(int value) {
+          
+          load_ = value;
+          bitField0_ |= 0x00000004;
+          onChanged();
+          return this;
+        }
+        /**
+         * <code>int32 load = 3;</code>
+         * @return This builder for chaining.
+         */
+        public Builder clearLoad() {
+          bitField0_ = (bitField0_ & ~0x00000004);
+          load_ = 0;
+          onChanged();
+          return this;
+        }
         @java.lang.Override
         public final Builder setUnknownFields(
             final com.google.protobuf.UnknownFieldSet unknownFields) {
@@ -921,6 +1099,194 @@ public final class KeyValueResponse {
       return membershipInfo_.get(index);
     }
 
+    public static final int RINGMEMBERS_FIELD_NUMBER = 8;
+    @SuppressWarnings("serial")
+    private com.google.protobuf.LazyStringList ringMembers_;
+    /**
+     * <code>repeated string ringMembers = 8;</code>
+     * @return A list containing the ringMembers.
+     */
+    public com.google.protobuf.ProtocolStringList
+        getRingMembersList() {
+      return ringMembers_;
+    }
+    /**
+     * <code>repeated string ringMembers = 8;</code>
+     * @return The count of ringMembers.
+     */
+    public int getRingMembersCount() {
+      return ringMembers_.size();
+    }
+    /**
+     * <code>repeated string ringMembers = 8;</code>
+     * @param index The index of the element to return.
+     * @return The ringMembers at the given index.
+     */
+    public java.lang.String getRingMembers(int index) {
+      return ringMembers_.get(index);
+    }
+    /**
+     * <code>repeated string ringMembers = 8;</code>
+     * @param index The index of the value to return.
+     * @return The bytes of the ringMembers at the given index.
+     */
+    public com.google.protobuf.ByteString
+        getRingMembersBytes(int index) {
+      return ringMembers_.getByteString(index);
+    }
+
+    public static final int RINGEPOCH_FIELD_NUMBER = 9;
+    private long ringEpoch_ = 0L;
+    /**
+     * <code>optional int64 ringEpoch = 9;</code>
+     * @return Whether the ringEpoch field is set.
+     */
+    @java.lang.Override
+    public boolean hasRingEpoch() {
+      return ((bitField0_ & 0x00000020) != 0);
+    }
+    /**
+     * <code>optional int64 ringEpoch = 9;</code>
+     * @return The ringEpoch.
+     */
+    @java.lang.Override
+    public long getRingEpoch() {
+      return ringEpoch_;
+    }
+
+    public static final int REDIRECTADDRESS_FIELD_NUMBER = 10;
+    @SuppressWarnings("serial")
+    private volatile java.lang.Object redirectAddress_ = "";
+    /**
+     * <code>optional string redirectAddress = 10;</code>
+     * @return Whether the redirectAddress field is set.
+     */
+    @java.lang.Override
+    public boolean hasRedirectAddress() {
+      return ((bitField0_ & 0x00000040) != 0);
+    }
+    /**
+     * <code>optional string redirectAddress = 10;</code>
+     * @return The redirectAddress.
+     */
+    @java.lang.Override
+    public java.lang.String getRedirectAddress() {
+      java.lang.Object ref = redirectAddress_;
+      if (ref instanceof java.lang.String) {
+        return (java.lang.String) ref;
+      } else {
+        com.google.protobuf.ByteString bs = 
+            (com.google.protobuf.ByteString) ref;
+        java.lang.String s = bs.toStringUtf8();
+        redirectAddress_ = s;
+        return s;
+      }
+    }
+    /**
+     * <code>optional string redirectAddress = 10;</code>
+     * @return The bytes for redirectAddress.
+     */
+    @java.lang.Override
+    public com.google.protobuf.ByteString
+        getRedirectAddressBytes() {
+      java.lang.Object ref = redirectAddress_;
+      if (ref instanceof java.lang.String) {
+        com.google.protobuf.ByteString b = 
+            com.google.protobuf.ByteString.copyFromUtf8(
+                (java.lang.String) ref);
+        redirectAddress_ = b;
+        return b;
+      } else {
+        return (com.google.protobuf.ByteString) ref;
+      }
+    }
+
+    public static final int DIGESTS_FIELD_NUMBER = 11;
+    @SuppressWarnings("serial")
+    private com.google.protobuf.Internal.LongList digests_;
+    /**
+     * <code>repeated int64 digests = 11;</code>
+     * @return A list containing the digests.
+     */
+    @java.lang.Override
+    public java.util.List<java.lang.Long>
+        getDigestsList() {
+      return digests_;
+    }
+    /**
+     * <code>repeated int64 digests = 11;</code>
+     * @return The count of digests.
+     */
+    public int getDigestsCount() {
+      return digests_.size();
+    }
+    /**
+     * <code>repeated int64 digests = 11;</code>
+     * @param index The index of the element to return.
+     * @return The digests at the given index.
+     */
+    public long getDigests(int index) {
+      return digests_.getLong(index);
+    }
+    private int digestsMemoizedSerializedSize = -1;
+
+    public static final int STAMP_FIELD_NUMBER = 12;
+    private long stamp_ = 0L;
+    /**
+     * <code>optional int64 stamp = 12;</code>
+     * @return Whether the stamp field is set.
+     */
+    @java.lang.Override
+    public boolean hasStamp() {
+      return ((bitField0_ & 0x00000080) != 0);
+    }
+    /**
+     * <code>optional int64 stamp = 12;</code>
+     * @return The stamp.
+     */
+    @java.lang.Override
+    public long getStamp() {
+      return stamp_;
+    }
+
+    public static final int VIRTUALNODES_FIELD_NUMBER = 13;
+    private int virtualNodes_ = 0;
+    /**
+     * <code>optional int32 virtualNodes = 13;</code>
+     * @return Whether the virtualNodes field is set.
+     */
+    @java.lang.Override
+    public boolean hasVirtualNodes() {
+      return ((bitField0_ & 0x00000100) != 0);
+    }
+    /**
+     * <code>optional int32 virtualNodes = 13;</code>
+     * @return The virtualNodes.
+     */
+    @java.lang.Override
+    public int getVirtualNodes() {
+      return virtualNodes_;
+    }
+
+    public static final int CHAINLENGTH_FIELD_NUMBER = 14;
+    private int chainLength_ = 0;
+    /**
+     * <code>optional int32 chainLength = 14;</code>
+     * @return Whether the chainLength field is set.
+     */
+    @java.lang.Override
+    public boolean hasChainLength() {
+      return ((bitField0_ & 0x00000200) != 0);
+    }
+    /**
+     * <code>optional int32 chainLength = 14;</code>
+     * @return The chainLength.
+     */
+    @java.lang.Override
+    public int getChainLength() {
+      return chainLength_;
+    }
+
     private byte memoizedIsInitialized = -1;
     @java.lang.Override
     public final boolean isInitialized() {
@@ -935,6 +1301,7 @@ public final class KeyValueResponse {
     @java.lang.Override
     public void writeTo(com.google.protobuf.CodedOutputStream output)
                         throws java.io.IOException {
+      getSerializedSize();
       if (errCode_ != 0) {
         output.writeUInt32(1, errCode_);
       }
@@ -956,6 +1323,31 @@ public final class KeyValueResponse {
       for (int i = 0; i < membershipInfo_.size(); i++) {
         output.writeMessage(7, membershipInfo_.get(i));
       }
+      for (int i = 0; i < ringMembers_.size(); i++) {
+        com.google.protobuf.GeneratedMessageV3.writeString(output, 8, ringMembers_.getRaw(i));
+      }
+      if (((bitField0_ & 0x00000020) != 0)) {
+        output.writeInt64(9, ringEpoch_);
+      }
+      if (((bitField0_ & 0x00000040) != 0)) {
+        com.google.protobuf.GeneratedMessageV3.writeString(output, 10, redirectAddress_);
+      }
+      if (getDigestsList().size() > 0) {
+        output.writeUInt32NoTag(90);
+        output.writeUInt32NoTag(digestsMemoizedSerializedSize);
+      }
+      for (int i = 0; i < digests_.size(); i++) {
+        output.writeInt64NoTag(digests_.getLong(i));
+      }
+      if (((bitField0_ & 0x00000080) != 0)) {
+        output.writeInt64(12, stamp_);
+      }
+      if (((bitField0_ & 0x00000100) != 0)) {
+        output.writeInt32(13, virtualNodes_);
+      }
+      if (((bitField0_ & 0x00000200) != 0)) {
+        output.writeInt32(14, chainLength_);
+      }
       getUnknownFields().writeTo(output);
     }
 
@@ -993,6 +1385,47 @@ public final class KeyValueResponse {
         size += com.google.protobuf.CodedOutputStream
           .computeMessageSize(7, membershipInfo_.get(i));
       }
+      {
+        int dataSize = 0;
+        for (int i = 0; i < ringMembers_.size(); i++) {
+          dataSize += computeStringSizeNoTag(ringMembers_.getRaw(i));
+        }
+        size += dataSize;
+        size += 1 * getRingMembersList().size();
+      }
+      if (((bitField0_ & 0x00000020) != 0)) {
+        size += com.google.protobuf.CodedOutputStream
+          .computeInt64Size(9, ringEpoch_);
+      }
+      if (((bitField0_ & 0x00000040) != 0)) {
+        size += com.google.protobuf.GeneratedMessageV3.computeStringSize(10, redirectAddress_);
+      }
+      {
+        int dataSize = 0;
+        for (int i = 0; i < digests_.size(); i++) {
+          dataSize += com.google.protobuf.CodedOutputStream
+            .computeInt64SizeNoTag(digests_.getLong(i));
+        }
+        size += dataSize;
+        if (!getDigestsList().isEmpty()) {
+          size += 1;
+          size += com.google.protobuf.CodedOutputStream
+              .computeInt32SizeNoTag(dataSize);
+        }
+        digestsMemoizedSerializedSize = dataSize;
+      }
+      if (((bitField0_ & 0x00000080) != 0)) {
+        size += com.google.protobuf.CodedOutputStream
+          .computeInt64Size(12, stamp_);
+      }
+      if (((bitField0_ & 0x00000100) != 0)) {
+        size += com.google.protobuf.CodedOutputStream
+          .computeInt32Size(13, virtualNodes_);
+      }
+      if (((bitField0_ & 0x00000200) != 0)) {
+        size += com.google.protobuf.CodedOutputStream
+          .computeInt32Size(14, chainLength_);
+      }
       size += getUnknownFields().getSerializedSize();
       memoizedSize = size;
       return size;
@@ -1037,6 +1470,35 @@ public final class KeyValueResponse {
       }
       if (!getMembershipInfoList()
           .equals(other.getMembershipInfoList())) return false;
+      if (!getRingMembersList()
+          .equals(other.getRingMembersList())) return false;
+      if (hasRingEpoch() != other.hasRingEpoch()) return false;
+      if (hasRingEpoch()) {
+        if (getRingEpoch()
+            != other.getRingEpoch()) return false;
+      }
+      if (hasRedirectAddress() != other.hasRedirectAddress()) return false;
+      if (hasRedirectAddress()) {
+        if (!getRedirectAddress()
+            .equals(other.getRedirectAddress())) return false;
+      }
+      if (!getDigestsList()
+          .equals(other.getDigestsList())) return false;
+      if (hasStamp() != other.hasStamp()) return false;
+      if (hasStamp()) {
+        if (getStamp()
+            != other.getStamp()) return false;
+      }
+      if (hasVirtualNodes() != other.hasVirtualNodes()) return false;
+      if (hasVirtualNodes()) {
+        if (getVirtualNodes()
+            != other.getVirtualNodes()) return false;
+      }
+      if (hasChainLength() != other.hasChainLength()) return false;
+      if (hasChainLength()) {
+        if (getChainLength()
+            != other.getChainLength()) return false;
+      }
       if (!getUnknownFields().equals(other.getUnknownFields())) return false;
       return true;
     }
@@ -1074,6 +1536,36 @@ public final class KeyValueResponse {
         hash = (37 * hash) + MEMBERSHIPINFO_FIELD_NUMBER;
         hash = (53 * hash) + getMembershipInfoList().hashCode();
       }
+      if (getRingMembersCount() > 0) {
+        hash = (37 * hash) + RINGMEMBERS_FIELD_NUMBER;
+        hash = (53 * hash) + getRingMembersList().hashCode();
+      }
+      if (hasRingEpoch()) {
+        hash = (37 * hash) + RINGEPOCH_FIELD_NUMBER;
+        hash = (53 * hash) + com.google.protobuf.Internal.hashLong(
+            getRingEpoch());
+      }
+      if (hasRedirectAddress()) {
+        hash = (37 * hash) + REDIRECTADDRESS_FIELD_NUMBER;
+        hash = (53 * hash) + getRedirectAddress().hashCode();
+      }
+      if (getDigestsCount() > 0) {
+        hash = (37 * hash) + DIGESTS_FIELD_NUMBER;
+        hash = (53 * hash) + getDigestsList().hashCode();
+      }
+      if (hasStamp()) {
+        hash = (37 * hash) + STAMP_FIELD_NUMBER;
+        hash = (53 * hash) + com.google.protobuf.Internal.hashLong(
+            getStamp());
+      }
+      if (hasVirtualNodes()) {
+        hash = (37 * hash) + VIRTUALNODES_FIELD_NUMBER;
+        hash = (53 * hash) + getVirtualNodes();
+      }
+      if (hasChainLength()) {
+        hash = (37 * hash) + CHAINLENGTH_FIELD_NUMBER;
+        hash = (53 * hash) + getChainLength();
+      }
       hash = (29 * hash) + getUnknownFields().hashCode();
       memoizedHashCode = hash;
       return hash;
@@ -1216,6 +1708,14 @@ public final class KeyValueResponse {
           membershipInfoBuilder_.clear();
         }
         bitField0_ = (bitField0_ & ~0x00000040);
+        ringMembers_ = com.google.protobuf.LazyStringArrayList.EMPTY;
+        bitField0_ = (bitField0_ & ~0x00000080);
+        ringEpoch_ = 0L;
+        redirectAddress_ = "";
+        digests_ = emptyLongList();
+        stamp_ = 0L;
+        virtualNodes_ = 0;
+        chainLength_ = 0;
         return this;
       }
 
@@ -1258,6 +1758,16 @@ public final class KeyValueResponse {
         } else {
           result.membershipInfo_ = membershipInfoBuilder_.build();
         }
+        if (((bitField0_ & 0x00000080) != 0)) {
+          ringMembers_ = ringMembers_.getUnmodifiableView();
+          bitField0_ = (bitField0_ & ~0x00000080);
+        }
+        result.ringMembers_ = ringMembers_;
+        if (((bitField0_ & 0x00000400) != 0)) {
+          digests_.makeImmutable();
+          bitField0_ = (bitField0_ & ~0x00000400);
+        }
+        result.digests_ = digests_;
       }
 
       private void buildPartial0(ca.NetSysLab.ProtocolBuffers.KeyValueResponse.KVResponse result) {
@@ -1286,6 +1796,26 @@ public final class KeyValueResponse {
           result.membershipCount_ = membershipCount_;
           to_bitField0_ |= 0x00000010;
         }
+        if (((from_bitField0_ & 0x00000100) != 0)) {
+          result.ringEpoch_ = ringEpoch_;
+          to_bitField0_ |= 0x00000020;
+        }
+        if (((from_bitField0_ & 0x00000200) != 0)) {
+          result.redirectAddress_ = redirectAddress_;
+          to_bitField0_ |= 0x00000040;
+        }
+        if (((from_bitField0_ & 0x00000800) != 0)) {
+          result.stamp_ = stamp_;
+          to_bitField0_ |= 0x00000080;
+        }
+        if (((from_bitField0_ & 0x00001000) != 0)) {
+          result.virtualNodes_ = virtualNodes_;
+          to_bitField0_ |= 0x00000100;
+        }
+        if (((from_bitField0_ & 0x00002000) != 0)) {
+          result.chainLength_ = chainLength_;
+          to_bitField0_ |= 0x00000200;
+        }
         result.bitField0_ |= to_bitField0_;
       }
 
@@ -1377,6 +1907,43 @@ public final class KeyValueResponse {
             }
           }
         }
+        if (!other.ringMembers_.isEmpty()) {
+          if (ringMembers_.isEmpty()) {
+            ringMembers_ = other.ringMembers_;
+            bitField0_ = (bitField0_ & ~0x00000080);
+          } else {
+            ensureRingMembersIsMutable();
+            ringMembers_.addAll(other.ringMembers_);
+          }
+          onChanged();
+        }
+        if (other.hasRingEpoch()) {
+          setRingEpoch(other.getRingEpoch());
+        }
+        if (other.hasRedirectAddress()) {
+          redirectAddress_ = other.redirectAddress_;
+          bitField0_ |= 0x00000200;
+          onChanged();
+        }
+        if (!other.digests_.isEmpty()) {
+          if (digests_.isEmpty()) {
+            digests_ = other.digests_;
+            bitField0_ = (bitField0_ & ~0x00000400);
+          } else {
+            ensureDigestsIsMutable();
+            digests_.addAll(other.digests_);
+          }
+          onChanged();
+        }
+        if (other.hasStamp()) {
+          setStamp(other.getStamp());
+        }
+        if (other.hasVirtualNodes()) {
+          setVirtualNodes(other.getVirtualNodes());
+        }
+        if (other.hasChainLength()) {
+          setChainLength(other.getChainLength());
+        }
         this.mergeUnknownFields(other.getUnknownFields());
         onChanged();
         return this;
@@ -1446,6 +2013,53 @@ public final class KeyValueResponse {
                 }
                 break;
               } // case 58
+              case 66: {
+                java.lang.String s = input.readStringRequireUtf8();
+                ensureRingMembersIsMutable();
+                ringMembers_.add(s);
+                break;
+              } // case 66
+              case 72: {
+                ringEpoch_ = input.readInt64();
+                bitField0_ |= 0x00000100;
+                break;
+              } // case 72
+              case 82: {
+                redirectAddress_ = input.readStringRequireUtf8();
+                bitField0_ |= 0x00000200;
+                break;
+              } // case 82
+              case 88: {
+                long v = input.readInt64();
+                ensureDigestsIsMutable();
+                digests_.addLong(v);
+                break;
+              } // case 88
+              case 90: {
+                int length = input.readRawVarint32();
+                int limit = input.pushLimit(length);
+                ensureDigestsIsMutable();
+                while (input.getBytesUntilLimit() > 0) {
+                  digests_.addLong(input.readInt64());
+                }
+                input.popLimit(limit);
+                break;
+              } // case 90
+              case 96: {
+                stamp_ = input.readInt64();
+                bitField0_ |= 0x00000800;
+                break;
+              } // case 96
+              case 104: {
+                virtualNodes_ = input.readInt32();
+                bitField0_ |= 0x00001000;
+                break;
+              } // case 104
+              case 112: {
+                chainLength_ = input.readInt32();
+                bitField0_ |= 0x00002000;
+                break;
+              } // case 112
               default: {
                 if (!super.parseUnknownField(input, extensionRegistry, tag)) {
                   done = true; // was an endgroup tag
@@ -1934,6 +2548,430 @@ public final class KeyValueResponse {
         }
         return membershipInfoBuilder_;
       }
+
+      private com.google.protobuf.LazyStringList ringMembers_ = com.google.protobuf.LazyStringArrayList.EMPTY;
+      private void ensureRingMembersIsMutable() {
+        if (!((bitField0_ & 0x00000080) != 0)) {
+          ringMembers_ = new com.google.protobuf.LazyStringArrayList(ringMembers_);
+          bitField0_ |= 0x00000080;
+         }
+      }
+      /**
+       * <code>repeated string ringMembers = 8;</code>
+       * @return A list containing the ringMembers.
+       */
+      public com.google.protobuf.ProtocolStringList
+          getRingMembersList() {
+        return ringMembers_.getUnmodifiableView();
+      }
+      /**
+       * <code>repeated string ringMembers = 8;</code>
+       * @return The count of ringMembers.
+       */
+      public int getRingMembersCount() {
+        return ringMembers_.size();
+      }
+      /**
+       * <code>repeated string ringMembers = 8;</code>
+       * @param index The index of the element to return.
+       * @return The ringMembers at the given index.
+       */
+      public java.lang.String getRingMembers(int index) {
+        return ringMembers_.get(index);
+      }
+      /**
+       * <code>repeated string ringMembers = 8;</code>
+       * @param index The index of the value to return.
+       * @return The bytes of the ringMembers at the given index.
+       */
+      public com.google.protobuf.ByteString
+          getRingMembersBytes(int index) {
+        return ringMembers_.getByteString(index);
+      }
+      /**
+       * <code>repeated string ringMembers = 8;</code>
+       * @param index The index to set the value at.
+       * @param value The ringMembers to set.
+       * @return This builder for chaining.
+       */
+      public Builder setRingMembers(
+          int index, java.lang.String value) {
+        if (value == null) { throw new NullPointerException(); }
+        ensureRingMembersIsMutable();
+        ringMembers_.set(index, value);
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>repeated string ringMembers = 8;</code>
+       * @param value The ringMembers to add.
+       * @return This builder for chaining.
+       */
+      public Builder addRingMembers(
+          java.lang.String value) {
+        if (value == null) { throw new NullPointerException(); }
+        ensureRingMembersIsMutable();
+        ringMembers_.add(value);
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>repeated string ringMembers = 8;</code>
+       * @param values The ringMembers to add.
+       * @return This builder for chaining.
+       */
+      public Builder addAllRingMembers(
+          java.lang.Iterable<java.lang.String> values) {
+        ensureRingMembersIsMutable();
+        com.google.protobuf.AbstractMessageLite.Builder.addAll(
+            values, ringMembers_);
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>repeated string ringMembers = 8;</code>
+       * @return This builder for chaining.
+       */
+      public Builder clearRingMembers() {
+        ringMembers_ = com.google.protobuf.LazyStringArrayList.EMPTY;
+        bitField0_ = (bitField0_ & ~0x00000080);
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>repeated string ringMembers = 8;</code>
+       * @param value The bytes of the ringMembers to add.
+       * @return This builder for chaining.
+       */
+      public Builder addRingMembersBytes(
+          com.google.protobuf.ByteString value) {
+        if (value == null) { throw new NullPointerException(); }
+        checkByteStringIsUtf8(value);
+        ensureRingMembersIsMutable();
+        ringMembers_.add(value);
+        onChanged();
+        return this;
+      }
+
+      private long ringEpoch_ ;
+      /**
+       * <code>optional int64 ringEpoch = 9;</code>
+       * @return Whether the ringEpoch field is set.
+       */
+      @java.lang.Override
+      public boolean hasRingEpoch() {
+        return ((bitField0_ & 0x00000100) != 0);
+      }
+      /**
+       * <code>optional int64 ringEpoch = 9;</code>
+       * @return The ringEpoch.
+       */
+      @java.lang.Override
+      public long getRingEpoch() {
+        return ringEpoch_;
+      }
+      /**
+       * <code>optional int64 ringEpoch = 9;</code>
+       * @param value The ringEpoch to set.
+       * @return This builder for chaining.
+       */
+      public Builder setRingEpoch(long value) {
+        
+        ringEpoch_ = value;
+        bitField0_ |= 0x00000100;
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>optional int64 ringEpoch = 9;</code>
+       * @return This builder for chaining.
+       */
+      public Builder clearRingEpoch() {
+        bitField0_ = (bitField0_ & ~0x00000100);
+        ringEpoch_ = 0L;
+        onChanged();
+        return this;
+      }
+
+      private java.lang.Object redirectAddress_ = "";
+      /**
+       * <code>optional string redirectAddress = 10;</code>
+       * @return Whether the redirectAddress field is set.
+       */
+      public boolean hasRedirectAddress() {
+        return ((bitField0_ & 0x00000200) != 0);
+      }
+      /**
+       * <code>optional string redirectAddress = 10;</code>
+       * @return The redirectAddress.
+       */
+      public java.lang.String getRedirectAddress() {
+        java.lang.Object ref = redirectAddress_;
+        if (!(ref instanceof java.lang.String)) {
+          com.google.protobuf.ByteString bs =
+              (com.google.protobuf.ByteString) ref;
+          java.lang.String s = bs.toStringUtf8();
+          redirectAddress_ = s;
+          return s;
+        } else {
+          return (java.lang.String) ref;
+        }
+      }
+      /**
+       * <code>optional string redirectAddress = 10;</code>
+       * @return The bytes for redirectAddress.
+       */
+      public com.google.protobuf.ByteString
+          getRedirectAddressBytes() {
+        java.lang.Object ref = redirectAddress_;
+        if (ref instanceof String) {
+          com.google.protobuf.ByteString b = 
+              com.google.protobuf.ByteString.copyFromUtf8(
+                  (java.lang.String) ref);
+          redirectAddress_ = b;
+          return b;
+        } else {
+          return (com.google.protobuf.ByteString) ref;
+        }
+      }
+      /**
+       * <code>optional string redirectAddress = 10;</code>
+       * @param value The redirectAddress to set.
+       * @return This builder for chaining.
+       */
+      public Builder setRedirectAddress(
+          java.lang.String value) {
+        if (value == null) { throw new NullPointerException(); }
+        redirectAddress_ = value;
+        bitField0_ |= 0x00000200;
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>optional string redirectAddress = 10;</code>
+       * @return This builder for chaining.
+       */
+      public Builder clearRedirectAddress() {
+        redirectAddress_ = getDefaultInstance().getRedirectAddress();
+        bitField0_ = (bitField0_ & ~0x00000200);
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>optional string redirectAddress = 10;</code>
+       * @param value The bytes for redirectAddress to set.
+       * @return This builder for chaining.
+       */
+      public Builder setRedirectAddressBytes(
+          com.google.protobuf.ByteString value) {
+        if (value == null) { throw new NullPointerException(); }
+        checkByteStringIsUtf8(value);
+        redirectAddress_ = value;
+        bitField0_ |= 0x00000200;
+        onChanged();
+        return this;
+      }
+
+      private com.google.protobuf.Internal.LongList digests_ = emptyLongList();
+      private void ensureDigestsIsMutable() {
+        if (!((bitField0_ & 0x00000400) != 0)) {
+          digests_ = mutableCopy(digests_);
+          bitField0_ |= 0x00000400;
+        }
+      }
+      /**
+       * <code>repeated int64 digests = 11;</code>
+       * @return A list containing the digests.
+       */
+      public java.util.List<java.lang.Long>
+          getDigestsList() {
+        return ((bitField0_ & 0x00000400) != 0) ?
+                 java.util.Collections.unmodifiableList(digests_) : digests_;
+      }
+      /**
+       * <code>repeated int64 digests = 11;</code>
+       * @return The count of digests.
+       */
+      public int getDigestsCount() {
+        return digests_.size();
+      }
+      /**
+       * <code>repeated int64 digests = 11;</code>
+       * @param index The index of the element to return.
+       * @return The digests at the given index.
+       */
+      public long getDigests(int index) {
+        return digests_.getLong(index);
+      }
+      /**
+       * <code>repeated int64 digests = 11;</code>
+       * @param index The index to set the value at.
+       * @param value The digests to set.
+       * @return This builder for chaining.
+       */
+      public Builder setDigests(
+          int index, long value) {
+        
+        ensureDigestsIsMutable();
+        digests_.setLong(index, value);
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>repeated int64 digests = 11;</code>
+       * @param value The digests to add.
+       * @return This builder for chaining.
+       */
+      public Builder addDigests(long value) {
+        
+        ensureDigestsIsMutable();
+        digests_.addLong(value);
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>repeated int64 digests = 11;</code>
+       * @param values The digests to add.
+       * @return This builder for chaining.
+       */
+      public Builder addAllDigests(
+          java.lang.Iterable<? extends java.lang.Long> values) {
+        ensureDigestsIsMutable();
+        com.google.protobuf.AbstractMessageLite.Builder.addAll(
+            values, digests_);
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>repeated int64 digests = 11;</code>
+       * @return This builder for chaining.
+       */
+      public Builder clearDigests() {
+        digests_ = emptyLongList();
+        bitField0_ = (bitField0_ & ~0x00000400);
+        onChanged();
+        return this;
+      }
+
+      private long stamp_ ;
+      /**
+       * <code>optional int64 stamp = 12;</code>
+       * @return Whether the stamp field is set.
+       */
+      @java.lang.Override
+      public boolean hasStamp() {
+        return ((bitField0_ & 0x00000800) != 0);
+      }
+      /**
+       * <code>optional int64 stamp = 12;</code>
+       * @return The stamp.
+       */
+      @java.lang.Override
+      public long getStamp() {
+        return stamp_;
+      }
+      /**
+       * <code>optional int64 stamp = 12;</code>
+       * @param value The stamp to set.
+       * @return This builder for chaining.
+       */
+      public Builder setStamp(long value) {
+        
+        stamp_ = value;
+        bitField0_ |= 0x00000800;
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>optional int64 stamp = 12;</code>
+       * @return This builder for chaining.
+       */
+      public Builder clearStamp() {
+        bitField0_ = (bitField0_ & ~0x00000800);
+        stamp_ = 0L;
+        onChanged();
+        return this;
+      }
+
+      private int virtualNodes_ ;
+      /**
+       * <code>optional int32 virtualNodes = 13;</code>
+       * @return Whether the virtualNodes field is set.
+       */
+      @java.lang.Override
+      public boolean hasVirtualNodes() {
+        return ((bitField0_ & 0x00001000) != 0);
+      }
+      /**
+       * <code>optional int32 virtualNodes = 13;</code>
+       * @return The virtualNodes.
+       */
+      @java.lang.Override
+      public int getVirtualNodes() {
+        return virtualNodes_;
+      }
+      /**
+       * <code>optional int32 virtualNodes = 13;</code>
+       * @param value The virtualNodes to set.
+       * @return This builder for chaining.
+       */
+      public Builder setVirtualNodes(int value) {
+        
+        virtualNodes_ = value;
+        bitField0_ |= 0x00001000;
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>optional int32 virtualNodes = 13;</code>
+       * @return This builder for chaining.
+       */
+      public Builder clearVirtualNodes() {
+        bitField0_ = (bitField0_ & ~0x00001000);
+        virtualNodes_ = 0;
+        onChanged();
+        return this;
+      }
+
+      private int chainLength_ ;
+      /**
+       * <code>optional int32 chainLength = 14;</code>
+       * @return Whether the chainLength field is set.
+       */
+      @java.lang.Override
+      public boolean hasChainLength() {
+        return ((bitField0_ & 0x00002000) != 0);
+      }
+      /**
+       * <code>optional int32 chainLength = 14;</code>
+       * @return The chainLength.
+       */
+      @java.lang.Override
+      public int getChainLength() {
+        return chainLength_;
+      }
+      /**
+       * <code>optional int32 chainLength = 14;</code>
+       * @param value The chainLength to set.
+       * @return This builder for chaining.
+       */
+      public Builder setChainLength(int value) {
+        
+        chainLength_ = value;
+        bitField0_ |= 0x00002000;
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>optional int32 chainLength = 14;</code>
+       * @return This builder for chaining.
+       */
+      public Builder clearChainLength() {
+        bitField0_ = (bitField0_ & ~0x00002000);
+        chainLength_ = 0;
+        onChanged();
+        return this;
+      }
       @java.lang.Override
       public final Builder setUnknownFields(
           final com.google.protobuf.UnknownFieldSet unknownFields) {
@@ -2017,17 +3055,23 @@ public final class KeyValueResponse {
       descriptor;
   static {
     java.lang.String[] descriptorData = {
-      "\n\026KeyValueResponse.proto\"\306\002\n\nKVResponse\022" +
+      "\n\026KeyValueResponse.proto\"\306\004\n\nKVResponse\022" +
       "\017\n\007errCode\030\001 \001(\r\022\022\n\005value\030\002 \001(\014H\000\210\001\001\022\020\n\003" +
       "pid\030\003 \001(\005H\001\210\001\001\022\024\n\007version\030\004 \001(\005H\002\210\001\001\022\035\n\020" +
       "overloadWaitTime\030\005 \001(\005H\003\210\001\001\022\034\n\017membershi" +
       "pCount\030\006 \001(\005H\004\210\001\001\0222\n\016membershipInfo\030\007 \003(" +
-      "\0132\032.KVResponse.MembershipInfo\0323\n\016Members" +
-      "hipInfo\022\023\n\013addressPair\030\001 \001(\t\022\014\n\004time\030\002 \001" +
-      "(\003B\010\n\006_valueB\006\n\004_pidB\n\n\010_versionB\023\n\021_ove" +
-      "rloadWaitTimeB\022\n\020_membershipCountB0\n\034ca." +
-      "NetSysLab.ProtocolBuffersB\020KeyValueRespo" +
-      "nseb\006proto3"
+      "\0132\032.KVResponse.MembershipInfo\022\023\n\013ringMem" +
+      "bers\030\010 \003(\t\022\026\n\tringEpoch\030\t \001(\003H\005\210\001\001\022\034\n\017re" +
+      "directAddress\030\n \001(\tH\006\210\001\001\022\017\n\007digests\030\013 \003(" +
+      "\003\022\022\n\005stamp\030\014 \001(\003H\007\210\001\001\022\031\n\014virtualNodes\030\r " +
+      "\001(\005H\010\210\001\001\022\030\n\013chainLength\030\016 \001(\005H\t\210\001\001\032A\n\016Me" +
+      "mbershipInfo\022\023\n\013addressPair\030\001 \001(\t\022\014\n\004tim" +
+      "e\030\002 \001(\003\022\014\n\004load\030\003 \001(\005B\010\n\006_valueB\006\n\004_pidB" +
+      "\n\n\010_versionB\023\n\021_overloadWaitTimeB\022\n\020_mem" +
+      "bershipCountB\014\n\n_ringEpochB\022\n\020_redirectA" +
+      "ddressB\010\n\006_stampB\017\n\r_virtualNodesB\016\n\014_ch" +
+      "ainLengthB0\n\034ca.NetSysLab.ProtocolBuffer" +
+      "sB\020KeyValueResponseb\006proto3"
     };
     descriptor = com.google.protobuf.Descriptors.FileDescriptor
       .internalBuildGeneratedFileFrom(descriptorData,
@@ -2038,13 +3082,13 @@ public final class KeyValueResponse {
     internal_static_KVResponse_fieldAccessorTable = new
       com.google.protobuf.GeneratedMessageV3.FieldAccessorTable(
         internal_static_KVResponse_descriptor,
-        new java.lang.String[] { "ErrCode", "Value", "Pid", "Version", "OverloadWaitTime", "MembershipCount", "MembershipInfo", "Value", "Pid", "Version", "OverloadWaitTime", "MembershipCount", });
+        new java.lang.String[] { "ErrCode", "Value", "Pid", "Version", "OverloadWaitTime", "MembershipCount", "MembershipInfo", "RingMembers", "RingEpoch", "RedirectAddress", "Digests", "Stamp", "VirtualNodes", "ChainLength", "Value", "Pid", "Version", "OverloadWaitTime", "MembershipCount", "RingEpoch", "RedirectAddress", "Stamp", "VirtualNodes", "ChainLength", });
     internal_static_KVResponse_MembershipInfo_descriptor =
       internal_static_KVResponse_descriptor.getNestedTypes().get(0);
     internal_static_KVResponse_MembershipInfo_fieldAccessorTable = new
       com.google.protobuf.GeneratedMessageV3.FieldAccessorTable(
         internal_static_KVResponse_MembershipInfo_descriptor,
-        new java.lang.String[] { "AddressPair", "Time", });
+        new java.lang.String[] { "AddressPair", "Time", "Load", });
   }
 
   // @@protoc_insertion_point(outer_class_scope)
@@ -45,7 +45,7 @@ public final class Message {
      * <code>optional string clientIp = 4;</code>
      * @return The clientIp.
      */
-    String getClientIp();
+    java.lang.String getClientIp();
     /**
      * <code>optional string clientIp = 4;</code>
      * @return The bytes for clientIp.
@@ -63,6 +63,28 @@ public final class Message {
      * @return The clientPort.
      */
     int getClientPort();
+
+    /**
+     * <code>optional int32 chainPosition = 6;</code>
+     * @return Whether the chainPosition field is set.
+     */
+    boolean hasChainPosition();
+    /**
+     * <code>optional int32 chainPosition = 6;</code>
+     * @return The chainPosition.
+     */
+    int getChainPosition();
+
+    /**
+     * <code>optional int64 writeStamp = 7;</code>
+     * @return Whether the writeStamp field is set.
+     */
+    boolean hasWriteStamp();
+    /**
+     * <code>optional int64 writeStamp = 7;</code>
+     * @return The writeStamp.
+     */
+    long getWriteStamp();
   }
   /**
    * Protobuf type {@code Msg}
@@ -82,29 +104,29 @@ public final class Message {
       clientIp_ = "";
     }
 
-    @Override
+    @java.lang.Override
     @SuppressWarnings({"unused"})
-    protected Object newInstance(
+    protected java.lang.Object newInstance(
         UnusedPrivateParameter unused) {
       return new Msg();
     }
 
-    @Override
+    @java.lang.Override
     public final com.google.protobuf.UnknownFieldSet
     getUnknownFields() {
       return this.unknownFields;
     }
     public static final com.google.protobuf.Descriptors.Descriptor
         getDescriptor() {
-      return Message.internal_static_Msg_descriptor;
+      return ca.NetSysLab.ProtocolBuffers.Message.internal_static_Msg_descriptor;
     }
 
-    @Override
-    protected FieldAccessorTable
+    @java.lang.Override
+    protected com.google.protobuf.GeneratedMessageV3.FieldAccessorTable
         internalGetFieldAccessorTable() {
-      return Message.internal_static_Msg_fieldAccessorTable
+      return ca.NetSysLab.ProtocolBuffers.Message.internal_static_Msg_fieldAccessorTable
           .ensureFieldAccessorsInitialized(
-              Msg.class, Builder.class);
+              ca.NetSysLab.ProtocolBuffers.Message.Msg.class, ca.NetSysLab.ProtocolBuffers.Message.Msg.Builder.class);
     }
 
     private int bitField0_;
@@ -114,7 +136,7 @@ public final class Message {
      * <code>bytes messageID = 1;</code>
      * @return The messageID.
      */
-    @Override
+    @java.lang.Override
     public com.google.protobuf.ByteString getMessageID() {
       return messageID_;
     }
@@ -125,7 +147,7 @@ public final class Message {
      * <code>bytes payload = 2;</code>
      * @return The payload.
      */
-    @Override
+    @java.lang.Override
     public com.google.protobuf.ByteString getPayload() {
       return payload_;
     }
@@ -136,19 +158,19 @@ public final class Message {
      * <code>fixed64 checkSum = 3;</code>
      * @return The checkSum.
      */
-    @Override
+    @java.lang.Override
     public long getCheckSum() {
       return checkSum_;
     }
 
     public static final int CLIENTIP_FIELD_NUMBER = 4;
     @SuppressWarnings("serial")
-    private volatile Object clientIp_ = "";
+    private volatile java.lang.Object clientIp_ = "";
     /**
      * <code>optional string clientIp = 4;</code>
      * @return Whether the clientIp field is set.
      */
-    @Override
+    @java.lang.Override
     public boolean hasClientIp() {
       return ((bitField0_ & 0x00000001) != 0);
     }
@@ -156,15 +178,15 @@ public final class Message {
      * <code>optional string clientIp = 4;</code>
      * @return The clientIp.
      */
-    @Override
-    public String getClientIp() {
-      Object ref = clientIp_;
-      if (ref instanceof String) {
-        return (String) ref;
+    @java.lang.Override
+    public java.lang.String getClientIp() {
+      java.lang.Object ref = clientIp_;
+      if (ref instanceof java.lang.String) {
+        return (java.lang.String) ref;
       } else {
         com.google.protobuf.ByteString bs = 
             (com.google.protobuf.ByteString) ref;
-        String s = bs.toStringUtf8();
+        java.lang.String s = bs.toStringUtf8();
         clientIp_ = s;
         return s;
       }
@@ -173,14 +195,14 @@ public final class Message {
      * <code>optional string clientIp = 4;</code>
      * @return The bytes for clientIp.
      */
-    @Override
+    @java.lang.Override
     public com.google.protobuf.ByteString
         getClientIpBytes() {
-      Object ref = clientIp_;
-      if (ref instanceof String) {
+      java.lang.Object ref = clientIp_;
+      if (ref instanceof java.lang.String) {
         com.google.protobuf.ByteString b = 
             com.google.protobuf.ByteString.copyFromUtf8(
-                (String) ref);
+                (java.lang.String) ref);
         clientIp_ = b;
         return b;
       } else {
@@ -194,7 +216,7 @@ public final class Message {
      * <code>optional int32 clientPort = 5;</code>
      * @return Whether the clientPort field is set.
      */
-    @Override
+    @java.lang.Override
     public boolean hasClientPort() {
       return ((bitField0_ & 0x00000002) != 0);
     }
@@ -202,13 +224,51 @@ public final class Message {
      * <code>optional int32 clientPort = 5;</code>
      * @return The clientPort.
      */
-    @Override
+    @java.lang.Override
     public int getClientPort() {
       return clientPort_;
     }
 
+    public static final int CHAINPOSITION_FIELD_NUMBER = 6;
+    private int chainPosition_ = 0;
+    /**
+     * <code>optional int32 chainPosition = 6;</code>
+     * @return Whether the chainPosition field is set.
+     */
+    @java.lang.Override
+    public boolean hasChainPosition() {
+      return ((bitField0_ & 0x00000004) != 0);
+    }
+    /**
+     * <code>optional int32 chainPosition = 6;</code>
+     * @return The chainPosition.
+     */
+    @java.lang.Override
+    public int getChainPosition() {
+      return chainPosition_;
+    }
+
+    public static final int WRITESTAMP_FIELD_NUMBER = 7;
+    private long writeStamp_ = 0L;
+    /**
+     * <code>optional int64 writeStamp = 7;</code>
+     * @return Whether the writeStamp field is set.
+     */
+    @java.lang.Override
+    public boolean hasWriteStamp() {
+      return ((bitField0_ & 0x00000008) != 0);
+    }
+    /**
+     * <code>optional int64 writeStamp = 7;</code>
+     * @return The writeStamp.
+     */
+    @java.lang.Override
+    public long getWriteStamp() {
+      return writeStamp_;
+    }
+
     private byte memoizedIsInitialized = -1;
-    @Override
+    @java.lang.Override
     public final boolean isInitialized() {
       byte isInitialized = memoizedIsInitialized;
       if (isInitialized == 1) return true;
@@ -218,7 +278,7 @@ public final class Message {
       return true;
     }
 
-    @Override
+    @java.lang.Override
     public void writeTo(com.google.protobuf.CodedOutputStream output)
                         throws java.io.IOException {
       if (!messageID_.isEmpty()) {
@@ -236,10 +296,16 @@ public final class Message {
       if (((bitField0_ & 0x00000002) != 0)) {
         output.writeInt32(5, clientPort_);
       }
+      if (((bitField0_ & 0x00000004) != 0)) {
+        output.writeInt32(6, chainPosition_);
+      }
+      if (((bitField0_ & 0x00000008) != 0)) {
+        output.writeInt64(7, writeStamp_);
+      }
       getUnknownFields().writeTo(output);
     }
 
-    @Override
+    @java.lang.Override
     public int getSerializedSize() {
       int size = memoizedSize;
       if (size != -1) return size;
@@ -264,20 +330,28 @@ public final class Message {
         size += com.google.protobuf.CodedOutputStream
           .computeInt32Size(5, clientPort_);
       }
+      if (((bitField0_ & 0x00000004) != 0)) {
+        size += com.google.protobuf.CodedOutputStream
+          .computeInt32Size(6, chainPosition_);
+      }
+      if (((bitField0_ & 0x00000008) != 0)) {
+        size += com.google.protobuf.CodedOutputStream
+          .computeInt64Size(7, writeStamp_);
+      }
       size += getUnknownFields().getSerializedSize();
       memoizedSize = size;
       return size;
     }
 
-    @Override
-    public boolean equals(final Object obj) {
+    @java.lang.Override
+    public boolean equals(final java.lang.Object obj) {
       if (obj == this) {
        return true;
       }
-      if (!(obj instanceof Msg)) {
+      if (!(obj instanceof ca.NetSysLab.ProtocolBuffers.Message.Msg)) {
         return super.equals(obj);
       }
-      Msg other = (Msg) obj;
+      ca.NetSysLab.ProtocolBuffers.Message.Msg other = (ca.NetSysLab.ProtocolBuffers.Message.Msg) obj;
 
       if (!getMessageID()
           .equals(other.getMessageID())) return false;
@@ -295,11 +369,21 @@ public final class Message {
         if (getClientPort()
             != other.getClientPort()) return false;
       }
+      if (hasChainPosition() != other.hasChainPosition()) return false;
+      if (hasChainPosition()) {
+        if (getChainPosition()
+            != other.getChainPosition()) return false;
+      }
+      if (hasWriteStamp() != other.hasWriteStamp()) return false;
+      if (hasWriteStamp()) {
+        if (getWriteStamp()
+            != other.getWriteStamp()) return false;
+      }
       if (!getUnknownFields().equals(other.getUnknownFields())) return false;
       return true;
     }
 
-    @Override
+    @java.lang.Override
     public int hashCode() {
       if (memoizedHashCode != 0) {
         return memoizedHashCode;
@@ -321,74 +405,83 @@ public final class Message {
         hash = (37 * hash) + CLIENTPORT_FIELD_NUMBER;
         hash = (53 * hash) + getClientPort();
       }
+      if (hasChainPosition()) {
+        hash = (37 * hash) + CHAINPOSITION_FIELD_NUMBER;
+        hash = (53 * hash) + getChainPosition();
+      }
+      if (hasWriteStamp()) {
+        hash = (37 * hash) + WRITESTAMP_FIELD_NUMBER;
+        hash = (53 * hash) + com.google.protobuf.Internal.hashLong(
+            getWriteStamp());
+      }
       hash = (29 * hash) + getUnknownFields().hashCode();
       memoizedHashCode = hash;
       return hash;
     }
 
-    public static Msg parseFrom(
+    public static ca.NetSysLab.ProtocolBuffers.Message.Msg parseFrom(
         java.nio.ByteBuffer data)
         throws com.google.protobuf.InvalidProtocolBufferException {
       return PARSER.parseFrom(data);
     }
-    public static Msg parseFrom(
+    public static ca.NetSysLab.ProtocolBuffers.Message.Msg parseFrom(
         java.nio.ByteBuffer data,
         com.google.protobuf.ExtensionRegistryLite extensionRegistry)
         throws com.google.protobuf.InvalidProtocolBufferException {
       return PARSER.parseFrom(data, extensionRegistry);
     }
-    public static Msg parseFrom(
+    public static ca.NetSysLab.ProtocolBuffers.Message.Msg parseFrom(
         com.google.protobuf.ByteString data)
         throws com.google.protobuf.InvalidProtocolBufferException {
       return PARSER.parseFrom(data);
     }
-    public static Msg parseFrom(
+    public static ca.NetSysLab.ProtocolBuffers.Message.Msg parseFrom(
         com.google.protobuf.ByteString data,
         com.google.protobuf.ExtensionRegistryLite extensionRegistry)
         throws com.google.protobuf.InvalidProtocolBufferException {
       return PARSER.parseFrom(data, extensionRegistry);
     }
-    public static Msg parseFrom(byte[] data)
+    public static ca.NetSysLab.ProtocolBuffers.Message.Msg parseFrom(byte[] data)
         throws com.google.protobuf.InvalidProtocolBufferException {
       return PARSER.parseFrom(data);
     }
-    public static Msg parseFrom(
+    public static ca.NetSysLab.ProtocolBuffers.Message.Msg parseFrom(
         byte[] data,
         com.google.protobuf.ExtensionRegistryLite extensionRegistry)
         throws com.google.protobuf.InvalidProtocolBufferException {
       return PARSER.parseFrom(data, extensionRegistry);
     }
-    public static Msg parseFrom(java.io.InputStream input)
+    public static ca.NetSysLab.ProtocolBuffers.Message.Msg parseFrom(java.io.InputStream input)
         throws java.io.IOException {
       return com.google.protobuf.GeneratedMessageV3
           .parseWithIOException(PARSER, input);
     }
-    public static Msg parseFrom(
+    public static ca.NetSysLab.ProtocolBuffers.Message.Msg parseFrom(
         java.io.InputStream input,
         com.google.protobuf.ExtensionRegistryLite extensionRegistry)
         throws java.io.IOException {
       return com.google.protobuf.GeneratedMessageV3
           .parseWithIOException(PARSER, input, extensionRegistry);
     }
-    public static Msg parseDelimitedFrom(java.io.InputStream input)
+    public static ca.NetSysLab.ProtocolBuffers.Message.Msg parseDelimitedFrom(java.io.InputStream input)
         throws java.io.IOException {
       return com.google.protobuf.GeneratedMessageV3
           .parseDelimitedWithIOException(PARSER, input);
     }
-    public static Msg parseDelimitedFrom(
+    public static ca.NetSysLab.ProtocolBuffers.Message.Msg parseDelimitedFrom(
         java.io.InputStream input,
         com.google.protobuf.ExtensionRegistryLite extensionRegistry)
         throws java.io.IOException {
       return com.google.protobuf.GeneratedMessageV3
           .parseDelimitedWithIOException(PARSER, input, extensionRegistry);
     }
-    public static Msg parseFrom(
+    public static ca.NetSysLab.ProtocolBuffers.Message.Msg parseFrom(
         com.google.protobuf.CodedInputStream input)
         throws java.io.IOException {
       return com.google.protobuf.GeneratedMessageV3
           .parseWithIOException(PARSER, input);
     }
-    public static Msg parseFrom(
+    public static ca.NetSysLab.ProtocolBuffers.Message.Msg parseFrom(
         com.google.protobuf.CodedInputStream input,
         com.google.protobuf.ExtensionRegistryLite extensionRegistry)
         throws java.io.IOException {
@@ -396,23 +489,23 @@ public final class Message {
           .parseWithIOException(PARSER, input, extensionRegistry);
     }
 
-    @Override
+    @java.lang.Override
     public Builder newBuilderForType() { return newBuilder(); }
     public static Builder newBuilder() {
       return DEFAULT_INSTANCE.toBuilder();
     }
-    public static Builder newBuilder(Msg prototype) {
+    public static Builder newBuilder(ca.NetSysLab.ProtocolBuffers.Message.Msg prototype) {
       return DEFAULT_INSTANCE.toBuilder().mergeFrom(prototype);
     }
-    @Override
+    @java.lang.Override
     public Builder toBuilder() {
       return this == DEFAULT_INSTANCE
           ? new Builder() : new Builder().mergeFrom(this);
     }
 
-    @Override
+    @java.lang.Override
     protected Builder newBuilderForType(
-        BuilderParent parent) {
+        com.google.protobuf.GeneratedMessageV3.BuilderParent parent) {
       Builder builder = new Builder(parent);
       return builder;
     }
@@ -422,18 +515,18 @@ public final class Message {
     public static final class Builder extends
         com.google.protobuf.GeneratedMessageV3.Builder<Builder> implements
         // @@protoc_insertion_point(builder_implements:Msg)
-        MsgOrBuilder {
+        ca.NetSysLab.ProtocolBuffers.Message.MsgOrBuilder {
       public static final com.google.protobuf.Descriptors.Descriptor
           getDescriptor() {
-        return Message.internal_static_Msg_descriptor;
+        return ca.NetSysLab.ProtocolBuffers.Message.internal_static_Msg_descriptor;
       }
 
-      @Override
-      protected FieldAccessorTable
+      @java.lang.Override
+      protected com.google.protobuf.GeneratedMessageV3.FieldAccessorTable
           internalGetFieldAccessorTable() {
-        return Message.internal_static_Msg_fieldAccessorTable
+        return ca.NetSysLab.ProtocolBuffers.Message.internal_static_Msg_fieldAccessorTable
             .ensureFieldAccessorsInitialized(
-                Msg.class, Builder.class);
+                ca.NetSysLab.ProtocolBuffers.Message.Msg.class, ca.NetSysLab.ProtocolBuffers.Message.Msg.Builder.class);
       }
 
       // Construct using ca.NetSysLab.ProtocolBuffers.Message.Msg.newBuilder()
@@ -442,11 +535,11 @@ public final class Message {
       }
 
       private Builder(
-          BuilderParent parent) {
+          com.google.protobuf.GeneratedMessageV3.BuilderParent parent) {
         super(parent);
 
       }
-      @Override
+      @java.lang.Override
       public Builder clear() {
         super.clear();
         bitField0_ = 0;
@@ -455,38 +548,40 @@ public final class Message {
         checkSum_ = 0L;
         clientIp_ = "";
         clientPort_ = 0;
+        chainPosition_ = 0;
+        writeStamp_ = 0L;
         return this;
       }
 
-      @Override
+      @java.lang.Override
       public com.google.protobuf.Descriptors.Descriptor
           getDescriptorForType() {
-        return Message.internal_static_Msg_descriptor;
+        return ca.NetSysLab.ProtocolBuffers.Message.internal_static_Msg_descriptor;
       }
 
-      @Override
-      public Msg getDefaultInstanceForType() {
-        return Msg.getDefaultInstance();
+      @java.lang.Override
+      public ca.NetSysLab.ProtocolBuffers.Message.Msg getDefaultInstanceForType() {
+        return ca.NetSysLab.ProtocolBuffers.Message.Msg.getDefaultInstance();
       }
 
-      @Override
-      public Msg build() {
-        Msg result = buildPartial();
+      @java.lang.Override
+      public ca.NetSysLab.ProtocolBuffers.Message.Msg build() {
+        ca.NetSysLab.ProtocolBuffers.Message.Msg result = buildPartial();
         if (!result.isInitialized()) {
           throw newUninitializedMessageException(result);
         }
         return result;
       }
 
-      @Override
-      public Msg buildPartial() {
-        Msg result = new Msg(this);
+      @java.lang.Override
+      public ca.NetSysLab.ProtocolBuffers.Message.Msg buildPartial() {
+        ca.NetSysLab.ProtocolBuffers.Message.Msg result = new ca.NetSysLab.ProtocolBuffers.Message.Msg(this);
         if (bitField0_ != 0) { buildPartial0(result); }
         onBuilt();
         return result;
       }
 
-      private void buildPartial0(Msg result) {
+      private void buildPartial0(ca.NetSysLab.ProtocolBuffers.Message.Msg result) {
         int from_bitField0_ = bitField0_;
         if (((from_bitField0_ & 0x00000001) != 0)) {
           result.messageID_ = messageID_;
@@ -506,53 +601,61 @@ public final class Message {
           result.clientPort_ = clientPort_;
           to_bitField0_ |= 0x00000002;
         }
+        if (((from_bitField0_ & 0x00000020) != 0)) {
+          result.chainPosition_ = chainPosition_;
+          to_bitField0_ |= 0x00000004;
+        }
+        if (((from_bitField0_ & 0x00000040) != 0)) {
+          result.writeStamp_ = writeStamp_;
+          to_bitField0_ |= 0x00000008;
+        }
         result.bitField0_ |= to_bitField0_;
       }
 
-      @Override
+      @java.lang.Override
       public Builder clone() {
         return super.clone();
       }
-      @Override
+      @java.lang.Override
       public Builder setField(
           com.google.protobuf.Descriptors.FieldDescriptor field,
-          Object value) {
+          java.lang.Object value) {
         return super.setField(field, value);
       }
-      @Override
+      @java.lang.Override
       public Builder clearField(
           com.google.protobuf.Descriptors.FieldDescriptor field) {
         return super.clearField(field);
       }
-      @Override
+      @java.lang.Override
       public Builder clearOneof(
           com.google.protobuf.Descriptors.OneofDescriptor oneof) {
         return super.clearOneof(oneof);
       }
-      @Override
+      @java.lang.Override
       public Builder setRepeatedField(
           com.google.protobuf.Descriptors.FieldDescriptor field,
-          int index, Object value) {
+          int index, java.lang.Object value) {
         return super.setRepeatedField(field, index, value);
       }
-      @Override
+      @java.lang.Override
       public Builder addRepeatedField(
           com.google.protobuf.Descriptors.FieldDescriptor field,
-          Object value) {
+          java.lang.Object value) {
         return super.addRepeatedField(field, value);
       }
-      @Override
+      @java.lang.Override
       public Builder mergeFrom(com.google.protobuf.Message other) {
-        if (other instanceof Msg) {
-          return mergeFrom((Msg)other);
+        if (other instanceof ca.NetSysLab.ProtocolBuffers.Message.Msg) {
+          return mergeFrom((ca.NetSysLab.ProtocolBuffers.Message.Msg)other);
         } else {
           super.mergeFrom(other);
           return this;
         }
       }
 
-      public Builder mergeFrom(Msg other) {
-        if (other == Msg.getDefaultInstance()) return this;
+      public Builder mergeFrom(ca.NetSysLab.ProtocolBuffers.Message.Msg other) {
+        if (other == ca.NetSysLab.ProtocolBuffers.Message.Msg.getDefaultInstance()) return this;
         if (other.getMessageID() != com.google.protobuf.ByteString.EMPTY) {
           setMessageID(other.getMessageID());
         }
@@ -570,23 +673,29 @@ public final class Message {
         if (other.hasClientPort()) {
           setClientPort(other.getClientPort());
         }
+        if (other.hasChainPosition()) {
+          setChainPosition(other.getChainPosition());
+        }
+        if (other.hasWriteStamp()) {
+          setWriteStamp(other.getWriteStamp());
+        }
         this.mergeUnknownFields(other.getUnknownFields());
         onChanged();
         return this;
       }
 
-      @Override
+      @java.lang.Override
       public final boolean isInitialized() {
         return true;
       }
 
-      @Override
+      @java.lang.Override
       public Builder mergeFrom(
           com.google.protobuf.CodedInputStream input,
           com.google.protobuf.ExtensionRegistryLite extensionRegistry)
           throws java.io.IOException {
         if (extensionRegistry == null) {
-          throw new NullPointerException();
+          throw new java.lang.NullPointerException();
         }
         try {
           boolean done = false;
@@ -621,6 +730,16 @@ public final class Message {
                 bitField0_ |= 0x00000010;
                 break;
               } // case 40
+              case 48: {
+                chainPosition_ = input.readInt32();
+                bitField0_ |= 0x00000020;
+                break;
+              } // case 48
+              case 56: {
+                writeStamp_ = input.readInt64();
+                bitField0_ |= 0x00000040;
+                break;
+              } // case 56
               default: {
                 if (!super.parseUnknownField(input, extensionRegistry, tag)) {
                   done = true; // was an endgroup tag
@@ -643,7 +762,7 @@ public final class Message {
        * <code>bytes messageID = 1;</code>
        * @return The messageID.
        */
-      @Override
+      @java.lang.Override
       public com.google.protobuf.ByteString getMessageID() {
         return messageID_;
       }
@@ -675,7 +794,7 @@ public final class Message {
        * <code>bytes payload = 2;</code>
        * @return The payload.
        */
-      @Override
+      @java.lang.Override
       public com.google.protobuf.ByteString getPayload() {
         return payload_;
       }
@@ -707,7 +826,7 @@ public final class Message {
        * <code>fixed64 checkSum = 3;</code>
        * @return The checkSum.
        */
-      @Override
+      @java.lang.Override
       public long getCheckSum() {
         return checkSum_;
       }
@@ -734,7 +853,7 @@ public final class Message {
         return this;
       }
 
-      private Object clientIp_ = "";
+      private java.lang.Object clientIp_ = "";
       /**
        * <code>optional string clientIp = 4;</code>
        * @return Whether the clientIp field is set.
@@ -746,16 +865,16 @@ public final class Message {
        * <code>optional string clientIp = 4;</code>
        * @return The clientIp.
        */
-      public String getClientIp() {
-        Object ref = clientIp_;
-        if (!(ref instanceof String)) {
+      public java.lang.String getClientIp() {
+        java.lang.Object ref = clientIp_;
+        if (!(ref instanceof java.lang.String)) {
           com.google.protobuf.ByteString bs =
               (com.google.protobuf.ByteString) ref;
-          String s = bs.toStringUtf8();
+          java.lang.String s = bs.toStringUtf8();
           clientIp_ = s;
           return s;
         } else {
-          return (String) ref;
+          return (java.lang.String) ref;
         }
       }
       /**
@@ -764,11 +883,11 @@ public final class Message {
        */
       public com.google.protobuf.ByteString
           getClientIpBytes() {
-        Object ref = clientIp_;
+        java.lang.Object ref = clientIp_;
         if (ref instanceof String) {
           com.google.protobuf.ByteString b = 
               com.google.protobuf.ByteString.copyFromUtf8(
-                  (String) ref);
+                  (java.lang.String) ref);
           clientIp_ = b;
           return b;
         } else {
@@ -781,7 +900,7 @@ public final class Message {
        * @return This builder for chaining.
        */
       public Builder setClientIp(
-          String value) {
+          java.lang.String value) {
         if (value == null) { throw new NullPointerException(); }
         clientIp_ = value;
         bitField0_ |= 0x00000008;
@@ -818,7 +937,7 @@ public final class Message {
        * <code>optional int32 clientPort = 5;</code>
        * @return Whether the clientPort field is set.
        */
-      @Override
+      @java.lang.Override
       public boolean hasClientPort() {
         return ((bitField0_ & 0x00000010) != 0);
       }
@@ -826,7 +945,7 @@ public final class Message {
        * <code>optional int32 clientPort = 5;</code>
        * @return The clientPort.
        */
-      @Override
+      @java.lang.Override
       public int getClientPort() {
         return clientPort_;
       }
@@ -852,13 +971,93 @@ public final class Message {
         onChanged();
         return this;
       }
-      @Override
+
+      private int chainPosition_ ;
+      /**
+       * <code>optional int32 chainPosition = 6;</code>
+       * @return Whether the chainPosition field is set.
+       */
+      @java.lang.Override
+      public boolean hasChainPosition() {
+        return ((bitField0_ & 0x00000020) != 0);
+      }
+      /**
+       * <code>optional int32 chainPosition = 6;</code>
+       * @return The chainPosition.
+       */
+      @java.lang.Override
+      public int getChainPosition() {
+        return chainPosition_;
+      }
+      /**
+       * <code>optional int32 chainPosition = 6;</code>
+       * @param value The chainPosition to set.
+       * @return This builder for chaining.
+       */
+      public Builder setChainPosition(int value) {
+        
+        chainPosition_ = value;
+        bitField0_ |= 0x00000020;
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>optional int32 chainPosition = 6;</code>
+       * @return This builder for chaining.
+       */
+      public Builder clearChainPosition() {
+        bitField0_ = (bitField0_ & ~0x00000020);
+        chainPosition_ = 0;
+        onChanged();
+        return this;
+      }
+
+      private long writeStamp_ ;
+      /**
+       * <code>optional int64 writeStamp = 7;</code>
+       * @return Whether the writeStamp field is set.
+       */
+      @java.lang.Override
+      public boolean hasWriteStamp() {
+        return ((bitField0_ & 0x00000040) != 0);
+      }
+      /**
+       * <code>optional int64 writeStamp = 7;</code>
+       * @return The writeStamp.
+       */
+      @java.lang.Override
+      public long getWriteStamp() {
+        return writeStamp_;
+      }
+      /**
+       * <code>optional int64 writeStamp = 7;</code>
+       * @param value The writeStamp to set.
+       * @return This builder for chaining.
+       */
+      public Builder setWriteStamp(long value) {
+        
+        writeStamp_ = value;
+        bitField0_ |= 0x00000040;
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>optional int64 writeStamp = 7;</code>
+       * @return This builder for chaining.
+       */
+      public Builder clearWriteStamp() {
+        bitField0_ = (bitField0_ & ~0x00000040);
+        writeStamp_ = 0L;
+        onChanged();
+        return this;
+      }
+      @java.lang.Override
       public final Builder setUnknownFields(
           final com.google.protobuf.UnknownFieldSet unknownFields) {
         return super.setUnknownFields(unknownFields);
       }
 
-      @Override
+      @java.lang.Override
       public final Builder mergeUnknownFields(
           final com.google.protobuf.UnknownFieldSet unknownFields) {
         return super.mergeUnknownFields(unknownFields);
@@ -869,18 +1068,18 @@ public final class Message {
     }
 
     // @@protoc_insertion_point(class_scope:Msg)
-    private static final Msg DEFAULT_INSTANCE;
+    private static final ca.NetSysLab.ProtocolBuffers.Message.Msg DEFAULT_INSTANCE;
     static {
-      DEFAULT_INSTANCE = new Msg();
+      DEFAULT_INSTANCE = new ca.NetSysLab.ProtocolBuffers.Message.Msg();
     }
 
-    public static Msg getDefaultInstance() {
+    public static ca.NetSysLab.ProtocolBuffers.Message.Msg getDefaultInstance() {
       return DEFAULT_INSTANCE;
     }
 
     private static final com.google.protobuf.Parser<Msg>
         PARSER = new com.google.protobuf.AbstractParser<Msg>() {
-      @Override
+      @java.lang.Override
       public Msg parsePartialFrom(
           com.google.protobuf.CodedInputStream input,
           com.google.protobuf.ExtensionRegistryLite extensionRegistry)
@@ -904,13 +1103,13 @@ public final class Message {
       return PARSER;
     }
 
-    @Override
+    @java.lang.Override
     public com.google.protobuf.Parser<Msg> getParserForType() {
       return PARSER;
     }
 
-    @Override
-    public Msg getDefaultInstanceForType() {
+    @java.lang.Override
+    public ca.NetSysLab.ProtocolBuffers.Message.Msg getDefaultInstanceForType() {
       return DEFAULT_INSTANCE;
     }
 
@@ -929,13 +1128,15 @@ public final class Message {
   private static  com.google.protobuf.Descriptors.FileDescriptor
       descriptor;
   static {
-    String[] descriptorData = {
-      "\n\rMessage.proto\"\207\001\n\003Msg\022\021\n\tmessageID\030\001 \001" +
+    java.lang.String[] descriptorData = {
+      "\n\rMessage.proto\"\335\001\n\003Msg\022\021\n\tmessageID\030\001 \001" +
       "(\014\022\017\n\007payload\030\002 \001(\014\022\020\n\010checkSum\030\003 \001(\006\022\025\n" +
       "\010clientIp\030\004 \001(\tH\000\210\001\001\022\027\n\nclientPort\030\005 \001(\005" +
-      "H\001\210\001\001B\013\n\t_clientIpB\r\n\013_clientPortB\'\n\034ca." +
-      "NetSysLab.ProtocolBuffersB\007Messageb\006prot" +
-      "o3"
+      "H\001\210\001\001\022\032\n\rchainPosition\030\006 \001(\005H\002\210\001\001\022\027\n\nwri" +
+      "teStamp\030\007 \001(\003H\003\210\001\001B\013\n\t_clientIpB\r\n\013_clie" +
+      "ntPortB\020\n\016_chainPositionB\r\n\013_writeStampB" +
+      "\'\n\034ca.NetSysLab.ProtocolBuffersB\007Message" +
+      "b\006proto3"
     };
     descriptor = com.google.protobuf.Descriptors.FileDescriptor
       .internalBuildGeneratedFileFrom(descriptorData,
@@ -946,7 +1147,7 @@ public final class Message {
     internal_static_Msg_fieldAccessorTable = new
       com.google.protobuf.GeneratedMessageV3.FieldAccessorTable(
         internal_static_Msg_descriptor,
-        new String[] { "MessageID", "Payload", "CheckSum", "ClientIp", "ClientPort", "ClientIp", "ClientPort", });
+        new java.lang.String[] { "MessageID", "Payload", "CheckSum", "ClientIp", "ClientPort", "ChainPosition", "WriteStamp", "ClientIp", "ClientPort", "ChainPosition", "WriteStamp", });
   }
 
   // @@protoc_insertion_point(outer_class_scope)
@@ -1,24 +1,27 @@
 package com.g2.CPEN431.A9;
 
-import java.math.BigInteger;
-import java.nio.charset.StandardCharsets;
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
-import java.util.Objects;
-
-public class AddressPair {
-    private String ip;
-    private int port;
+/**
+ * Immutable ip and port of a node. Everything derived from them is computed once on construction,
+ * since the same pairs are looked up in maps and compared on every gossip round.
+ */
+public final class AddressPair {
+    private final String ip;
+    private final int port;
+
+    // cheap hash used by collections, ConsistentHash places the node on the ring separately
+    private final int hash;
+    private final String addressAndPort;
 
     public AddressPair(String ip, int port) {
         this.ip = ip;
         this.port = port;
+        this.hash = 31 * ip.hashCode() + port;
+        this.addressAndPort = ip + ":" + port;
     }
 
     public AddressPair(String addressAndPort) {
-        String[] addressAndPortSplit = addressAndPort.split(":");
-        this.ip = addressAndPortSplit[0];
-        this.port = Integer.parseInt(addressAndPortSplit[1]);
+        this(addressAndPort.substring(0, addressAndPort.lastIndexOf(':')),
+                Integer.parseInt(addressAndPort.substring(addressAndPort.lastIndexOf(':') + 1)));
     }
 
     public String getIp() {
@@ -31,7 +34,7 @@ public class AddressPair {
 
     @Override
     public String toString() {
-        return ip + ":" + port;
+        return addressAndPort;
     }
 
     @Override
@@ -39,16 +42,11 @@ public class AddressPair {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         AddressPair that = (AddressPair) o;
-        return port == that.port && Objects.equals(ip, that.ip);
+        return hash == that.hash && port == that.port && ip.equals(that.ip);
     }
 
     @Override
     public int hashCode() {
-        try {
-            return (Math.abs(new BigInteger(MessageDigest.getInstance("SHA-256").digest((ip + port).getBytes(StandardCharsets.UTF_8))).intValue()) + (port % 256)) % 256;
-        } catch (NoSuchAlgorithmException e) {
-            e.printStackTrace();
-            return -1;
-        }
+        return hash;
     }
 }
@@ -0,0 +1,133 @@
+package com.g2.CPEN431.A9;
+
+import ca.NetSysLab.ProtocolBuffers.KeyValueRequest;
+import ca.NetSysLab.ProtocolBuffers.KeyValueResponse;
+import ca.NetSysLab.ProtocolBuffers.Message;
+import com.google.protobuf.ByteString;
+import com.google.protobuf.InvalidProtocolBufferException;
+
+import java.net.InetAddress;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Finds the ranges of the ring two nodes disagree on by comparing Merkle trees of their pairs. A node asks another
+ * for the digests of the tree over the other node's own ranges one level at a time, descending only into the nodes
+ * whose digests differ, so the traffic grows with the number of differing ranges rather than with the data.
+ */
+public class AntiEntropy {
+
+    // Most tree nodes asked for in one DIGEST request, which keeps the digests of the response in one datagram
+    private static final int MAX_NODES_PER_REQUEST = 1024;
+    // How long a node answers DIGEST requests from the same tree, a comparison asks for several levels of it
+    private static final long TREE_TTL = 1000;
+
+    private final Memory memory;
+    private final ConsistentHash consistentHash;
+    private final AddressPair selfAddress;
+
+    private volatile MerkleTree ownTree;
+    private volatile long ownTreeEpoch;
+    private volatile long ownTreeBuilt;
+
+    public AntiEntropy(Memory memory, ConsistentHash consistentHash, AddressPair selfAddress) {
+        this.memory = memory;
+        this.consistentHash = consistentHash;
+        this.selfAddress = selfAddress;
+    }
+
+    /**
+     * This function answers a DIGEST request with the digests of nodes of the tree over this node's own ranges
+     * @param kvRequest: The request, listing tree nodes in heap order and the epoch of the asking node's ring
+     * @return The response payload, without digests if the rings differ and the trees would not line up
+     */
+    public ByteString answerDigests(KeyValueRequest.KVRequest kvRequest) {
+        RingSnapshot ring = consistentHash.getRing();
+        KeyValueResponse.KVResponse.Builder response = KeyValueResponse.KVResponse.newBuilder()
+                .setErrCode(0)
+                .setRingEpoch(ring.getEpoch());
+        if (kvRequest.getRingEpoch() != ring.getEpoch()) {
+            return response.build().toByteString();
+        }
+
+        MerkleTree tree = ownTree(ring);
+        for (int node : kvRequest.getDigestNodesList()) {
+            response.addDigests(tree.digest(node));
+        }
+        return response.build().toByteString();
+    }
+
+    private MerkleTree ownTree(RingSnapshot ring) {
+        long now = System.currentTimeMillis();
+        MerkleTree tree = ownTree;
+        if (tree == null || ownTreeEpoch != ring.getEpoch() || now - ownTreeBuilt > TREE_TTL) {
+            tree = MerkleTree.build(memory, ring.rangesOf(selfAddress));
+            ownTree = tree;
+            ownTreeEpoch = ring.getEpoch();
+            ownTreeBuilt = now;
+        }
+        return tree;
+    }
+
+    /**
+     * This function compares this node's pairs in the ranges another node owns with that node's
+     * @param udpClient: The client to ask for digests with
+     * @param destination: The address of the other node
+     * @param destinationAddress: The ip and port of the other node
+     * @param ring: The ring the ranges come from
+     * @param ranges: The ranges the other node owns on the ring, in ring order
+     * @return The ranges the nodes disagree on, or null if they could not be compared
+     */
+    public List<long[]> findDivergentRanges(UDPClient udpClient, InetAddress destination, AddressPair destinationAddress,
+                                            RingSnapshot ring, List<long[]> ranges) {
+        MerkleTree tree = MerkleTree.build(memory, ranges);
+        List<long[]> divergent = new ArrayList<>();
+
+        List<Integer> level = List.of(1);
+        while (!level.isEmpty()) {
+            List<Integer> nextLevel = new ArrayList<>();
+            for (int start = 0; start < level.size(); start += MAX_NODES_PER_REQUEST) {
+                List<Integer> nodes = level.subList(start, Math.min(level.size(), start + MAX_NODES_PER_REQUEST));
+                List<Long> digests = askDigests(udpClient, destination, destinationAddress, ring, nodes);
+                if (digests == null) {
+                    return null;
+                }
+
+                for (int i = 0; i < nodes.size(); i++) {
+                    int node = nodes.get(i);
+                    if (digests.get(i) == tree.digest(node)) {
+                        continue;
+                    }
+                    if (!tree.isLeaf(node)) {
+                        nextLevel.add(2 * node);
+                        nextLevel.add(2 * node + 1);
+                    } else if (tree.rangeIndex(node) >= 0) {
+                        divergent.add(ranges.get(tree.rangeIndex(node)));
+                    }
+                }
+            }
+            level = nextLevel;
+        }
+        return divergent;
+    }
+
+    private static List<Long> askDigests(UDPClient udpClient, InetAddress destination, AddressPair destinationAddress,
+                                         RingSnapshot ring, List<Integer> nodes) {
+        KeyValueRequest.KVRequest kvRequest = KeyValueRequest.KVRequest.newBuilder()
+                .setCommand(Server.DIGEST)
+                .setRingEpoch(ring.getEpoch())
+                .addAllDigestNodes(nodes)
+                .build();
+
+        Message.Msg reply = udpClient.request(destination, destinationAddress.getPort(), kvRequest.toByteArray());
+        if (reply == null) {
+            return null;
+        }
+        try {
+            KeyValueResponse.KVResponse response = KeyValueResponse.KVResponse.parseFrom(reply.getPayload());
+            return response.getDigestsCount() == nodes.size() ? response.getDigestsList() : null;
+        } catch (InvalidProtocolBufferException e) {
+            return null;
+        }
+    }
+}
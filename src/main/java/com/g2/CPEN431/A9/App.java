@@ -1,15 +1,17 @@
 package com.g2.CPEN431.A9;
 
-import ca.NetSysLab.ProtocolBuffers.Message;
-import com.google.protobuf.ByteString;
-
 import java.io.File;
 import java.io.IOException;
 import java.net.*;
+import java.nio.channels.DatagramChannel;
 import java.util.ArrayList;
 import java.util.Scanner;
 import java.util.Timer;
 import java.util.TimerTask;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 import static com.g2.CPEN431.A9.MemberMonitor.DEFAULT_INTERVAL;
 
@@ -17,18 +19,43 @@ public class App
 {
     public static final int MAX_INCOMING_PACKET_SIZE = 16 * 1024;   // 16 kilobyte buffer to receive packets
 
+    // Request pipeline sizing, override with -Dkv.workers=<n>, -Dkv.receivers=<n> and -Dkv.workerQueue=<n>
+    public static final int WORKER_THREADS = Integer.getInteger("kv.workers", Runtime.getRuntime().availableProcessors());
+    public static final int RECEIVER_THREADS = Integer.getInteger("kv.receivers", 1);
+    public static final int WORKER_QUEUE_CAPACITY = Integer.getInteger("kv.workerQueue", 1024);
+
+    // -Dkv.transport=selector reads the socket from a non-blocking event loop instead of blocking receivers,
+    // -Dkv.bufferPool=<n> bounds the direct buffers kept for reuse
+    public static final String TRANSPORT_MODE = System.getProperty("kv.transport", "blocking");
+    public static final int BUFFER_POOL_SIZE = Integer.getInteger("kv.bufferPool", WORKER_QUEUE_CAPACITY + 2 * WORKER_THREADS);
+
+    // -Dkv.sockets=<n> binds n sockets to the node's port with SO_REUSEPORT, each with its own receivers,
+    // -Dkv.rcvBuf=<bytes> and -Dkv.sndBuf=<bytes> size their kernel buffers (0 keeps the OS default)
+    public static final int SOCKETS = Integer.getInteger("kv.sockets", 1);
+    public static final int SOCKET_RECEIVE_BUFFER = Integer.getInteger("kv.rcvBuf", 0);
+    public static final int SOCKET_SEND_BUFFER = Integer.getInteger("kv.sndBuf", 0);
+
+    // -Dkv.execution=virtual runs each request on its own virtual thread instead of the worker pool,
+    // with at most -Dkv.maxInFlight=<n> requests running at once
+    public static final String EXECUTION_MODE = System.getProperty("kv.execution", "pool");
+    public static final int MAX_IN_FLIGHT = Integer.getInteger("kv.maxInFlight", WORKER_QUEUE_CAPACITY + WORKER_THREADS);
+
     // List of node IP:port
     // public static ArrayList<AddressPair> nodeList = new ArrayList<>();
 
     public static void main( String[] args ) throws IOException {
+        Server.checkConfiguration();
+
         // multiple nodes on one ec2 instance --> create multiple sockets, do in another branch
         String currentIp = args[0];
         int port = Integer.parseInt(args[1]);
-        DatagramSocket socket = new DatagramSocket(port);
-        byte[] buf = new byte[MAX_INCOMING_PACKET_SIZE];
+        Transport transport = new Transport(port, TRANSPORT_MODE.equals("selector"), BUFFER_POOL_SIZE,
+                SOCKETS, SOCKET_RECEIVE_BUFFER, SOCKET_SEND_BUFFER);
+
+        Memory memory = new Memory();
 
         // TODO: add nodes to consistentHash, maybe hardcode in a txt file?
-        ConsistentHash consistentHash = new ConsistentHash(currentIp, port);
+        ConsistentHash consistentHash = new ConsistentHash(currentIp, port, memory, transport);
 
         File nodeList = new File("nodes.txt");
         Scanner myReader = new Scanner(nodeList);
@@ -53,67 +80,46 @@ public class App
         timer.scheduleAtFixedRate(pullEpidemic, DEFAULT_INTERVAL, DEFAULT_INTERVAL);
 
         // print listening port to console
-        int localPort = socket.getLocalPort();
+        int localPort = transport.getLocalPort();
         String localAddress = InetAddress.getLocalHost().getHostAddress();
         System.out.println("Server is Listening at " + localAddress + " on port " + localPort + "...");
+        System.out.println(consistentHash.balanceReport());
 
         RequestCache requestCache = new RequestCache();
-        Server server = new Server(port, requestCache, consistentHash, memberMonitor);
+        Server server = new Server(port, requestCache, memory, consistentHash, memberMonitor);
+
+        ExecutorService workerPool;
+        if (EXECUTION_MODE.equals("virtual")) {
+            workerPool = new VirtualThreadExecutor(MAX_IN_FLIGHT);
+        } else {
+            // bounded worker pool, when it is saturated the receiver runs the request itself which throttles intake
+            workerPool = new ThreadPoolExecutor(
+                    WORKER_THREADS,
+                    WORKER_THREADS,
+                    0L,
+                    TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(WORKER_QUEUE_CAPACITY),
+                    new ThreadPoolExecutor.CallerRunsPolicy());
+        }
+
+        // every socket gets its own receivers, a single event loop drains each socket in selector mode
+        DatagramChannel[] channels = transport.getChannels();
+        int receiversPerSocket = transport.isNonBlocking() ? 1 : RECEIVER_THREADS;
+        Thread[] receivers = new Thread[channels.length * receiversPerSocket];
+        for (int i = 0; i < receivers.length; i++) {
+            PacketReceiver receiver = new PacketReceiver(transport, channels[i / receiversPerSocket], workerPool, server, requestCache);
+            receivers[i] = new Thread(receiver, "Receiver-" + i);
+            receivers[i].start();
+        }
 
-        while (true) {
+        for (Thread receiver : receivers) {
             try {
-                DatagramPacket packet = new DatagramPacket(buf, buf.length);
-
-                // listen for next packet
-                socket.receive(packet);
-
-                Message.Msg message = Server.readRequest(packet);
-
-                Object kvResponse;
-                // if message cached retrieved cached response otherwise execute command
-                if (requestCache.isStored(message.getMessageID())) {
-                    kvResponse = requestCache.get(message.getMessageID());
-                } else {
-                    kvResponse = server.exeCommand(message, packet);
-                }
-
-                int packetPort = packet.getPort();
-                InetAddress address = packet.getAddress();
-
-                if (message.hasClientPort() && message.hasClientIp()) {
-                    packetPort = message.getClientPort();
-                    address = InetAddress.getByName(message.getClientIp());
-                }
-
-                if (kvResponse != null) {
-                    // build checksum and response message
-                    long checksum = Server.buildChecksum(message.getMessageID(), (ByteString) kvResponse);
-                    byte[] resMessage = Server.buildMessage(message.getMessageID(), (ByteString) kvResponse, checksum);
-
-                    // load message into packet to send back to client
-                    packet = new DatagramPacket(resMessage, resMessage.length, address, packetPort);
-                    socket.send(packet);
-                }
-
-                /*
-                if (kvResponse instanceof DatagramPacket) {
-                    packet = new DatagramPacket(((DatagramPacket) kvResponse).getData(), ((DatagramPacket) kvResponse).getLength(), address, packetPort);
-                    socket.send(packet);
-                } else if (kvResponse instanceof ByteString) {
-                    // build checksum and response message
-                    long checksum = Server.buildChecksum(message.getMessageID(), (ByteString) kvResponse);
-                    byte[] resMessage = Server.buildMessage(message.getMessageID(), (ByteString) kvResponse, checksum);
-
-                    // load message into packet to send back to client
-                    packet = new DatagramPacket(resMessage, resMessage.length, address, packetPort);
-                    socket.send(packet);
-                }
-
-                 */
-
-            } catch (PacketCorruptionException e) {
-                System.out.println("the packet is corrupt");
+                receiver.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
             }
         }
+        workerPool.shutdown();
     }
 }
@@ -0,0 +1,43 @@
+package com.g2.CPEN431.A9;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ArrayBlockingQueue;
+
+/**
+ * Pool of direct buffers for receiving and sending datagrams. Direct buffers are expensive to allocate but let the
+ * channel move datagrams without an extra copy through a temporary buffer, so they are handed back and reused.
+ */
+public class BufferPool {
+
+    private final int bufferSize;
+    private final ArrayBlockingQueue<ByteBuffer> buffers;
+
+    /**
+     * @param bufferSize: Capacity of every buffer in the pool
+     * @param maxPooled: Most buffers the pool keeps for reuse, buffers released beyond that are left to the GC
+     */
+    public BufferPool(int bufferSize, int maxPooled) {
+        this.bufferSize = bufferSize;
+        this.buffers = new ArrayBlockingQueue<>(maxPooled);
+    }
+
+    /**
+     * This function takes a cleared buffer from the pool, allocating one if the pool is empty
+     * @return A direct buffer of the pool's buffer size
+     */
+    public ByteBuffer acquire() {
+        ByteBuffer buffer = buffers.poll();
+        if (buffer == null) {
+            return ByteBuffer.allocateDirect(bufferSize);
+        }
+        return buffer.clear();
+    }
+
+    /**
+     * This function hands a buffer back to the pool, nothing may use the buffer afterwards
+     * @param buffer: A buffer previously returned by acquire()
+     */
+    public void release(ByteBuffer buffer) {
+        buffers.offer(buffer);
+    }
+}
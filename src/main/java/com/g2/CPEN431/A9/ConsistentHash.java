@@ -1,60 +1,147 @@
 package com.g2.CPEN431.A9;
 
 import ca.NetSysLab.ProtocolBuffers.Message;
+import com.g2.CPEN431.A9.util.MurmurHash3;
+import com.google.common.collect.Range;
+import com.google.common.collect.RangeMap;
+import com.google.common.collect.TreeRangeMap;
 import com.google.protobuf.ByteString;
+import com.google.protobuf.CodedOutputStream;
 
 import java.io.IOException;
 import java.net.*;
+import java.nio.ByteBuffer;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class ConsistentHash {
+    // Number of tokens each node places on the ring, override with -Dkv.virtualNodes=<n>
+    public static final int VIRTUAL_NODES = Integer.getInteger("kv.virtualNodes", 1024);
+
     public int port;
-    private final DatagramSocket socket;
+    private final Transport transport;
     private final AddressPair selfAddress;
+    private final Memory memory;
+    // Built on first use rather than in the constructor, so this object is never handed out before it is constructed
+    private volatile AntiEntropy antiEntropy;
+    private volatile HintedHandoff hintedHandoff;
+    private final Object componentLock = new Object();
+
+    // Ring where key is the 64-bit token of a virtual node and value is the ip and port of the node owning it.
+    // Only changed by the synchronized membership functions, which then publish a new snapshot for routing
+    private final TreeMap<Long, AddressPair> nodeRing = new TreeMap<>();
+    private final HashMap<AddressPair, long[]> savedTokens = new HashMap<>();
+    private final HashSet<AddressPair> members = new HashSet<>();
+    private volatile RingSnapshot ring = RingSnapshot.EMPTY;
+    // Ring of every node ever added, dead or alive, which places keys where they belong once every node is back
+    private final TreeMap<Long, AddressPair> homeNodeRing = new TreeMap<>();
+    private volatile RingSnapshot homeRing = RingSnapshot.EMPTY;
 
-    // Ring where key is hash cutoff for the node and value is the ip and port of the node
-    private TreeMap<Integer, AddressPair> nodeRing = new TreeMap<>();
-    private HashMap<AddressPair, Integer> savedHashes = new HashMap<>();
+    // Ranges this node became a replica of when another replica failed, until the time their keys have been copied here
+    private final RangeMap<Long, Long> catchingUp = TreeRangeMap.create();
 
-    public ConsistentHash(String ip, int port) {
+    // Forwarding addresses of the nodes, resolved once per node instead of once per forwarded request
+    private final ConcurrentHashMap<AddressPair, InetSocketAddress> peerAddresses = new ConcurrentHashMap<>();
+
+    public ConsistentHash(String ip, int port, Memory memory, Transport transport) {
         this.port = port;
         this.selfAddress = new AddressPair(ip, port);
+        this.memory = memory;
+        this.transport = transport;
+    }
 
-        try {
-            socket = new DatagramSocket();
-        } catch (SocketException e) {
-            throw new RuntimeException(e);
-        }
+    /**
+     * This function hashes a key onto the ring
+     * @param key: The key of a request
+     * @return The 64-bit position of the key on the ring
+     */
+    public static long hashKey(ByteString key) {
+        return MurmurHash3.hash64(key);
     }
 
     /**
      * This function adds a node to the node ring
      * @param addressPair: The ip and the port of the node
      */
-    public void addNode(AddressPair addressPair) {
-        if (savedHashes.containsKey(addressPair)) {
-            int addressPairHash = savedHashes.get(addressPair);
-            int selfAddressPairHash = savedHashes.get(selfAddress);
-            nodeRing.put(addressPairHash, addressPair);
+    public synchronized void addNode(AddressPair addressPair) {
+        if (savedTokens.containsKey(addressPair)) {
+            if (members.contains(addressPair)) {
+                return;
+            }
+            long[] tokens = savedTokens.get(addressPair);
 
-            // If the current node has keys that may belong to the re-joined node, then transfer keys
-            if (isHigherThan(addressPairHash, addressPair)) {
-                Thread transferKeyThread = new Thread(new KeyTransferer(addressPair, selfAddressPairHash, addressPairHash));
+            // If the current node owns any of the ranges the re-joined node takes back, then transfer keys
+            boolean ownsRejoinedRange = false;
+            for (long token : tokens) {
+                ownsRejoinedRange |= selfAddress.equals(ring.ownerOf(token));
+            }
+            RingSnapshot before = ring;
+            for (long token : tokens) {
+                nodeRing.put(token, addressPair);
+            }
+            members.add(addressPair);
+            ring = RingSnapshot.of(nodeRing);
+
+            // with replicas the re-joined node also joins the chains of the ranges before its own, so every range
+            // whose replicas changed is copied, not just the ranges it owns
+            if (Server.REPLICATION_FACTOR > 1) {
+                replicateRanges(before, ring);
+            } else if (ownsRejoinedRange && !addressPair.equals(selfAddress)) {
+                Thread transferKeyThread = new Thread(new KeyTransferer(memory, this, addressPair));
                 transferKeyThread.start();
             }
 
             return;
         }
 
-        int addressHash = Objects.hashCode(addressPair);
+        long[] tokens = placeTokens(nodeRing, addressPair, VIRTUAL_NODES);
 
-        while (nodeRing.containsKey(addressHash)) {
-            addressHash = (addressHash + 1) % 256;
+        // Save the tokens in case it rejoins, since probing may have moved them away from their hashes
+        savedTokens.put(addressPair, tokens);
+        members.add(addressPair);
+        ring = RingSnapshot.of(nodeRing);
+        for (long token : tokens) {
+            homeNodeRing.put(token, addressPair);
         }
+        homeRing = RingSnapshot.of(homeNodeRing);
+    }
 
-        // Save the address hash in case it rejoins, since the hash used may be different from the internal hashCode()
-        savedHashes.put(addressPair, addressHash);
-        nodeRing.put(addressHash, addressPair);
+    /**
+     * This function places the virtual nodes of a node on a ring. A token is derived from the node's address, so every
+     * node and client computes the same tokens for it, and moved forward if another node already holds it
+     * @param nodeRing: The ring to place the tokens on
+     * @param addressPair: The ip and the port of the node
+     * @param virtualNodes: The number of tokens the node places
+     * @return The tokens the node was placed at
+     */
+    private static long[] placeTokens(TreeMap<Long, AddressPair> nodeRing, AddressPair addressPair, int virtualNodes) {
+        long[] tokens = new long[virtualNodes];
+        for (int i = 0; i < virtualNodes; i++) {
+            long token = MurmurHash3.hash64(ByteString.copyFromUtf8(addressPair + "#" + i));
+
+            while (nodeRing.containsKey(token)) {
+                token++;
+            }
+
+            tokens[i] = token;
+            nodeRing.put(token, addressPair);
+        }
+        return tokens;
+    }
+
+    /**
+     * This function builds the ring a set of members is routed with, the way the nodes build it themselves. Clients
+     * use it to route keys from the membership a node reports
+     * @param members: The ip and port of every member
+     * @param virtualNodes: The number of tokens each node places, as the nodes report it
+     * @return A snapshot of the ring
+     */
+    public static RingSnapshot buildRing(Collection<AddressPair> members, int virtualNodes) {
+        TreeMap<Long, AddressPair> nodeRing = new TreeMap<>();
+        for (AddressPair member : members) {
+            placeTokens(nodeRing, member, virtualNodes);
+        }
+        return RingSnapshot.of(nodeRing);
     }
 
     /**
@@ -63,52 +150,301 @@ public class ConsistentHash {
      * @return An AddressPair containing the IP and port of the node
      */
     public AddressPair getNode(ByteString key) {
-        if (nodeRing.size() == 0) {
+        return ring.ownerOf(hashKey(key));
+    }
+
+    public synchronized AddressPair removeNode(AddressPair addressPair) {
+        if (!members.remove(addressPair)) {
             return null;
         }
 
-        // match hash of key to the least entry that has a strictly greater key
-        Map.Entry<Integer, AddressPair> nextEntry = nodeRing.higherEntry(Math.abs(key.hashCode()) % 256);
-        return nextEntry != null ? nextEntry.getValue() : nodeRing.firstEntry().getValue();
+        RingSnapshot before = ring;
+        for (long token : savedTokens.get(addressPair)) {
+            nodeRing.remove(token);
+        }
+        ring = RingSnapshot.of(nodeRing);
+        if (Server.REPLICATION_FACTOR > 1) {
+            replicateRanges(before, ring);
+        }
+        return addressPair;
+    }
+
+    /**
+     * This function copies the ranges whose replicas changed when a node was removed or re-joined to the nodes that
+     * became their replicas. A range is sent by a replica it no longer has, which drops it once it was copied, or else
+     * by the first replica still holding it, and a node that became a replica marks the range as catching up until
+     * the copy is expected to be done
+     * @param before: The ring before the node was removed or re-joined
+     * @param after: The ring after
+     */
+    private void replicateRanges(RingSnapshot before, RingSnapshot after) {
+        HashMap<AddressPair, List<long[]>> newReplicaRanges = new HashMap<>();
+        long caughtUpAt = System.currentTimeMillis() + KeyTransferer.catchUpTime(memory);
+
+        // the replicas are the same over every range between two tokens of the ring with more tokens, which has every
+        // token of the other one
+        RingSnapshot tokens = before.tokenCount() >= after.tokenCount() ? before : after;
+        for (int i = 0; i < tokens.tokenCount(); i++) {
+            long from = tokens.tokenAt(i == 0 ? tokens.tokenCount() - 1 : i - 1);
+            long to = tokens.tokenAt(i);
+            AddressPair[] oldReplicas = before.successors(from, Server.REPLICATION_FACTOR);
+            List<AddressPair> newReplicas = Arrays.asList(after.successors(from, Server.REPLICATION_FACTOR));
+
+            AddressPair sender = null;
+            for (AddressPair replica : oldReplicas) {
+                if (!after.contains(replica)) {
+                    continue;
+                }
+                if (!newReplicas.contains(replica)) {
+                    sender = replica;
+                    break;
+                }
+                if (sender == null) {
+                    sender = replica;
+                }
+            }
+            for (AddressPair replica : newReplicas) {
+                if (Arrays.asList(oldReplicas).contains(replica)) {
+                    continue;
+                }
+                if (selfAddress.equals(sender)) {
+                    newReplicaRanges.computeIfAbsent(replica, r -> new ArrayList<>()).add(new long[] {from, to});
+                }
+                if (selfAddress.equals(replica)) {
+                    catchUp(from, to, caughtUpAt);
+                }
+            }
+        }
+
+        newReplicaRanges.forEach((replica, ranges) -> {
+            Thread transferKeyThread = new Thread(new KeyTransferer(memory, this, replica, ranges));
+            transferKeyThread.start();
+        });
+    }
+
+    private void catchUp(long from, long to, long caughtUpAt) {
+        synchronized (catchingUp) {
+            if (from < to) {
+                catchingUp.put(Range.closedOpen(from, to), caughtUpAt);
+            } else if (from == to) {
+                catchingUp.put(Range.all(), caughtUpAt);
+            } else {
+                // the range wraps around the ring
+                catchingUp.put(Range.atLeast(from), caughtUpAt);
+                catchingUp.put(Range.lessThan(to), caughtUpAt);
+            }
+        }
+    }
+
+    /**
+     * This function checks if this node may not have been copied a key yet, because it became a replica of the key
+     * when another replica failed
+     * @param key: The key of a request
+     * @return True if the key's range is still being copied to this node
+     */
+    public boolean isCatchingUp(ByteString key) {
+        synchronized (catchingUp) {
+            Long caughtUpAt = catchingUp.get(hashKey(key));
+            return caughtUpAt != null && System.currentTimeMillis() < caughtUpAt;
+        }
+    }
+
+    /**
+     * This function determines which nodes hold the replicas of a key
+     * @param key: The key of the request that will be hashed
+     * @param count: The number of replicas
+     * @return The owner of the key followed by the nodes after it on the ring
+     */
+    public AddressPair[] getReplicas(ByteString key, int count) {
+        return ring.successors(hashKey(key), count);
+    }
+
+    /**
+     * This function determines which nodes would hold the replicas of a key if every node that ever joined was alive
+     * @param key: The key of the request that will be hashed
+     * @param count: The number of replicas
+     * @return The home replicas of the key in ring order, including dead nodes
+     */
+    public AddressPair[] getHomeReplicas(ByteString key, int count) {
+        return homeRing.successors(hashKey(key), count);
+    }
+
+    public AddressPair getSelfAddress() {
+        return selfAddress;
+    }
+
+    public AntiEntropy getAntiEntropy() {
+        AntiEntropy antiEntropy = this.antiEntropy;
+        if (antiEntropy == null) {
+            synchronized (componentLock) {
+                if (this.antiEntropy == null) {
+                    this.antiEntropy = new AntiEntropy(memory, this, selfAddress);
+                }
+                antiEntropy = this.antiEntropy;
+            }
+        }
+        return antiEntropy;
+    }
+
+    public HintedHandoff getHintedHandoff() {
+        HintedHandoff hintedHandoff = this.hintedHandoff;
+        if (hintedHandoff == null) {
+            synchronized (componentLock) {
+                if (this.hintedHandoff == null) {
+                    this.hintedHandoff = new HintedHandoff(memory, this);
+                }
+                hintedHandoff = this.hintedHandoff;
+            }
+        }
+        return hintedHandoff;
     }
 
-    public AddressPair removeNode(AddressPair addressPair) {
-        return nodeRing.remove(savedHashes.get(addressPair));
+    /**
+     * This function gets the ring requests are currently routed with
+     * @return The current immutable snapshot of the ring
+     */
+    public RingSnapshot getRing() {
+        return ring;
+    }
+
+    /**
+     * This function forwards a request from this node to another node. The datagram is sent on as it was received,
+     * with the client's address appended as extra Msg fields if the request did not come through another node already.
+     * Protobuf merges fields appended to an encoded message, so nothing needs to be decoded or encoded again.
+     * @param datagram: Pooled buffer holding the received request between its position and limit, with the rest of
+     *                  its capacity free to append to
+     * @param message: The request decoded from the datagram
+     * @param sender: The address the request came from
+     * @param nodeAddress: The address of the node to forward the request to
+     */
+    public void callNode(ByteBuffer datagram, Message.Msg message, InetSocketAddress sender, AddressPair nodeAddress) {
+        callNode(datagram, message, sender, nodeAddress, -1, 0);
     }
 
     /**
-     * This function forwards a request from this node to another node
-     * @param packet: The packet to be forwarded to another node
-     * @param nodeAddress: The address of the node to forward the packet to
+     * This function forwards a request from this node to another node, like callNode() above, and also sets the
+     * position in its replication chain the request is passed on to. A field appended again replaces the value
+     * appended by an earlier node
+     * @param chainPosition: The position of nodeAddress in the request's replication chain, or -1 for none
+     * @param writeStamp: The write stamp the head of the chain gave the write, sent along with the chain position
      */
-    public void callNode(DatagramPacket packet, AddressPair nodeAddress) {
+    public void callNode(ByteBuffer datagram, Message.Msg message, InetSocketAddress sender, AddressPair nodeAddress,
+                         int chainPosition, long writeStamp) {
+        // a duplicate leaves the bounds of the request as they are for the worker that still owns it
+        ByteBuffer forward = datagram.duplicate();
         try {
-            Message.Msg message = Server.readRequest(packet);
-            Message.Msg forwardMessage = Message.Msg.newBuilder(message)
-                    .setClientIp(packet.getAddress().getHostAddress())
-                    .setClientPort(packet.getPort())
-                    .build();
-            DatagramPacket forwardPacket = new DatagramPacket(
-                    forwardMessage.toByteArray(),
-                    forwardMessage.toByteArray().length,
-                    InetAddress.getByName("localhost"),
-                    nodeAddress.getPort());
-            socket.send(forwardPacket);
-        } catch (IOException | PacketCorruptionException e) {
+            boolean addClient = !message.hasClientIp();
+            if (addClient || chainPosition >= 0) {
+                forward.position(forward.limit()).limit(forward.capacity());
+                CodedOutputStream output = CodedOutputStream.newInstance(forward);
+                if (addClient) {
+                    output.writeString(Message.Msg.CLIENTIP_FIELD_NUMBER, sender.getAddress().getHostAddress());
+                    output.writeInt32(Message.Msg.CLIENTPORT_FIELD_NUMBER, sender.getPort());
+                }
+                if (chainPosition >= 0) {
+                    output.writeInt32(Message.Msg.CHAINPOSITION_FIELD_NUMBER, chainPosition);
+                    output.writeInt64(Message.Msg.WRITESTAMP_FIELD_NUMBER, writeStamp);
+                }
+                output.flush();
+                forward.limit(forward.position()).position(datagram.position());
+            }
+            transport.send(forward, addressOf(nodeAddress));
+        } catch (IOException e) {
             e.printStackTrace();
         }
     }
 
+    /**
+     * This function answers a client outside of a worker, for requests answered only once other nodes replied
+     * @param target: The address of the client
+     * @param messageID: The messageID of the request, which must not share a pooled buffer
+     * @param payload: The response payload
+     */
+    public void reply(InetSocketAddress target, ByteString messageID, ByteString payload) {
+        ByteBuffer response = transport.getBufferPool().acquire();
+        try {
+            Server.writeMessage(messageID, payload, response);
+            transport.send(response.flip(), target);
+        } catch (IOException e) {
+            e.printStackTrace();
+        } finally {
+            transport.getBufferPool().release(response);
+        }
+    }
+
+    /**
+     * This function gets the address requests are sent to for a node, resolved once per node instead of once per request
+     * @param nodeAddress: The ip and port of the node
+     * @return The socket address of the node
+     */
+    public InetSocketAddress addressOf(AddressPair nodeAddress) {
+        return peerAddresses.computeIfAbsent(nodeAddress, ConsistentHash::resolve);
+    }
+
+    /**
+     * This function resolves the address requests are forwarded to for a node, all nodes run on this host
+     * @param nodeAddress: The ip and port of the node
+     * @return The socket address of the node
+     */
+    private static InetSocketAddress resolve(AddressPair nodeAddress) {
+        return new InetSocketAddress(InetAddress.getLoopbackAddress(), nodeAddress.getPort());
+    }
+
     public boolean containsNode(AddressPair addressPair){
-        return nodeRing.containsValue(addressPair);
+        return ring.contains(addressPair);
     }
 
     public int membershipCount(){
-        return nodeRing.size();
+        return ring.memberCount();
+    }
+
+    /**
+     * This function summarizes how evenly the ring spreads the hash space over the nodes
+     * @return A one line report with the smallest and largest share and the standard deviation relative to a perfectly even split
+     */
+    public String balanceReport() {
+        Map<AddressPair, Double> shares = getOwnership();
+        if (shares.isEmpty()) {
+            return "Ring is empty";
+        }
+
+        double even = 1.0 / shares.size();
+        double min = Collections.min(shares.values());
+        double max = Collections.max(shares.values());
+        double variance = 0;
+        for (double share : shares.values()) {
+            variance += (share - even) * (share - even) / shares.size();
+        }
+        return String.format("Ring of %d nodes x %d virtual nodes: smallest share %.1f%%, largest share %.1f%%, std dev %.1f%% of an even split",
+                shares.size(), VIRTUAL_NODES, 100 * min / even, 100 * max / even, 100 * Math.sqrt(variance) / even);
+    }
+
+    /**
+     * This function computes the fraction of the hash space each node owns
+     * @return A map from each node on the ring to the fraction of keys it is expected to hold
+     */
+    public Map<AddressPair, Double> getOwnership() {
+        RingSnapshot ring = this.ring;
+        HashMap<AddressPair, Double> shares = new HashMap<>();
+        if (ring.tokenCount() == 0) {
+            return shares;
+        }
+
+        if (ring.tokenCount() == 1) {
+            shares.put(ring.ownerAt(0), 1.0);
+            return shares;
+        }
+
+        // a token owns the keys from the previous token, inclusive, up to itself, exclusive
+        long previous = ring.tokenAt(ring.tokenCount() - 1);
+        for (int i = 0; i < ring.tokenCount(); i++) {
+            shares.merge(ring.ownerAt(i), unsignedToDouble(ring.tokenAt(i) - previous) / 0x1p64, Double::sum);
+            previous = ring.tokenAt(i);
+        }
+        return shares;
     }
 
-    private boolean isHigherThan(int lowerAddressHash, AddressPair lowerAddressPair) {
-        return (nodeRing.higherEntry(lowerAddressHash) != null && nodeRing.higherEntry(lowerAddressHash).getValue().equals(selfAddress))
-                || (nodeRing.firstEntry().getValue().equals(selfAddress) && nodeRing.lastEntry().getValue().equals(lowerAddressPair));
+    private static double unsignedToDouble(long x) {
+        return x >= 0 ? x : (x >>> 1) * 2.0 + (x & 1);
     }
 }
@@ -0,0 +1,119 @@
+package com.g2.CPEN431.A9;
+
+import com.google.protobuf.ByteString;
+import com.google.protobuf.UnsafeByteOperations;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Storage engine keeping every pair on the Java heap.
+ */
+public class HeapStorageEngine implements StorageEngine {
+
+    // Object headers and references kept per entry on a 64-bit JVM with compressed oops: the map node (32),
+    // the key and value ByteStrings (24 each) and their arrays' headers (16 each), the StoredValue (32) and the Integer (16)
+    private static final int ENTRY_OVERHEAD = 160;
+
+    // Memory store, safe for concurrent use by the worker threads and the key transferer
+    private final ConcurrentHashMap<ByteString, StoredValue> store = new ConcurrentHashMap<>();
+    private final AtomicLong usedBytes = new AtomicLong();
+
+    @Override
+    public boolean put(ByteString key, ByteString value, int version, long stamp) {
+        return put(key, value, version, stamp, false);
+    }
+
+    @Override
+    public boolean putIfNewer(ByteString key, ByteString value, int version, long stamp) {
+        return put(key, value, version, stamp, true);
+    }
+
+    private boolean put(ByteString key, ByteString value, int version, long stamp, boolean ifNewer) {
+        // compute() holds the lock for this key so the version check, the write and the accounting happen together
+        store.compute(copy(key), (k, stored) -> {
+            if (ifNewer && stored != null && StoredValue.compare(stored.getSecond(), stored.getStamp(), version, stamp) > 0) {
+                return stored;
+            }
+            usedBytes.addAndGet(footprint(key, value) - (stored == null ? 0 : footprint(key, stored.getFirst())));
+            return new StoredValue(copy(value), version, stamp);
+        });
+        return true;
+    }
+
+    @Override
+    public StoredValue get(ByteString key) {
+        return store.get(key);
+    }
+
+    @Override
+    public Integer getVersion(ByteString key) {
+        StoredValue keyValue = store.get(key);
+        return keyValue == null ? null : keyValue.getSecond();
+    }
+
+    @Override
+    public boolean contains(ByteString key) {
+        return store.containsKey(key);
+    }
+
+    @Override
+    public boolean remove(ByteString key) {
+        StoredValue previous = store.remove(key);
+        if (previous == null) {
+            return false;
+        }
+        usedBytes.addAndGet(-footprint(key, previous.getFirst()));
+        return true;
+    }
+
+    @Override
+    public boolean remove(ByteString key, int version, long stamp) {
+        boolean[] removed = {false};
+        store.computeIfPresent(key, (k, stored) -> {
+            if (stored.getSecond() != version || stored.getStamp() != stamp) {
+                return stored;
+            }
+            usedBytes.addAndGet(-footprint(k, stored.getFirst()));
+            removed[0] = true;
+            return null;
+        });
+        return removed[0];
+    }
+
+    @Override
+    public void clear() {
+        // remove entry by entry so writes racing with the wipe stay accounted for
+        store.keySet().forEach(this::remove);
+    }
+
+    @Override
+    public long usedBytes() {
+        return usedBytes.get();
+    }
+
+    @Override
+    public long footprintDelta(ByteString key, ByteString value) {
+        StoredValue stored = store.get(key);
+        return footprint(key, value) - (stored == null ? 0 : footprint(key, stored.getFirst()));
+    }
+
+    @Override
+    public Stream<Map.Entry<ByteString, StoredValue>> entries() {
+        return store.entrySet().parallelStream();
+    }
+
+    /**
+     * Requests are parsed without copying, so keys and values are views into a pooled receive buffer
+     * that is reused once the request is done. Whatever the store keeps has to be copied onto the heap.
+     */
+    private static ByteString copy(ByteString bytes) {
+        return UnsafeByteOperations.unsafeWrap(bytes.toByteArray());
+    }
+
+    private static long footprint(ByteString key, ByteString value) {
+        return key.size() + value.size() + ENTRY_OVERHEAD;
+    }
+}
@@ -0,0 +1,154 @@
+package com.g2.CPEN431.A9;
+
+import ca.NetSysLab.ProtocolBuffers.KeyValueRequest;
+import ca.NetSysLab.ProtocolBuffers.KeyValueResponse;
+import ca.NetSysLab.ProtocolBuffers.Message;
+import com.google.protobuf.ByteString;
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.InvalidProtocolBufferException;
+
+import java.net.InetSocketAddress;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps track of the writes this node took as a stand-in for a dead replica, and hands them back once the replica is
+ * heard from again. Only the keys are kept, the replica is sent their current value, or told to remove them if
+ * they were removed since. Once the replica has a key back, this node drops its copy unless it still replicates the key.
+ */
+public class HintedHandoff {
+
+    private final Memory memory;
+    private final ConsistentHash consistentHash;
+
+    // Keys written here as a stand-in, by the replica they belong to
+    private final ConcurrentHashMap<AddressPair, Set<ByteString>> hints = new ConcurrentHashMap<>();
+    // Replicas a hand back is running for, so gossip rounds don't start another one
+    private final Set<AddressPair> handingBack = ConcurrentHashMap.newKeySet();
+
+    public HintedHandoff(Memory memory, ConsistentHash consistentHash) {
+        this.memory = memory;
+        this.consistentHash = consistentHash;
+    }
+
+    /**
+     * This function records that a key was written to this node in place of another replica
+     * @param replica: The replica the write was meant for
+     * @param key: The key written, which may share a pooled buffer
+     */
+    public void hint(AddressPair replica, ByteString key) {
+        hints.computeIfAbsent(replica, r -> ConcurrentHashMap.newKeySet()).add(ByteString.copyFrom(key.toByteArray()));
+    }
+
+    /**
+     * This function starts handing a replica's keys back to it, if this node holds any
+     * @param replica: A node that is alive
+     */
+    public void handBack(AddressPair replica) {
+        Set<ByteString> keys = hints.get(replica);
+        if (keys == null || keys.isEmpty() || !handingBack.add(replica)) {
+            return;
+        }
+
+        Thread handBackThread = new Thread(() -> {
+            try {
+                transfer(replica, keys);
+            } finally {
+                handingBack.remove(replica);
+            }
+        }, "Hinted Handoff");
+        handBackThread.start();
+    }
+
+    /**
+     * This function sends the hinted keys to the replica, in BULK_PUT batches for the keys still stored and as single
+     * removes for the others. A key is forgotten once the replica acknowledged it, and the hand back stops at the
+     * first request the replica does not acknowledge, the rest is sent after it is heard from again. The replica has
+     * rejoined the ring by then, so the copies this node only held in its place are dropped as they are acknowledged
+     * @param replica: The replica to send the keys to
+     * @param keys: The keys hinted for the replica
+     */
+    private void transfer(AddressPair replica, Set<ByteString> keys) {
+        InetSocketAddress address = consistentHash.addressOf(replica);
+
+        try (UDPClient udpClient = new UDPClient()) {
+            KeyValueRequest.KVRequest.Builder batch = KeyValueRequest.KVRequest.newBuilder()
+                    .setCommand(Server.BULK_PUT);
+            // the copy each key of the batch is sent as
+            Map<ByteString, StoredValue> batchCopies = new HashMap<>();
+            int batchBytes = 0;
+
+            for (ByteString key : keys) {
+                StoredValue keyValue = memory.get(key);
+                if (keyValue == null) {
+                    KeyValueRequest.KVRequest remove = KeyValueRequest.KVRequest.newBuilder()
+                            .setCommand(Server.REMOVE)
+                            .setKey(key)
+                            .setReplica(true)
+                            .build();
+                    if (!isAcknowledged(udpClient.request(address.getAddress(), address.getPort(), remove.toByteArray()))) {
+                        return;
+                    }
+                    keys.remove(key);
+                    continue;
+                }
+
+                KeyValueRequest.KVRequest.Record record = KeyValueRequest.KVRequest.Record.newBuilder()
+                        .setKey(key)
+                        .setValue(keyValue.getFirst())
+                        .setVersion(keyValue.getSecond())
+                        .setStamp(keyValue.getStamp())
+                        .build();
+                int recordBytes = CodedOutputStream.computeMessageSize(KeyValueRequest.KVRequest.RECORDS_FIELD_NUMBER, record);
+                if (batchBytes > 0 && batchBytes + recordBytes > KeyTransferer.BATCH_BYTES) {
+                    if (!isAcknowledged(udpClient.request(address.getAddress(), address.getPort(), batch.build().toByteArray()))) {
+                        return;
+                    }
+                    handedBack(keys, batchCopies);
+                    batch.clearRecords();
+                    batchCopies.clear();
+                    batchBytes = 0;
+                }
+                batch.addRecords(record);
+                batchCopies.put(key, keyValue);
+                batchBytes += recordBytes;
+            }
+
+            if (batchBytes > 0 && isAcknowledged(udpClient.request(address.getAddress(), address.getPort(), batch.build().toByteArray()))) {
+                handedBack(keys, batchCopies);
+            }
+        }
+    }
+
+    /**
+     * This function forgets the hints of keys the replica acknowledged, and drops the copies of the keys this node
+     * does not replicate, unless they were written again since they were sent
+     * @param keys: The keys hinted for the replica
+     * @param copies: The copy each acknowledged key was sent as
+     */
+    private void handedBack(Set<ByteString> keys, Map<ByteString, StoredValue> copies) {
+        AddressPair self = consistentHash.getSelfAddress();
+        copies.forEach((key, copy) -> {
+            keys.remove(key);
+            if (!Arrays.asList(consistentHash.getReplicas(key, Server.REPLICATION_FACTOR)).contains(self)) {
+                memory.removeCopy(key, copy);
+            }
+        });
+    }
+
+    private static boolean isAcknowledged(Message.Msg response) {
+        if (response == null) {
+            return false;
+        }
+        try {
+            int errCode = KeyValueResponse.KVResponse.parseFrom(response.getPayload()).getErrCode();
+            // a replica that never had a removed key has nothing to remove
+            return errCode == 0 || errCode == 1;
+        } catch (InvalidProtocolBufferException e) {
+            return false;
+        }
+    }
+}
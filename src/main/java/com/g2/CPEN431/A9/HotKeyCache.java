@@ -0,0 +1,218 @@
+package com.g2.CPEN431.A9;
+
+import ca.NetSysLab.ProtocolBuffers.KeyValueRequest;
+import ca.NetSysLab.ProtocolBuffers.KeyValueResponse;
+import ca.NetSysLab.ProtocolBuffers.Message;
+import com.g2.CPEN431.A9.util.CountMinSketch;
+import com.g2.CPEN431.A9.util.TimerWheel;
+import com.google.protobuf.ByteString;
+import com.google.protobuf.InvalidProtocolBufferException;
+
+import java.net.InetSocketAddress;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Caches the values of hot keys on nodes that don't own them. Every node counts the GETs it would forward in a
+ * Count-Min sketch, and once a key is hot it reads the key through the owner into this cache instead, and answers
+ * later GETs for it itself until the entry expires.
+ *
+ * A read through is granted a read lease of TTL milliseconds by the owner, and the cached copy is only used until the
+ * lease runs out, counted from when the read through was sent so it never outlives the owner's lease. Before a write
+ * to the key commits, the owner sends the lease holders an INVALIDATE with the write's version and stamp and waits
+ * until each one acknowledged it or its lease expired, so a client that got the write acknowledged never reads an
+ * older copy. The owner answers a read through with the value's stamp, which orders it against the invalidations.
+ */
+public class HotKeyCache {
+
+    // Tuning, override with -Dkv.hotKeyThreshold=<reads per second>, -Dkv.hotCacheTtl=<lease ms> and -Dkv.hotCacheSize=<keys>
+    public static final int HOT_THRESHOLD = Integer.getInteger("kv.hotKeyThreshold", 16);
+    public static final long TTL = Long.getLong("kv.hotCacheTtl", 200);
+    public static final int MAX_ENTRIES = Integer.getInteger("kv.hotCacheSize", 1024);
+
+    private static final int SUCCESS = 0x00;
+    private static final int INTERNAL_ERR = 0x04;
+
+    // 4 rows of 4096 counters, halved every second so a key's estimate is roughly its reads in the last second
+    private final CountMinSketch popularity = new CountMinSketch(4, 4096, 1000);
+
+    // Copies of hot keys cached here, and markers left by invalidations so a read through racing with one isn't cached
+    private final ConcurrentHashMap<ByteString, Entry> entries = new ConcurrentHashMap<>();
+    // Leases this node granted on the keys it owns, the time each caching node's lease expires by key
+    private final ConcurrentHashMap<ByteString, ConcurrentHashMap<AddressPair, Long>> leases = new ConcurrentHashMap<>();
+
+    private final ConsistentHash consistentHash;
+    private final UDPClient udpClient = new UDPClient();
+
+    public HotKeyCache(ConsistentHash consistentHash) {
+        this.consistentHash = consistentHash;
+    }
+
+    /**
+     * This function counts a GET this node does not serve and decides if the key is hot
+     * @param key: The key of the GET
+     * @return true if the key was read often enough lately to be cached
+     */
+    public boolean isHot(ByteString key) {
+        return popularity.add(ConsistentHash.hashKey(key)) >= HOT_THRESHOLD;
+    }
+
+    /**
+     * This function gets the cached copy of a key
+     * @param key: The key of the GET
+     * @return The cached value, or null if none is cached or it expired
+     */
+    public StoredValue get(ByteString key) {
+        Entry entry = entries.get(key);
+        if (entry == null || entry.value == null || entry.expiresAt < System.currentTimeMillis()) {
+            return null;
+        }
+        return entry.value;
+    }
+
+    /**
+     * This function reads a key through its owner and caches the value for as long as the lease the owner grants
+     * @param key: The key of the GET
+     * @param owner: The owner of the key
+     * @return A future completed with the response for the client
+     */
+    public CompletableFuture<KeyValueResponse.KVResponse> readThrough(ByteString key, AddressPair owner) {
+        // the owner's lease starts once the request arrives, a lease counted from now ends no later
+        long leaseExpiry = System.currentTimeMillis() + TTL;
+        ByteString cachedKey = ByteString.copyFrom(key.toByteArray());
+        KeyValueRequest.KVRequest request = KeyValueRequest.KVRequest.newBuilder()
+                .setCommand(Server.GET)
+                .setKey(cachedKey)
+                .setCacheFor(consistentHash.getSelfAddress().toString())
+                .build();
+
+        InetSocketAddress address = consistentHash.addressOf(owner);
+        return udpClient.requestAsync(address.getAddress(), address.getPort(), request.toByteArray())
+                .thenApply(reply -> {
+                    KeyValueResponse.KVResponse response = parse(reply);
+                    if (response == null) {
+                        return KeyValueResponse.KVResponse.newBuilder().setErrCode(INTERNAL_ERR).build();
+                    }
+                    if (response.getErrCode() == SUCCESS) {
+                        cache(cachedKey, new StoredValue(response.getValue(), response.getVersion(), response.getStamp()), leaseExpiry);
+                    }
+                    return response;
+                });
+    }
+
+    private void cache(ByteString key, StoredValue value, long expiresAt) {
+        if (entries.size() >= MAX_ENTRIES) {
+            entries.values().removeIf(entry -> entry.expiresAt < System.currentTimeMillis());
+            if (entries.size() >= MAX_ENTRIES) {
+                return;
+            }
+        }
+
+        entries.compute(key, (k, entry) -> {
+            // an invalidation newer than the value arrived while it was read, the value is stale already
+            if (entry != null && entry.expiresAt >= System.currentTimeMillis()
+                    && StoredValue.compare(value.getSecond(), value.getStamp(), entry.version, entry.stamp) < 0) {
+                return entry;
+            }
+            return new Entry(value, value.getSecond(), value.getStamp(), expiresAt);
+        });
+    }
+
+    /**
+     * This function drops the cached copy of a key if it is older than a write to the key
+     * @param key: The key written
+     * @param version: The version of the write
+     * @param stamp: The write stamp of the write
+     */
+    public void invalidate(ByteString key, int version, long stamp) {
+        long expiresAt = System.currentTimeMillis() + TTL;
+        entries.compute(ByteString.copyFrom(key.toByteArray()), (k, entry) -> {
+            if (entry != null && StoredValue.compare(entry.version, entry.stamp, version, stamp) >= 0) {
+                return entry;
+            }
+            return new Entry(null, version, stamp, expiresAt);
+        });
+    }
+
+    /**
+     * This function grants a node a read lease on a key this node owns. It has to be granted before the key is read,
+     * so a write that doesn't see the lease is already visible to the read
+     * @param key: The key read through
+     * @param cacher: The ip and port of the caching node
+     */
+    public void grantLease(ByteString key, AddressPair cacher) {
+        leases.computeIfAbsent(ByteString.copyFrom(key.toByteArray()), k -> new ConcurrentHashMap<>())
+                .put(cacher, System.currentTimeMillis() + TTL);
+    }
+
+    /**
+     * This function revokes the leases on a key before a write to it commits. The lease holders are sent an INVALIDATE,
+     * and a holder that doesn't acknowledge it is waited out until its lease expires
+     * @param key: The key written
+     * @param version: The version of the write, Integer.MAX_VALUE for a remove
+     * @param stamp: The write stamp of the write, Long.MAX_VALUE for a remove
+     * @return A future completed once no lease on the key is held anymore
+     */
+    public CompletableFuture<Void> revokeLeases(ByteString key, int version, long stamp) {
+        ConcurrentHashMap<AddressPair, Long> holders = leases.remove(key);
+        long now = System.currentTimeMillis();
+        if (holders != null) {
+            holders.values().removeIf(expiry -> expiry <= now);
+        }
+        if (holders == null || holders.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        byte[] invalidation = KeyValueRequest.KVRequest.newBuilder()
+                .setCommand(Server.INVALIDATE)
+                .setKey(key)
+                .setVersion(version)
+                .setStamp(stamp)
+                .build()
+                .toByteArray();
+        CompletableFuture<Void> revoked = new CompletableFuture<>();
+        AtomicInteger outstanding = new AtomicInteger(holders.size());
+        for (AddressPair node : holders.keySet()) {
+            InetSocketAddress address = consistentHash.addressOf(node);
+            udpClient.requestAsync(address.getAddress(), address.getPort(), invalidation).thenAccept(reply -> {
+                if (reply != null && outstanding.decrementAndGet() == 0) {
+                    revoked.complete(null);
+                }
+            });
+        }
+
+        long lastExpiry = holders.values().stream().mapToLong(Long::longValue).max().orElse(now);
+        TimerWheel.Timeout timeout = TimerWheel.SHARED.schedule(() -> revoked.complete(null), lastExpiry - now);
+        revoked.thenRun(timeout::cancel);
+        return revoked;
+    }
+
+    private static KeyValueResponse.KVResponse parse(Message.Msg reply) {
+        if (reply == null) {
+            return null;
+        }
+        try {
+            return KeyValueResponse.KVResponse.parseFrom(reply.getPayload());
+        } catch (InvalidProtocolBufferException e) {
+            return null;
+        }
+    }
+
+    /**
+     * A cached copy of a key, or with a null value the version of an invalidation no older copy may be cached over
+     */
+    private static class Entry {
+        private final StoredValue value;
+        private final int version;
+        private final long stamp;
+        private final long expiresAt;
+
+        private Entry(StoredValue value, int version, long stamp, long expiresAt) {
+            this.value = value;
+            this.version = version;
+            this.stamp = stamp;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -1,52 +1,286 @@
 package com.g2.CPEN431.A9;
 
 import ca.NetSysLab.ProtocolBuffers.KeyValueRequest;
+import ca.NetSysLab.ProtocolBuffers.KeyValueResponse;
+import ca.NetSysLab.ProtocolBuffers.Message;
+import com.google.common.util.concurrent.RateLimiter;
+import com.google.protobuf.ByteString;
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.InvalidProtocolBufferException;
 
 import java.net.InetAddress;
-import java.net.UnknownHostException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
 
+/**
+ * Hands the keys a node owns over to it. Ranges the node already holds the same pairs for are found with
+ * AntiEntropy and skipped. Records are packed into BULK_PUT batches of up to BATCH_BYTES, a window of
+ * batches is kept in flight and the transfer is throttled to a byte rate so it doesn't crowd out client requests.
+ * Keys are sent in ring order, so the progress of a transfer is the number of keys before the first batch not
+ * acknowledged, and a transfer the destination stopped answering resumes from there. Once everything was acknowledged
+ * the ranges are dropped from this node, except for keys written since they were handed over, which are sent again.
+ * A transferer can also copy ranges to a node that just became one of their replicas, after another replica failed or
+ * a node re-joined in front of it. This node keeps its own copies of them unless it is no longer one of their replicas.
+ */
 public class KeyTransferer implements Runnable {
 
+    // Bulk transfer tuning, override with -Dkv.transferWindow=<batches> and -Dkv.transferRate=<bytes per second>
+    public static final int WINDOW = Integer.getInteger("kv.transferWindow", 16);
+    public static final long RATE = Long.getLong("kv.transferRate", 16L * 1024 * 1024);
+
+    // Records are packed into a batch until it reaches this size, which leaves room for the Msg in a 16KB datagram
+    static final int BATCH_BYTES = 15 * 1024;
+    private static final int MAX_ATTEMPTS = 3;
+    private static final long RETRY_DELAY = 1000;
+    // Nodes notice a failure within a few gossip rounds of each other
+    private static final long DETECTION_SKEW = 5000;
+
+    private final Memory memory;
+    private final ConsistentHash consistentHash;
     private final AddressPair destinationAddress;
-    private final int sourceNodeHash;
-    private final int destinationNodeHash;
-    private final UDPClient udpClient;
+    // Ranges the destination just became a replica of, or null to hand over the ranges the destination owns
+    private final List<long[]> replicaRanges;
+    private final RateLimiter rateLimiter = RateLimiter.create(RATE);
 
-    public KeyTransferer(AddressPair destinationAddress, int sourceNodeHash, int destinationNodeHash) {
-        this.sourceNodeHash =sourceNodeHash;
+    public KeyTransferer(Memory memory, ConsistentHash consistentHash, AddressPair destinationAddress) {
+        this(memory, consistentHash, destinationAddress, null);
+    }
+
+    /**
+     * This function creates a transferer copying ranges to a node that just became one of their replicas. The node
+     * may hold none of their keys, so the ranges are sent without comparing trees first
+     * @param replicaRanges: Pairs of {from, to} positions on the ring
+     */
+    public KeyTransferer(Memory memory, ConsistentHash consistentHash, AddressPair destinationAddress,
+                         List<long[]> replicaRanges) {
+        this.memory = memory;
+        this.consistentHash = consistentHash;
         this.destinationAddress = destinationAddress;
-        this.destinationNodeHash = destinationNodeHash;
-        this.udpClient = new UDPClient();
+        this.replicaRanges = replicaRanges;
+    }
+
+    /**
+     * This function bounds how long a node that just became a replica of ranges may miss some of their keys: a
+     * transfer of as many bytes as this node holds with its retries, twice over for a node sending more, after the
+     * node sending them noticed the failure too
+     * @param memory: The memory store of this node
+     * @return The time in milliseconds
+     */
+    public static long catchUpTime(Memory memory) {
+        return 2 * (memory.usedBytes() * 1000 / RATE + MAX_ATTEMPTS * RETRY_DELAY) + DETECTION_SKEW;
     }
 
     @Override
     public void run() {
-        Memory.getAllEntries()
-                .filter(entry -> {
-                    int keyHash = Math.abs(entry.getKey().hashCode()) % 256;
-                    if (sourceNodeHash < destinationNodeHash) {
-                        return (keyHash < sourceNodeHash) || (keyHash >= destinationNodeHash);
-                    } else {
-                        return keyHash < destinationNodeHash;
+        // the address every other request between nodes goes to
+        InetAddress destination = consistentHash.addressOf(destinationAddress).getAddress();
+
+        RingSnapshot ring = consistentHash.getRing();
+        List<long[]> ranges = replicaRanges == null ? ring.rangesOf(destinationAddress) : replicaRanges;
+
+        try (UDPClient udpClient = new UDPClient()) {
+            // the copy each key is handed over as. Keys of ranges the destination already holds are handed over as
+            // they were before the trees are compared, so a key written while comparing them counts as written since
+            Map<ByteString, StoredValue> handedOver = new ConcurrentHashMap<>();
+            ranges.forEach(range -> memory.getEntriesInRange(range[0], range[1])
+                    .forEach(entry -> handedOver.put(entry.getKey(), versionOf(entry.getValue()))));
+
+            // the destination has rejoined the ring, so send it the keys of the ranges it owns, unless it already
+            // holds the same pairs for a range. If the trees could not be compared every range is sent
+            List<long[]> divergentRanges = replicaRanges == null
+                    ? consistentHash.getAntiEntropy().findDivergentRanges(udpClient, destination, destinationAddress, ring, ranges)
+                    : null;
+            if (divergentRanges == null) {
+                divergentRanges = ranges;
+            }
+
+            // only the keys are collected, values are read as their batch is packed
+            List<ByteString> keys = divergentRanges.stream()
+                    .flatMap(range -> memory.getKeysInRange(range[0], range[1]))
+                    .toList();
+
+            int checkpoint = 0;
+            for (int attempt = 1; ; attempt++) {
+                checkpoint = transfer(udpClient, destination, keys, checkpoint, handedOver);
+                if (checkpoint == keys.size()) {
+                    // the destination has every key of its ranges now, this node doesn't need to keep them unless
+                    // it still holds replicas of them. Keys written here since they were handed over are sent again
+                    keys = dropHandedOver(ring, ranges, handedOver);
+                    checkpoint = 0;
+                    if (keys.isEmpty()) {
+                        return;
                     }
-                })
-                .forEach(entry -> {
-                    KeyValueRequest.KVRequest kvRequest = KeyValueRequest.KVRequest.newBuilder()
-                            .setCommand(Server.PUT)
-                            .setKey(entry.getKey())
-                            .setValue(entry.getValue().getFirst())
-                            .setVersion(entry.getValue().getSecond())
-                            .build();
-
-                    try {
-                        udpClient.request(InetAddress.getByName(
-                                destinationAddress.getIp()),
-                                destinationAddress.getPort(),
-                                kvRequest.toByteArray());
-                    } catch (UnknownHostException e) {
-                        System.err.println("Error getting destination InetAddress for ip: " + destinationAddress.getIp());
-                        e.printStackTrace();
+                    if (attempt == MAX_ATTEMPTS) {
+                        System.err.println("Kept " + keys.size() + " keys written while transferring to " + destinationAddress);
+                        return;
                     }
-                });
+                    continue;
+                }
+                if (attempt == MAX_ATTEMPTS || !consistentHash.containsNode(destinationAddress)) {
+                    System.err.println("Gave up transferring keys to " + destinationAddress + " after " + checkpoint + " of " + keys.size());
+                    return;
+                }
+
+                try {
+                    Thread.sleep(RETRY_DELAY);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * This function drops the ranges handed over to the destination that this node doesn't replicate
+     * @param ring: The ring the ranges were found on
+     * @param ranges: The ranges of the destination
+     * @param handedOver: The copy each key was handed over as
+     * @return The keys kept because they were written since they were handed over
+     */
+    private List<ByteString> dropHandedOver(RingSnapshot ring, List<long[]> ranges, Map<ByteString, StoredValue> handedOver) {
+        List<ByteString> kept = new ArrayList<>();
+        for (long[] range : ranges) {
+            AddressPair[] replicas = ring.successors(range[0], Server.REPLICATION_FACTOR);
+            if (!Arrays.asList(replicas).contains(consistentHash.getSelfAddress())) {
+                kept.addAll(memory.dropRange(range[0], range[1], handedOver));
+            }
+        }
+        return kept;
+    }
+
+    /**
+     * This function keeps the version and write stamp of a copy without its value
+     */
+    private static StoredValue versionOf(StoredValue keyValue) {
+        return new StoredValue(ByteString.EMPTY, keyValue.getSecond(), keyValue.getStamp());
+    }
+
+    /**
+     * This function sends keys to the destination in batches until they are all acknowledged or a batch fails
+     * @param udpClient: The client to send the batches with
+     * @param destination: The address of the destination
+     * @param keys: The keys to transfer, in the order they are sent
+     * @param from: The index of the first key to send
+     * @param handedOver: Where the copy each key is sent as is recorded
+     * @return The index of the first key not acknowledged, the size of keys if all of them were
+     */
+    private int transfer(UDPClient udpClient, InetAddress destination, List<ByteString> keys, int from,
+                         Map<ByteString, StoredValue> handedOver) {
+        Semaphore window = new Semaphore(WINDOW);
+        Progress progress = new Progress(from);
+
+        int next = from;
+        while (next < keys.size() && !progress.failed) {
+            KeyValueRequest.KVRequest.Builder batch = KeyValueRequest.KVRequest.newBuilder()
+                    .setCommand(Server.BULK_PUT);
+            int batchBytes = 0;
+            while (next < keys.size()) {
+                ByteString key = keys.get(next);
+                StoredValue keyValue = memory.get(key);
+                // the key was removed since the transfer started
+                if (keyValue == null) {
+                    next++;
+                    continue;
+                }
+
+                KeyValueRequest.KVRequest.Record record = KeyValueRequest.KVRequest.Record.newBuilder()
+                        .setKey(key)
+                        .setValue(keyValue.getFirst())
+                        .setVersion(keyValue.getSecond())
+                        .setStamp(keyValue.getStamp())
+                        .build();
+                int recordBytes = CodedOutputStream.computeMessageSize(KeyValueRequest.KVRequest.RECORDS_FIELD_NUMBER, record);
+                if (batchBytes > 0 && batchBytes + recordBytes > BATCH_BYTES) {
+                    break;
+                }
+                batch.addRecords(record);
+                batchBytes += recordBytes;
+                handedOver.put(key, versionOf(keyValue));
+                next++;
+            }
+            // every key left was removed since the transfer started, there is nothing to wait for after the last batch
+            if (batchBytes == 0) {
+                progress.sent(next, true);
+                break;
+            }
+
+            rateLimiter.acquire(batchBytes);
+            window.acquireUninterruptibly();
+            Batch sent = progress.sent(next, false);
+            udpClient.requestAsync(destination, destinationAddress.getPort(), batch.build().toByteArray())
+                    .whenComplete((response, e) -> {
+                        progress.acknowledged(sent, isSuccess(response));
+                        window.release();
+                    });
+        }
+
+        // wait for the batches still in flight
+        window.acquireUninterruptibly(WINDOW);
+        return progress.checkpoint;
+    }
+
+    private static boolean isSuccess(Message.Msg response) {
+        if (response == null) {
+            return false;
+        }
+        try {
+            return KeyValueResponse.KVResponse.parseFrom(response.getPayload()).getErrCode() == 0;
+        } catch (InvalidProtocolBufferException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Batches of a transfer in the order they were sent, the checkpoint moves past a batch once it and every batch
+     * before it were acknowledged
+     */
+    private static class Progress {
+        private final ArrayDeque<Batch> unacknowledged = new ArrayDeque<>();
+        private volatile int checkpoint;
+        private volatile boolean failed = false;
+
+        private Progress(int checkpoint) {
+            this.checkpoint = checkpoint;
+        }
+
+        private synchronized Batch sent(int end, boolean acknowledged) {
+            Batch batch = new Batch(end);
+            batch.acknowledged = acknowledged;
+            unacknowledged.add(batch);
+            advance();
+            return batch;
+        }
+
+        private synchronized void acknowledged(Batch batch, boolean success) {
+            // a failed batch is never acknowledged, so the checkpoint stops in front of it
+            if (!success) {
+                failed = true;
+                return;
+            }
+            batch.acknowledged = true;
+            advance();
+        }
+
+        private void advance() {
+            while (!unacknowledged.isEmpty() && unacknowledged.peek().acknowledged) {
+                checkpoint = unacknowledged.poll().end;
+            }
+        }
+    }
+
+    private static class Batch {
+        // index of the key after the batch's last record
+        private final int end;
+        private boolean acknowledged = false;
+
+        private Batch(int end) {
+            this.end = end;
+        }
     }
 }
@@ -6,9 +6,9 @@ import ca.NetSysLab.ProtocolBuffers.Message;
 import com.google.protobuf.InvalidProtocolBufferException;
 
 import java.net.InetAddress;
-import java.net.UnknownHostException;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
 
 import static com.g2.CPEN431.A9.Server.GET_MS_LIST;
 
@@ -16,11 +16,18 @@ public class MemberMonitor implements Runnable {
 
     // A HashMap to store node information
     public ConcurrentHashMap<AddressPair, Long> nodeStore;
+    // The load each node last gossiped, the number of requests it had queued or running
+    private final ConcurrentHashMap<AddressPair, Integer> loads;
+    // Gossip names members by their "ip:port" string, parse each string only once
+    private final ConcurrentHashMap<String, AddressPair> knownAddresses;
     private final Random random;
     private final UDPClient udpClient;
     private final AddressPair self;
     private final ConsistentHash consistentHash;
 
+    // Every node runs on this host, gossip goes over the loopback interface
+    private static final InetAddress LOCALHOST = InetAddress.getLoopbackAddress();
+
     //dummy time until we set the amount of nodes
     public static final int DEFAULT_INTERVAL = 100;
     final int NUM_NODES = 40;
@@ -30,6 +37,8 @@ public class MemberMonitor implements Runnable {
 
     public MemberMonitor(int port, ArrayList<AddressPair> initialMembership, AddressPair selfAddress, ConsistentHash consistentHash) {
         this.nodeStore = new ConcurrentHashMap<>();
+        this.knownAddresses = new ConcurrentHashMap<>();
+        this.loads = new ConcurrentHashMap<>();
         this.random = new Random();
         this.udpClient = new UDPClient();
         this.self = selfAddress;
@@ -40,6 +49,7 @@ public class MemberMonitor implements Runnable {
         Long currentTime = System.currentTimeMillis();
         for (AddressPair addressPair : initialMembership) {
             nodeStore.put(addressPair, currentTime);
+            knownAddresses.put(addressPair.toString(), addressPair);
         }
     }
 
@@ -48,49 +58,59 @@ public class MemberMonitor implements Runnable {
         // Update itself in the nodestore to be the latest time
         nodeStore.put(self, System.currentTimeMillis());
 
-        Set<AddressPair> nodes = nodeStore.keySet();
-        int index = random.nextInt(nodes.size());
-        AddressPair node = (AddressPair) nodes.toArray()[index];
+        AddressPair[] nodes = nodeStore.keySet().toArray(new AddressPair[0]);
+        AddressPair node = nodes[random.nextInt(nodes.length)];
 
         // Make sure it's not trying to contact itself
         while (node.equals(self)) {
-            index = random.nextInt(nodes.size());
-            node = (AddressPair) nodes.toArray()[index];
+            node = nodes[random.nextInt(nodes.length)];
         }
 
         KeyValueRequest.KVRequest kvRequest = KeyValueRequest.KVRequest.newBuilder()
                 .setCommand(GET_MS_LIST)
                 .build();
 
+        // the round ends once the request is sent, the response is merged by the client's receiver when it arrives
+        udpClient.requestAsync(LOCALHOST, node.getPort(), kvRequest.toByteArray())
+                .thenAccept(this::mergeMembership);
+    }
+
+    /**
+     * This function merges the membership list another node gossiped into this node's, and removes nodes
+     * that have been silent for too long from the ring
+     * @param nodeResponse: The response to a GET_MS_LIST request, or null if the node did not answer
+     */
+    private void mergeMembership(Message.Msg nodeResponse) {
+        if (nodeResponse == null) {
+            return;
+        }
+
         try {
-            Message.Msg nodeResponse = udpClient.request(
-                    InetAddress.getByName("localhost"),
-                    node.getPort(),
-                    kvRequest.toByteArray());
-            if (nodeResponse != null) {
-                KeyValueResponse.KVResponse.parseFrom(nodeResponse.getPayload())
-                        .getMembershipInfoList()
-                        .forEach((membershipInfo -> {
-                            AddressPair checkAddressPair = new AddressPair(membershipInfo.getAddressPair());
-                            long checkLastAlive = Math.max(
-                                    membershipInfo.getTime(),
-                                    nodeStore.get(checkAddressPair));
-                            // Note that we're using system default time zone, which we'll need to keep in mind when we check if a node is alive
-                            nodeStore.put(checkAddressPair, checkLastAlive);
-                        }));
-                for (Map.Entry<AddressPair, Long> entry : nodeStore.entrySet()) {
-                    if (isDead(entry.getKey())) {
-//                        System.out.println("[" + self.getPort() + "]: Detected node " + entry.getKey() + " to be dead!");
-                        consistentHash.removeNode(entry.getKey());
-                    } else if (!consistentHash.containsNode(entry.getKey())){ // If the consistent hash does not contain an alive node, then it needs to join the hash once again
-                        // consistentHash.addNode(entry.getKey());
+            KeyValueResponse.KVResponse.parseFrom(nodeResponse.getPayload())
+                    .getMembershipInfoList()
+                    .forEach((membershipInfo -> {
+                        AddressPair checkAddressPair = knownAddresses.computeIfAbsent(membershipInfo.getAddressPair(), AddressPair::new);
+                        // the load travels with the heartbeat, so the newer heartbeat has the newer load
+                        Long knownTime = nodeStore.get(checkAddressPair);
+                        if (knownTime == null || membershipInfo.getTime() > knownTime) {
+                            loads.put(checkAddressPair, membershipInfo.getLoad());
+                        }
+                        // Note that we're using system default time zone, which we'll need to keep in mind when we check if a node is alive
+                        nodeStore.merge(checkAddressPair, membershipInfo.getTime(), Math::max);
+                    }));
+            for (Map.Entry<AddressPair, Long> entry : nodeStore.entrySet()) {
+                if (isDead(entry.getKey())) {
+//                    System.out.println("[" + self.getPort() + "]: Detected node " + entry.getKey() + " to be dead!");
+                    consistentHash.removeNode(entry.getKey());
+                } else {
+                    if (!consistentHash.containsNode(entry.getKey())){ // If the consistent hash does not contain an alive node, then it needs to join the hash once again
+                        // a rejoin moves its ranges back to it, after AntiEntropy found which of them it is missing
+                        consistentHash.addNode(entry.getKey());
                     }
+                    // hand back the writes this node took in place of the node while it was dead
+                    consistentHash.getHintedHandoff().handBack(entry.getKey());
                 }
             }
-
-        } catch (UnknownHostException e) {
-            System.err.println("Error while getting IP for node: " + node.getIp());
-            e.printStackTrace();
         } catch (InvalidProtocolBufferException e) {
             System.err.println("Couldn't parse protocol buffer");
             e.printStackTrace();
@@ -101,6 +121,39 @@ public class MemberMonitor implements Runnable {
         return this.nodeStore;
     }
 
+    /**
+     * This function gets the load of a node, this node's own load is always current
+     * @param addressPair: The ip and port of the node
+     * @return The number of requests the node had queued or running, 0 if it never gossiped one
+     */
+    public int getLoad(AddressPair addressPair) {
+        if (addressPair.equals(self)) {
+            return ServerWorker.queueDepth();
+        }
+        return loads.getOrDefault(addressPair, 0);
+    }
+
+    /**
+     * This function picks the replica to read a key from with the power of two choices, the less loaded of two
+     * replicas picked at random. Loads are only as fresh as gossip, and comparing two random replicas rather than
+     * picking the least loaded of all keeps nodes from piling onto the same replica until the next round
+     * @param replicas: The replicas of the key
+     * @return The replica to read from
+     */
+    public AddressPair pickReplica(AddressPair[] replicas) {
+        if (replicas.length == 1) {
+            return replicas[0];
+        }
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(replicas.length);
+        int second = random.nextInt(replicas.length - 1);
+        if (second >= first) {
+            second++;
+        }
+        return getLoad(replicas[first]) <= getLoad(replicas[second]) ? replicas[first] : replicas[second];
+    }
+
     private boolean isDead(AddressPair addressPair) {
         return System.currentTimeMillis() - nodeStore.get(addressPair) > (DEFAULT_INTERVAL * (Math.log(NUM_NODES) / Math.log(2) + SAFETY_MARGIN));
     }
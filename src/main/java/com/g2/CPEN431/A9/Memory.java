@@ -1,9 +1,16 @@
 package com.g2.CPEN431.A9;
 
 import com.google.protobuf.ByteString;
+import com.google.protobuf.UnsafeByteOperations;
 
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
 import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Stream;
 
 public class Memory {
@@ -16,39 +23,86 @@ public class Memory {
     private static final int BAD_KEY_ERR = 0x06;
     private static final int BAD_VALUE_ERR = 0x07;
 
-    // Memory buffer to look for out of memory error
-    private static final int MIN_MEMORY_BUFFER = 2250000;   // 2.25 mb buffer
-
     // Max key and value sizes
     private static final int MAX_KEY_SIZE = 32;
     private static final int MAX_VALUE_SIZE = 10000;
 
-    // Memory store
-    private final HashMap<ByteString, Pair<ByteString, Integer>> store;
+    // Storage engine selection, -Dkv.storage=offheap keeps values in direct memory of at most -Dkv.offHeapBytes
+    private static final String STORAGE_ENGINE = System.getProperty("kv.storage", "heap");
+    private static final long OFF_HEAP_CAPACITY = Long.getLong("kv.offHeapBytes", 256L * 1024 * 1024);
+
+    // Memory budget in bytes of stored keys, values, per entry overhead and the ring index, -Dkv.capacityBytes overrides it.
+    // Puts are refused once the high watermark is reached, and accepted again once removals bring the store
+    // under the low watermark. -Dkv.highWatermark and -Dkv.lowWatermark set them as fractions of the capacity
+    private static final long CAPACITY = Long.getLong("kv.capacityBytes",
+            STORAGE_ENGINE.equals("offheap") ? OFF_HEAP_CAPACITY : Runtime.getRuntime().maxMemory() * 6 / 10);
+    private static final double HIGH_WATERMARK = Double.parseDouble(System.getProperty("kv.highWatermark", "0.95"));
+    private static final double LOW_WATERMARK = Double.parseDouble(System.getProperty("kv.lowWatermark", "0.85"));
+
+    // Memory store, safe for concurrent use by the worker threads and the key transferer
+    private final StorageEngine store;
+
+    // Heap kept per key by the ring index on top of the key's bytes: the skip list node and its share of index
+    // nodes (32), the RingPosition (24), and the key's own ByteString (24) and its array's header (16)
+    private static final int INDEX_ENTRY_OVERHEAD = 96;
+
+    // Stored keys ordered by their position on the ring, so the keys of a range of the ring are found
+    // without going through the whole store. Its footprint counts towards the memory budget
+    private final ConcurrentSkipListSet<RingPosition> ringIndex = new ConcurrentSkipListSet<>();
+    private final AtomicLong indexBytes = new AtomicLong();
+
+    private final long highWatermark;
+    private final long lowWatermark;
+    private volatile boolean full = false;
 
     public Memory() {
-        store = new HashMap<>();
+        if (STORAGE_ENGINE.equals("offheap")) {
+            store = new OffHeapStorageEngine(OFF_HEAP_CAPACITY, MAX_VALUE_SIZE);
+        } else {
+            store = new HeapStorageEngine();
+        }
+        highWatermark = (long) (CAPACITY * HIGH_WATERMARK);
+        lowWatermark = (long) (CAPACITY * LOW_WATERMARK);
     }
 
     /**
-     * This function puts a key value pair into the memory store
+     * This function atomically puts a key value pair into the memory store, replacing the stored one whatever its
+     * version. Client writes are applied this way, in the order this node accepts them
      * @param key: ByteString key associated with the key value pair
      * @param value: ByteString value associated with the key value pair
      * @param version: Integer version value associated with the key value pair
+     * @param stamp: Write stamp of the key value pair, see StoredValue
      * @return An Integer response code depending on the operations outcome
      */
-    public int put(ByteString key, ByteString value, int version) {
-        // check memory is sufficient for a put operation
-        long used = Runtime.getRuntime().totalMemory() - Runtime.getRuntime().freeMemory();
-        long totalFree = Runtime.getRuntime().maxMemory() - used;
-        if (totalFree < MIN_MEMORY_BUFFER) return NO_MEM_ERR;
+    public int put(ByteString key, ByteString value, int version, long stamp) {
+        return put(key, value, version, stamp, false);
+    }
+
+    /**
+     * This function atomically puts a copy of a key value pair written on another node into the memory store, unless
+     * the stored pair is newer, last writer wins on the write stamp. Replicas, transfers and repairs are reconciled
+     * this way, so a stale copy replayed to this node never replaces a newer one
+     * @param key: ByteString key associated with the key value pair
+     * @param value: ByteString value associated with the key value pair
+     * @param version: Integer version value associated with the key value pair
+     * @param stamp: Write stamp the node that accepted the write gave it, see StoredValue
+     * @return An Integer response code depending on the operations outcome, a stale copy is not an error
+     */
+    public int putCopy(ByteString key, ByteString value, int version, long stamp) {
+        return put(key, value, version, stamp, true);
+    }
 
+    private int put(ByteString key, ByteString value, int version, long stamp, boolean ifNewer) {
         // check key and value sizes
         if (key.size() > MAX_KEY_SIZE) return BAD_KEY_ERR;
         if (value.size() > MAX_VALUE_SIZE) return BAD_VALUE_ERR;
 
-        Pair<ByteString, Integer> values = new Pair<>(value, version);
-        store.put(key, values);
+        // check memory is sufficient for a put operation
+        if (!hasRoom(key, value)) return NO_MEM_ERR;
+
+        boolean stored = ifNewer ? store.putIfNewer(key, value, version, stamp) : store.put(key, value, version, stamp);
+        if (!stored) return NO_MEM_ERR;
+        syncIndex(key);
         return SUCCESS;
     }
 
@@ -60,30 +114,36 @@ public class Memory {
     public int isStored(ByteString key) {
         // check key size
         if (key.size() > MAX_KEY_SIZE) return BAD_KEY_ERR;
-        if (store.containsKey(key)) return SUCCESS;
+        if (store.contains(key)) return SUCCESS;
         return NO_KEY_ERR;
     }
 
     /**
-     * This function gets the value-version pair associated with the key
-     * @param key: ByteString key to get value-version pair for
-     * @return Pair containing the value and version associated with the key
-     * null is not a possibility of being returned since isStored(key) is called prior to this function
+     * This function gets the value, version and write stamp associated with the key
+     * @param key: ByteString key to get the value for
+     * @return The value stored for the key, or null if the key is not stored
      */
-    public Pair<ByteString, Integer> get(ByteString key) {
-        if (store.containsKey(key)) {
-            return store.get(key);
-        }
-        return null;
+    public StoredValue get(ByteString key) {
+        return store.get(key);
+    }
+
+    /**
+     * This function gets the version of the pair associated with the key, without reading its value
+     * @param key: ByteString key to get the version for
+     * @return The version, or null if the key is not stored
+     */
+    public Integer getVersion(ByteString key) {
+        return store.getVersion(key);
     }
 
     /**
      * This function gets all entries in memory. This returns a stream in order to optimize
-     * memory overhead.
+     * memory overhead. The stream is weakly consistent, it never fails because of concurrent
+     * writes and may or may not reflect writes made after it was created.
      * @return Stream representing all the entries in memory.
      */
-    public static Stream<Map.Entry<ByteString, Pair<ByteString, Integer>>> getAllEntries() {
-        return store.entrySet().parallelStream();
+    public Stream<Map.Entry<ByteString, StoredValue>> getAllEntries() {
+        return store.entries();
     }
 
     /**
@@ -94,11 +154,23 @@ public class Memory {
     public int remove(ByteString key) {
         // check key size
         if (key.size() > MAX_KEY_SIZE) return BAD_KEY_ERR;
-        if (store.containsKey(key)) {
-            store.remove(key);
-            return SUCCESS;
+        if (!store.remove(key)) return NO_KEY_ERR;
+        syncIndex(key);
+        return SUCCESS;
+    }
+
+    /**
+     * This function removes the key value pair of a key only if it is still the given copy, so a write since is kept
+     * @param key: ByteString key to remove the key value pair for
+     * @param copy: The copy to remove, only its version and write stamp are compared
+     * @return True if the copy was removed
+     */
+    public boolean removeCopy(ByteString key, StoredValue copy) {
+        if (!store.remove(key, copy.getSecond(), copy.getStamp())) {
+            return false;
         }
-        return NO_KEY_ERR;
+        syncIndex(key);
+        return true;
     }
 
     /**
@@ -107,9 +179,160 @@ public class Memory {
      */
     public int erase() {
         store.clear();
+        // entry by entry, so keys stored again while wiping stay indexed and accounted for
+        for (RingPosition position : ringIndex) {
+            syncIndex(position.getKey());
+        }
         return SUCCESS;
     }
 
+    /**
+     * This function gets the keys stored in a range of the ring, in ring order. Like getAllEntries() it is weakly
+     * consistent with concurrent writes
+     * @param from: First position of the range, inclusive
+     * @param to: Last position of the range, exclusive. A range with from >= to wraps around the ring, and from == to
+     *          is the whole ring
+     * @return Stream of the keys in the range
+     */
+    public Stream<ByteString> getKeysInRange(long from, long to) {
+        return positionsInRange(from, to).stream().map(RingPosition::getKey);
+    }
+
+    /**
+     * This function gets the entries stored in a range of the ring, in ring order
+     * @param from: First position of the range, inclusive
+     * @param to: Last position of the range, exclusive, see getKeysInRange()
+     * @return Stream of the entries in the range
+     */
+    public Stream<Map.Entry<ByteString, StoredValue>> getEntriesInRange(long from, long to) {
+        return getKeysInRange(from, to)
+                .map(key -> {
+                    StoredValue keyValue = store.get(key);
+                    return keyValue == null ? null : Map.entry(key, keyValue);
+                })
+                .filter(entry -> entry != null);
+    }
+
+    /**
+     * This function removes the key value pairs of a range of the ring that were handed over to another node. A pair
+     * is only removed if it is still the copy that was handed over, a key written since is kept so it can be sent again
+     * @param from: First position of the range, inclusive
+     * @param to: Last position of the range, exclusive, see getKeysInRange()
+     * @param handedOver: The copy each key was handed over as, only its version and write stamp are compared
+     * @return The keys of the range still stored because they were not handed over as they are now
+     */
+    public List<ByteString> dropRange(long from, long to, Map<ByteString, StoredValue> handedOver) {
+        List<ByteString> kept = new ArrayList<>();
+        for (RingPosition position : positionsInRange(from, to)) {
+            ByteString key = position.getKey();
+            StoredValue copy = handedOver.get(key);
+            if ((copy == null || !removeCopy(key, copy)) && store.contains(key)) {
+                kept.add(key);
+            }
+        }
+        return kept;
+    }
+
+    private NavigableSet<RingPosition> positionsInRange(long from, long to) {
+        RingPosition lower = new RingPosition(from, null);
+        RingPosition upper = new RingPosition(to, null);
+        if (from < to) {
+            return ringIndex.subSet(lower, true, upper, false);
+        }
+
+        // the range wraps around the ring, so it is the end of the index followed by its start
+        NavigableSet<RingPosition> positions = new TreeSet<>(ringIndex.tailSet(lower, true));
+        positions.addAll(ringIndex.headSet(upper, false));
+        return positions;
+    }
+
+    /**
+     * This function brings the ring index entry of a key in line with the store after the key was put or removed. A
+     * put and a remove of the key may race, so the store is checked again after every change to the index until both
+     * agree, and whichever changes the store last leaves the entry right
+     * @param key: ByteString key that was just stored or removed
+     */
+    private void syncIndex(ByteString key) {
+        RingPosition position = new RingPosition(ConsistentHash.hashKey(key), key);
+        while (true) {
+            boolean stored = store.contains(key);
+            if (stored == ringIndex.contains(position)) {
+                return;
+            }
+            if (stored) {
+                // request keys are views into a pooled receive buffer
+                if (ringIndex.add(new RingPosition(position.hash, UnsafeByteOperations.unsafeWrap(key.toByteArray())))) {
+                    indexBytes.addAndGet(indexFootprint(key));
+                }
+            } else if (ringIndex.remove(position)) {
+                indexBytes.addAndGet(-indexFootprint(key));
+            }
+        }
+    }
+
+    private static long indexFootprint(ByteString key) {
+        return key.size() + INDEX_ENTRY_OVERHEAD;
+    }
+
+    /**
+     * This function checks the memory budget before a put operation, against what the pair would add to the engine's
+     * footprint including its per entry overhead, and to the ring index for a new key
+     * @param key: ByteString key about to be stored
+     * @param value: ByteString value about to be stored
+     * @return A boolean for whether the pair fits under the watermarks
+     */
+    private boolean hasRoom(ByteString key, ByteString value) {
+        long delta = store.footprintDelta(key, value) + (store.contains(key) ? 0 : indexFootprint(key));
+        // an overwrite that doesn't grow the store always fits
+        if (delta <= 0) return true;
+
+        long used = usedBytes();
+        if (full) {
+            if (used > lowWatermark) return false;
+            full = false;
+        }
+        if (used + delta > highWatermark) {
+            full = true;
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * This function reports the bytes counted against the memory budget, the storage engine's and the ring index's
+     * @return The number of bytes in use
+     */
+    public long usedBytes() {
+        return store.usedBytes() + indexBytes.get();
+    }
+
+    /**
+     * Position of a key on the ring, ordered by hash and then by key. A null key sorts before every key
+     * at the same hash, which makes it a bound for ranges of positions
+     */
+    private static final class RingPosition implements Comparable<RingPosition> {
+        private static final Comparator<ByteString> KEY_ORDER =
+                Comparator.nullsFirst(ByteString.unsignedLexicographicalComparator());
+
+        private final long hash;
+        private final ByteString key;
+
+        private RingPosition(long hash, ByteString key) {
+            this.hash = hash;
+            this.key = key;
+        }
+
+        private ByteString getKey() {
+            return key;
+        }
+
+        @Override
+        public int compareTo(RingPosition other) {
+            int byHash = Long.compare(hash, other.hash);
+            return byHash != 0 ? byHash : KEY_ORDER.compare(key, other.key);
+        }
+    }
+
     /**
      * This function closes the server
      * @return An Integer response code depending on the operations outcome
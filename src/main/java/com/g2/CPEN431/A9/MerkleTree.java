@@ -0,0 +1,81 @@
+package com.g2.CPEN431.A9;
+
+import com.g2.CPEN431.A9.util.MurmurHash3;
+import com.google.protobuf.ByteString;
+
+import java.util.List;
+
+/**
+ * Merkle tree over a list of ranges of the ring, one leaf per range. A leaf's digest sums a hash of the key, value,
+ * version and write stamp of every pair stored in its range, so it doesn't depend on the order pairs were written in.
+ * Two copies of a key that differ in any of them, like concurrent writes with the same version, give different digests.
+ * Every other node combines its two children. Two nodes holding the same pairs for the same ranges build identical
+ * trees, and comparing trees from the root down finds the ranges they disagree on after a number of digests
+ * proportional to the divergence.
+ */
+public final class MerkleTree {
+
+    // nodes in heap order, the root is node 1 and the children of node i are nodes 2i and 2i+1
+    private final long[] digests;
+    private final int leafCount;
+    private final int firstLeaf;
+
+    /**
+     * This function builds the tree of the pairs a memory store holds in a list of ranges
+     * @param memory: The memory store
+     * @param ranges: Pairs of {from, to} positions on the ring, in ring order
+     * @return The tree, its leaf i covers ranges[i]
+     */
+    public static MerkleTree build(Memory memory, List<long[]> ranges) {
+        MerkleTree tree = new MerkleTree(ranges.size());
+        for (int i = 0; i < ranges.size(); i++) {
+            long[] range = ranges.get(i);
+            tree.digests[tree.firstLeaf + i] = memory.getEntriesInRange(range[0], range[1])
+                    .mapToLong(entry -> pairDigest(entry.getKey(), entry.getValue()))
+                    .sum();
+        }
+        for (int node = tree.firstLeaf - 1; node >= 1; node--) {
+            tree.digests[node] = combine(tree.digests[2 * node], tree.digests[2 * node + 1]);
+        }
+        return tree;
+    }
+
+    private MerkleTree(int leafCount) {
+        this.leafCount = leafCount;
+        this.firstLeaf = leafCount <= 1 ? 1 : Integer.highestOneBit(leafCount - 1) << 1;
+        this.digests = new long[2 * firstLeaf];
+    }
+
+    /**
+     * @param node: A node of the tree in heap order
+     * @return The digest of the node, 0 for a node past the end of the tree
+     */
+    public long digest(int node) {
+        return node >= 1 && node < digests.length ? digests[node] : 0;
+    }
+
+    public boolean isLeaf(int node) {
+        return node >= firstLeaf;
+    }
+
+    /**
+     * @param node: A leaf of the tree in heap order
+     * @return The index of the range the leaf covers, or -1 for padding past the last range
+     */
+    public int rangeIndex(int node) {
+        int index = node - firstLeaf;
+        return index < leafCount ? index : -1;
+    }
+
+    private static long pairDigest(ByteString key, StoredValue storedValue) {
+        long digest = ConsistentHash.hashKey(key);
+        digest = digest * 31 + MurmurHash3.hash64(storedValue.getFirst());
+        digest = digest * 31 + 0x9e3779b97f4a7c15L * storedValue.getSecond();
+        digest = digest * 31 + MurmurHash3.fmix64(storedValue.getStamp());
+        return MurmurHash3.fmix64(digest);
+    }
+
+    private static long combine(long left, long right) {
+        return MurmurHash3.fmix64(left * 31 + MurmurHash3.fmix64(right));
+    }
+}
@@ -0,0 +1,357 @@
+package com.g2.CPEN431.A9;
+
+import com.google.protobuf.ByteString;
+import com.google.protobuf.UnsafeByteOperations;
+
+import java.nio.ByteBuffer;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * Storage engine keeping values and versions in direct memory, outside of the garbage collected heap.
+ *
+ * Direct memory is split into fixed size pages. A page is handed to one size class and cut into chunks
+ * of that class' size, like a memcached slab. Removed chunks go on their class' free list and are reused
+ * by later puts. The index maps each key to a handle, the page number in the upper 32 bits and the chunk
+ * offset in the lower 32 bits.
+ *
+ * Chunk layout: [version: 4 bytes][value length: 2 bytes][write stamp: 8 bytes][value]
+ */
+public class OffHeapStorageEngine implements StorageEngine {
+
+    private static final int PAGE_SIZE = 1024 * 1024;   // 1 mb pages
+    private static final int LENGTH_OFFSET = 4;
+    private static final int STAMP_OFFSET = 6;
+    private static final int CHUNK_HEADER_SIZE = 14;
+    private static final int MIN_CHUNK_SIZE = 64;
+    private static final double CHUNK_GROWTH_FACTOR = 1.25;
+    private static final int LOCK_STRIPES = 64;
+    private static final long NO_CHUNK = -1;
+
+    // Heap kept per key by the index: the map node (32), the key ByteString (24), its array's header (16) and the Long (16)
+    private static final int INDEX_ENTRY_OVERHEAD = 88;
+
+    private final SlabClass[] slabClasses;
+    private final ByteBuffer[] pages;
+    private int pageCount = 0;
+
+    private final ConcurrentHashMap<ByteString, Long> index = new ConcurrentHashMap<>();
+    private final AtomicLong usedBytes = new AtomicLong();
+
+    // A chunk is only freed under the write lock of its key's stripe, so readers never see it reused
+    private final ReentrantReadWriteLock[] locks = new ReentrantReadWriteLock[LOCK_STRIPES];
+
+    /**
+     * @param capacity: Number of bytes of direct memory the engine may allocate
+     * @param maxValueSize: Largest value the engine has to store
+     */
+    public OffHeapStorageEngine(long capacity, int maxValueSize) {
+        this.pages = new ByteBuffer[(int) Math.max(1, capacity / PAGE_SIZE)];
+
+        // chunk sizes grow geometrically up to the size of the largest possible value
+        int maxChunkSize = CHUNK_HEADER_SIZE + maxValueSize;
+        ArrayList<SlabClass> classes = new ArrayList<>();
+        for (int size = MIN_CHUNK_SIZE; size < maxChunkSize; size = (int) (size * CHUNK_GROWTH_FACTOR + 7) & ~7) {
+            classes.add(new SlabClass(size));
+        }
+        classes.add(new SlabClass(maxChunkSize));
+        this.slabClasses = classes.toArray(new SlabClass[0]);
+
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new ReentrantReadWriteLock();
+        }
+    }
+
+    @Override
+    public boolean put(ByteString key, ByteString value, int version, long stamp) {
+        return put(key, value, version, stamp, false);
+    }
+
+    @Override
+    public boolean putIfNewer(ByteString key, ByteString value, int version, long stamp) {
+        return put(key, value, version, stamp, true);
+    }
+
+    private boolean put(ByteString key, ByteString value, int version, long stamp, boolean ifNewer) {
+        ReentrantReadWriteLock.WriteLock lock = lockFor(key).writeLock();
+        lock.lock();
+        try {
+            Long handle = index.get(key);
+            if (ifNewer && handle != null) {
+                ByteBuffer page = page(handle);
+                int offset = offset(handle);
+                if (StoredValue.compare(page.getInt(offset), page.getLong(offset + STAMP_OFFSET), version, stamp) > 0) {
+                    return true;
+                }
+            }
+            return write(key, value, version, stamp);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public StoredValue get(ByteString key) {
+        ReentrantReadWriteLock.ReadLock lock = lockFor(key).readLock();
+        lock.lock();
+        try {
+            Long handle = index.get(key);
+            if (handle == null) {
+                return null;
+            }
+
+            ByteBuffer page = page(handle);
+            int offset = offset(handle);
+            int version = page.getInt(offset);
+            long stamp = page.getLong(offset + STAMP_OFFSET);
+            byte[] value = new byte[page.getShort(offset + LENGTH_OFFSET)];
+            page.get(offset + CHUNK_HEADER_SIZE, value);
+
+            // the array is never touched again, so it can back the ByteString without another copy
+            return new StoredValue(UnsafeByteOperations.unsafeWrap(value), version, stamp);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Integer getVersion(ByteString key) {
+        ReentrantReadWriteLock.ReadLock lock = lockFor(key).readLock();
+        lock.lock();
+        try {
+            Long handle = index.get(key);
+            if (handle == null) {
+                return null;
+            }
+            return page(handle).getInt(offset(handle));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean contains(ByteString key) {
+        return index.containsKey(key);
+    }
+
+    @Override
+    public boolean remove(ByteString key) {
+        ReentrantReadWriteLock.WriteLock lock = lockFor(key).writeLock();
+        lock.lock();
+        try {
+            Long handle = index.remove(key);
+            if (handle == null) {
+                return false;
+            }
+            usedBytes.addAndGet(-(free(handle) + key.size() + INDEX_ENTRY_OVERHEAD));
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean remove(ByteString key, int version, long stamp) {
+        ReentrantReadWriteLock.WriteLock lock = lockFor(key).writeLock();
+        lock.lock();
+        try {
+            Long handle = index.get(key);
+            if (handle == null) {
+                return false;
+            }
+            ByteBuffer page = page(handle);
+            int offset = offset(handle);
+            if (page.getInt(offset) != version || page.getLong(offset + STAMP_OFFSET) != stamp) {
+                return false;
+            }
+            index.remove(key);
+            usedBytes.addAndGet(-(free(handle) + key.size() + INDEX_ENTRY_OVERHEAD));
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void clear() {
+        for (ReentrantReadWriteLock lock : locks) {
+            lock.writeLock().lock();
+        }
+        try {
+            index.clear();
+            usedBytes.set(0);
+            // keep the pages allocated, they are handed out again as classes need them
+            synchronized (pages) {
+                for (SlabClass slabClass : slabClasses) {
+                    slabClass.reset();
+                }
+                pageCount = 0;
+            }
+        } finally {
+            for (ReentrantReadWriteLock lock : locks) {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    @Override
+    public long usedBytes() {
+        return usedBytes.get();
+    }
+
+    @Override
+    public long footprintDelta(ByteString key, ByteString value) {
+        int chunkSize = slabClassFor(CHUNK_HEADER_SIZE + value.size()).chunkSize;
+        ReentrantReadWriteLock.ReadLock lock = lockFor(key).readLock();
+        lock.lock();
+        try {
+            Long handle = index.get(key);
+            if (handle == null) {
+                return chunkSize + key.size() + INDEX_ENTRY_OVERHEAD;
+            }
+            int storedSize = CHUNK_HEADER_SIZE + page(handle).getShort(offset(handle) + LENGTH_OFFSET);
+            return chunkSize - slabClassFor(storedSize).chunkSize;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Stream<Map.Entry<ByteString, StoredValue>> entries() {
+        return index.keySet()
+                .parallelStream()
+                .<Map.Entry<ByteString, StoredValue>>map(key -> {
+                    StoredValue values = get(key);
+                    return values == null ? null : new AbstractMap.SimpleImmutableEntry<>(key, values);
+                })
+                .filter(Objects::nonNull);
+    }
+
+    /**
+     * This function copies a pair into a fresh chunk and points the index at it. The caller must hold
+     * the write lock of the key's stripe.
+     * @return false if no chunk could be allocated
+     */
+    private boolean write(ByteString key, ByteString value, int version, long stamp) {
+        SlabClass slabClass = slabClassFor(CHUNK_HEADER_SIZE + value.size());
+        long handle = allocate(slabClass);
+        if (handle == NO_CHUNK) {
+            return false;
+        }
+
+        ByteBuffer page = page(handle);
+        int offset = offset(handle);
+        page.putInt(offset, version);
+        page.putShort(offset + LENGTH_OFFSET, (short) value.size());
+        page.putLong(offset + STAMP_OFFSET, stamp);
+        value.copyTo(page.duplicate().position(offset + CHUNK_HEADER_SIZE));
+
+        // requests are parsed without copying, the key is a view into a pooled receive buffer that will be reused
+        Long previous = index.put(UnsafeByteOperations.unsafeWrap(key.toByteArray()), handle);
+        if (previous != null) {
+            usedBytes.addAndGet(slabClass.chunkSize - free(previous));
+        } else {
+            usedBytes.addAndGet(slabClass.chunkSize + key.size() + INDEX_ENTRY_OVERHEAD);
+        }
+        return true;
+    }
+
+    private long allocate(SlabClass slabClass) {
+        synchronized (slabClass) {
+            if (slabClass.freeCount > 0) {
+                return slabClass.freeChunks[--slabClass.freeCount];
+            }
+
+            if (slabClass.currentPage < 0 || slabClass.nextOffset + slabClass.chunkSize > PAGE_SIZE) {
+                int page = newPage();
+                if (page < 0) {
+                    return NO_CHUNK;
+                }
+                slabClass.currentPage = page;
+                slabClass.nextOffset = 0;
+            }
+
+            long handle = ((long) slabClass.currentPage << 32) | slabClass.nextOffset;
+            slabClass.nextOffset += slabClass.chunkSize;
+            return handle;
+        }
+    }
+
+    /**
+     * This function puts a chunk on its class' free list
+     * @return The size of the freed chunk
+     */
+    private int free(long handle) {
+        SlabClass slabClass = slabClassFor(CHUNK_HEADER_SIZE + page(handle).getShort(offset(handle) + LENGTH_OFFSET));
+        synchronized (slabClass) {
+            if (slabClass.freeCount == slabClass.freeChunks.length) {
+                slabClass.freeChunks = Arrays.copyOf(slabClass.freeChunks, Math.max(16, slabClass.freeCount * 2));
+            }
+            slabClass.freeChunks[slabClass.freeCount++] = handle;
+        }
+        return slabClass.chunkSize;
+    }
+
+    private int newPage() {
+        synchronized (pages) {
+            if (pageCount == pages.length) {
+                return -1;
+            }
+            if (pages[pageCount] == null) {
+                pages[pageCount] = ByteBuffer.allocateDirect(PAGE_SIZE);
+            }
+            return pageCount++;
+        }
+    }
+
+    private SlabClass slabClassFor(int size) {
+        // few classes, so a linear scan is as fast as a binary search
+        for (SlabClass slabClass : slabClasses) {
+            if (size <= slabClass.chunkSize) {
+                return slabClass;
+            }
+        }
+        throw new IllegalArgumentException("Chunk of " + size + " bytes is larger than the largest slab class");
+    }
+
+    private ByteBuffer page(long handle) {
+        return pages[(int) (handle >>> 32)];
+    }
+
+    private static int offset(long handle) {
+        return (int) handle;
+    }
+
+    private ReentrantReadWriteLock lockFor(ByteString key) {
+        return locks[(key.hashCode() & 0x7fffffff) % LOCK_STRIPES];
+    }
+
+    /**
+     * A chunk size together with the chunks of that size that are free for reuse
+     */
+    private static class SlabClass {
+        final int chunkSize;
+        long[] freeChunks = new long[0];
+        int freeCount = 0;
+        int currentPage = -1;
+        int nextOffset = 0;
+
+        SlabClass(int chunkSize) {
+            this.chunkSize = chunkSize;
+        }
+
+        void reset() {
+            freeChunks = new long[0];
+            freeCount = 0;
+            currentPage = -1;
+            nextOffset = 0;
+        }
+    }
+}
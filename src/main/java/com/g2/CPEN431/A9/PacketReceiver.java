@@ -0,0 +1,93 @@
+package com.g2.CPEN431.A9;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+public class PacketReceiver implements Runnable {
+
+    private final Transport transport;
+    private final DatagramChannel channel;
+    private final Executor workerPool;
+    private final Server server;
+    private final RequestCache requestCache;
+
+    /**
+     * @param channel: The transport channel this receiver reads, responses to its requests are sent from it too
+     */
+    public PacketReceiver(Transport transport, DatagramChannel channel, Executor workerPool, Server server, RequestCache requestCache) {
+        this.transport = transport;
+        this.channel = channel;
+        this.workerPool = workerPool;
+        this.server = server;
+        this.requestCache = requestCache;
+    }
+
+    @Override
+    public void run() {
+        try {
+            if (transport.isNonBlocking()) {
+                runEventLoop();
+            } else {
+                runBlocking();
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * This function receives one datagram after another, blocking until each arrives
+     */
+    private void runBlocking() {
+        while (channel.isOpen()) {
+            ByteBuffer request = transport.getBufferPool().acquire();
+            try {
+                InetSocketAddress sender = (InetSocketAddress) channel.receive(request);
+                dispatch(request, sender);
+            } catch (IOException e) {
+                transport.getBufferPool().release(request);
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * This function waits on a selector and drains every datagram queued on the channel each time it is readable
+     */
+    private void runEventLoop() throws IOException {
+        try (Selector selector = Selector.open()) {
+            channel.register(selector, SelectionKey.OP_READ);
+
+            while (channel.isOpen()) {
+                selector.select();
+                selector.selectedKeys().clear();
+
+                ByteBuffer request = transport.getBufferPool().acquire();
+                InetSocketAddress sender;
+                while ((sender = (InetSocketAddress) channel.receive(request)) != null) {
+                    dispatch(request, sender);
+                    request = transport.getBufferPool().acquire();
+                }
+                transport.getBufferPool().release(request);
+            }
+        }
+    }
+
+    private void dispatch(ByteBuffer request, InetSocketAddress sender) {
+        // the worker owns the buffer from here on and hands it back to the pool once the request is done
+        request.flip();
+        ServerWorker worker = new ServerWorker(server, transport, channel, request, sender, requestCache);
+        try {
+            workerPool.execute(worker);
+        } catch (RejectedExecutionException e) {
+            worker.reject();
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,284 @@
+package com.g2.CPEN431.A9;
+
+import ca.NetSysLab.ProtocolBuffers.KeyValueRequest;
+import ca.NetSysLab.ProtocolBuffers.KeyValueResponse;
+import ca.NetSysLab.ProtocolBuffers.Message;
+import com.google.protobuf.ByteString;
+import com.google.protobuf.InvalidProtocolBufferException;
+
+import java.net.InetSocketAddress;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Coordinates requests when every key is replicated on a quorum of nodes. The replicas of a key are the first
+ * REPLICATION_FACTOR live nodes clockwise from it, and the owner coordinates its requests: it sends them to the other
+ * replicas in parallel and answers once WRITE_QUORUM replicas applied a write or READ_QUORUM answered a read,
+ * so a slow replica doesn't hold the answer up. Live nodes past a dead home replica stand in for it, and are sent
+ * its address as a hint with every write so they hand the write back once it returns. Once every replica answered a
+ * read, the replicas that answered with an older copy than the newest are sent the newest one in the background.
+ */
+public class QuorumCoordinator {
+
+    // Quorum sizes, override with -Dkv.readQuorum=<r> and -Dkv.writeQuorum=<w>. The defaults are a majority of the
+    // replicas, so every read quorum overlaps every write quorum
+    public static final int READ_QUORUM = Integer.getInteger("kv.readQuorum", Server.REPLICATION_FACTOR / 2 + 1);
+    public static final int WRITE_QUORUM = Integer.getInteger("kv.writeQuorum", Server.REPLICATION_FACTOR / 2 + 1);
+
+    private static final int SUCCESS = 0x00;
+    private static final int NO_KEY_ERR = 0x01;
+    private static final int INTERNAL_ERR = 0x04;
+
+    private final Memory memory;
+    private final ConsistentHash consistentHash;
+    // One client for all replica requests, any number of them can be in flight on it
+    private final UDPClient udpClient = new UDPClient();
+
+    public QuorumCoordinator(Memory memory, ConsistentHash consistentHash) {
+        this.memory = memory;
+        this.consistentHash = consistentHash;
+    }
+
+    /**
+     * This function sends a write this node applied to the other replicas of its key
+     * @param request: The PUT or REMOVE request from the client
+     * @param stamp: The write stamp this node applied a PUT with
+     * @param local: The response of this node to the write
+     * @return A future completed with the response for the client once WRITE_QUORUM replicas applied the write,
+     *         or with an error once that can no longer happen
+     */
+    public CompletableFuture<KeyValueResponse.KVResponse> write(KeyValueRequest.KVRequest request, long stamp,
+                                                                KeyValueResponse.KVResponse local) {
+        ByteString key = request.getKey();
+        AddressPair[] replicas = consistentHash.getReplicas(key, Server.REPLICATION_FACTOR);
+        AddressPair[] hints = hintsFor(key, replicas);
+        boolean remove = request.getCommand() == Server.REMOVE;
+
+        Quorum quorum = new Quorum(Math.min(WRITE_QUORUM, replicas.length), replicas.length);
+        CompletableFuture<KeyValueResponse.KVResponse> result = quorum.result.thenApply(acks -> {
+            if (acks.size() < quorum.needed) {
+                return KeyValueResponse.KVResponse.newBuilder().setErrCode(quorum.errCode).build();
+            }
+            // a remove succeeded if any of the replicas acknowledging it still had the key
+            int errCode = remove && acks.stream().noneMatch(ack -> ack.getErrCode() == SUCCESS) ? NO_KEY_ERR : SUCCESS;
+            return KeyValueResponse.KVResponse.newBuilder().setErrCode(errCode).build();
+        });
+
+        for (int i = 0; i < replicas.length; i++) {
+            if (replicas[i].equals(consistentHash.getSelfAddress())) {
+                if (hints[i] != null && isWritten(local, remove)) {
+                    consistentHash.getHintedHandoff().hint(hints[i], key);
+                }
+                quorum.reply(local, isWritten(local, remove));
+                continue;
+            }
+
+            KeyValueRequest.KVRequest.Builder replicaRequest = request.toBuilder()
+                    .clearAcceptRedirect()
+                    .setReplica(true);
+            if (!remove) {
+                replicaRequest.setStamp(stamp);
+            }
+            if (hints[i] != null) {
+                replicaRequest.setHint(hints[i].toString());
+            }
+            send(replicas[i], replicaRequest.build())
+                    .thenAccept(response -> quorum.reply(response, isWritten(response, remove)));
+        }
+        return result;
+    }
+
+    /**
+     * This function asks the other replicas of a key for its value
+     * @param request: The GET request from the client
+     * @param local: The response of this node to the read, with the write stamp of its copy
+     * @return A future completed with the newest copy among the first READ_QUORUM replicas that answered,
+     *         or with an error once that many answers can no longer arrive
+     */
+    public CompletableFuture<KeyValueResponse.KVResponse> read(KeyValueRequest.KVRequest request, KeyValueResponse.KVResponse local) {
+        ByteString key = ByteString.copyFrom(request.getKey().toByteArray());
+        AddressPair[] replicas = consistentHash.getReplicas(key, Server.REPLICATION_FACTOR);
+        KeyValueResponse.KVResponse[] answers = new KeyValueResponse.KVResponse[replicas.length];
+
+        Quorum quorum = new Quorum(Math.min(READ_QUORUM, replicas.length), replicas.length);
+        CompletableFuture<KeyValueResponse.KVResponse> result = quorum.result.thenApply(accepted -> {
+            if (accepted.size() < quorum.needed) {
+                return KeyValueResponse.KVResponse.newBuilder().setErrCode(quorum.errCode).build();
+            }
+            KeyValueResponse.KVResponse newest = newest(accepted);
+            // the stamp is only for reconciling the replicas, the client isn't told
+            return newest != null
+                    ? newest.toBuilder().clearStamp().build()
+                    : KeyValueResponse.KVResponse.newBuilder().setErrCode(NO_KEY_ERR).build();
+        });
+        quorum.all.thenRun(() -> repair(key, replicas, answers));
+
+        KeyValueRequest.KVRequest replicaRequest = request.toBuilder()
+                .clearAcceptRedirect()
+                .setReplica(true)
+                .build();
+        for (int i = 0; i < replicas.length; i++) {
+            int replica = i;
+            if (replicas[i].equals(consistentHash.getSelfAddress())) {
+                answers[replica] = local;
+                quorum.reply(local, isAnswered(local));
+                continue;
+            }
+            send(replicas[i], replicaRequest).thenAccept(response -> {
+                answers[replica] = response;
+                quorum.reply(response, isAnswered(response));
+            });
+        }
+        return result;
+    }
+
+    /**
+     * This function sends the newest copy of a key among the replicas' answers to a read to the replicas that
+     * answered with an older one. Replicas without the key are left alone, without tombstones a copy that never
+     * arrived can't be told apart from one that was removed, and hinted handoff covers writes missed by dead replicas
+     * @param key: The key read
+     * @param replicas: The replicas the read was sent to
+     * @param answers: The answer of each replica, null if it did not answer
+     */
+    private void repair(ByteString key, AddressPair[] replicas, KeyValueResponse.KVResponse[] answers) {
+        KeyValueResponse.KVResponse newest = newest(Arrays.asList(answers));
+        if (newest == null) {
+            return;
+        }
+
+        for (int i = 0; i < replicas.length; i++) {
+            KeyValueResponse.KVResponse answer = answers[i];
+            if (answer == null || answer.getErrCode() != SUCCESS || compareCopies(newest, answer) <= 0) {
+                continue;
+            }
+
+            if (replicas[i].equals(consistentHash.getSelfAddress())) {
+                memory.putCopy(key, newest.getValue(), newest.getVersion(), newest.getStamp());
+                continue;
+            }
+            KeyValueRequest.KVRequest repairRequest = KeyValueRequest.KVRequest.newBuilder()
+                    .setCommand(Server.PUT)
+                    .setKey(key)
+                    .setValue(newest.getValue())
+                    .setVersion(newest.getVersion())
+                    .setStamp(newest.getStamp())
+                    .setReplica(true)
+                    .build();
+            send(replicas[i], repairRequest);
+        }
+    }
+
+    /**
+     * This function finds the newest copy of a key among answers to a read, last writer wins
+     * @param answers: Answers of the replicas, which may include null and errors
+     * @return The newest successful answer, or null if none had the key
+     */
+    private static KeyValueResponse.KVResponse newest(List<KeyValueResponse.KVResponse> answers) {
+        KeyValueResponse.KVResponse newest = null;
+        for (KeyValueResponse.KVResponse answer : answers) {
+            if (answer != null && answer.getErrCode() == SUCCESS && (newest == null || compareCopies(answer, newest) > 0)) {
+                newest = answer;
+            }
+        }
+        return newest;
+    }
+
+    private static int compareCopies(KeyValueResponse.KVResponse answer, KeyValueResponse.KVResponse other) {
+        return StoredValue.compare(answer.getVersion(), answer.getStamp(), other.getVersion(), other.getStamp());
+    }
+
+    /**
+     * This function pairs the stand-ins among the replicas of a key with the dead home replicas they stand in for
+     * @param key: The key of the request
+     * @param replicas: The live replicas of the key
+     * @return For every replica, the home replica it stands in for, or null if it is a home replica itself
+     */
+    private AddressPair[] hintsFor(ByteString key, AddressPair[] replicas) {
+        List<AddressPair> live = Arrays.asList(replicas);
+        ArrayDeque<AddressPair> dead = new ArrayDeque<>();
+        List<AddressPair> homes = Arrays.asList(consistentHash.getHomeReplicas(key, Server.REPLICATION_FACTOR));
+        for (AddressPair home : homes) {
+            if (!live.contains(home)) {
+                dead.add(home);
+            }
+        }
+
+        AddressPair[] hints = new AddressPair[replicas.length];
+        for (int i = 0; i < replicas.length && !dead.isEmpty(); i++) {
+            if (!homes.contains(replicas[i])) {
+                hints[i] = dead.poll();
+            }
+        }
+        return hints;
+    }
+
+    /**
+     * This function sends a request to a replica
+     * @param replica: The ip and port of the replica
+     * @param request: The request to send
+     * @return A future completed with the replica's response, or with null if it did not answer
+     */
+    private CompletableFuture<KeyValueResponse.KVResponse> send(AddressPair replica, KeyValueRequest.KVRequest request) {
+        InetSocketAddress address = consistentHash.addressOf(replica);
+        return udpClient.requestAsync(address.getAddress(), address.getPort(), request.toByteArray())
+                .thenApply(QuorumCoordinator::parse);
+    }
+
+    private static KeyValueResponse.KVResponse parse(Message.Msg response) {
+        if (response == null) {
+            return null;
+        }
+        try {
+            return KeyValueResponse.KVResponse.parseFrom(response.getPayload());
+        } catch (InvalidProtocolBufferException e) {
+            return null;
+        }
+    }
+
+    private static boolean isWritten(KeyValueResponse.KVResponse response, boolean remove) {
+        return response != null && (response.getErrCode() == SUCCESS || remove && response.getErrCode() == NO_KEY_ERR);
+    }
+
+    private static boolean isAnswered(KeyValueResponse.KVResponse response) {
+        return response != null && (response.getErrCode() == SUCCESS || response.getErrCode() == NO_KEY_ERR);
+    }
+
+    /**
+     * Replies of the replicas to one request. The result completes with the accepted replies as soon as enough of them
+     * arrived, or with fewer once too many replicas failed for that to happen, and all completes once every replica
+     * replied or timed out
+     */
+    private static class Quorum {
+        private final int needed;
+        private int outstanding;
+        private final List<KeyValueResponse.KVResponse> accepted = new ArrayList<>();
+        // error reported to the client when the quorum fails, the last error a replica answered with if any did
+        private int errCode = INTERNAL_ERR;
+        private final CompletableFuture<List<KeyValueResponse.KVResponse>> result = new CompletableFuture<>();
+        private final CompletableFuture<Void> all = new CompletableFuture<>();
+
+        private Quorum(int needed, int replicas) {
+            this.needed = needed;
+            this.outstanding = replicas;
+        }
+
+        private synchronized void reply(KeyValueResponse.KVResponse response, boolean accept) {
+            outstanding--;
+            if (accept) {
+                accepted.add(response);
+            } else if (response != null) {
+                errCode = response.getErrCode();
+            }
+
+            if (!result.isDone() && (accepted.size() == needed || accepted.size() + outstanding < needed)) {
+                result.complete(new ArrayList<>(accepted));
+            }
+            if (outstanding == 0) {
+                all.complete(null);
+            }
+        }
+    }
+}
@@ -3,6 +3,7 @@ package com.g2.CPEN431.A9;
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
 import com.google.protobuf.ByteString;
+import com.google.protobuf.UnsafeByteOperations;
 
 import java.util.concurrent.TimeUnit;
 
@@ -22,7 +23,8 @@ public class RequestCache {
      * @param response: The response to be 'cached' for possible retries
      */
     public void put(ByteString key, ByteString response) {
-        cache.put(key, response);
+        // the messageID is a view into a pooled receive buffer, keep a copy that outlives the request
+        cache.put(UnsafeByteOperations.unsafeWrap(key.toByteArray()), response);
     }
 
     /**
@@ -0,0 +1,165 @@
+package com.g2.CPEN431.A9;
+
+import com.g2.CPEN431.A9.util.MurmurHash3;
+import com.google.protobuf.ByteString;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Immutable copy of the consistent hash ring that requests are routed with. ConsistentHash builds a new one
+ * whenever membership changes and publishes it with a single volatile write, so lookups never take a lock
+ * and never see a ring that is half updated.
+ */
+public final class RingSnapshot {
+
+    public static final RingSnapshot EMPTY = new RingSnapshot(new long[0], new int[0], new AddressPair[0], 0);
+
+    // tokens sorted in ascending signed order, owners[i] is the index in members of the node owning tokens[i]
+    private final long[] tokens;
+    private final int[] owners;
+    private final AddressPair[] members;
+    // the same members, for constant time membership checks on every gossip round
+    private final Set<AddressPair> memberSet;
+    private final long epoch;
+
+    /**
+     * @param ring: Map from each token to the node owning it, iterated in ascending token order
+     */
+    public static RingSnapshot of(Map<Long, AddressPair> ring) {
+        long[] tokens = new long[ring.size()];
+        int[] owners = new int[ring.size()];
+        HashMap<AddressPair, Integer> memberIndex = new HashMap<>();
+
+        int i = 0;
+        for (Map.Entry<Long, AddressPair> entry : ring.entrySet()) {
+            tokens[i] = entry.getKey();
+            owners[i] = memberIndex.computeIfAbsent(entry.getValue(), member -> memberIndex.size());
+            i++;
+        }
+
+        AddressPair[] members = new AddressPair[memberIndex.size()];
+        long epoch = 0;
+        for (Map.Entry<AddressPair, Integer> member : memberIndex.entrySet()) {
+            members[member.getValue()] = member.getKey();
+            // a sum doesn't depend on the order members joined in
+            epoch += MurmurHash3.hash64(ByteString.copyFromUtf8(member.getKey().toString()));
+        }
+        return new RingSnapshot(tokens, owners, members, epoch);
+    }
+
+    private RingSnapshot(long[] tokens, int[] owners, AddressPair[] members, long epoch) {
+        this.tokens = tokens;
+        this.owners = owners;
+        this.members = members;
+        this.memberSet = new HashSet<>(Arrays.asList(members));
+        this.epoch = epoch;
+    }
+
+    /**
+     * This function finds the node owning a position on the ring, the first token strictly greater than it
+     * @param hash: The position on the ring
+     * @return An AddressPair containing the IP and port of the node, or null if the ring is empty
+     */
+    public AddressPair ownerOf(long hash) {
+        if (tokens.length == 0) {
+            return null;
+        }
+        return members[owners[successor(hash)]];
+    }
+
+    /**
+     * This function finds the index of the first token strictly greater than a position, wrapping around the ring
+     * @param hash: The position on the ring
+     * @return The index into the sorted tokens
+     */
+    public int successor(long hash) {
+        int index = Arrays.binarySearch(tokens, hash);
+        index = index >= 0 ? index + 1 : -index - 1;
+        return index == tokens.length ? 0 : index;
+    }
+
+    /**
+     * This function finds the nodes a position is replicated on, the owner followed by the next distinct nodes
+     * clockwise on the ring
+     * @param hash: The position on the ring
+     * @param count: The number of nodes wanted
+     * @return The nodes in ring order, fewer than count if the ring has fewer members
+     */
+    public AddressPair[] successors(long hash, int count) {
+        AddressPair[] successors = new AddressPair[Math.min(count, members.length)];
+        if (successors.length == 0) {
+            return successors;
+        }
+
+        int found = 0;
+        int index = successor(hash);
+        while (found < successors.length) {
+            AddressPair node = members[owners[index]];
+            boolean seen = false;
+            for (int i = 0; i < found; i++) {
+                seen |= successors[i] == node;
+            }
+            if (!seen) {
+                successors[found++] = node;
+            }
+            index = index + 1 == tokens.length ? 0 : index + 1;
+        }
+        return successors;
+    }
+
+    /**
+     * This function lists the ranges of the ring a node owns. A token owns the positions from the token before it,
+     * inclusive, up to itself, exclusive, and a range that wraps around the ring has from >= to
+     * @param node: The ip and port of the node
+     * @return Pairs of {from, to} positions in ring order, empty if the node is not on the ring
+     */
+    public List<long[]> rangesOf(AddressPair node) {
+        ArrayList<long[]> ranges = new ArrayList<>();
+        for (int i = 0; i < tokens.length; i++) {
+            if (members[owners[i]].equals(node)) {
+                long from = tokens[i == 0 ? tokens.length - 1 : i - 1];
+                ranges.add(new long[] {from, tokens[i]});
+            }
+        }
+        return ranges;
+    }
+
+    public boolean contains(AddressPair addressPair) {
+        return memberSet.contains(addressPair);
+    }
+
+    public int memberCount() {
+        return members.length;
+    }
+
+    public int tokenCount() {
+        return tokens.length;
+    }
+
+    public long tokenAt(int index) {
+        return tokens[index];
+    }
+
+    public AddressPair ownerAt(int index) {
+        return members[owners[index]];
+    }
+
+    public List<AddressPair> getMembers() {
+        return List.of(members);
+    }
+
+    /**
+     * This function gets the epoch of the ring, which identifies the set of members it was built from. Nodes and
+     * clients that agree on the membership agree on the epoch, so it tells whether a cached ring is out of date
+     * @return The epoch of the ring
+     */
+    public long getEpoch() {
+        return epoch;
+    }
+}
@@ -3,24 +3,32 @@ package com.g2.CPEN431.A9;
 import ca.NetSysLab.ProtocolBuffers.KeyValueRequest;
 import ca.NetSysLab.ProtocolBuffers.KeyValueResponse;
 import ca.NetSysLab.ProtocolBuffers.Message;
+import com.google.protobuf.ByteOutput;
 import com.google.protobuf.ByteString;
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
 import com.google.protobuf.InvalidProtocolBufferException;
+import com.google.protobuf.UnsafeByteOperations;
 
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.net.*;
 import java.nio.ByteBuffer;
-import java.util.Arrays;
-import java.util.Random;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.zip.CRC32;
 
 public class Server {
 
     // response code constant values
     private static final int SUCCESS = 0x00;
+    private static final int NO_KEY_ERR = 0x01;
     private static final int NO_MEM_ERR = 0x02;
+    private static final int INTERNAL_ERR = 0x04;
     private static final int UKN_CMD = 0x05;
+    // the key is owned by the node in the response's redirectAddress
+    public static final int REDIRECT = 0x08;
 
     // command codes constant values
     public static final int PUT = 0x01;
@@ -32,6 +40,45 @@ public class Server {
     public static final int GET_PID = 0x07;
     public static final int GET_MS_ID = 0x08;
     public static final int GET_MS_LIST = 0x22;
+    public static final int GET_RING = 0x23;
+    public static final int BULK_PUT = 0x24;
+    public static final int DIGEST = 0x25;
+    public static final int INVALIDATE = 0x26;
+
+    // -Dkv.redirect=true answers every misrouted client request with a redirect instead of forwarding it,
+    // otherwise only requests that ask for one with acceptRedirect are redirected
+    public static final boolean REDIRECT_ALL = Boolean.getBoolean("kv.redirect");
+
+    // -Dkv.replication=chain keeps every key on -Dkv.replicationFactor=<n> successive nodes of the ring. Writes enter
+    // at the owner, the head of the chain, and are passed down it, and the tail applies them last and answers reads
+    public static final String REPLICATION = System.getProperty("kv.replication", "none");
+    public static final boolean CHAIN_REPLICATION = REPLICATION.equals("chain");
+    public static final int REPLICATION_FACTOR = REPLICATION.equals("none") ? 1 : Integer.getInteger("kv.replicationFactor", 3);
+    // -Dkv.replication=quorum keeps every key on as many live nodes, and the owner answers once a quorum of them did
+    public static final boolean QUORUM_REPLICATION = REPLICATION.equals("quorum");
+
+    // -Dkv.readPreference=balanced lets any replica of a key serve its GETs, and a node that isn't one hands a GET to
+    // the less loaded of two replicas. primary (default) reads from the owner, or from the tail of a chain, and is the
+    // only preference chain replication runs with. A request with primaryRead set is always read from the primary
+    public static final boolean BALANCED_READS = System.getProperty("kv.readPreference", "primary").equals("balanced");
+
+    // -Dkv.hotCache=true caches hot keys under read leases on the nodes that don't own them, see HotKeyCache
+    public static final boolean HOT_KEY_CACHE = Boolean.getBoolean("kv.hotCache");
+
+    /**
+     * This function checks the replication settings before the node starts, so a misspelled setting doesn't silently
+     * run the node with another one
+     * @throws IllegalArgumentException: If kv.replication is not one of none, chain or quorum, or balanced reads are
+     *                                    asked for with chain replication, where only the tail has every write
+     */
+    public static void checkConfiguration() {
+        if (!List.of("none", "chain", "quorum").contains(REPLICATION)) {
+            throw new IllegalArgumentException("Unknown kv.replication " + REPLICATION + ", expected none, chain or quorum");
+        }
+        if (BALANCED_READS && CHAIN_REPLICATION) {
+            throw new IllegalArgumentException("kv.readPreference=balanced can't be used with kv.replication=chain, reads have to go to the tail of the chain");
+        }
+    }
 
     private final String ip;
     private final int port;
@@ -39,10 +86,26 @@ public class Server {
     Memory memory;
     ConsistentHash consistentHash;
     private final MemberMonitor memberMonitor;
+    private final QuorumCoordinator quorumCoordinator;
+    private final HotKeyCache hotKeyCache;
 
     private final long pid;
 
-    public Server(int port, RequestCache requestCache, ConsistentHash consistentHash, MemberMonitor memberMonitor) {
+    // Payloads carrying nothing but a response code, indexed by the code
+    private static final ByteString[] ERR_CODE_PAYLOADS = new ByteString[0x08];
+    static {
+        for (int errCode = 0; errCode < ERR_CODE_PAYLOADS.length; errCode++) {
+            ERR_CODE_PAYLOADS[errCode] = encodeResPayload(errCode);
+        }
+    }
+
+    // GET_PID always answers with the same payload
+    private final ByteString pidPayload;
+
+    // One CRC per thread, reset before every checksum
+    private static final ThreadLocal<ChecksumOutput> CHECKSUM = ThreadLocal.withInitial(ChecksumOutput::new);
+
+    public Server(int port, RequestCache requestCache, Memory memory, ConsistentHash consistentHash, MemberMonitor memberMonitor) {
         // Adapted from https://www.baeldung.com/java-get-ip-address
         String urlString = "http://checkip.amazonaws.com/";
         URL url = null;
@@ -59,26 +122,30 @@ public class Server {
 
         this.port = port;
         this.requestCache = requestCache;
-        this.memory = new Memory();
+        this.memory = memory;
         this.consistentHash = consistentHash;
         this.memberMonitor = memberMonitor;
+        this.quorumCoordinator = QUORUM_REPLICATION ? new QuorumCoordinator(memory, consistentHash) : null;
+        this.hotKeyCache = HOT_KEY_CACHE ? new HotKeyCache(consistentHash) : null;
         this.pid = ProcessHandle.current().pid();
+        this.pidPayload = buildResPayload(SUCCESS, pid);
     }
 
     /**
-     * This function builds the message to be sent back to the client.
+     * This function encodes the message to be sent back to the client into a buffer, writing the Msg fields
+     * directly instead of building a Msg first.
      * @param messageID: The response messageID associated with the incoming request
      * @param payload: The return code and any other data associated with the response
-     * @param checksum: Checksum built to verify the packet
-     * @return The byte array to be sent in the Datagram packet
+     * @param buffer: The buffer to encode the message into from its position on, which must be large enough to hold it
+     * @throws IOException: This exception is thrown when the message does not fit in the buffer
      */
-    public static byte[] buildMessage(ByteString messageID, ByteString payload, long checksum) {
-        Message.Msg message = Message.Msg.newBuilder()
-                .setMessageID(messageID)
-                .setPayload(payload)
-                .setCheckSum(checksum)
-                .build();
-        return message.toByteArray();
+    public static void writeMessage(ByteString messageID, ByteString payload, ByteBuffer buffer) throws IOException {
+        CodedOutputStream output = CodedOutputStream.newInstance(buffer);
+        output.writeBytes(Message.Msg.MESSAGEID_FIELD_NUMBER, messageID);
+        output.writeBytes(Message.Msg.PAYLOAD_FIELD_NUMBER, payload);
+        output.writeFixed64(Message.Msg.CHECKSUM_FIELD_NUMBER, buildChecksum(messageID, payload));
+        // flush() moves the buffer's position past the written message
+        output.flush();
     }
 
     /**
@@ -88,22 +155,34 @@ public class Server {
      * @return A long containing the checksum for verification with server
      */
     public static long buildChecksum(ByteString messageID, ByteString payload) {
-        CRC32 checksum = new CRC32();
-        ByteBuffer buf = ByteBuffer.allocate(messageID.size() + payload.size());
+        ChecksumOutput checksum = CHECKSUM.get();
+        checksum.crc.reset();
 
-        buf.put(messageID.toByteArray());
-        buf.put(payload.toByteArray());
-        checksum.update(buf.array());
+        // feed the bytes backing each ByteString straight into the CRC, without copying them out first
+        try {
+            UnsafeByteOperations.unsafeWriteTo(messageID, checksum);
+            UnsafeByteOperations.unsafeWriteTo(payload, checksum);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
 
-        return checksum.getValue();
+        return checksum.crc.getValue();
     }
 
     /**
-     * This function builds the response payload to add to the message sent
+     * This function builds the response payload to add to the message sent. Payloads of the defined response
+     * codes are serialized once and shared.
      * @param errCode: Integer response code to add into the payload
      * @return A ByteString containing the response code
      */
     public static ByteString buildResPayload(int errCode) {
+        if (errCode >= 0 && errCode < ERR_CODE_PAYLOADS.length) {
+            return ERR_CODE_PAYLOADS[errCode];
+        }
+        return encodeResPayload(errCode);
+    }
+
+    private static ByteString encodeResPayload(int errCode) {
         KeyValueResponse.KVResponse resPayload = KeyValueResponse.KVResponse.newBuilder()
                 .setErrCode(errCode)
                 .build();
@@ -126,6 +205,25 @@ public class Server {
         return resPayload.toByteString();
     }
 
+    /**
+     * This function builds the response payload of a replica's answer to a get operation, which the quorum
+     * coordinator reconciles with the other replicas' answers
+     * @param errCode: Integer response code to add into the payload
+     * @param value: The value associated with the provided key in ByteString
+     * @param version: The version Integer associated with the key value pair
+     * @param stamp: The write stamp of the key value pair
+     * @return A ByteString containing the response code, value, version and write stamp
+     */
+    public static ByteString buildResPayload(int errCode, ByteString value, int version, long stamp) {
+        KeyValueResponse.KVResponse resPayload = KeyValueResponse.KVResponse.newBuilder()
+                .setErrCode(errCode)
+                .setValue(value)
+                .setVersion(version)
+                .setStamp(stamp)
+                .build();
+        return resPayload.toByteString();
+    }
+
     /**
      * This function builds the response payload following a getPID operation
      * @param errCode: Integer response code to add into the payload
@@ -172,16 +270,54 @@ public class Server {
     }
 
     /**
-     * This function builds and verifies the incoming packet into a message
-     * @param packet: The incoming Datagram packet to be read
-     * @return The message translation of the incoming Datagram packet
+     * This function builds the response payload following a getRing operation. The ring is described by its members
+     * and the number of virtual nodes each one places, since a client places their tokens the same way the nodes do
+     * @param errCode: Integer response code to add into the payload
+     * @param ring: The ring this node routes requests with
+     * @return A ByteString containing the response code, the members of the ring, the virtual nodes and the epoch
+     */
+    public static ByteString buildResPayload(int errCode, RingSnapshot ring) {
+        KeyValueResponse.KVResponse.Builder resPayloadBuilder = KeyValueResponse.KVResponse.newBuilder()
+                .setErrCode(errCode)
+                .setRingEpoch(ring.getEpoch())
+                .setVirtualNodes(ConsistentHash.VIRTUAL_NODES);
+        // with chain replication the tail of the chain serves reads, clients send their GETs to it
+        if (CHAIN_REPLICATION) {
+            resPayloadBuilder.setChainLength(REPLICATION_FACTOR);
+        }
+
+        for (AddressPair member : ring.getMembers()) {
+            resPayloadBuilder.addRingMembers(member.toString());
+        }
+
+        return resPayloadBuilder.build().toByteString();
+    }
+
+    /**
+     * This function builds the response payload redirecting a client to the node owning its key
+     * @param owner: The ip and port of the node owning the key
+     * @param ringEpoch: The epoch of the ring the owner was found on
+     * @return A ByteString containing the redirect response code, the owner's address and the ring epoch
+     */
+    public static ByteString buildRedirectPayload(AddressPair owner, long ringEpoch) {
+        KeyValueResponse.KVResponse resPayload = KeyValueResponse.KVResponse.newBuilder()
+                .setErrCode(REDIRECT)
+                .setRedirectAddress(owner.toString())
+                .setRingEpoch(ringEpoch)
+                .build();
+        return resPayload.toByteString();
+    }
+
+    /**
+     * This function builds and verifies the incoming datagram into a message. The bytes fields of the message
+     * share the datagram's buffer instead of copying it, so the buffer must not be reused while the message is in use
+     * @param datagram: Buffer holding the incoming datagram between its position and limit
+     * @return The message translation of the incoming datagram
      * @throws InvalidProtocolBufferException: This exception is thrown when an operation error occurs with parseFrom() function
      * @throws PacketCorruptionException: This exception is thrown when either the messageID or checksum is incorrect and corrupt
      */
-    public static Message.Msg readRequest(DatagramPacket packet) throws InvalidProtocolBufferException, PacketCorruptionException {
-        // Truncate data to match correct data length
-        byte[] data = Arrays.copyOfRange(packet.getData(), 0, packet.getLength());
-        Message.Msg message = Message.Msg.parseFrom(data);
+    public static Message.Msg readRequest(ByteBuffer datagram) throws InvalidProtocolBufferException, PacketCorruptionException {
+        Message.Msg message = Message.Msg.parser().parseFrom(aliasingInput(UnsafeByteOperations.unsafeWrap(datagram)));
 
         // Verify the messageID and the checksum is correct
         if (message.getCheckSum() != buildChecksum(message.getMessageID(), message.getPayload())) {
@@ -190,15 +326,34 @@ public class Server {
         return message;
     }
 
+    /**
+     * This function parses the request carried in a message's payload, sharing the payload's bytes
+     * @param message: The incoming message
+     * @return The request contained in the message
+     * @throws InvalidProtocolBufferException: This exception is thrown when the payload is not a valid request
+     */
+    public static KeyValueRequest.KVRequest readPayload(Message.Msg message) throws InvalidProtocolBufferException {
+        return KeyValueRequest.KVRequest.parser().parseFrom(aliasingInput(message.getPayload()));
+    }
+
+    private static CodedInputStream aliasingInput(ByteString bytes) {
+        // bytes fields parsed from this stream are views into the same array rather than copies
+        CodedInputStream input = bytes.newCodedInput();
+        input.enableAliasing(true);
+        return input;
+    }
+
     /**
      * This function reads the incoming message and executes the contained command
      * @param message: The incoming message containing the operation details
-     * @return A ByteString containing the operation response payload to be sent back
+     * @param datagram: The buffer the message was decoded from, forwarded as is when another node owns the key
+     * @param sender: The address the message came from
+     * @return A ByteString containing the operation response payload to be sent back, or null if the request was forwarded
      * @throws InvalidProtocolBufferException: This exception is thrown when an operation error occurs with parseFrom() function
      */
-    public ByteString exeCommand(Message.Msg message, DatagramPacket packet) throws InvalidProtocolBufferException, UnknownHostException {
+    public ByteString exeCommand(Message.Msg message, ByteBuffer datagram, InetSocketAddress sender) throws InvalidProtocolBufferException {
         // get kvrequest from message
-        KeyValueRequest.KVRequest kvRequest = KeyValueRequest.KVRequest.parseFrom(message.getPayload());
+        KeyValueRequest.KVRequest kvRequest = readPayload(message);
         int status;
         ByteString response;
         // parse which command to execute
@@ -208,59 +363,109 @@ public class Server {
                 // determine which node should handle request
                 ByteString key = kvRequest.getKey();
                 AddressPair nodeAddress = consistentHash.getNode(key);
-                // if this node should handle the request
-                if (nodeAddress.getIp().equals(ip) && nodeAddress.getPort() == port) {
-                    status = memory.put(key, kvRequest.getValue(), kvRequest.getVersion());
-                    response = buildResPayload(status);
-                    // only add to cache if runtime memory is not full
-                    if (status != NO_MEM_ERR)
-                        RequestCache.put(message.getMessageID(), response);
-                    if (status == NO_MEM_ERR) {
-                        System.out.println("[" + port + "]: Out of memory!");
+                // if this node should handle the request, or it is passed down the key's replication chain, or it
+                // is a replica of the key sent the write by the quorum coordinator
+                if (isSelf(nodeAddress) || message.hasChainPosition() || kvRequest.getReplica()) {
+                    // the node accepting a write from the client stamps it and applies it whatever its version, the
+                    // replicas apply it with the same stamp unless they already have a copy written after it
+                    long stamp = writeStamp(message, kvRequest);
+                    status = message.hasChainPosition() || kvRequest.getReplica()
+                            ? memory.putCopy(key, kvRequest.getValue(), kvRequest.getVersion(), stamp)
+                            : memory.put(key, kvRequest.getValue(), kvRequest.getVersion(), stamp);
+                    // the owner revokes the read leases on the key, or waits them out, before the write commits
+                    if (HOT_KEY_CACHE && status == SUCCESS && !message.hasChainPosition() && !kvRequest.getReplica()) {
+                        CompletableFuture<Void> revoked = hotKeyCache.revokeLeases(key, kvRequest.getVersion(), stamp);
+                        if (!revoked.isDone()) {
+                            return commitLater(revoked, datagram, sender, stamp, status);
+                        }
                     }
-                    return response;
+                    return commitWrite(message, kvRequest, datagram, sender, key, stamp, status);
                 }
 
-                // call another node to handle the request
+                // hand the request to the node that should handle it
                 // System.out.println("Sending request from node at ip: " + ip + ", port: " + port);
-                consistentHash.callNode(packet, nodeAddress);
-                return null;
+                return routeToOwner(message, kvRequest, datagram, sender, nodeAddress);
             }
             case GET -> {
-                // determine which node should handle request
+                // determine which node should handle request, the tail of the chain with chain replication. A read
+                // through for a node caching the key goes to the owner, the only node granting leases on it
                 ByteString key = kvRequest.getKey();
-                AddressPair nodeAddress = consistentHash.getNode(key);
-                // if this node should handle the request
-                if (nodeAddress.getIp().equals(ip) && nodeAddress.getPort() == port) {
-                    status = memory.isStored(key);
-                    if (status == SUCCESS) {
-                        Pair<ByteString, Integer> keyValue = memory.get(kvRequest.getKey());
-                        response = buildResPayload(status, keyValue.getFirst(), keyValue.getSecond());
+                AddressPair nodeAddress = kvRequest.hasCacheFor()
+                        ? consistentHash.getNode(key)
+                        : BALANCED_READS && !kvRequest.getPrimaryRead()
+                        ? readReplica(key)
+                        : CHAIN_REPLICATION ? chainTail(key) : consistentHash.getNode(key);
+                // if this node should handle the request, or it is a replica of the key asked by the quorum coordinator
+                // or by a tail catching up, or it owns the key and is asked for a read lease on it
+                boolean leaseRequest = HOT_KEY_CACHE && kvRequest.hasCacheFor() && isSelf(consistentHash.getNode(key));
+                if (isSelf(nodeAddress) || kvRequest.getReplica() || message.hasChainPosition() || leaseRequest) {
+                    if (leaseRequest) {
+                        hotKeyCache.grantLease(key, new AddressPair(kvRequest.getCacheFor()));
+                    }
+                    // a single lookup, so a concurrent remove cannot slip in between the check and the read
+                    StoredValue keyValue = memory.get(key);
+                    // a tail that just joined the key's chain may not have been copied the key yet, the node before
+                    // it in the chain had every write to it
+                    if (CHAIN_REPLICATION && keyValue == null && !message.hasChainPosition() && !kvRequest.getReplica()
+                            && consistentHash.isCatchingUp(key)) {
+                        AddressPair[] chain = consistentHash.getReplicas(key, REPLICATION_FACTOR);
+                        if (chain.length > 1 && isSelf(chain[chain.length - 1])) {
+                            consistentHash.callNode(datagram, message, sender, chain[chain.length - 2], chain.length - 2, 0);
+                            return null;
+                        }
+                    }
+                    if ((QUORUM_REPLICATION || leaseRequest) && keyValue != null) {
+                        // the coordinator reconciles the replicas' answers on their write stamps, and a node caching
+                        // the key orders the value against the invalidations it gets on them
+                        response = buildResPayload(SUCCESS, keyValue.getFirst(), keyValue.getSecond(), keyValue.getStamp());
+                    } else if (keyValue != null) {
+                        response = buildResPayload(SUCCESS, keyValue.getFirst(), keyValue.getSecond());
                     } else {
-                        response = buildResPayload(status);
+                        status = memory.isStored(key);
+                        response = buildResPayload(status == SUCCESS ? NO_KEY_ERR : status);
+                    }
+                    if (QUORUM_REPLICATION && !kvRequest.getReplica()) {
+                        return answerLater(message, sender, quorumCoordinator.read(kvRequest,
+                                KeyValueResponse.KVResponse.parseFrom(response)));
                     }
                     return response;
                 }
 
-                // call another node to handle the request
-                consistentHash.callNode(packet, nodeAddress);
-                return null;
+                // a hot key is answered from this node's cache, or read through the owner into it, rather than forwarded
+                if (HOT_KEY_CACHE && !message.hasClientIp() && !kvRequest.getPrimaryRead() && !kvRequest.hasCacheFor()
+                        && hotKeyCache.isHot(key)) {
+                    StoredValue cached = hotKeyCache.get(key);
+                    if (cached != null) {
+                        return buildResPayload(SUCCESS, cached.getFirst(), cached.getSecond());
+                    }
+                    AddressPair owner = consistentHash.getNode(key);
+                    if (!isSelf(owner)) {
+                        return answerLater(message, sender, hotKeyCache.readThrough(key, owner));
+                    }
+                }
+
+                // hand the request to the node that should handle it
+                return routeToOwner(message, kvRequest, datagram, sender, nodeAddress);
             }
             case REMOVE -> {
                 // determine which node should handle request
                 ByteString key = kvRequest.getKey();
                 AddressPair nodeAddress = consistentHash.getNode(key);
-                // if this node should handle the request
-                if (nodeAddress.getIp().equals(ip) && nodeAddress.getPort() == port) {
+                // if this node should handle the request, or it is passed down the key's replication chain, or it
+                // is a replica of the key sent the write by the quorum coordinator
+                if (isSelf(nodeAddress) || message.hasChainPosition() || kvRequest.getReplica()) {
                     status = memory.remove(key);
-                    response = buildResPayload(status);
-                    requestCache.put(message.getMessageID(), response);
-                    return response;
+                    if (HOT_KEY_CACHE && status == SUCCESS && !message.hasChainPosition() && !kvRequest.getReplica()) {
+                        CompletableFuture<Void> revoked = hotKeyCache.revokeLeases(key, Integer.MAX_VALUE, Long.MAX_VALUE);
+                        if (!revoked.isDone()) {
+                            return commitLater(revoked, datagram, sender, 0, status);
+                        }
+                    }
+                    return commitWrite(message, kvRequest, datagram, sender, key, 0, status);
                 }
 
-                // call another node to handle the request
-                consistentHash.callNode(packet, nodeAddress);
-                return null;
+                // hand the request to the node that should handle it
+                return routeToOwner(message, kvRequest, datagram, sender, nodeAddress);
             }
             case SHUTDOWN -> {
                 status = memory.shutdown();
@@ -268,7 +473,7 @@ public class Server {
                 return response;
             }
             case WIPEOUT -> {
-                System.out.println("node " + port + " is receiving a wipeout from port " + packet.getPort());
+                System.out.println("node " + port + " is receiving a wipeout from port " + sender.getPort());
                 status = memory.erase();
                 requestCache.erase();
                 /*
@@ -288,8 +493,7 @@ public class Server {
                 return response;
             }
             case GET_PID -> {
-                status = SUCCESS;
-                response = buildResPayload(status, pid);
+                response = pidPayload;
                 requestCache.put(message.getMessageID(), response);
                 return response;
             }
@@ -310,19 +514,299 @@ public class Server {
                                 .setAddressPair(entry.getKey().toString())
                                 // TODO: Update this so that if the node refers to the current node, use the current time
                                 .setTime(entry.getKey().getPort() == port ? System.currentTimeMillis() : entry.getValue())
+                                .setLoad(memberMonitor.getLoad(entry.getKey()))
                                 .build())
                         .toArray(KeyValueResponse.KVResponse.MembershipInfo[]::new);
                 response = buildResPayload(status, membershipInfos);
                 requestCache.put(message.getMessageID(), response);
                 return response;
             }
+            case BULK_PUT -> {
+                // a record never replaces a newer write made here in the meantime. Records of keys this node doesn't
+                // replicate on its ring are dropped, and the batch isn't acknowledged so the sender keeps them and
+                // tries again once the rings agree
+                status = SUCCESS;
+                for (KeyValueRequest.KVRequest.Record record : kvRequest.getRecordsList()) {
+                    if (!isReplica(record.getKey())) {
+                        status = INTERNAL_ERR;
+                    } else if (memory.putCopy(record.getKey(), record.getValue(), record.getVersion(), record.getStamp()) == NO_MEM_ERR) {
+                        status = NO_MEM_ERR;
+                    }
+                }
+                response = buildResPayload(status);
+                if (status == SUCCESS)
+                    requestCache.put(message.getMessageID(), response);
+                return response;
+            }
+            case DIGEST -> {
+                // digests are read only and cheap to answer again, so they aren't cached
+                return consistentHash.getAntiEntropy().answerDigests(kvRequest);
+            }
+            case INVALIDATE -> {
+                // invalidating again is harmless, so it isn't cached
+                if (HOT_KEY_CACHE) {
+                    hotKeyCache.invalidate(kvRequest.getKey(), kvRequest.getVersion(), kvRequest.getStamp());
+                }
+                return buildResPayload(SUCCESS);
+            }
+            case GET_RING -> {
+                status = SUCCESS;
+                response = buildResPayload(status, consistentHash.getRing());
+                requestCache.put(message.getMessageID(), response);
+                return response;
+            }
             default -> {
                 status = UKN_CMD;
-                System.out.println("node " + port + " is receiving an unknown command " + kvRequest.getCommand() + " from port " + packet.getPort());
+                System.out.println("node " + port + " is receiving an unknown command " + kvRequest.getCommand() + " from port " + sender.getPort());
                 response = buildResPayload(status);
                 requestCache.put(message.getMessageID(), response);
                 return response;
             }
         }
     }
+
+    /**
+     * This function passes a write this node applied on to the next node of the key's replication chain. Nodes
+     * pass it on without waiting for the rest of the chain, and the tail answers the client
+     * @param message: The incoming message
+     * @param datagram: The buffer the message was decoded from
+     * @param sender: The address the message came from
+     * @param key: The key written
+     * @param stamp: The write stamp the write was applied with
+     * @return True if the write was passed on, false if this node is the tail and answers the client itself
+     */
+    private boolean passDownChain(Message.Msg message, ByteBuffer datagram, InetSocketAddress sender, ByteString key,
+                                  long stamp) {
+        AddressPair[] chain = consistentHash.getReplicas(key, REPLICATION_FACTOR);
+        int next = (message.hasChainPosition() ? message.getChainPosition() : 0) + 1;
+        if (next >= chain.length) {
+            return false;
+        }
+
+        consistentHash.callNode(datagram, message, sender, chain[next], next, stamp);
+        return true;
+    }
+
+    /**
+     * This function gets the write stamp of a PUT, the stamp of the node that accepted it if it was passed down a
+     * replication chain or sent by a quorum coordinator, or a new stamp of this node if it comes from the client
+     * @param message: The incoming message
+     * @param kvRequest: The request decoded from the message
+     * @return The write stamp to apply the PUT with
+     */
+    private long writeStamp(Message.Msg message, KeyValueRequest.KVRequest kvRequest) {
+        if (message.hasWriteStamp()) {
+            return message.getWriteStamp();
+        }
+        if (kvRequest.hasStamp()) {
+            return kvRequest.getStamp();
+        }
+        return StoredValue.newStamp(consistentHash.getSelfAddress());
+    }
+
+    /**
+     * This function finds the tail of a key's replication chain, the last node to apply a write to it
+     * @param key: The key of the request
+     * @return The ip and port of the tail
+     */
+    private AddressPair chainTail(ByteString key) {
+        AddressPair[] chain = consistentHash.getReplicas(key, REPLICATION_FACTOR);
+        return chain[chain.length - 1];
+    }
+
+    /**
+     * This function commits a PUT or REMOVE this node applied: it passes it down the key's replication chain, has the
+     * quorum coordinator send it to the other replicas, or answers it
+     * @param message: The incoming message
+     * @param kvRequest: The request decoded from the message
+     * @param datagram: The buffer the message was decoded from
+     * @param sender: The address the message came from
+     * @param key: The key written
+     * @param stamp: The write stamp the write was applied with, 0 for a remove
+     * @param status: The outcome of applying the write here
+     * @return The response payload, or null if the write is answered by another node or later
+     */
+    private ByteString commitWrite(Message.Msg message, KeyValueRequest.KVRequest kvRequest, ByteBuffer datagram,
+                                   InetSocketAddress sender, ByteString key, long stamp, int status) {
+        // a remove goes on even if this node is missing the key, a replica further down may still hold it
+        boolean applied = status == SUCCESS || (kvRequest.getCommand() == REMOVE && status == NO_KEY_ERR);
+        // only the tail caches and answers a replicated write, so a retry reaching a node up the chain is
+        // passed down again instead of being acknowledged before the tail applied it
+        if (CHAIN_REPLICATION && applied && passDownChain(message, datagram, sender, key, stamp)) {
+            return null;
+        }
+        if (QUORUM_REPLICATION && !kvRequest.getReplica()) {
+            return answerLater(message, sender, quorumCoordinator.write(kvRequest, stamp,
+                    KeyValueResponse.KVResponse.newBuilder().setErrCode(status).build()));
+        }
+        if (kvRequest.hasHint() && applied) {
+            consistentHash.getHintedHandoff().hint(new AddressPair(kvRequest.getHint()), key);
+        }
+        ByteString response = buildResPayload(status);
+        // only add to cache if runtime memory is not full
+        if (status != NO_MEM_ERR)
+            requestCache.put(message.getMessageID(), response);
+        if (status == NO_MEM_ERR) {
+            System.out.println("[" + port + "]: Out of memory!");
+        }
+        return response;
+    }
+
+    /**
+     * This function commits a write once the read leases on its key are revoked, instead of blocking the worker until
+     * they are. The worker's buffer goes back to the pool when it returns, so the write goes on from a copy of it
+     * @param revoked: The future completed once every lease holder acknowledged or its lease ran out
+     * @param datagram: The buffer the request was decoded from
+     * @param sender: The address the request came from
+     * @param stamp: The write stamp the write was applied with, 0 for a remove
+     * @param status: The outcome of applying the write here
+     * @return null, the worker doesn't answer the request
+     */
+    private ByteString commitLater(CompletableFuture<Void> revoked, ByteBuffer datagram, InetSocketAddress sender,
+                                   long stamp, int status) {
+        ByteBuffer copy = ByteBuffer.allocate(datagram.capacity());
+        copy.put(datagram.duplicate()).flip();
+
+        revoked.whenComplete((ignored, revokeError) -> {
+            // the write is applied here already, so it is committed even if revoking failed, the leases run out
+            if (revokeError != null) {
+                revokeError.printStackTrace();
+            }
+            try {
+                Message.Msg message = readRequest(copy);
+                KeyValueRequest.KVRequest kvRequest = readPayload(message);
+                ByteString response = commitWrite(message, kvRequest, copy, sender, kvRequest.getKey(), stamp, status);
+                if (response != null) {
+                    consistentHash.reply(replyTarget(message, sender), message.getMessageID(), response);
+                }
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+        });
+        return null;
+    }
+
+    /**
+     * This function finds where the answer to a request goes, the client a forwarded request came from or the sender
+     * @param message: The incoming message
+     * @param sender: The address the message came from
+     * @return The address to answer
+     */
+    private static InetSocketAddress replyTarget(Message.Msg message, InetSocketAddress sender) {
+        return message.hasClientIp()
+                ? new InetSocketAddress(message.getClientIp(), message.getClientPort())
+                : sender;
+    }
+
+    /**
+     * This function answers the client once the other nodes a request was sent to replied, instead of from the worker
+     * @param message: The incoming message
+     * @param sender: The address the message came from
+     * @param result: The future completed with the response for the client
+     * @return null, the worker doesn't answer the request
+     */
+    private ByteString answerLater(Message.Msg message, InetSocketAddress sender,
+                                   CompletableFuture<KeyValueResponse.KVResponse> result) {
+        // the message shares the datagram's buffer, which goes back to the pool once the worker returns
+        ByteString messageID = ByteString.copyFrom(message.getMessageID().toByteArray());
+        InetSocketAddress target = replyTarget(message, sender);
+
+        result.thenAccept(response -> {
+            ByteString payload = response.toByteString();
+            // a failed quorum isn't cached, so a retry of the client gets another go
+            if (response.getErrCode() == SUCCESS || response.getErrCode() == NO_KEY_ERR) {
+                requestCache.put(messageID, payload);
+            }
+            consistentHash.reply(target, messageID, payload);
+        });
+        return null;
+    }
+
+    /**
+     * This function determines which replica serves a balanced GET, this node if it is a replica of the key, otherwise
+     * the one the member monitor picks
+     * @param key: The key of the request
+     * @return The ip and port of the replica
+     */
+    private AddressPair readReplica(ByteString key) {
+        AddressPair[] replicas = consistentHash.getReplicas(key, REPLICATION_FACTOR);
+        for (AddressPair replica : replicas) {
+            if (isSelf(replica)) {
+                return replica;
+            }
+        }
+        return memberMonitor.pickReplica(replicas);
+    }
+
+    private boolean isSelf(AddressPair nodeAddress) {
+        return nodeAddress.getIp().equals(ip) && nodeAddress.getPort() == port;
+    }
+
+    /**
+     * This function checks whether this node holds a replica of a key on its current ring
+     * @param key: The key to check
+     * @return True if this node is one of the key's REPLICATION_FACTOR replicas
+     */
+    private boolean isReplica(ByteString key) {
+        for (AddressPair replica : consistentHash.getReplicas(key, REPLICATION_FACTOR)) {
+            if (isSelf(replica)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * This function hands a request for a key this node does not own to the owner. Clients that accept redirects are
+     * told the owner's address, anything else is forwarded to the owner which answers the client itself
+     * @param message: The incoming message
+     * @param kvRequest: The request decoded from the message
+     * @param datagram: The buffer the message was decoded from
+     * @param sender: The address the message came from
+     * @param nodeAddress: The address of the node owning the request's key
+     * @return The redirect payload to answer with, or null if the request was forwarded
+     */
+    private ByteString routeToOwner(Message.Msg message, KeyValueRequest.KVRequest kvRequest, ByteBuffer datagram,
+                                    InetSocketAddress sender, AddressPair nodeAddress) {
+        // a request forwarded by another node is never redirected, its sender is not the client
+        if (!message.hasClientIp() && (REDIRECT_ALL || kvRequest.getAcceptRedirect())) {
+            return buildRedirectPayload(nodeAddress, consistentHash.getRing().getEpoch());
+        }
+
+        // call another node to handle the request
+        consistentHash.callNode(datagram, message, sender, nodeAddress);
+        return null;
+    }
+
+    /**
+     * Sink that updates a CRC with whatever bytes a ByteString hands it
+     */
+    private static class ChecksumOutput extends ByteOutput {
+        private final CRC32 crc = new CRC32();
+
+        @Override
+        public void write(byte value) {
+            crc.update(value);
+        }
+
+        @Override
+        public void write(byte[] value, int offset, int length) {
+            crc.update(value, offset, length);
+        }
+
+        @Override
+        public void writeLazy(byte[] value, int offset, int length) {
+            crc.update(value, offset, length);
+        }
+
+        @Override
+        public void write(ByteBuffer value) {
+            crc.update(value);
+        }
+
+        @Override
+        public void writeLazy(ByteBuffer value) {
+            crc.update(value);
+        }
+    }
 }
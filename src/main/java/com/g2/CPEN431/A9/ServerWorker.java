@@ -4,58 +4,95 @@ import ca.NetSysLab.ProtocolBuffers.Message;
 import com.google.protobuf.ByteString;
 
 import java.io.IOException;
-import java.net.DatagramPacket;
-import java.net.DatagramSocket;
 import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class ServerWorker implements Runnable {
 
+    // Requests handed to the worker pool and not done yet, queued or running, which nodes gossip as their load
+    private static final AtomicInteger QUEUE_DEPTH = new AtomicInteger();
+
     private final Server server;
-    private final DatagramSocket socket;
-    private final DatagramPacket packet;
+    private final Transport transport;
+    private final DatagramChannel channel;
+    private final ByteBuffer request;
+    private final InetSocketAddress sender;
 
-    private RequestCache requestCache;
+    private final RequestCache requestCache;
 
-    public ServerWorker(Server server, DatagramSocket socket, DatagramPacket packet, RequestCache requestCache) {
+    /**
+     * @param channel: The channel the datagram was received on, which the response is sent from
+     * @param request: Pooled buffer holding the received datagram, the worker releases it when done
+     * @param sender: The address the datagram came from
+     */
+    public ServerWorker(Server server, Transport transport, DatagramChannel channel,
+                        ByteBuffer request, InetSocketAddress sender, RequestCache requestCache) {
         this.server = server;
-        this.socket = socket;
-        this.packet = packet;
+        this.transport = transport;
+        this.channel = channel;
+        this.request = request;
+        this.sender = sender;
         this.requestCache = requestCache;
+        QUEUE_DEPTH.incrementAndGet();
+    }
+
+    /**
+     * @return The number of requests this node received that are queued or running
+     */
+    public static int queueDepth() {
+        return QUEUE_DEPTH.get();
+    }
+
+    /**
+     * This function gives up a worker the worker pool refused to run, it is no longer counted and its buffer goes back
+     */
+    public void reject() {
+        transport.getBufferPool().release(request);
+        QUEUE_DEPTH.decrementAndGet();
     }
 
     @Override
     public void run() {
         try {
-            Message.Msg message = Server.readRequest(packet);
-            Object kvResponse;
-            DatagramPacket responsePacket;
+            Message.Msg message = Server.readRequest(request);
+            ByteString kvResponse;
 
             // if message cached retrieved cached response otherwise execute command
             if (requestCache.isStored(message.getMessageID())) {
                 kvResponse = requestCache.get(message.getMessageID());
             } else {
-                kvResponse = server.exeCommand(message, packet);
+                kvResponse = server.exeCommand(message, request, sender);
             }
 
-            int packetPort = packet.getPort();
-            InetAddress address = packet.getAddress();
-
-            if (kvResponse instanceof DatagramPacket) {
-                responsePacket = new DatagramPacket(((DatagramPacket) kvResponse).getData(), ((DatagramPacket) kvResponse).getLength(), address, packetPort);
-            } else {
-                // build checksum and response message
-                long checksum = Server.buildChecksum(message.getMessageID(), (ByteString) kvResponse);
-                byte[] resMessage = Server.buildMessage(message.getMessageID(), (ByteString) kvResponse, checksum);
+            // the request was forwarded to another node, which replies to the client itself
+            if (kvResponse == null) {
+                return;
+            }
 
-                // load message into packet to send back to client
-                responsePacket = new DatagramPacket(resMessage, resMessage.length, address, packetPort);
-                // System.out.println("not instance of datagrampacket");
+            InetSocketAddress target = sender;
+            if (message.hasClientPort() && message.hasClientIp()) {
+                target = new InetSocketAddress(InetAddress.getByName(message.getClientIp()), message.getClientPort());
             }
 
-            // System.out.println("Node " + port + " is sending the packet now");
-            socket.send(responsePacket);
-        } catch (IOException | PacketCorruptionException e) {
+            // encode the response message into a pooled buffer, the channel copies it out before send returns
+            ByteBuffer response = transport.getBufferPool().acquire();
+            try {
+                Server.writeMessage(message.getMessageID(), kvResponse, response);
+                channel.send(response.flip(), target);
+            } finally {
+                transport.getBufferPool().release(response);
+            }
+        } catch (PacketCorruptionException e) {
+            System.out.println("the packet is corrupt");
+        } catch (IOException e) {
             e.printStackTrace();
+        } finally {
+            // the message and anything parsed from it share this buffer, so it goes back only now
+            transport.getBufferPool().release(request);
+            QUEUE_DEPTH.decrementAndGet();
         }
     }
 }
@@ -0,0 +1,221 @@
+package com.g2.CPEN431.A9;
+
+import ca.NetSysLab.ProtocolBuffers.KeyValueRequest;
+import ca.NetSysLab.ProtocolBuffers.KeyValueResponse;
+import ca.NetSysLab.ProtocolBuffers.Message;
+import com.google.protobuf.ByteString;
+import com.google.protobuf.InvalidProtocolBufferException;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Client that sends every request straight to the node owning its key, using a copy of the ring fetched from the
+ * nodes, instead of to any node which then forwards it. A node that does not own a key still forwards the request
+ * to the owner, which answers directly, so requests keep working while the copy of the ring is stale. An answer
+ * coming from another node than the one asked is how the client notices, and it fetches the ring again. With chain
+ * replication GETs go to the tail of the key's chain instead, the node serving them.
+ * Like UDPClient it sends one request at a time and is not thread safe.
+ */
+public class SmartClient implements AutoCloseable {
+    // Shortest time between two ring fetches, so a burst of misrouted requests fetches the ring only once
+    private static final long RING_REFRESH_INTERVAL = 1000;
+
+    private final UDPClient udpClient = new UDPClient();
+    private final List<AddressPair> seeds;
+    private final HashMap<AddressPair, InetAddress> addresses = new HashMap<>();
+
+    private RingSnapshot ring = RingSnapshot.EMPTY;
+    // Nodes in the chain of every key as the nodes report it, 1 without chain replication
+    private int chainLength = 1;
+    private long lastRingRefresh = 0;
+
+    /**
+     * @param seeds: Nodes to fetch the ring from and to fall back to while there is no ring
+     * @throws IllegalArgumentException: If there are no seeds
+     */
+    public SmartClient(List<AddressPair> seeds) {
+        if (seeds.isEmpty()) {
+            throw new IllegalArgumentException("A smart client needs at least one seed node");
+        }
+        this.seeds = new ArrayList<>(seeds);
+    }
+
+    public KeyValueResponse.KVResponse put(ByteString key, ByteString value, int version) {
+        return request(key, KeyValueRequest.KVRequest.newBuilder()
+                .setCommand(Server.PUT)
+                .setKey(key)
+                .setValue(value)
+                .setVersion(version)
+                .build());
+    }
+
+    public KeyValueResponse.KVResponse get(ByteString key) {
+        return request(key, KeyValueRequest.KVRequest.newBuilder()
+                .setCommand(Server.GET)
+                .setKey(key)
+                .build());
+    }
+
+    public KeyValueResponse.KVResponse remove(ByteString key) {
+        return request(key, KeyValueRequest.KVRequest.newBuilder()
+                .setCommand(Server.REMOVE)
+                .setKey(key)
+                .build());
+    }
+
+    /**
+     * This function sends a request for a key to the node that owns it on the client's ring, or a GET with chain
+     * replication to the tail of the key's chain. If that node does not answer it may have left, so the ring is
+     * fetched again and the request goes through a seed, which forwards it. A node that does not own the key
+     * redirects the client to the owner, and the request is sent there instead
+     * @param key: The key of the request
+     * @param request: The request to send
+     * @return The response of the owner, or null if no node answered
+     */
+    private KeyValueResponse.KVResponse request(ByteString key, KeyValueRequest.KVRequest request) {
+        if (ring.memberCount() == 0) {
+            refreshRing();
+        }
+
+        AddressPair owner = request.getCommand() == Server.GET && chainLength > 1
+                ? chainTail(key)
+                : ring.ownerOf(ConsistentHash.hashKey(key));
+        AddressPair target = owner != null ? owner : seeds.get(0);
+        KeyValueRequest.KVRequest redirectable = request.toBuilder().setAcceptRedirect(true).build();
+        Message.Msg reply = send(target, redirectable);
+        if (reply == null && !seeds.contains(target)) {
+            refreshRing();
+            target = seeds.get(0);
+            reply = send(target, redirectable);
+        }
+        if (reply == null) {
+            return null;
+        }
+
+        // the node asked forwarded the request, so it does not think it owns the key any more
+        if (!isFrom(target, udpClient.getLastResponder())) {
+            refreshRing();
+        }
+
+        KeyValueResponse.KVResponse response = parseResponse(reply);
+        if (response == null || response.getErrCode() != Server.REDIRECT) {
+            return response;
+        }
+
+        // the node asked routes with another ring, follow the redirect without accepting another one so that
+        // nodes which disagree on the owner forward the request instead of bouncing the client between them
+        if (response.getRingEpoch() != ring.getEpoch()) {
+            refreshRing();
+        }
+        reply = send(new AddressPair(response.getRedirectAddress()), request);
+        return reply == null ? null : parseResponse(reply);
+    }
+
+    /**
+     * This function finds the tail of a key's chain on the client's ring
+     * @param key: The key of the request
+     * @return The last node of the key's chain, or null while there is no ring
+     */
+    private AddressPair chainTail(ByteString key) {
+        AddressPair[] chain = ring.successors(ConsistentHash.hashKey(key), chainLength);
+        return chain.length == 0 ? null : chain[chain.length - 1];
+    }
+
+    private static KeyValueResponse.KVResponse parseResponse(Message.Msg reply) {
+        try {
+            return KeyValueResponse.KVResponse.parseFrom(reply.getPayload());
+        } catch (InvalidProtocolBufferException e) {
+            return null;
+        }
+    }
+
+    /**
+     * This function fetches the ring from the first node that answers, unless it was fetched very recently
+     * @return Whether the client's ring changed
+     */
+    public boolean refreshRing() {
+        long now = System.currentTimeMillis();
+        if (now - lastRingRefresh < RING_REFRESH_INTERVAL) {
+            return false;
+        }
+        lastRingRefresh = now;
+
+        byte[] getRing = KeyValueRequest.KVRequest.newBuilder()
+                .setCommand(Server.GET_RING)
+                .build()
+                .toByteArray();
+
+        // ask the members the client knows of first, the seeds may have left since
+        List<AddressPair> candidates = new ArrayList<>(ring.getMembers());
+        candidates.addAll(seeds);
+        for (AddressPair candidate : candidates) {
+            Message.Msg reply = send(candidate, getRing);
+            if (reply == null) {
+                continue;
+            }
+
+            try {
+                KeyValueResponse.KVResponse response = KeyValueResponse.KVResponse.parseFrom(reply.getPayload());
+                if (response.getRingMembersCount() == 0) {
+                    continue;
+                }
+                chainLength = response.hasChainLength() ? response.getChainLength() : 1;
+                if (response.getRingEpoch() == ring.getEpoch()) {
+                    return false;
+                }
+
+                List<AddressPair> members = new ArrayList<>();
+                for (String member : response.getRingMembersList()) {
+                    members.add(new AddressPair(member));
+                }
+                // the tokens are placed with the nodes' virtual node count, whatever this JVM is configured with
+                int virtualNodes = response.hasVirtualNodes() ? response.getVirtualNodes() : ConsistentHash.VIRTUAL_NODES;
+                ring = ConsistentHash.buildRing(members, virtualNodes);
+                return true;
+            } catch (InvalidProtocolBufferException e) {
+                // try the next node
+            }
+        }
+        return false;
+    }
+
+    public RingSnapshot getRing() {
+        return ring;
+    }
+
+    @Override
+    public void close() {
+        udpClient.close();
+    }
+
+    private Message.Msg send(AddressPair node, KeyValueRequest.KVRequest request) {
+        return send(node, request.toByteArray());
+    }
+
+    private Message.Msg send(AddressPair node, byte[] payload) {
+        InetAddress address = addresses.get(node);
+        if (address == null) {
+            try {
+                address = InetAddress.getByName(node.getIp());
+            } catch (UnknownHostException e) {
+                return null;
+            }
+            addresses.put(node, address);
+        }
+        return udpClient.request(address, node.getPort(), payload);
+    }
+
+    /**
+     * This function checks whether a response came from the node a request was sent to. All nodes of a deployment
+     * run on one host and the address they answer from depends on the interface, so nodes are told apart by port
+     */
+    private static boolean isFrom(AddressPair node, SocketAddress responder) {
+        return responder instanceof InetSocketAddress address && address.getPort() == node.getPort();
+    }
+}
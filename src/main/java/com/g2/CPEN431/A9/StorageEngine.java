@@ -0,0 +1,95 @@
+package com.g2.CPEN431.A9;
+
+import com.google.protobuf.ByteString;
+
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * The backing store behind Memory. Memory validates requests and maps outcomes to response codes,
+ * an engine only keeps the key value pairs. Implementations must be safe for concurrent use.
+ */
+public interface StorageEngine {
+
+    /**
+     * This function atomically stores a key value pair, replacing the stored one
+     * @param key: ByteString key associated with the key value pair
+     * @param value: ByteString value associated with the key value pair
+     * @param version: Integer version value associated with the key value pair
+     * @param stamp: Write stamp of the key value pair
+     * @return false if there is no room left for the pair
+     */
+    boolean put(ByteString key, ByteString value, int version, long stamp);
+
+    /**
+     * This function atomically stores a copy of a key value pair unless the stored pair is newer, see StoredValue.compare()
+     * @param key: ByteString key associated with the key value pair
+     * @param value: ByteString value associated with the key value pair
+     * @param version: Integer version value associated with the key value pair
+     * @param stamp: Write stamp of the key value pair
+     * @return false if there is no room left for the pair
+     */
+    boolean putIfNewer(ByteString key, ByteString value, int version, long stamp);
+
+    /**
+     * This function gets the value, version and write stamp associated with the key
+     * @param key: ByteString key to get the value for
+     * @return The stored value, or null if the key is not stored
+     */
+    StoredValue get(ByteString key);
+
+    /**
+     * This function gets the version of the pair associated with the key, without reading its value
+     * @param key: ByteString key to get the version for
+     * @return The version, or null if the key is not stored
+     */
+    Integer getVersion(ByteString key);
+
+    /**
+     * This function checks if a key is stored
+     * @param key: ByteString key to check for
+     * @return true if the key is stored
+     */
+    boolean contains(ByteString key);
+
+    /**
+     * This function removes the key value pair associated with the key
+     * @param key: ByteString key to remove the key value pair for
+     * @return true if a pair was removed
+     */
+    boolean remove(ByteString key);
+
+    /**
+     * This function removes the key value pair associated with the key only if it is still a given copy
+     * @param key: ByteString key to remove the key value pair for
+     * @param version: Version of the copy to remove
+     * @param stamp: Write stamp of the copy to remove
+     * @return true if the copy was removed, false if the key is not stored or was written since
+     */
+    boolean remove(ByteString key, int version, long stamp);
+
+    /**
+     * This function removes every key value pair
+     */
+    void clear();
+
+    /**
+     * This function reports the bytes held by the stored pairs, including the engine's own per entry overhead
+     * @return The number of bytes in use
+     */
+    long usedBytes();
+
+    /**
+     * This function computes how much usedBytes() would change if a pair was put for the key now
+     * @param key: ByteString key about to be stored
+     * @param value: ByteString value about to be stored
+     * @return The change in bytes, negative if the pair replaces a larger one
+     */
+    long footprintDelta(ByteString key, ByteString value);
+
+    /**
+     * This function streams every stored entry, the stream is weakly consistent
+     * @return Stream representing all the entries in the engine
+     */
+    Stream<Map.Entry<ByteString, StoredValue>> entries();
+}
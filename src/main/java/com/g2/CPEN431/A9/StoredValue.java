@@ -0,0 +1,71 @@
+package com.g2.CPEN431.A9;
+
+import com.google.protobuf.ByteString;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A stored value with its version and write stamp. Copies of a key are reconciled last writer wins: the copy with
+ * the later stamp wins, the write accepted last, whatever version the client gave it. A stamp is the time the write
+ * was accepted in milliseconds in its upper bits and the node that accepted it in its lower 16 bits, so two writes
+ * accepted in the same millisecond are still ordered the same way on every node, and the version only orders copies
+ * with the same stamp. A node never hands out the same stamp twice: a write accepted in the same millisecond as the
+ * one before it is stamped one millisecond later.
+ */
+public class StoredValue extends Pair<ByteString, Integer> {
+
+    // the last stamp this node handed out
+    private static final AtomicLong lastStamp = new AtomicLong();
+
+    private final long stamp;
+
+    /**
+     * @param value: The value stored for the key
+     * @param version: The version of the value
+     * @param stamp: The write stamp of the value
+     */
+    StoredValue(ByteString value, int version, long stamp) {
+        super(value, version);
+        this.stamp = stamp;
+    }
+
+    /**
+     * This function gets the write stamp of the value
+     * @return The stamp the value was written with
+     */
+    public long getStamp() {
+        return stamp;
+    }
+
+    /**
+     * This function stamps a write accepted now by a node
+     * @param node: The ip and port of the node accepting the write
+     * @return The write stamp
+     */
+    public static long newStamp(AddressPair node) {
+        long id = node.hashCode() & 0xffff;
+        long now = System.currentTimeMillis() << 16 | id;
+        while (true) {
+            long last = lastStamp.get();
+            long next = Math.max(now, ((last >>> 16) + 1) << 16 | id);
+            if (lastStamp.compareAndSet(last, next)) {
+                return next;
+            }
+        }
+    }
+
+    /**
+     * This function orders two copies of a key last writer wins
+     * @param version: The version of the first copy
+     * @param stamp: The write stamp of the first copy
+     * @param otherVersion: The version of the second copy
+     * @param otherStamp: The write stamp of the second copy
+     * @return A negative number, zero or a positive number as the first copy is older than, the same as or newer than the second
+     */
+    public static int compare(int version, long stamp, int otherVersion, long otherStamp) {
+        if (stamp != otherStamp) {
+            return Long.compare(stamp, otherStamp);
+        }
+        return Integer.compare(version, otherVersion);
+    }
+}
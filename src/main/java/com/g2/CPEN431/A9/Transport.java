@@ -0,0 +1,87 @@
+package com.g2.CPEN431.A9;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+
+import static com.g2.CPEN431.A9.App.MAX_INCOMING_PACKET_SIZE;
+
+/**
+ * The node's UDP endpoint. Client requests, forwarded requests and responses all go through its channels,
+ * using direct buffers from a shared pool. With more than one channel they are all bound to the same port with
+ * SO_REUSEPORT, and the kernel spreads incoming datagrams across their receive queues by source address.
+ */
+public class Transport {
+
+    private final DatagramChannel[] channels;
+    private final BufferPool bufferPool;
+    private final boolean nonBlocking;
+
+    /**
+     * @param port: The port to listen on
+     * @param nonBlocking: Whether the channels are read by selector event loops instead of blocking receivers
+     * @param maxPooledBuffers: Most buffers kept for reuse
+     * @param socketCount: Number of channels bound to the port, more than one requires SO_REUSEPORT
+     * @param receiveBufferSize: SO_RCVBUF of each channel in bytes, 0 keeps the OS default
+     * @param sendBufferSize: SO_SNDBUF of each channel in bytes, 0 keeps the OS default
+     * @throws IOException: This exception is thrown when a channel cannot be opened or bound
+     */
+    public Transport(int port, boolean nonBlocking, int maxPooledBuffers, int socketCount,
+                     int receiveBufferSize, int sendBufferSize) throws IOException {
+        this.channels = new DatagramChannel[socketCount];
+        this.nonBlocking = nonBlocking;
+        this.bufferPool = new BufferPool(MAX_INCOMING_PACKET_SIZE, maxPooledBuffers);
+
+        for (int i = 0; i < socketCount; i++) {
+            DatagramChannel channel = DatagramChannel.open();
+            if (socketCount > 1) {
+                if (!channel.supportedOptions().contains(StandardSocketOptions.SO_REUSEPORT)) {
+                    channel.close();
+                    throw new IOException("SO_REUSEPORT is not supported, cannot bind " + socketCount + " sockets to one port");
+                }
+                channel.setOption(StandardSocketOptions.SO_REUSEPORT, true);
+            }
+            if (receiveBufferSize > 0) {
+                channel.setOption(StandardSocketOptions.SO_RCVBUF, receiveBufferSize);
+            }
+            if (sendBufferSize > 0) {
+                channel.setOption(StandardSocketOptions.SO_SNDBUF, sendBufferSize);
+            }
+            // the first channel settles the port, in case an ephemeral one was asked for
+            int boundPort = i == 0 ? port : ((InetSocketAddress) channels[0].getLocalAddress()).getPort();
+            channel.bind(new InetSocketAddress(boundPort));
+            channel.configureBlocking(!nonBlocking);
+            channels[i] = channel;
+        }
+    }
+
+    /**
+     * This function sends the remaining bytes of a buffer as one datagram from the first channel. In non-blocking
+     * mode a datagram that does not fit in the socket's send buffer is dropped, like any other lost UDP packet.
+     * @param buffer: The datagram to send, between its position and limit
+     * @param target: The address to send the datagram to
+     * @throws IOException: This exception is thrown when the channel fails to send
+     */
+    public void send(ByteBuffer buffer, SocketAddress target) throws IOException {
+        channels[0].send(buffer, target);
+    }
+
+    public DatagramChannel[] getChannels() {
+        return channels;
+    }
+
+    public BufferPool getBufferPool() {
+        return bufferPool;
+    }
+
+    public boolean isNonBlocking() {
+        return nonBlocking;
+    }
+
+    public int getLocalPort() throws IOException {
+        return ((InetSocketAddress) channels[0].getLocalAddress()).getPort();
+    }
+}
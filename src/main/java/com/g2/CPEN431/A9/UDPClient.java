@@ -2,31 +2,46 @@ package com.g2.CPEN431.A9;
 
 import ca.NetSysLab.ProtocolBuffers.Message;
 import com.google.protobuf.ByteString;
+import com.google.protobuf.InvalidProtocolBufferException;
 import com.g2.CPEN431.A9.util.ByteOrder;
+import com.g2.CPEN431.A9.util.TimerWheel;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.net.*;
 import java.nio.ByteBuffer;
-import java.util.Arrays;
-import java.util.Random;
-import java.util.zip.CRC32;
-
-public class UDPClient {
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Client for the key value protocol. Any number of requests can be in flight on its one socket: responses are matched
+ * to requests by messageID by a receiver thread, and retransmissions are driven by the shared timer wheel.
+ */
+public class UDPClient implements AutoCloseable {
     private static final int MAX_PACKET_SIZE = 16384;
     private static final int MAX_RETRIES = 3;
     private static final int DEFAULT_TIMEOUT = 100;
 
     private DatagramSocket socket = null;
 
+    // Requests sent and not answered yet, keyed by their messageID
+    private final ConcurrentHashMap<ByteString, PendingRequest> inFlight = new ConcurrentHashMap<>();
+
+    // Address the last response to request() came from, which differs from the address asked when a node forwarded the request
+    private SocketAddress lastResponder = null;
+
     public UDPClient() {
         try {
             this.socket = new DatagramSocket();
-            socket.setSoTimeout(DEFAULT_TIMEOUT);
         } catch (IOException e) {
             System.err.println("Couldn't open socket!");
             e.printStackTrace();
+            return;
         }
+
+        Thread receiver = new Thread(this::receive, "UDPClient Receiver");
+        receiver.setDaemon(true);
+        receiver.start();
     }
 
     public Message.Msg request(InetAddress address, int port, byte[] buf) {
@@ -34,115 +49,195 @@ public class UDPClient {
     }
 
     /**
-     * The main interface of this client. Sends a request message to the specified
-     * address and port with a request payload, and receives the response.
+     * Sends a request message to the specified address and port with a request payload,
+     * and waits for the response.
      *
      * @param address the address of the server
      * @param port    the server port
      * @param payload a buffer containing the request payload.
      * @param timeout the retry timeout
-     * @return UDPResponse containing the response packet data and packet size
+     * @return the response message, or null if none arrived after all retries
      */
     public Message.Msg request(InetAddress address, int port, byte[] payload, int timeout) {
-        byte[] uuid = null;
+        PendingRequest pending = send(address, port, payload, timeout);
+        Message.Msg response = pending.response.join();
+        if (response != null) {
+            lastResponder = pending.responder;
+        }
+        return response;
+    }
 
-        int current_timeout = timeout;
+    public CompletableFuture<Message.Msg> requestAsync(InetAddress address, int port, byte[] payload) {
+        return requestAsync(address, port, payload, DEFAULT_TIMEOUT);
+    }
 
-        for (int i = 0; i <= MAX_RETRIES; i++) {
-            try {
-                // Build request payload
-                if (uuid == null) {
-                    uuid = generateUUID(address, port);
-                }
+    /**
+     * The main interface of this client. Sends a request message to the specified address and port with a
+     * request payload without waiting for the response. The request is sent again with a doubled timeout
+     * each time it times out, up to MAX_RETRIES times.
+     *
+     * @param address the address of the server
+     * @param port    the server port
+     * @param payload a buffer containing the request payload.
+     * @param timeout the first retry timeout
+     * @return a future completed with the response message, or with null if none arrived after all retries
+     */
+    public CompletableFuture<Message.Msg> requestAsync(InetAddress address, int port, byte[] payload, int timeout) {
+        return send(address, port, payload, timeout).response;
+    }
 
-                try {
-                    socket.setSoTimeout(current_timeout);
-                } catch (SocketException e) {
-                    e.printStackTrace();
-                }
+    private PendingRequest send(InetAddress address, int port, byte[] payload, int timeout) {
+        ByteString payloadBytes = ByteString.copyFrom(payload);
 
-                byte[] checksumByteArray = concatenateByteArrays(uuid, payload);
-                long checksum = computeChecksum(checksumByteArray);
+        PendingRequest pending;
+        do {
+            pending = new PendingRequest(generateUUID(address, port), timeout);
+        } while (inFlight.putIfAbsent(pending.messageID, pending) != null);
 
-                byte[] messageBuffer = Message.Msg.newBuilder().setMessageID(ByteString.copyFrom(uuid))
-                        .setPayload(ByteString.copyFrom(payload))
-                        .setCheckSum(checksum)
-                        .build()
-                        .toByteArray();
+        if (socket == null) {
+            inFlight.remove(pending.messageID);
+            pending.response.complete(null);
+            return pending;
+        }
 
-                // If the buffer is larger than 16 KB, then truncate
-                int messageBufferSize = Math.min(MAX_PACKET_SIZE, messageBuffer.length);
-                DatagramPacket packet = new DatagramPacket(messageBuffer, messageBufferSize, address, port);
-                socket.send(packet);
+        // the message is encoded once and the same bytes are sent on every retry
+        byte[] messageBuffer = Message.Msg.newBuilder().setMessageID(pending.messageID)
+                .setPayload(payloadBytes)
+                .setCheckSum(Server.buildChecksum(pending.messageID, payloadBytes))
+                .build()
+                .toByteArray();
+
+        // If the buffer is larger than 16 KB, then truncate
+        int messageBufferSize = Math.min(MAX_PACKET_SIZE, messageBuffer.length);
+        pending.packet = new DatagramPacket(messageBuffer, messageBufferSize, address, port);
+        transmit(pending);
+        return pending;
+    }
 
-                byte[] rcvBuf = new byte[MAX_PACKET_SIZE];
-                packet = new DatagramPacket(rcvBuf, rcvBuf.length);
-                socket.receive(packet);
+    private void transmit(PendingRequest pending) {
+        try {
+            socket.send(pending.packet);
+        } catch (IOException e) {
+            e.printStackTrace();
+            if (inFlight.remove(pending.messageID, pending)) {
+                pending.response.complete(null);
+            }
+            return;
+        }
+        pending.timer = TimerWheel.SHARED.schedule(() -> retransmit(pending), pending.timeout);
+    }
 
-                // Trim packet and parse into Message object
-                byte[] trimmedResponse = new byte[packet.getLength()];
-                System.arraycopy(rcvBuf, 0, trimmedResponse, 0, packet.getLength());
-                Message.Msg rcvMessage = Message.Msg.parseFrom(trimmedResponse);
-                byte[] receivedUUID = rcvMessage.getMessageID().toByteArray();
-
-                if (!validateChecksum(rcvMessage)) {
-//                    System.out.println("Received packet with corrupted data. Retrying " + (i + 1) + " of " + MAX_RETRIES);
-                } else if (!Arrays.equals(receivedUUID, uuid)) {
-//                    System.out.println("Received corrupted packet. Retrying " + (i + 1) + " of " + MAX_RETRIES);
-                } else {
-                    return rcvMessage;
-                }
-            } catch (SocketTimeoutException e) {
-                if (i < MAX_RETRIES) {
-//                    System.out.println("Socket timed out. Retrying " + (i + 1) + " of " + MAX_RETRIES);
-                    current_timeout *= 2;
-                }
-            } catch (IOException e) {
-                e.printStackTrace();
-                return null;
+    private void retransmit(PendingRequest pending) {
+        if (pending.response.isDone()) {
+            return;
+        }
+
+        if (pending.retries == MAX_RETRIES) {
+//            System.err.println("Could not receive a response after " + MAX_RETRIES + " retries");
+            if (inFlight.remove(pending.messageID, pending)) {
+                pending.response.complete(null);
             }
+            return;
         }
 
-//        System.err.println("Could not receive a response after " + MAX_RETRIES + " retries");
-        return null;
+//        System.out.println("Socket timed out. Retrying " + (pending.retries + 1) + " of " + MAX_RETRIES);
+        pending.retries++;
+        pending.timeout *= 2;
+        transmit(pending);
     }
 
-    private byte[] generateUUID(InetAddress address, int port) throws IOException {
-        byte[] addressBytes = address.getAddress();
-        byte[] portBytes = new byte[4];
-        ByteOrder.int2leb(port, portBytes, 0);
+    /**
+     * This function receives responses into one reused buffer and completes the requests they answer
+     */
+    private void receive() {
+        byte[] rcvBuf = new byte[MAX_PACKET_SIZE];
+        DatagramPacket packet = new DatagramPacket(rcvBuf, rcvBuf.length);
 
-        Random random = new Random();
-        byte[] randomBytes = new byte[2];
-        random.nextBytes(randomBytes);
+        while (!socket.isClosed()) {
+            Message.Msg rcvMessage;
+            try {
+                packet.setLength(rcvBuf.length);
+                socket.receive(packet);
+                rcvMessage = Message.Msg.parseFrom(ByteBuffer.wrap(rcvBuf, 0, packet.getLength()));
+            } catch (InvalidProtocolBufferException e) {
+                continue;
+            } catch (IOException e) {
+                if (!socket.isClosed()) {
+                    e.printStackTrace();
+                }
+                continue;
+            }
 
-        byte[] systemTimeBytes = ByteBuffer.wrap(new byte[8]).putLong(System.nanoTime()).array();
+            if (!validateChecksum(rcvMessage)) {
+//                System.out.println("Received packet with corrupted data.");
+                continue;
+            }
 
-        return concatenateByteArrays(addressBytes, portBytes, randomBytes, systemTimeBytes);
+            // a response to a request that was already answered or given up on has no entry
+            PendingRequest pending = inFlight.remove(rcvMessage.getMessageID());
+            if (pending == null) {
+                continue;
+            }
+            if (pending.timer != null) {
+                pending.timer.cancel();
+            }
+            pending.responder = packet.getSocketAddress();
+            pending.response.complete(rcvMessage);
+        }
     }
 
-    private long computeChecksum(byte[] buffer) {
-        CRC32 crc32 = new CRC32();
-        crc32.update(buffer);
-        return crc32.getValue();
+    /**
+     * @return The address of the node that sent the last response to request(), or null if none was received yet
+     */
+    public SocketAddress getLastResponder() {
+        return lastResponder;
     }
 
-    private boolean validateChecksum(Message.Msg message) throws IOException {
-        byte[] receivedUUID = message.getMessageID().toByteArray();
-        byte[] payloadByteArray = message.getPayload().toByteArray();
-        byte[] expectedChecksumByteArray = concatenateByteArrays(receivedUUID, payloadByteArray);
-        long expectedChecksum = computeChecksum(expectedChecksumByteArray);
-        long receivedChecksum = message.getCheckSum();
+    /**
+     * This function closes the client's socket, requests still in flight complete with null
+     */
+    @Override
+    public void close() {
+        if (socket != null) {
+            socket.close();
+        }
+        inFlight.forEach((messageID, pending) -> {
+            if (inFlight.remove(messageID, pending)) {
+                pending.response.complete(null);
+            }
+        });
+    }
 
-        return expectedChecksum == receivedChecksum;
+    private ByteString generateUUID(InetAddress address, int port) {
+        byte[] addressBytes = address.getAddress();
+        byte[] portBytes = new byte[4];
+        ByteOrder.int2leb(port, portBytes, 0);
+
+        ByteBuffer uuid = ByteBuffer.allocate(addressBytes.length + portBytes.length + 2 + 8);
+        uuid.put(addressBytes);
+        uuid.put(portBytes);
+        uuid.putShort((short) ThreadLocalRandom.current().nextInt());
+        uuid.putLong(System.nanoTime());
+
+        return ByteString.copyFrom(uuid.array());
     }
 
-    private byte[] concatenateByteArrays(byte[]... byteArrays) throws IOException {
-        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-        for (byte[] byteArray: byteArrays) {
-            outputStream.write(byteArray);
-        }
+    private boolean validateChecksum(Message.Msg message) {
+        return Server.buildChecksum(message.getMessageID(), message.getPayload()) == message.getCheckSum();
+    }
 
-        return outputStream.toByteArray();
+    private static class PendingRequest {
+        private final ByteString messageID;
+        private final CompletableFuture<Message.Msg> response = new CompletableFuture<>();
+        private DatagramPacket packet;
+        private int timeout;
+        private int retries = 0;
+        private volatile TimerWheel.Timeout timer;
+        private volatile SocketAddress responder;
+
+        private PendingRequest(ByteString messageID, int timeout) {
+            this.messageID = messageID;
+            this.timeout = timeout;
+        }
     }
 }
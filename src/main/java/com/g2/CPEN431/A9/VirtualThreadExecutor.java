@@ -0,0 +1,71 @@
+package com.g2.CPEN431.A9;
+
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs every request on its own virtual thread, so requests blocked on the network (forwarding, replication)
+ * don't hold on to a platform thread. At most maxInFlight requests run at once, execute() blocks the receiver
+ * until one finishes which throttles intake the same way the worker pool's CallerRunsPolicy does. Shutting it down
+ * shuts down the virtual threads' executor.
+ */
+public class VirtualThreadExecutor extends AbstractExecutorService {
+
+    private final Semaphore inFlight;
+    private final ExecutorService virtualThreads;
+
+    /**
+     * @param maxInFlight: Most requests running at the same time
+     */
+    public VirtualThreadExecutor(int maxInFlight) {
+        this.inFlight = new Semaphore(maxInFlight);
+        this.virtualThreads = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("Worker-", 0).factory());
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        inFlight.acquireUninterruptibly();
+        try {
+            virtualThreads.execute(() -> {
+                try {
+                    task.run();
+                } finally {
+                    inFlight.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            inFlight.release();
+            throw e;
+        }
+    }
+
+    @Override
+    public void shutdown() {
+        virtualThreads.shutdown();
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+        return virtualThreads.shutdownNow();
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return virtualThreads.isShutdown();
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return virtualThreads.isTerminated();
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return virtualThreads.awaitTermination(timeout, unit);
+    }
+}
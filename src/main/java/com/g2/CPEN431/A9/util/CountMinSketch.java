@@ -0,0 +1,65 @@
+package com.g2.CPEN431.A9.util;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Count-Min sketch estimating how often items were seen in a fixed amount of memory. Every item increments one
+ * counter in each row, and its estimate is the smallest of those counters, which never undercounts and overcounts only
+ * by collisions with other items. Counters are halved once per decay period, so estimates follow recent popularity
+ * rather than all time counts. Safe for concurrent use, increments racing with a decay may be halved or not.
+ */
+public class CountMinSketch {
+
+    private final int depth;
+    private final int widthMask;
+    private final AtomicIntegerArray counters;
+    private final long decayNanos;
+    private final AtomicLong lastDecay = new AtomicLong(System.nanoTime());
+
+    /**
+     * @param depth: Number of rows, each one a differently hashed set of counters
+     * @param width: Number of counters in a row, rounded up to a power of two
+     * @param decayMillis: Period after which every counter is halved
+     */
+    public CountMinSketch(int depth, int width, long decayMillis) {
+        int size = Integer.highestOneBit(Math.max(1, width - 1)) << 1;
+        this.depth = depth;
+        this.widthMask = size - 1;
+        this.counters = new AtomicIntegerArray(depth * size);
+        this.decayNanos = decayMillis * 1_000_000;
+    }
+
+    /**
+     * This function counts an occurrence of an item
+     * @param hash: 64-bit hash of the item
+     * @return The estimated number of occurrences of the item, including this one
+     */
+    public int add(long hash) {
+        decayIfDue();
+
+        int estimate = Integer.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            estimate = Math.min(estimate, counters.incrementAndGet(index(hash, row)));
+        }
+        return estimate;
+    }
+
+    private int index(long hash, int row) {
+        // each row mixes the hash with its own constant, so items colliding in one row rarely collide in another
+        long rowHash = MurmurHash3.fmix64(hash + 0x9e3779b97f4a7c15L * (row + 1));
+        return row * (widthMask + 1) + (int) (rowHash & widthMask);
+    }
+
+    private void decayIfDue() {
+        long last = lastDecay.get();
+        long now = System.nanoTime();
+        // only the caller that moves the decay time forward halves the counters
+        if (now - last < decayNanos || !lastDecay.compareAndSet(last, now)) {
+            return;
+        }
+        for (int i = 0; i < counters.length(); i++) {
+            counters.set(i, counters.get(i) >> 1);
+        }
+    }
+}
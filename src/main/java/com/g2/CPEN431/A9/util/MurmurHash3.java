@@ -0,0 +1,110 @@
+package com.g2.CPEN431.A9.util;
+
+import com.google.protobuf.ByteString;
+
+/**
+ * 64-bit MurmurHash3, the first half of the x64 128-bit variant. Matches the first 8 bytes of
+ * Guava's Hashing.murmur3_128() read as a little endian long, but reads a ByteString in place.
+ */
+public class MurmurHash3 {
+    private static final long C1 = 0x87c37b91114253d5L;
+    private static final long C2 = 0x4cf5ad432745937fL;
+
+    /**
+     * Returns the 64-bit hash of all the bytes of x.
+     */
+    public static long hash64(ByteString x) {
+        return hash64(x, 0, x.size(), 0);
+    }
+
+    /**
+     * Returns the 64-bit hash of x[offset..offset+length] with the given seed.
+     *
+     * @requires x.size()-offset>=length
+     */
+    public static long hash64(ByteString x, int offset, int length, long seed) {
+        long h1 = seed;
+        long h2 = seed;
+        int end = offset + length;
+        int blockEnd = offset + (length & ~15);
+
+        // body, 16 bytes at a time
+        for (int i = offset; i < blockEnd; i += 16) {
+            long k1 = getLongLE(x, i);
+            long k2 = getLongLE(x, i + 8);
+
+            h1 ^= mixK1(k1);
+            h1 = Long.rotateLeft(h1, 27);
+            h1 += h2;
+            h1 = h1 * 5 + 0x52dce729;
+
+            h2 ^= mixK2(k2);
+            h2 = Long.rotateLeft(h2, 31);
+            h2 += h1;
+            h2 = h2 * 5 + 0x38495ab5;
+        }
+
+        // tail, the last 0 to 15 bytes
+        long k1 = 0;
+        long k2 = 0;
+        int tail = end - blockEnd;
+        for (int i = tail - 1; i >= 8; i--) {
+            k2 ^= (x.byteAt(blockEnd + i) & 0xffL) << ((i - 8) * 8);
+        }
+        for (int i = Math.min(tail, 8) - 1; i >= 0; i--) {
+            k1 ^= (x.byteAt(blockEnd + i) & 0xffL) << (i * 8);
+        }
+        if (tail > 8) {
+            h2 ^= mixK2(k2);
+        }
+        if (tail > 0) {
+            h1 ^= mixK1(k1);
+        }
+
+        // finalization
+        h1 ^= length;
+        h2 ^= length;
+        h1 += h2;
+        h2 += h1;
+        h1 = fmix64(h1);
+        h2 = fmix64(h2);
+        h1 += h2;
+        return h1;
+    }
+
+    private static long getLongLE(ByteString x, int offset) {
+        long result = 0;
+        for (int i = 7; i >= 0; i--) {
+            result = (result << 8) | (x.byteAt(offset + i) & 0xffL);
+        }
+        return result;
+    }
+
+    private static long mixK1(long k1) {
+        k1 *= C1;
+        k1 = Long.rotateLeft(k1, 31);
+        k1 *= C2;
+        return k1;
+    }
+
+    private static long mixK2(long k2) {
+        k2 *= C2;
+        k2 = Long.rotateLeft(k2, 33);
+        k2 *= C1;
+        return k2;
+    }
+
+    /**
+     * This function scrambles the bits of a 64-bit value, it is the finalizer of MurmurHash3
+     * @param k: The value to scramble
+     * @return The scrambled value
+     */
+    public static long fmix64(long k) {
+        k ^= k >>> 33;
+        k *= 0xff51afd7ed558ccdL;
+        k ^= k >>> 33;
+        k *= 0xc4ceb9fe1a85ec53L;
+        k ^= k >>> 33;
+        return k;
+    }
+}
@@ -0,0 +1,117 @@
+package com.g2.CPEN431.A9.util;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Hashed timer wheel for large numbers of short timeouts, such as request retransmissions. Scheduling and cancelling
+ * are O(1) and all timeouts share one thread, which wakes up once per tick rather than once per timeout. Timeouts fire
+ * up to one tick late, and their tasks run on the wheel's thread so they have to be short.
+ */
+public class TimerWheel {
+
+    // Wheel shared by every client in the process, 10ms ticks are fine enough for retransmission timeouts
+    public static final TimerWheel SHARED = new TimerWheel("Timer Wheel", 10, 512);
+
+    private final long tickNanos;
+    private final List<List<Timeout>> slots;
+    private final int mask;
+    // timeouts scheduled since the last tick, only the wheel's thread touches the slots
+    private final ConcurrentLinkedQueue<Timeout> scheduled = new ConcurrentLinkedQueue<>();
+    private final long start = System.nanoTime();
+    private long tick = 0;
+
+    /**
+     * @param name: Name of the wheel's thread
+     * @param tickMillis: Duration of a tick in milliseconds
+     * @param slotCount: Number of slots on the wheel, rounded up to a power of two
+     */
+    public TimerWheel(String name, long tickMillis, int slotCount) {
+        int size = Integer.highestOneBit(Math.max(1, slotCount - 1)) << 1;
+        this.tickNanos = tickMillis * 1_000_000;
+        this.slots = new ArrayList<>(size);
+        this.mask = size - 1;
+        for (int i = 0; i < size; i++) {
+            slots.add(new ArrayList<>());
+        }
+
+        Thread worker = new Thread(this::run, name);
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    /**
+     * This function schedules a task to run once a delay has passed
+     * @param task: The task to run on the wheel's thread
+     * @param delayMillis: The delay in milliseconds
+     * @return A handle to cancel the timeout with
+     */
+    public Timeout schedule(Runnable task, long delayMillis) {
+        // rounded up to the next tick, so a timeout never fires before its delay passed
+        long deadline = System.nanoTime() - start + delayMillis * 1_000_000;
+        Timeout timeout = new Timeout(task, Math.max(0, (deadline + tickNanos - 1) / tickNanos));
+        scheduled.add(timeout);
+        return timeout;
+    }
+
+    private void run() {
+        while (true) {
+            long nextTick = (tick + 1) * tickNanos;
+            long sleep = nextTick - (System.nanoTime() - start);
+            if (sleep > 0) {
+                try {
+                    Thread.sleep(sleep / 1_000_000, (int) (sleep % 1_000_000));
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+            tick++;
+
+            Timeout timeout;
+            while ((timeout = scheduled.poll()) != null) {
+                // timeouts already due go in the slot about to be expired
+                long deadlineTick = Math.max(timeout.deadlineTick, tick);
+                timeout.rounds = (deadlineTick - tick) / slots.size();
+                slots.get((int) (deadlineTick & mask)).add(timeout);
+            }
+
+            Iterator<Timeout> iterator = slots.get((int) (tick & mask)).iterator();
+            while (iterator.hasNext()) {
+                timeout = iterator.next();
+                if (timeout.cancelled) {
+                    iterator.remove();
+                } else if (timeout.rounds > 0) {
+                    timeout.rounds--;
+                } else {
+                    iterator.remove();
+                    try {
+                        timeout.task.run();
+                    } catch (RuntimeException e) {
+                        e.printStackTrace();
+                    }
+                }
+            }
+        }
+    }
+
+    public static final class Timeout {
+        private final Runnable task;
+        private final long deadlineTick;
+        private long rounds;
+        private volatile boolean cancelled = false;
+
+        private Timeout(Runnable task, long deadlineTick) {
+            this.task = task;
+            this.deadlineTick = deadlineTick;
+        }
+
+        /**
+         * This function stops the timeout's task from running, if it has not run yet
+         */
+        public void cancel() {
+            cancelled = true;
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.g2.CPEN431.A9;
+
+import ca.NetSysLab.ProtocolBuffers.KeyValueRequest;
+import ca.NetSysLab.ProtocolBuffers.KeyValueResponse;
+import ca.NetSysLab.ProtocolBuffers.Message;
+
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * A node on the loopback interface that records the requests it gets and answers them the way a test tells it to
+ */
+class FakeNode implements AutoCloseable {
+
+    private final DatagramSocket socket;
+    private final AddressPair address;
+    private final List<KeyValueRequest.KVRequest> received = new CopyOnWriteArrayList<>();
+
+    /**
+     * @param answer: The response to a request, or null to leave it unanswered
+     */
+    FakeNode(Function<KeyValueRequest.KVRequest, KeyValueResponse.KVResponse> answer) throws IOException {
+        socket = new DatagramSocket(0, InetAddress.getLoopbackAddress());
+        address = new AddressPair("127.0.0.1", socket.getLocalPort());
+
+        Thread node = new Thread(() -> {
+            try {
+                while (!socket.isClosed()) {
+                    DatagramPacket packet = new DatagramPacket(new byte[16384], 16384);
+                    socket.receive(packet);
+                    Message.Msg request = Message.Msg.parseFrom(ByteBuffer.wrap(packet.getData(), 0, packet.getLength()));
+                    KeyValueRequest.KVRequest kvRequest = KeyValueRequest.KVRequest.parseFrom(request.getPayload());
+                    received.add(kvRequest);
+
+                    KeyValueResponse.KVResponse kvResponse = answer.apply(kvRequest);
+                    if (kvResponse == null) {
+                        continue;
+                    }
+                    byte[] response = Message.Msg.newBuilder()
+                            .setMessageID(request.getMessageID())
+                            .setPayload(kvResponse.toByteString())
+                            .setCheckSum(Server.buildChecksum(request.getMessageID(), kvResponse.toByteString()))
+                            .build()
+                            .toByteArray();
+                    socket.send(new DatagramPacket(response, response.length, packet.getSocketAddress()));
+                }
+            } catch (IOException e) {
+                // the socket was closed by the test
+            }
+        });
+        node.setDaemon(true);
+        node.start();
+    }
+
+    /**
+     * This function builds a response with only an error code
+     */
+    static KeyValueResponse.KVResponse status(int errCode) {
+        return KeyValueResponse.KVResponse.newBuilder().setErrCode(errCode).build();
+    }
+
+    AddressPair getAddress() {
+        return address;
+    }
+
+    /**
+     * @return The requests the node got so far, including retransmissions
+     */
+    List<KeyValueRequest.KVRequest> getReceived() {
+        return received;
+    }
+
+    /**
+     * This function waits for the node to get a request
+     * @param matches: What the request looks like
+     * @return true if such a request arrived within a few seconds
+     */
+    boolean awaitRequest(Predicate<KeyValueRequest.KVRequest> matches) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (System.currentTimeMillis() < deadline) {
+            if (received.stream().anyMatch(matches)) {
+                return true;
+            }
+            Thread.sleep(10);
+        }
+        return false;
+    }
+
+    @Override
+    public void close() {
+        socket.close();
+    }
+}
@@ -0,0 +1,158 @@
+package com.g2.CPEN431.A9;
+
+import ca.NetSysLab.ProtocolBuffers.KeyValueRequest;
+import com.google.protobuf.ByteString;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs with kv.replication=quorum, see the surefire configuration: 3 replicas
+ */
+class HintedHandoffTest {
+
+    private static final AddressPair SELF = new AddressPair("127.0.0.1", 4999);
+
+    private Memory memory;
+    private ConsistentHash consistentHash;
+    private HintedHandoff hintedHandoff;
+    private FakeNode replica;
+    // the replica answers only while this is set, so it can be down and come back
+    private final AtomicBoolean replicaUp = new AtomicBoolean(true);
+
+    @BeforeEach
+    void setUp() throws IOException {
+        memory = new Memory();
+        consistentHash = new ConsistentHash(SELF.getIp(), SELF.getPort(), memory, null);
+        hintedHandoff = consistentHash.getHintedHandoff();
+        replica = new FakeNode(request -> replicaUp.get() ? FakeNode.status(0) : null);
+
+        consistentHash.addNode(SELF);
+        consistentHash.addNode(replica.getAddress());
+        consistentHash.addNode(new AddressPair("127.0.0.1", 4997));
+        consistentHash.addNode(new AddressPair("127.0.0.1", 4998));
+    }
+
+    @AfterEach
+    void tearDown() {
+        replica.close();
+    }
+
+    /**
+     * This function finds a key this node is a replica of or not
+     */
+    private ByteString key(boolean replicatedHere) {
+        for (int i = 0; ; i++) {
+            ByteString key = ByteString.copyFromUtf8("key" + i);
+            boolean isReplica = Arrays.asList(consistentHash.getReplicas(key, Server.REPLICATION_FACTOR)).contains(SELF);
+            if (isReplica == replicatedHere) {
+                return key;
+            }
+        }
+    }
+
+    private static boolean bulkPutOf(KeyValueRequest.KVRequest request, ByteString key) {
+        return request.getCommand() == Server.BULK_PUT
+                && request.getRecordsList().stream().anyMatch(record -> record.getKey().equals(key));
+    }
+
+    /**
+     * This function hands the hints back, again if a hand back is still finishing, until the replica got the key
+     */
+    private void handBackUntilSent(ByteString key) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (replica.getReceived().stream().noneMatch(request -> request.getKey().equals(key) || bulkPutOf(request, key))
+                && System.currentTimeMillis() < deadline) {
+            hintedHandoff.handBack(replica.getAddress());
+            Thread.sleep(20);
+        }
+    }
+
+    private void awaitRemoved(ByteString key) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 2000;
+        while (memory.get(key) != null && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+
+    @Test
+    void storedKeysAreSentAndRemovedOnesRemoved() throws InterruptedException {
+        ByteString stored = key(true);
+        ByteString removed = ByteString.copyFromUtf8("removed");
+        memory.putCopy(stored, ByteString.copyFromUtf8("value"), 3, 1234);
+        hintedHandoff.hint(replica.getAddress(), stored);
+        hintedHandoff.hint(replica.getAddress(), removed);
+
+        hintedHandoff.handBack(replica.getAddress());
+
+        assertTrue(replica.awaitRequest(request -> bulkPutOf(request, stored)));
+        KeyValueRequest.KVRequest.Record record = replica.getReceived().stream()
+                .filter(request -> bulkPutOf(request, stored))
+                .findFirst().orElseThrow()
+                .getRecords(0);
+        assertEquals("value", record.getValue().toStringUtf8());
+        assertEquals(3, record.getVersion());
+        assertEquals(1234, record.getStamp());
+        assertTrue(replica.awaitRequest(request -> request.getCommand() == Server.REMOVE
+                && request.getKey().equals(removed) && request.getReplica()));
+        // this node still replicates the key
+        assertNotNull(memory.get(stored));
+    }
+
+    @Test
+    void copiesOnlyHeldForTheReplicaAreDropped() throws InterruptedException {
+        ByteString notReplicated = key(false);
+        memory.putCopy(notReplicated, ByteString.copyFromUtf8("value"), 1, 1234);
+        hintedHandoff.hint(replica.getAddress(), notReplicated);
+
+        hintedHandoff.handBack(replica.getAddress());
+
+        assertTrue(replica.awaitRequest(request -> bulkPutOf(request, notReplicated)));
+        awaitRemoved(notReplicated);
+        assertNull(memory.get(notReplicated));
+    }
+
+    @Test
+    void hintsAreKeptUntilTheReplicaIsBack() throws InterruptedException {
+        ByteString key = key(false);
+        memory.putCopy(key, ByteString.copyFromUtf8("value"), 1, 1234);
+        hintedHandoff.hint(replica.getAddress(), key);
+
+        // the replica doesn't acknowledge the hand back or any of its retries, the key stays hinted and stored
+        replicaUp.set(false);
+        hintedHandoff.handBack(replica.getAddress());
+        long deadline = System.currentTimeMillis() + 5000;
+        while (replica.getReceived().stream().filter(request -> bulkPutOf(request, key)).count() < 4
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        // the last retry times out too
+        Thread.sleep(1000);
+        assertNotNull(memory.get(key));
+
+        // it is heard from again
+        replicaUp.set(true);
+        int sentWhileDown = replica.getReceived().size();
+        deadline = System.currentTimeMillis() + 5000;
+        while (memory.get(key) != null && System.currentTimeMillis() < deadline) {
+            hintedHandoff.handBack(replica.getAddress());
+            Thread.sleep(50);
+        }
+        assertNull(memory.get(key));
+        assertTrue(replica.getReceived().size() > sentWhileDown);
+
+        // and the hint is gone, a later hand back sends only what was hinted since
+        ByteString later = key(true);
+        memory.putCopy(later, ByteString.copyFromUtf8("later"), 1, 1235);
+        hintedHandoff.hint(replica.getAddress(), later);
+        handBackUntilSent(later);
+        assertTrue(replica.awaitRequest(request -> bulkPutOf(request, later)));
+        assertTrue(replica.getReceived().stream().noneMatch(request -> bulkPutOf(request, later) && bulkPutOf(request, key)));
+    }
+}
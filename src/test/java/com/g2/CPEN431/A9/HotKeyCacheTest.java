@@ -0,0 +1,110 @@
+package com.g2.CPEN431.A9;
+
+import ca.NetSysLab.ProtocolBuffers.KeyValueRequest;
+import ca.NetSysLab.ProtocolBuffers.KeyValueResponse;
+import com.google.protobuf.ByteString;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HotKeyCacheTest {
+
+    private static final ByteString KEY = ByteString.copyFromUtf8("hot");
+    private static final ByteString VALUE = ByteString.copyFromUtf8("value");
+
+    private FakeNode peer;
+    private HotKeyCache hotKeyCache;
+
+    @BeforeEach
+    void setUp() {
+        ConsistentHash consistentHash = new ConsistentHash("127.0.0.1", 4999, new Memory(), null);
+        hotKeyCache = new HotKeyCache(consistentHash);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (peer != null) {
+            peer.close();
+        }
+    }
+
+    private AddressPair startPeer(Function<KeyValueRequest.KVRequest, KeyValueResponse.KVResponse> answer) throws IOException {
+        peer = new FakeNode(answer);
+        return peer.getAddress();
+    }
+
+    private static KeyValueResponse.KVResponse stored(long stamp) {
+        return KeyValueResponse.KVResponse.newBuilder().setErrCode(0).setValue(VALUE).setVersion(3).setStamp(stamp).build();
+    }
+
+    @Test
+    void keyWithoutLeasesIsRevokedAtOnce() {
+        assertTrue(hotKeyCache.revokeLeases(KEY, 1, 100).isDone());
+    }
+
+    @Test
+    void leaseHolderIsSentTheWrite() throws Exception {
+        hotKeyCache.grantLease(KEY, startPeer(request -> FakeNode.status(0)));
+
+        CompletableFuture<Void> revoked = hotKeyCache.revokeLeases(KEY, 7, 1234);
+        revoked.get(2, TimeUnit.SECONDS);
+
+        KeyValueRequest.KVRequest invalidation = peer.getReceived().get(0);
+        assertEquals(1, peer.getReceived().size());
+        assertEquals(Server.INVALIDATE, invalidation.getCommand());
+        assertEquals(KEY, invalidation.getKey());
+        assertEquals(7, invalidation.getVersion());
+        assertEquals(1234, invalidation.getStamp());
+        // the lease is gone with the revocation
+        assertTrue(hotKeyCache.revokeLeases(KEY, 8, 1235).isDone());
+    }
+
+    @Test
+    void silentLeaseHolderIsWaitedOut() throws Exception {
+        AddressPair holder = startPeer(request -> null);
+        long start = System.nanoTime();
+        hotKeyCache.grantLease(KEY, holder);
+
+        CompletableFuture<Void> revoked = hotKeyCache.revokeLeases(KEY, 7, 1234);
+        assertFalse(revoked.isDone());
+        revoked.get(2, TimeUnit.SECONDS);
+
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= HotKeyCache.TTL / 2);
+    }
+
+    @Test
+    void readThroughIsCachedUntilANewerWriteInvalidatesIt() throws Exception {
+        KeyValueResponse.KVResponse response = hotKeyCache.readThrough(KEY, startPeer(request -> stored(100)))
+                .get(2, TimeUnit.SECONDS);
+
+        assertEquals(VALUE, response.getValue());
+        assertEquals("127.0.0.1:4999", peer.getReceived().get(0).getCacheFor());
+        assertEquals(VALUE, hotKeyCache.get(KEY).getFirst());
+
+        // a write older than the cached copy leaves it
+        hotKeyCache.invalidate(KEY, 3, 50);
+        assertEquals(VALUE, hotKeyCache.get(KEY).getFirst());
+
+        hotKeyCache.invalidate(KEY, 3, 200);
+        assertNull(hotKeyCache.get(KEY));
+    }
+
+    @Test
+    void readThroughOlderThanAnInvalidationIsNotCached() throws Exception {
+        AddressPair owner = startPeer(request -> stored(100));
+        hotKeyCache.invalidate(KEY, 3, 200);
+
+        KeyValueResponse.KVResponse response = hotKeyCache.readThrough(KEY, owner).get(2, TimeUnit.SECONDS);
+
+        // the client still gets the value, which was current when the owner read it
+        assertEquals(VALUE, response.getValue());
+        assertNull(hotKeyCache.get(KEY));
+    }
+}
@@ -0,0 +1,205 @@
+package com.g2.CPEN431.A9;
+
+import com.google.protobuf.ByteString;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MemoryTest {
+
+    private static final int KEYS = 500;
+
+    private Memory memory;
+    private List<ByteString> keys;
+
+    @BeforeEach
+    void setUp() {
+        memory = new Memory();
+        keys = new ArrayList<>();
+        for (int i = 0; i < KEYS; i++) {
+            ByteString key = ByteString.copyFromUtf8("key" + i);
+            keys.add(key);
+            assertEquals(0, memory.put(key, ByteString.copyFromUtf8("value" + i), 1, i));
+        }
+    }
+
+    /**
+     * This function lists the stored keys in a range the slow way
+     */
+    private Set<ByteString> expectedInRange(long from, long to) {
+        Set<ByteString> expected = new HashSet<>();
+        for (ByteString key : keys) {
+            long hash = ConsistentHash.hashKey(key);
+            boolean inRange = from < to ? hash >= from && hash < to : hash >= from || hash < to;
+            if (inRange) {
+                expected.add(key);
+            }
+        }
+        return expected;
+    }
+
+    @Test
+    void keysInRangeWithoutWrapping() {
+        long from = -0x2000_0000_0000_0000L;
+        long to = 0x2000_0000_0000_0000L;
+
+        assertEquals(expectedInRange(from, to), memory.getKeysInRange(from, to).collect(Collectors.toSet()));
+    }
+
+    @Test
+    void keysInRangeAcrossTheWrapPoint() {
+        long from = 0x6000_0000_0000_0000L;
+        long to = -0x6000_0000_0000_0000L;
+
+        Set<ByteString> inRange = memory.getKeysInRange(from, to).collect(Collectors.toSet());
+        assertFalse(inRange.isEmpty());
+        assertEquals(expectedInRange(from, to), inRange);
+    }
+
+    @Test
+    void rangeFromAPositionToItselfIsTheWholeRing() {
+        assertEquals(KEYS, memory.getKeysInRange(42, 42).count());
+    }
+
+    @Test
+    void dropRangeAcrossTheWrapPoint() {
+        long from = 0x6000_0000_0000_0000L;
+        long to = -0x6000_0000_0000_0000L;
+        Set<ByteString> inRange = expectedInRange(from, to);
+
+        Map<ByteString, StoredValue> handedOver = new HashMap<>();
+        memory.getEntriesInRange(from, to).forEach(entry -> handedOver.put(entry.getKey(), entry.getValue()));
+
+        assertTrue(memory.dropRange(from, to, handedOver).isEmpty());
+        for (ByteString key : keys) {
+            assertEquals(!inRange.contains(key), memory.get(key) != null, key.toStringUtf8());
+        }
+        assertEquals(0, memory.getKeysInRange(from, to).count());
+        assertEquals(KEYS - inRange.size(), memory.getKeysInRange(42, 42).count());
+    }
+
+    @Test
+    void dropRangeKeepsKeysWrittenSinceTheyWereHandedOver() {
+        long from = 0x6000_0000_0000_0000L;
+        long to = -0x6000_0000_0000_0000L;
+        Set<ByteString> inRange = expectedInRange(from, to);
+
+        Map<ByteString, StoredValue> handedOver = new HashMap<>();
+        memory.getEntriesInRange(from, to).forEach(entry -> handedOver.put(entry.getKey(), entry.getValue()));
+        // one key was overwritten after it was handed over
+        ByteString written = inRange.iterator().next();
+        memory.put(written, ByteString.copyFromUtf8("newer"), 2, 0);
+
+        assertEquals(List.of(written), memory.dropRange(from, to, handedOver));
+        assertEquals(ByteString.copyFromUtf8("newer"), memory.get(written).getFirst());
+        assertEquals(List.of(written), memory.getKeysInRange(from, to).toList());
+    }
+
+    @Test
+    void clientWriteWithALowerVersionIsApplied() {
+        ByteString key = keys.get(0);
+        memory.put(key, ByteString.copyFromUtf8("lower"), 0, 1000);
+
+        assertEquals(ByteString.copyFromUtf8("lower"), memory.get(key).getFirst());
+        assertEquals(0, memory.get(key).getSecond());
+    }
+
+    @Test
+    void staleCopyIsNotApplied() {
+        ByteString key = keys.get(0);
+        memory.put(key, ByteString.copyFromUtf8("accepted"), 1, 1000);
+
+        assertEquals(0, memory.putCopy(key, ByteString.copyFromUtf8("stale"), 5, 999));
+        assertEquals(ByteString.copyFromUtf8("accepted"), memory.get(key).getFirst());
+        assertEquals(0, memory.putCopy(key, ByteString.copyFromUtf8("later"), 0, 1001));
+        assertEquals(ByteString.copyFromUtf8("later"), memory.get(key).getFirst());
+    }
+
+    @Test
+    void copyWithTheSameStampIsOrderedByVersion() {
+        ByteString key = keys.get(0);
+        memory.putCopy(key, ByteString.copyFromUtf8("first"), 3, 2000);
+
+        assertEquals(0, memory.putCopy(key, ByteString.copyFromUtf8("lower"), 2, 2000));
+        assertEquals(ByteString.copyFromUtf8("first"), memory.get(key).getFirst());
+        assertEquals(0, memory.putCopy(key, ByteString.copyFromUtf8("higher"), 4, 2000));
+        assertEquals(ByteString.copyFromUtf8("higher"), memory.get(key).getFirst());
+        assertEquals(4, memory.get(key).getSecond());
+    }
+
+    @Test
+    void writesStampedInTheSameMillisecondAreOrdered() {
+        AddressPair node = new AddressPair("127.0.0.1", 5000);
+        ByteString key = keys.get(0);
+
+        long previous = StoredValue.newStamp(node);
+        for (int i = 0; i < 1000; i++) {
+            long stamp = StoredValue.newStamp(node);
+            assertTrue(stamp > previous);
+            assertEquals(previous & 0xffff, stamp & 0xffff);
+            previous = stamp;
+        }
+
+        // a second write with a lower version still wins on a replica, it was accepted later
+        long first = StoredValue.newStamp(node);
+        long second = StoredValue.newStamp(node);
+        memory.putCopy(key, ByteString.copyFromUtf8("first"), 5, first);
+        memory.putCopy(key, ByteString.copyFromUtf8("second"), 1, second);
+        assertEquals(ByteString.copyFromUtf8("second"), memory.get(key).getFirst());
+        // and the first write arriving late doesn't undo it
+        memory.putCopy(key, ByteString.copyFromUtf8("first"), 5, first);
+        assertEquals(ByteString.copyFromUtf8("second"), memory.get(key).getFirst());
+    }
+
+    @Test
+    void racingPutsAndRemovesLeaveNoStaleIndexEntries() throws InterruptedException {
+        memory.erase();
+        List<ByteString> contended = keys.subList(0, 8);
+
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            int seed = t;
+            threads[t] = new Thread(() -> {
+                Random random = new Random(seed);
+                for (int i = 0; i < 50000; i++) {
+                    ByteString key = contended.get(random.nextInt(contended.size()));
+                    if (random.nextBoolean()) {
+                        memory.put(key, ByteString.copyFromUtf8("value"), 1, i);
+                    } else {
+                        memory.remove(key);
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        Set<ByteString> stored = contended.stream().filter(key -> memory.get(key) != null).collect(Collectors.toSet());
+        assertEquals(stored, memory.getKeysInRange(42, 42).collect(Collectors.toSet()));
+        stored.forEach(memory::remove);
+        assertEquals(0, memory.usedBytes());
+    }
+
+    @Test
+    void indexIsCountedInUsedBytes() {
+        long used = memory.usedBytes();
+        memory.remove(keys.get(0));
+        assertTrue(memory.usedBytes() < used);
+
+        memory.erase();
+        assertEquals(0, memory.usedBytes());
+        assertEquals(0, memory.getKeysInRange(42, 42).count());
+    }
+}
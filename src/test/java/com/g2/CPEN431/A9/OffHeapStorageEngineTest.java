@@ -0,0 +1,141 @@
+package com.g2.CPEN431.A9;
+
+import com.google.protobuf.ByteString;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OffHeapStorageEngineTest {
+
+    private static final int PAGE_SIZE = 1024 * 1024;
+
+    private static ByteString bytes(String s) {
+        return ByteString.copyFromUtf8(s);
+    }
+
+    private static ByteString filled(int size, char c) {
+        return ByteString.copyFromUtf8(String.valueOf(c).repeat(size));
+    }
+
+    @Test
+    void putThenGet() {
+        OffHeapStorageEngine engine = new OffHeapStorageEngine(PAGE_SIZE, 10000);
+
+        assertTrue(engine.put(bytes("key"), bytes("value"), 3, 42L));
+
+        StoredValue stored = engine.get(bytes("key"));
+        assertEquals(bytes("value"), stored.getFirst());
+        assertEquals(3, stored.getSecond());
+        assertEquals(42L, stored.getStamp());
+        assertEquals(3, engine.getVersion(bytes("key")));
+        assertTrue(engine.contains(bytes("key")));
+        assertNull(engine.get(bytes("other")));
+    }
+
+    @Test
+    void overwriteReplacesValueAndAccountsOnce() {
+        OffHeapStorageEngine engine = new OffHeapStorageEngine(2 * PAGE_SIZE, 10000);
+
+        engine.put(bytes("key"), filled(100, 'a'), 1, 1L);
+        long usedAfterFirst = engine.usedBytes();
+        engine.put(bytes("key"), filled(100, 'b'), 2, 2L);
+
+        assertEquals(filled(100, 'b'), engine.get(bytes("key")).getFirst());
+        assertEquals(usedAfterFirst, engine.usedBytes());
+
+        // a value of another size class moves to a chunk of that class, on a page of its own
+        assertTrue(engine.put(bytes("key"), filled(5000, 'c'), 3, 3L));
+        assertEquals(filled(5000, 'c'), engine.get(bytes("key")).getFirst());
+        assertTrue(engine.usedBytes() > usedAfterFirst);
+    }
+
+    @Test
+    void footprintDeltaMatchesUsedBytes() {
+        OffHeapStorageEngine engine = new OffHeapStorageEngine(2 * PAGE_SIZE, 10000);
+
+        long delta = engine.footprintDelta(bytes("key"), filled(100, 'a'));
+        engine.put(bytes("key"), filled(100, 'a'), 1, 1L);
+        assertEquals(delta, engine.usedBytes());
+
+        // an overwrite in the same size class doesn't grow the store, a larger value grows it by the difference
+        assertEquals(0, engine.footprintDelta(bytes("key"), filled(100, 'b')));
+        long used = engine.usedBytes();
+        delta = engine.footprintDelta(bytes("key"), filled(5000, 'c'));
+        engine.put(bytes("key"), filled(5000, 'c'), 2, 2L);
+        assertEquals(used + delta, engine.usedBytes());
+        assertTrue(engine.footprintDelta(bytes("key"), filled(100, 'd')) < 0);
+    }
+
+    @Test
+    void olderCopyDoesNotReplaceNewer() {
+        OffHeapStorageEngine engine = new OffHeapStorageEngine(PAGE_SIZE, 10000);
+
+        // the later stamp wins, whatever the versions
+        engine.put(bytes("key"), bytes("new"), 1, 20L);
+        assertTrue(engine.putIfNewer(bytes("key"), bytes("old"), 2, 10L));
+
+        assertEquals(bytes("new"), engine.get(bytes("key")).getFirst());
+    }
+
+    @Test
+    void putReplacesWhateverIsStored() {
+        OffHeapStorageEngine engine = new OffHeapStorageEngine(PAGE_SIZE, 10000);
+
+        engine.put(bytes("key"), bytes("first"), 2, 20L);
+        assertTrue(engine.put(bytes("key"), bytes("second"), 1, 10L));
+
+        StoredValue stored = engine.get(bytes("key"));
+        assertEquals(bytes("second"), stored.getFirst());
+        assertEquals(1, stored.getSecond());
+    }
+
+    @Test
+    void removeFreesTheEntry() {
+        OffHeapStorageEngine engine = new OffHeapStorageEngine(PAGE_SIZE, 10000);
+
+        engine.put(bytes("key"), bytes("value"), 0, 0L);
+        assertTrue(engine.remove(bytes("key")));
+
+        assertFalse(engine.contains(bytes("key")));
+        assertNull(engine.get(bytes("key")));
+        assertFalse(engine.remove(bytes("key")));
+        assertEquals(0, engine.usedBytes());
+    }
+
+    @Test
+    void removedChunksAreReused() {
+        // a single page, once it is cut into chunks no other page can be allocated
+        OffHeapStorageEngine engine = new OffHeapStorageEngine(PAGE_SIZE, 10000);
+        ByteString value = filled(1000, 'v');
+
+        int stored = 0;
+        while (engine.put(bytes("key" + stored), value, 0, 0L)) {
+            stored++;
+        }
+        assertTrue(stored > 0);
+        assertFalse(engine.put(bytes("another"), value, 0, 0L));
+
+        assertTrue(engine.remove(bytes("key0")));
+        assertTrue(engine.put(bytes("another"), value, 0, 0L));
+        assertEquals(value, engine.get(bytes("another")).getFirst());
+        assertFalse(engine.put(bytes("key0"), value, 0, 0L));
+    }
+
+    @Test
+    void clearKeepsPagesForReuse() {
+        OffHeapStorageEngine engine = new OffHeapStorageEngine(PAGE_SIZE, 10000);
+        ByteString value = filled(1000, 'v');
+
+        int stored = 0;
+        while (engine.put(bytes("key" + stored), value, 0, 0L)) {
+            stored++;
+        }
+        engine.clear();
+
+        assertEquals(0, engine.usedBytes());
+        assertFalse(engine.contains(bytes("key0")));
+        for (int i = 0; i < stored; i++) {
+            assertTrue(engine.put(bytes("key" + i), value, 0, 0L));
+        }
+    }
+}
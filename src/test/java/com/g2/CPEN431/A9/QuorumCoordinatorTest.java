@@ -0,0 +1,182 @@
+package com.g2.CPEN431.A9;
+
+import ca.NetSysLab.ProtocolBuffers.KeyValueRequest;
+import ca.NetSysLab.ProtocolBuffers.KeyValueResponse;
+import com.google.protobuf.ByteString;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs with kv.replication=quorum, see the surefire configuration: 3 replicas, quorums of 2
+ */
+class QuorumCoordinatorTest {
+
+    private static final ByteString KEY = ByteString.copyFromUtf8("key");
+    private static final AddressPair SELF = new AddressPair("127.0.0.1", 4999);
+
+    private Memory memory;
+    private ConsistentHash consistentHash;
+    private QuorumCoordinator quorumCoordinator;
+    private FakeNode first;
+    private FakeNode second;
+
+    @BeforeEach
+    void setUp() {
+        memory = new Memory();
+        consistentHash = new ConsistentHash(SELF.getIp(), SELF.getPort(), memory, null);
+        quorumCoordinator = new QuorumCoordinator(memory, consistentHash);
+    }
+
+    @AfterEach
+    void tearDown() {
+        first.close();
+        second.close();
+    }
+
+    /**
+     * This function starts the two other replicas, every key is on all three nodes
+     */
+    private void startReplicas(Function<KeyValueRequest.KVRequest, KeyValueResponse.KVResponse> firstAnswer,
+                               Function<KeyValueRequest.KVRequest, KeyValueResponse.KVResponse> secondAnswer) throws IOException {
+        first = new FakeNode(firstAnswer);
+        second = new FakeNode(secondAnswer);
+        consistentHash.addNode(SELF);
+        consistentHash.addNode(first.getAddress());
+        consistentHash.addNode(second.getAddress());
+    }
+
+    private static KeyValueRequest.KVRequest put() {
+        return KeyValueRequest.KVRequest.newBuilder()
+                .setCommand(Server.PUT)
+                .setKey(KEY)
+                .setValue(ByteString.copyFromUtf8("value"))
+                .setVersion(1)
+                .setAcceptRedirect(true)
+                .build();
+    }
+
+    private static KeyValueResponse.KVResponse copy(String value, int version, long stamp) {
+        return KeyValueResponse.KVResponse.newBuilder()
+                .setErrCode(0)
+                .setValue(ByteString.copyFromUtf8(value))
+                .setVersion(version)
+                .setStamp(stamp)
+                .build();
+    }
+
+    @Test
+    void writeIsAcknowledgedOnceAQuorumAppliedIt() throws Exception {
+        startReplicas(request -> FakeNode.status(0), request -> null);
+
+        // this node and the first replica make the quorum, the silent one isn't waited for
+        KeyValueResponse.KVResponse response = quorumCoordinator.write(put(), 1234, FakeNode.status(0)).get(1, TimeUnit.SECONDS);
+
+        assertEquals(0, response.getErrCode());
+        KeyValueRequest.KVRequest replicaWrite = first.getReceived().get(0);
+        assertTrue(replicaWrite.getReplica());
+        assertFalse(replicaWrite.getAcceptRedirect());
+        assertEquals(1234, replicaWrite.getStamp());
+    }
+
+    @Test
+    void writeFailsWithoutAQuorum() throws Exception {
+        startReplicas(request -> FakeNode.status(2), request -> FakeNode.status(2));
+
+        KeyValueResponse.KVResponse response = quorumCoordinator.write(put(), 1234, FakeNode.status(0)).get(2, TimeUnit.SECONDS);
+
+        assertEquals(2, response.getErrCode());
+    }
+
+    @Test
+    void removeNoReplicaHadIsNoKey() throws Exception {
+        startReplicas(request -> FakeNode.status(1), request -> FakeNode.status(1));
+        KeyValueRequest.KVRequest remove = KeyValueRequest.KVRequest.newBuilder().setCommand(Server.REMOVE).setKey(KEY).build();
+
+        KeyValueResponse.KVResponse response = quorumCoordinator.write(remove, 0, FakeNode.status(1)).get(2, TimeUnit.SECONDS);
+
+        assertEquals(1, response.getErrCode());
+        // a remove carries no stamp
+        assertTrue(first.awaitRequest(request -> request.getCommand() == Server.REMOVE && !request.hasStamp()));
+    }
+
+    @Test
+    void readAnswersTheNewestCopyOfTheQuorum() throws Exception {
+        startReplicas(request -> copy("newer", 1, 200), request -> null);
+
+        // a higher version doesn't make the local copy newer, it was written first
+        KeyValueRequest.KVRequest get = KeyValueRequest.KVRequest.newBuilder().setCommand(Server.GET).setKey(KEY).build();
+        KeyValueResponse.KVResponse response = quorumCoordinator.read(get, copy("older", 5, 100)).get(1, TimeUnit.SECONDS);
+
+        assertEquals(0, response.getErrCode());
+        assertEquals("newer", response.getValue().toStringUtf8());
+        assertEquals(1, response.getVersion());
+        // the stamp is only for the replicas
+        assertFalse(response.hasStamp());
+    }
+
+    @Test
+    void readWithoutAQuorumFails() throws Exception {
+        startReplicas(request -> null, request -> null);
+
+        KeyValueRequest.KVRequest get = KeyValueRequest.KVRequest.newBuilder().setCommand(Server.GET).setKey(KEY).build();
+        KeyValueResponse.KVResponse response = quorumCoordinator.read(get, copy("value", 1, 100)).get(5, TimeUnit.SECONDS);
+
+        assertEquals(4, response.getErrCode());
+    }
+
+    @Test
+    void readRepairsOlderCopies() throws Exception {
+        startReplicas(request -> copy("newer", 1, 200), request -> request.getCommand() == Server.GET
+                ? copy("older", 1, 100)
+                : FakeNode.status(0));
+        memory.putCopy(KEY, ByteString.copyFromUtf8("older"), 1, 100);
+
+        KeyValueRequest.KVRequest get = KeyValueRequest.KVRequest.newBuilder().setCommand(Server.GET).setKey(KEY).build();
+        quorumCoordinator.read(get, copy("older", 1, 100)).get(2, TimeUnit.SECONDS);
+
+        // once every replica answered, the ones with the older copy are sent the newer one
+        assertTrue(second.awaitRequest(request -> request.getCommand() == Server.PUT && request.getReplica()
+                && request.getStamp() == 200 && request.getValue().toStringUtf8().equals("newer")));
+        long deadline = System.currentTimeMillis() + 1000;
+        while (memory.get(KEY).getStamp() != 200 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals("newer", memory.get(KEY).getFirst().toStringUtf8());
+        assertTrue(first.getReceived().stream().noneMatch(request -> request.getCommand() == Server.PUT));
+    }
+
+    @Test
+    void standInIsSentTheReplicaItStandsInFor() throws Exception {
+        startReplicas(request -> FakeNode.status(0), request -> FakeNode.status(0));
+        AddressPair dead = new AddressPair("127.0.0.1", 4998);
+        consistentHash.addNode(dead);
+        consistentHash.removeNode(dead);
+
+        // a key the dead node is a home replica of, with the first replica standing in for it
+        ByteString key = null;
+        for (int i = 0; key == null; i++) {
+            ByteString candidate = ByteString.copyFromUtf8("key" + i);
+            List<AddressPair> homes = Arrays.asList(consistentHash.getHomeReplicas(candidate, Server.REPLICATION_FACTOR));
+            if (homes.contains(dead) && !homes.contains(first.getAddress())) {
+                key = candidate;
+            }
+        }
+
+        KeyValueRequest.KVRequest put = put().toBuilder().setKey(key).build();
+        assertEquals(0, quorumCoordinator.write(put, 1234, FakeNode.status(0)).get(2, TimeUnit.SECONDS).getErrCode());
+
+        assertTrue(first.awaitRequest(request -> request.getCommand() == Server.PUT));
+        assertEquals(dead.toString(), first.getReceived().get(0).getHint());
+        assertTrue(second.awaitRequest(request -> request.getCommand() == Server.PUT));
+        assertFalse(second.getReceived().get(0).hasHint());
+    }
+}
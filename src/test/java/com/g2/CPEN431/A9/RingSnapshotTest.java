@@ -0,0 +1,117 @@
+package com.g2.CPEN431.A9;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RingSnapshotTest {
+
+    private static final AddressPair A = new AddressPair("127.0.0.1", 5000);
+    private static final AddressPair B = new AddressPair("127.0.0.1", 5001);
+    private static final AddressPair C = new AddressPair("127.0.0.1", 5002);
+
+    /**
+     * Ring of tokens -100 (A), 0 (B), 100 (A) and 200 (C)
+     */
+    private static RingSnapshot ring() {
+        TreeMap<Long, AddressPair> nodeRing = new TreeMap<>();
+        nodeRing.put(-100L, A);
+        nodeRing.put(0L, B);
+        nodeRing.put(100L, A);
+        nodeRing.put(200L, C);
+        return RingSnapshot.of(nodeRing);
+    }
+
+    @Test
+    void successorIsFirstTokenStrictlyGreater() {
+        RingSnapshot ring = ring();
+
+        assertEquals(1, ring.successor(-100));
+        assertEquals(1, ring.successor(-1));
+        assertEquals(2, ring.successor(0));
+        assertEquals(3, ring.successor(150));
+        assertEquals(B, ring.ownerOf(-50));
+        assertEquals(A, ring.ownerOf(50));
+    }
+
+    @Test
+    void successorWrapsAroundTheRing() {
+        RingSnapshot ring = ring();
+
+        assertEquals(0, ring.successor(200));
+        assertEquals(0, ring.successor(Long.MAX_VALUE));
+        assertEquals(0, ring.successor(Long.MIN_VALUE));
+        assertEquals(A, ring.ownerOf(Long.MAX_VALUE));
+    }
+
+    @Test
+    void successorsSkipNodesAlreadyFound() {
+        RingSnapshot ring = ring();
+
+        // from 50 the tokens are 100 (A), 200 (C), -100 (A again) and 0 (B)
+        assertArrayEquals(new AddressPair[] {A, C, B}, ring.successors(50, 3));
+        assertArrayEquals(new AddressPair[] {A, C}, ring.successors(50, 2));
+        // from past the last token the walk wraps around to -100
+        assertArrayEquals(new AddressPair[] {A, B, C}, ring.successors(300, 3));
+        // fewer members than asked for
+        assertArrayEquals(new AddressPair[] {A, C, B}, ring.successors(50, 5));
+    }
+
+    @Test
+    void rangesIncludeTheWrappingRange() {
+        RingSnapshot ring = ring();
+
+        List<long[]> ranges = ring.rangesOf(A);
+        assertEquals(2, ranges.size());
+        // the first token's range starts at the last token and wraps around
+        assertArrayEquals(new long[] {200, -100}, ranges.get(0));
+        assertArrayEquals(new long[] {0, 100}, ranges.get(1));
+
+        assertArrayEquals(new long[] {-100, 0}, ring.rangesOf(B).get(0));
+        assertTrue(ring.rangesOf(new AddressPair("127.0.0.1", 6000)).isEmpty());
+    }
+
+    @Test
+    void singleTokenRingOwnsEverything() {
+        TreeMap<Long, AddressPair> nodeRing = new TreeMap<>();
+        nodeRing.put(42L, A);
+        RingSnapshot ring = RingSnapshot.of(nodeRing);
+
+        assertEquals(0, ring.successor(42));
+        assertEquals(0, ring.successor(Long.MIN_VALUE));
+        assertEquals(A, ring.ownerOf(Long.MAX_VALUE));
+        assertArrayEquals(new AddressPair[] {A}, ring.successors(0, 3));
+
+        // the one range starts and ends at the token, the whole ring
+        List<long[]> ranges = ring.rangesOf(A);
+        assertEquals(1, ranges.size());
+        assertArrayEquals(new long[] {42, 42}, ranges.get(0));
+    }
+
+    @Test
+    void emptyRing() {
+        assertNull(RingSnapshot.EMPTY.ownerOf(0));
+        assertEquals(0, RingSnapshot.EMPTY.successors(0, 3).length);
+        assertFalse(RingSnapshot.EMPTY.contains(A));
+    }
+
+    @Test
+    void membershipAndEpoch() {
+        RingSnapshot ring = ring();
+
+        assertTrue(ring.contains(A));
+        assertTrue(ring.contains(new AddressPair("127.0.0.1:5002")));
+        assertFalse(ring.contains(new AddressPair("127.0.0.1", 6000)));
+        assertEquals(3, ring.memberCount());
+
+        // the epoch depends on the members only, not on the order they joined in
+        TreeMap<Long, AddressPair> reordered = new TreeMap<>();
+        reordered.put(1L, C);
+        reordered.put(2L, B);
+        reordered.put(3L, A);
+        assertEquals(ring.getEpoch(), RingSnapshot.of(reordered).getEpoch());
+    }
+}
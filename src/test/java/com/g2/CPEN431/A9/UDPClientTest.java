@@ -0,0 +1,139 @@
+package com.g2.CPEN431.A9;
+
+import ca.NetSysLab.ProtocolBuffers.Message;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UDPClientTest {
+
+    private static final InetAddress LOCALHOST = InetAddress.getLoopbackAddress();
+
+    private DatagramSocket server;
+    private UDPClient client;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = new DatagramSocket(0, LOCALHOST);
+        client = new UDPClient();
+    }
+
+    @AfterEach
+    void tearDown() {
+        client.close();
+        server.close();
+    }
+
+    /**
+     * This function starts answering requests with their own payload, once a batch of them arrived and in reverse order
+     * @param batchSize: The number of requests to collect before answering them
+     * @param dropFirst: The number of datagrams to drop before collecting any, so they have to be retransmitted
+     */
+    private void echo(int batchSize, int dropFirst) {
+        Thread echo = new Thread(() -> {
+            try {
+                int dropped = 0;
+                while (!server.isClosed()) {
+                    List<DatagramPacket> batch = new ArrayList<>();
+                    while (batch.size() < batchSize) {
+                        DatagramPacket packet = new DatagramPacket(new byte[16384], 16384);
+                        server.receive(packet);
+                        if (dropped++ < dropFirst) {
+                            continue;
+                        }
+                        batch.add(packet);
+                    }
+                    Collections.reverse(batch);
+                    for (DatagramPacket packet : batch) {
+                        Message.Msg request = Message.Msg.parseFrom(ByteBuffer.wrap(packet.getData(), 0, packet.getLength()));
+                        byte[] response = Message.Msg.newBuilder()
+                                .setMessageID(request.getMessageID())
+                                .setPayload(request.getPayload())
+                                .setCheckSum(Server.buildChecksum(request.getMessageID(), request.getPayload()))
+                                .build()
+                                .toByteArray();
+                        server.send(new DatagramPacket(response, response.length, packet.getSocketAddress()));
+                    }
+                }
+            } catch (IOException e) {
+                // the socket was closed by the test
+            }
+        });
+        echo.setDaemon(true);
+        echo.start();
+    }
+
+    @Test
+    void pipelinedResponsesAreMatchedToTheirRequests() throws Exception {
+        echo(50, 0);
+
+        List<CompletableFuture<Message.Msg>> responses = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            responses.add(client.requestAsync(LOCALHOST, server.getLocalPort(), new byte[] {(byte) i}));
+        }
+
+        // answered in reverse order, every response still completes the request it belongs to
+        for (int i = 0; i < 50; i++) {
+            Message.Msg response = responses.get(i).get(5, TimeUnit.SECONDS);
+            assertNotNull(response);
+            assertEquals(i, response.getPayload().byteAt(0));
+        }
+    }
+
+    @Test
+    void lostRequestIsRetransmitted() {
+        echo(1, 1);
+
+        Message.Msg response = client.request(LOCALHOST, server.getLocalPort(), new byte[] {7});
+
+        assertNotNull(response);
+        assertEquals(7, response.getPayload().byteAt(0));
+    }
+
+    @Test
+    void unansweredRequestCompletesWithNull() throws Exception {
+        AtomicInteger received = new AtomicInteger();
+        Thread sink = new Thread(() -> {
+            try {
+                while (!server.isClosed()) {
+                    server.receive(new DatagramPacket(new byte[16384], 16384));
+                    received.incrementAndGet();
+                }
+            } catch (IOException e) {
+                // the socket was closed by the test
+            }
+        });
+        sink.setDaemon(true);
+        sink.start();
+
+        Message.Msg response = client.requestAsync(LOCALHOST, server.getLocalPort(), new byte[] {1}, 20)
+                .get(5, TimeUnit.SECONDS);
+
+        assertNull(response);
+        // the first send and every retry
+        assertEquals(4, received.get());
+    }
+
+    @Test
+    void closeCompletesRequestsInFlight() throws Exception {
+        CompletableFuture<Message.Msg> response = client.requestAsync(LOCALHOST, server.getLocalPort(), new byte[] {1}, 10_000);
+
+        client.close();
+
+        assertNull(response.get(1, TimeUnit.SECONDS));
+    }
+}
@@ -0,0 +1,53 @@
+package com.g2.CPEN431.A9.util;
+
+import com.google.common.hash.Hashing;
+import com.google.protobuf.ByteString;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class MurmurHash3Test {
+
+    @Test
+    void matchesGuavaForEveryTailLength() {
+        Random random = new Random(431);
+        // every length up to a few blocks, so each tail length is covered with and without full blocks before it
+        for (int length = 0; length <= 64; length++) {
+            for (int trial = 0; trial < 20; trial++) {
+                byte[] bytes = new byte[length];
+                random.nextBytes(bytes);
+
+                long expected = Hashing.murmur3_128().hashBytes(bytes).asLong();
+                assertEquals(expected, MurmurHash3.hash64(ByteString.copyFrom(bytes)), "length " + length);
+            }
+        }
+    }
+
+    @Test
+    void matchesGuavaForSlicesAndSeeds() {
+        Random random = new Random(431);
+        byte[] bytes = new byte[100];
+        random.nextBytes(bytes);
+
+        for (int seed : new int[] {0, 1, 42, Integer.MAX_VALUE}) {
+            for (int offset = 0; offset < 20; offset += 3) {
+                for (int length = 0; length < 50; length += 7) {
+                    long expected = Hashing.murmur3_128(seed).hashBytes(bytes, offset, length).asLong();
+                    assertEquals(expected, MurmurHash3.hash64(ByteString.copyFrom(bytes), offset, length, seed));
+                }
+            }
+        }
+    }
+
+    @Test
+    void readsRopesAndSubstringsInPlace() {
+        ByteString whole = ByteString.copyFromUtf8("127.0.0.1:5000#17 and some more bytes past a block");
+        ByteString rope = whole.substring(0, 10).concat(whole.substring(10));
+
+        assertEquals(MurmurHash3.hash64(whole), MurmurHash3.hash64(rope));
+        assertEquals(Hashing.murmur3_128().hashBytes(whole.substring(5, 30).toByteArray()).asLong(),
+                MurmurHash3.hash64(whole.substring(5, 30)));
+    }
+}
@@ -0,0 +1,77 @@
+package com.g2.CPEN431.A9.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimerWheelTest {
+
+    @Test
+    void firesAfterTheDelay() throws InterruptedException {
+        TimerWheel wheel = new TimerWheel("Test Wheel", 10, 64);
+        CountDownLatch fired = new CountDownLatch(1);
+
+        long start = System.nanoTime();
+        wheel.schedule(fired::countDown, 50);
+
+        assertTrue(fired.await(2, TimeUnit.SECONDS));
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 50);
+    }
+
+    @Test
+    void firesAfterMoreRoundsThanTheWheelHasSlots() throws InterruptedException {
+        // 4 slots of 10ms, so a 120ms delay goes around the wheel a few times before it is due
+        TimerWheel wheel = new TimerWheel("Test Wheel", 10, 4);
+        CountDownLatch fired = new CountDownLatch(1);
+
+        long start = System.nanoTime();
+        wheel.schedule(fired::countDown, 120);
+
+        assertTrue(fired.await(2, TimeUnit.SECONDS));
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 120);
+    }
+
+    @Test
+    void cancelledTimeoutDoesNotFire() throws InterruptedException {
+        TimerWheel wheel = new TimerWheel("Test Wheel", 10, 64);
+        AtomicInteger cancelledRuns = new AtomicInteger();
+        CountDownLatch later = new CountDownLatch(1);
+
+        TimerWheel.Timeout timeout = wheel.schedule(cancelledRuns::incrementAndGet, 30);
+        timeout.cancel();
+        // a timeout due after the cancelled one, once it fired the cancelled one would have too
+        wheel.schedule(later::countDown, 100);
+
+        assertTrue(later.await(2, TimeUnit.SECONDS));
+        assertEquals(0, cancelledRuns.get());
+    }
+
+    @Test
+    void dueTimeoutsFireInTheNextTick() throws InterruptedException {
+        TimerWheel wheel = new TimerWheel("Test Wheel", 10, 64);
+        CountDownLatch fired = new CountDownLatch(100);
+
+        for (int i = 0; i < 100; i++) {
+            wheel.schedule(fired::countDown, 0);
+        }
+
+        assertTrue(fired.await(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void failingTaskDoesNotStopTheWheel() throws InterruptedException {
+        TimerWheel wheel = new TimerWheel("Test Wheel", 10, 64);
+        CountDownLatch fired = new CountDownLatch(1);
+
+        wheel.schedule(() -> {
+            throw new IllegalStateException("expected by the test");
+        }, 10);
+        wheel.schedule(fired::countDown, 40);
+
+        assertTrue(fired.await(2, TimeUnit.SECONDS));
+    }
+}